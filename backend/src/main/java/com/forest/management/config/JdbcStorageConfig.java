@@ -0,0 +1,64 @@
+package com.forest.management.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * 嵌入式关系库存储配置，forest.storage.repository=jdbc 时启用
+ * 使用H2文件库和Hikari连接池，语句缓存由H2按连接维护（QUERY_CACHE_SIZE）
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "jdbc")
+public class JdbcStorageConfig {
+
+    /**
+     * 连接池，创建后执行建表脚本（表和索引已存在时跳过）
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSource(
+            @Value("${forest.storage.jdbc.url:jdbc:h2:file:./data/forest-db;QUERY_CACHE_SIZE=64}") String url,
+            @Value("${forest.storage.jdbc.username:sa}") String username,
+            @Value("${forest.storage.jdbc.password:}") String password,
+            @Value("${forest.storage.jdbc.pool-size:8}") int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("forest-jdbc");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        try {
+            new ResourceDatabasePopulator(new ClassPathResource("db/h2-schema.sql")).execute(dataSource);
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    public DataSourceTransactionManager transactionManager(DataSource dataSource) {
+        return new DataSourceTransactionManager(dataSource);
+    }
+
+    @Bean
+    public TransactionTemplate transactionTemplate(DataSourceTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+}
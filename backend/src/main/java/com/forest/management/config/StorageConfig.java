@@ -0,0 +1,103 @@
+package com.forest.management.config;
+
+import com.forest.management.storage.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * 存储持久化配置
+ */
+@Configuration
+public class StorageConfig {
+
+    @Value("${forest.storage.engine:heap}")
+    private String engine;
+
+    @Value("${forest.storage.disk.dir:${java.io.tmpdir}/forest-rows}")
+    private String diskDir;
+
+    @Value("${forest.storage.disk.cache-rows:20000}")
+    private int diskCacheRows;
+
+    /**
+     * 预写日志，forest.storage.wal.enabled=true 时启用
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "forest.storage.wal", name = "enabled", havingValue = "true")
+    public WriteAheadLog writeAheadLog(@Value("${forest.storage.wal.dir:./data}") String dir,
+                                       @Value("${forest.storage.wal.sync-commit:true}") boolean syncCommit,
+                                       @Value("${forest.storage.wal.batch-window-ms:2}") long batchWindowMillis)
+            throws IOException {
+        return new WriteAheadLog(Paths.get(dir), syncCommit, batchWindowMillis);
+    }
+
+    /**
+     * 林木档案存储
+     * forest.storage.tree-archive.engine=mapped 时记录保存在堆外的内存映射文件中，
+     * =disk 时保存在磁盘追加写文件中，默认保存在堆内
+     */
+    @Bean(destroyMethod = "close")
+    public TreeArchiveStore treeArchiveStore(
+            @Value("${forest.storage.tree-archive.engine:${forest.storage.engine:heap}}") String engine,
+            @Value("${forest.storage.tree-archive.file:${java.io.tmpdir}/forest-tree-archive.rows}") String file)
+            throws IOException {
+        return switch (engine) {
+            case "heap" -> new TreeArchiveStore(new HeapRowStorage<>());
+            case "mapped" -> new TreeArchiveStore(new MappedTreeArchiveStorage(Paths.get(file)));
+            case "disk" -> new TreeArchiveStore(diskRows("tree-archive", EntityCodecs.TREE_ARCHIVE));
+            default -> throw new IllegalArgumentException("不支持的林木档案存储引擎: " + engine);
+        };
+    }
+
+    /**
+     * 林地信息存储
+     */
+    @Bean(destroyMethod = "close")
+    public ForestLandStore forestLandStore() throws IOException {
+        return new ForestLandStore(rows("forest-land", EntityCodecs.FOREST_LAND));
+    }
+
+    /**
+     * 林权证书存储
+     */
+    @Bean(destroyMethod = "close")
+    public ForestRightsStore forestRightsStore() throws IOException {
+        return new ForestRightsStore(rows("forest-rights", EntityCodecs.FOREST_RIGHTS));
+    }
+
+    /**
+     * 采伐许可存储
+     */
+    @Bean(destroyMethod = "close")
+    public CuttingPermitStore cuttingPermitStore() throws IOException {
+        return new CuttingPermitStore(rows("cutting-permit", EntityCodecs.CUTTING_PERMIT));
+    }
+
+    /**
+     * 资源监测存储（列式压缩，始终在堆内）
+     */
+    @Bean
+    public MonitorSeriesStore monitorSeriesStore() {
+        return new MonitorSeriesStore();
+    }
+
+    /**
+     * 按 forest.storage.engine 选择行存储
+     */
+    private <T> RowStorage<T> rows(String name, EntityCodec<T> codec) throws IOException {
+        return switch (engine) {
+            case "heap" -> new HeapRowStorage<>();
+            case "disk" -> diskRows(name, codec);
+            default -> throw new IllegalArgumentException("不支持的存储引擎: " + engine);
+        };
+    }
+
+    private <T> RowStorage<T> diskRows(String name, EntityCodec<T> codec) throws IOException {
+        return new DiskRowStorage<>(Paths.get(diskDir, name + ".rows"), codec, diskCacheRows);
+    }
+}
@@ -5,6 +5,7 @@ import com.forest.management.model.LoginResponse;
 import com.forest.management.model.ResetPasswordRequest;
 import com.forest.management.model.User;
 import com.forest.management.service.AuthService;
+import com.forest.management.service.PasswordHashingBusyException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -33,6 +34,8 @@ public class AuthController extends BaseController {
         try {
             LoginResponse loginResponse = authService.login(loginRequest);
             return success("登录成功", loginResponse);
+        } catch (PasswordHashingBusyException e) {
+            return error("登录失败: " + e.getMessage(), e.getStatus());
         } catch (Exception e) {
             return error("登录失败: " + e.getMessage());
         }
@@ -46,6 +49,8 @@ public class AuthController extends BaseController {
         try {
             authService.resetPassword(resetRequest.getUsername(), resetRequest.getNewPassword());
             return success("密码重置成功", null);
+        } catch (PasswordHashingBusyException e) {
+            return error("密码重置失败: " + e.getMessage(), e.getStatus());
         } catch (Exception e) {
             return error("密码重置失败: " + e.getMessage());
         }
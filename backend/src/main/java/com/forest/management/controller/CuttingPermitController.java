@@ -2,16 +2,32 @@ package com.forest.management.controller;
 
 import com.forest.management.model.CuttingPermit;
 import com.forest.management.model.ForestLand;
+import com.forest.management.repository.ForestLandRepository;
+import com.forest.management.repository.CuttingPermitRepository;
+import com.forest.management.service.AggregateCacheService;
 import com.forest.management.service.DataGeneratorService;
+import com.forest.management.service.ExportService;
+import com.forest.management.service.JsonBytesCacheService;
 import com.forest.management.service.ValidationService;
+import com.forest.management.storage.Criteria;
+import com.forest.management.storage.DuplicateKeyException;
+import com.forest.management.storage.EntityType;
+import com.forest.management.storage.OrderedIndex;
+import com.forest.management.storage.PageCursor;
+import com.forest.management.storage.PageResult;
+import com.forest.management.storage.SymbolTable;
+import com.forest.management.util.RawJson;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -22,12 +38,31 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = {"http://localhost:5173", "http://127.0.0.1:5173"})
 public class CuttingPermitController {
     
+    // 状态按符号编码比较
+    private static final int PENDING = SymbolTable.encode("待审批");
+    private static final int APPROVED = SymbolTable.encode("已批准");
+    
     @Autowired
     private DataGeneratorService dataGeneratorService;
     
+    @Autowired
+    private ForestLandRepository forestLandRepository;
+    
+    @Autowired
+    private CuttingPermitRepository cuttingPermitRepository;
+    
     @Autowired
     private ValidationService validationService;
     
+    @Autowired
+    private AggregateCacheService aggregateCacheService;
+    
+    @Autowired
+    private JsonBytesCacheService jsonBytesCacheService;
+    
+    @Autowired
+    private ExportService exportService;
+    
     /**
      * 获取采伐许可列表
      */
@@ -37,57 +72,69 @@ public class CuttingPermitController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String permitNo,
             @RequestParam(required = false) String applicantName,
-            @RequestParam(required = false) String status) {
-        
-        Map<Long, CuttingPermit> allPermits = dataGeneratorService.getCuttingPermits();
-        List<CuttingPermit> permitList = new ArrayList<>(allPermits.values());
-        
-        // 过滤条件
-        if (permitNo != null && !permitNo.trim().isEmpty()) {
-            permitList = permitList.stream()
-                .filter(permit -> permit.getPermitNo().contains(permitNo.trim()))
-                .collect(Collectors.toList());
-        }
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
         
-        if (applicantName != null && !applicantName.trim().isEmpty()) {
-            permitList = permitList.stream()
-                .filter(permit -> permit.getApplicantName().contains(applicantName.trim()))
-                .collect(Collectors.toList());
-        }
+        // 过滤条件（编号、申请人走N元文法索引，状态走哈希索引）
+        Criteria criteria = new Criteria()
+            .contains("permitNo", permitNo)
+            .contains("applicantName", applicantName)
+            .eq("status", status);
         
-        if (status != null && !status.trim().isEmpty()) {
-            permitList = permitList.stream()
-                .filter(permit -> permit.getStatus().equals(status.trim()))
-                .collect(Collectors.toList());
+        // 游标分页：传入cursor时从游标之后取数，忽略page
+        Map<String, Object> response = new HashMap<>();
+        OrderedIndex.Key after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            after = PageCursor.decode(cursor);
+            if (after == null) {
+                response.put("success", false);
+                response.put("message", "无效的分页游标");
+                return ResponseEntity.badRequest().body(response);
+            }
         }
         
-        // 排序
-        permitList.sort((a, b) -> b.getCreateTime().compareTo(a.getCreateTime()));
+        // 分页（沿创建时间有序索引直接取当前页）
+        long version = cuttingPermitRepository.getVersion();
+        PageResult<CuttingPermit> result = cuttingPermitRepository.findPage(criteria, after, (page - 1) * size, size);
+        int total = result.getTotal();
         
-        // 分页
-        int total = permitList.size();
-        int start = (page - 1) * size;
-        int end = Math.min(start + size, total);
-        
-        List<CuttingPermit> pagedList = start < total ? permitList.subList(start, end) : new ArrayList<>();
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("data", pagedList);
+        // 记录输出缓存的JSON字节
+        response.put("data", jsonBytesCacheService.getAll(EntityType.CUTTING_PERMIT, cuttingPermitRepository.getRowVersions(), version, result.getRows(), CuttingPermit::getId, fields));
         response.put("total", total);
         response.put("page", page);
         response.put("size", size);
         response.put("totalPages", (int) Math.ceil((double) total / size));
+        response.put("nextCursor", result.getNextCursor());
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * 导出采伐许可（流式输出，过滤条件同列表）
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPermits(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String permitNo,
+            @RequestParam(required = false) String applicantName,
+            @RequestParam(required = false) String status) {
+        Criteria criteria = new Criteria()
+            .contains("permitNo", permitNo)
+            .contains("applicantName", applicantName)
+            .eq("status", status);
+        
+        return exportService.<CuttingPermit>export("permits", format, rows -> cuttingPermitRepository.scan(criteria, rows));
+    }
+    
     /**
      * 获取许可详情
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CuttingPermit> getPermitById(@PathVariable Long id) {
-        Map<Long, CuttingPermit> allPermits = dataGeneratorService.getCuttingPermits();
-        CuttingPermit permit = allPermits.get(id);
+    public ResponseEntity<RawJson> getPermitById(@PathVariable Long id,
+            @RequestParam(required = false) String fields) {
+        // 命中时直接输出缓存的JSON字节，不再读取和序列化记录
+        RawJson permit = jsonBytesCacheService.find(EntityType.CUTTING_PERMIT, cuttingPermitRepository.getRowVersions(), id, cuttingPermitRepository::findById, fields).orElse(null);
         
         if (permit == null) {
             return ResponseEntity.notFound().build();
@@ -112,19 +159,8 @@ public class CuttingPermitController {
             return ResponseEntity.badRequest().body(response);
         }
         
-        // 检查许可证编号是否重复
-        boolean exists = dataGeneratorService.getCuttingPermits().values().stream()
-            .anyMatch(existing -> existing.getPermitNo().equals(permit.getPermitNo()));
-        
-        if (exists) {
-            response.put("success", false);
-            response.put("message", "许可证编号已存在");
-            return ResponseEntity.badRequest().body(response);
-        }
-        
         // 设置关联的林地名称
-        Map<Long, ForestLand> forestLands = dataGeneratorService.getForestLands();
-        ForestLand forestLand = forestLands.get(permit.getForestLandId());
+        ForestLand forestLand = forestLandRepository.findById(permit.getForestLandId()).orElse(null);
         if (forestLand != null) {
             permit.setForestLandName(forestLand.getName());
         }
@@ -140,8 +176,14 @@ public class CuttingPermitController {
             permit.setApplicationDate(LocalDate.now());
         }
         
-        // 保存到内存
-        dataGeneratorService.getCuttingPermits().put(permit.getId(), permit);
+        // 保存到内存，编号唯一性由存储的唯一索引保证，检查与写入是原子的
+        try {
+            cuttingPermitRepository.save(permit);
+        } catch (DuplicateKeyException e) {
+            response.put("success", false);
+            response.put("message", "许可证编号已存在");
+            return ResponseEntity.badRequest().body(response);
+        }
         
         response.put("success", true);
         response.put("message", "采伐许可申请提交成功");
@@ -157,9 +199,8 @@ public class CuttingPermitController {
     public ResponseEntity<Map<String, Object>> updatePermit(@PathVariable Long id, 
                                                            @Valid @RequestBody CuttingPermit permit) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, CuttingPermit> allPermits = dataGeneratorService.getCuttingPermits();
         
-        CuttingPermit existingPermit = allPermits.get(id);
+        CuttingPermit existingPermit = cuttingPermitRepository.findById(id).orElse(null);
         if (existingPermit == null) {
             response.put("success", false);
             response.put("message", "采伐许可不存在");
@@ -175,20 +216,8 @@ public class CuttingPermitController {
             return ResponseEntity.badRequest().body(response);
         }
         
-        // 检查许可证编号是否重复（排除自己）
-        boolean exists = allPermits.values().stream()
-            .anyMatch(existing -> !existing.getId().equals(id) && 
-                     existing.getPermitNo().equals(permit.getPermitNo()));
-        
-        if (exists) {
-            response.put("success", false);
-            response.put("message", "许可证编号已存在");
-            return ResponseEntity.badRequest().body(response);
-        }
-        
         // 设置关联的林地名称
-        Map<Long, ForestLand> forestLands = dataGeneratorService.getForestLands();
-        ForestLand forestLand = forestLands.get(permit.getForestLandId());
+        ForestLand forestLand = forestLandRepository.findById(permit.getForestLandId()).orElse(null);
         if (forestLand != null) {
             permit.setForestLandName(forestLand.getName());
         }
@@ -199,14 +228,21 @@ public class CuttingPermitController {
         permit.setUpdateTime(LocalDateTime.now());
         
         // 保持原有的审批信息（如果是编辑申请信息）
-        if ("待审批".equals(permit.getStatus())) {
+        if (permit.getStatusCode() == PENDING) {
             permit.setApprover(null);
             permit.setApprovalOpinion(null);
             permit.setApprovalDate(null);
             permit.setValidUntil(null);
         }
         
-        allPermits.put(id, permit);
+        // 编号唯一性由存储的唯一索引保证，检查与写入是原子的
+        try {
+            cuttingPermitRepository.save(permit);
+        } catch (DuplicateKeyException e) {
+            response.put("success", false);
+            response.put("message", "许可证编号已存在");
+            return ResponseEntity.badRequest().body(response);
+        }
         
         response.put("success", true);
         response.put("message", "采伐许可更新成功");
@@ -222,10 +258,8 @@ public class CuttingPermitController {
     public ResponseEntity<Map<String, Object>> approvePermit(@PathVariable Long id, 
                                                             @RequestBody Map<String, String> request) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, CuttingPermit> allPermits = dataGeneratorService.getCuttingPermits();
         
-        CuttingPermit permit = allPermits.get(id);
-        if (permit == null) {
+        if (!cuttingPermitRepository.existsById(id)) {
             response.put("success", false);
             response.put("message", "采伐许可不存在");
             return ResponseEntity.status(404).body(response);
@@ -235,23 +269,18 @@ public class CuttingPermitController {
         String approver = request.get("approver");
         String opinion = request.get("opinion");
         
-        if (!"待审批".equals(permit.getStatus())) {
-            response.put("success", false);
-            response.put("message", "该许可已经审批过了");
-            return ResponseEntity.badRequest().body(response);
-        }
-        
         if (approver == null || approver.trim().isEmpty()) {
             response.put("success", false);
             response.put("message", "审批人不能为空");
             return ResponseEntity.badRequest().body(response);
         }
         
+        Consumer<CuttingPermit> review;
         if ("approve".equals(action)) {
-            permit.approve(approver, opinion);
+            review = p -> p.approve(approver, opinion);
             response.put("message", "采伐许可审批通过");
         } else if ("reject".equals(action)) {
-            permit.reject(approver, opinion);
+            review = p -> p.reject(approver, opinion);
             response.put("message", "采伐许可审批拒绝");
         } else {
             response.put("success", false);
@@ -259,22 +288,49 @@ public class CuttingPermitController {
             return ResponseEntity.badRequest().body(response);
         }
         
+        // 状态检查放在存储的修改操作内，与写入是原子的，并发审批只有一个能成功
+        Optional<CuttingPermit> updated;
+        try {
+            updated = cuttingPermitRepository.update(id, p -> {
+                if (p.getStatusCode() != PENDING) {
+                    throw new AlreadyReviewedException();
+                }
+                review.accept(p);
+            });
+        } catch (AlreadyReviewedException e) {
+            response.put("success", false);
+            response.put("message", "该许可已经审批过了");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (updated.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "采伐许可不存在");
+            return ResponseEntity.status(404).body(response);
+        }
+        
         response.put("success", true);
-        response.put("data", permit);
+        response.put("data", updated.get());
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * 许可已不是待审批状态，在修改操作内抛出以放弃本次修改
+     */
+    private static class AlreadyReviewedException extends RuntimeException {
+        AlreadyReviewedException() {
+            super(null, null, false, false);
+        }
+    }
+    
     /**
      * 删除采伐许可
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, Object>> deletePermit(@PathVariable Long id) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, CuttingPermit> allPermits = dataGeneratorService.getCuttingPermits();
         
-        CuttingPermit permit = allPermits.remove(id);
-        if (permit == null) {
+        if (!cuttingPermitRepository.deleteById(id)) {
             response.put("success", false);
             response.put("message", "采伐许可不存在");
             return ResponseEntity.status(404).body(response);
@@ -292,14 +348,8 @@ public class CuttingPermitController {
     @DeleteMapping("/batch")
     public ResponseEntity<Map<String, Object>> deletePermits(@RequestBody List<Long> ids) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, CuttingPermit> allPermits = dataGeneratorService.getCuttingPermits();
         
-        int deletedCount = 0;
-        for (Long id : ids) {
-            if (allPermits.remove(id) != null) {
-                deletedCount++;
-            }
-        }
+        int deletedCount = cuttingPermitRepository.deleteAllById(ids);
         
         response.put("success", true);
         response.put("message", "成功删除 " + deletedCount + " 条采伐许可");
@@ -312,13 +362,23 @@ public class CuttingPermitController {
      * 获取采伐统计数据
      */
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Object>> getStatistics(
+    public ResponseEntity<?> getStatistics(
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
-            @RequestParam(required = false) String groupBy) {
+            @RequestParam(required = false) String groupBy,
+            WebRequest webRequest) {
         
-        Map<Long, CuttingPermit> allPermits = dataGeneratorService.getCuttingPermits();
-        List<CuttingPermit> permitList = new ArrayList<>(allPermits.values());
+        // 按查询参数缓存，到期数量随日期变化，日期也参与缓存键
+        return aggregateCacheService.respond(webRequest, "permits/statistics", Arrays.asList(startDate, endDate, groupBy),
+            new long[] {cuttingPermitRepository.getVersion(), LocalDate.now().toEpochDay()},
+            () -> buildStatistics(startDate, endDate, groupBy));
+    }
+    
+    /**
+     * 计算采伐统计数据
+     */
+    private Map<String, Object> buildStatistics(String startDate, String endDate, String groupBy) {
+        List<CuttingPermit> permitList = cuttingPermitRepository.findAll();
         
         // 日期过滤
         if (startDate != null && !startDate.isEmpty()) {
@@ -341,18 +401,17 @@ public class CuttingPermitController {
         stats.put("totalCount", permitList.size());
         
         // 按状态统计
-        Map<String, Long> statusStats = permitList.stream()
-            .collect(Collectors.groupingBy(CuttingPermit::getStatus, Collectors.counting()));
+        Map<String, Long> statusStats = SymbolTable.countBy(permitList, CuttingPermit::getStatusCode, CuttingPermit::getStatus);
         stats.put("statusStats", statusStats);
         
         // 总采伐面积和采伐量
         double totalArea = permitList.stream()
-            .filter(permit -> "已批准".equals(permit.getStatus()))
+            .filter(permit -> permit.getStatusCode() == APPROVED)
             .mapToDouble(CuttingPermit::getCuttingArea)
             .sum();
         
         double totalVolume = permitList.stream()
-            .filter(permit -> "已批准".equals(permit.getStatus()))
+            .filter(permit -> permit.getStatusCode() == APPROVED)
             .mapToDouble(CuttingPermit::getCuttingVolume)
             .sum();
         
@@ -372,12 +431,12 @@ public class CuttingPermitController {
                 monthStat.put("count", entry.getValue().size());
                 
                 double monthArea = entry.getValue().stream()
-                    .filter(permit -> "已批准".equals(permit.getStatus()))
+                    .filter(permit -> permit.getStatusCode() == APPROVED)
                     .mapToDouble(CuttingPermit::getCuttingArea)
                     .sum();
                 
                 double monthVolume = entry.getValue().stream()
-                    .filter(permit -> "已批准".equals(permit.getStatus()))
+                    .filter(permit -> permit.getStatusCode() == APPROVED)
                     .mapToDouble(CuttingPermit::getCuttingVolume)
                     .sum();
                 
@@ -404,7 +463,7 @@ public class CuttingPermitController {
             .count();
         stats.put("expiredCount", expiredCount);
         
-        return ResponseEntity.ok(stats);
+        return stats;
     }
     
     /**
@@ -412,10 +471,9 @@ public class CuttingPermitController {
      */
     @GetMapping("/pending")
     public ResponseEntity<List<CuttingPermit>> getPendingPermits() {
-        Map<Long, CuttingPermit> allPermits = dataGeneratorService.getCuttingPermits();
         
-        List<CuttingPermit> pendingPermits = allPermits.values().stream()
-            .filter(permit -> "待审批".equals(permit.getStatus()))
+        List<CuttingPermit> pendingPermits = cuttingPermitRepository.findAll().stream()
+            .filter(permit -> permit.getStatusCode() == PENDING)
             .sorted(Comparator.comparing(CuttingPermit::getApplicationDate))
             .collect(Collectors.toList());
         
@@ -427,9 +485,8 @@ public class CuttingPermitController {
      */
     @GetMapping("/expiring")
     public ResponseEntity<List<CuttingPermit>> getExpiringPermits() {
-        Map<Long, CuttingPermit> allPermits = dataGeneratorService.getCuttingPermits();
         
-        List<CuttingPermit> expiringPermits = allPermits.values().stream()
+        List<CuttingPermit> expiringPermits = cuttingPermitRepository.findAll().stream()
             .filter(CuttingPermit::isExpiringSoon)
             .sorted(Comparator.comparing(CuttingPermit::getValidUntil))
             .collect(Collectors.toList());
@@ -442,9 +499,8 @@ public class CuttingPermitController {
      */
     @GetMapping("/forest-lands")
     public ResponseEntity<List<Map<String, Object>>> getForestLandOptions() {
-        Map<Long, ForestLand> allForestLands = dataGeneratorService.getForestLands();
         
-        List<Map<String, Object>> options = allForestLands.values().stream()
+        List<Map<String, Object>> options = forestLandRepository.findAll().stream()
             .map(forestLand -> {
                 Map<String, Object> option = new HashMap<>();
                 option.put("id", forestLand.getId());
@@ -487,8 +543,7 @@ public class CuttingPermitController {
             errors.add("必须选择采伐地点");
         } else {
             // 检查林地是否存在
-            Map<Long, ForestLand> forestLands = dataGeneratorService.getForestLands();
-            if (!forestLands.containsKey(permit.getForestLandId())) {
+            if (!forestLandRepository.existsById(permit.getForestLandId())) {
                 errors.add("选择的林地不存在");
             }
         }
@@ -1,11 +1,25 @@
 package com.forest.management.controller;
 
 import com.forest.management.model.ForestLand;
+import com.forest.management.repository.ForestLandRepository;
+import com.forest.management.service.AggregateCacheService;
 import com.forest.management.service.DataGeneratorService;
+import com.forest.management.service.ExportService;
+import com.forest.management.service.JsonBytesCacheService;
 import com.forest.management.service.ValidationService;
+import com.forest.management.storage.Criteria;
+import com.forest.management.storage.EntityType;
+import com.forest.management.storage.OrderedIndex;
+import com.forest.management.storage.PageCursor;
+import com.forest.management.storage.PageResult;
+import com.forest.management.storage.SymbolTable;
+import com.forest.management.util.ETagUtil;
+import com.forest.management.util.RawJson;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.context.request.WebRequest;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -22,9 +36,21 @@ public class ForestClassifyController {
     @Autowired
     private DataGeneratorService dataGeneratorService;
     
+    @Autowired
+    private ForestLandRepository forestLandRepository;
+    
     @Autowired
     private ValidationService validationService;
     
+    @Autowired
+    private AggregateCacheService aggregateCacheService;
+    
+    @Autowired
+    private JsonBytesCacheService jsonBytesCacheService;
+    
+    @Autowired
+    private ExportService exportService;
+    
     /**
      * 获取林地列表
      */
@@ -34,57 +60,80 @@ public class ForestClassifyController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String classification,
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) String location) {
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
         
-        Map<Long, ForestLand> allForestLands = dataGeneratorService.getForestLands();
-        List<ForestLand> forestLandList = new ArrayList<>(allForestLands.values());
+        // 过滤条件（分类走哈希索引，名称、位置走N元文法索引）
+        Criteria criteria = new Criteria()
+            .eq("classification", classification)
+            .contains("name", name)
+            .contains("location", location);
         
-        // 过滤条件
-        if (classification != null && !classification.trim().isEmpty()) {
-            forestLandList = forestLandList.stream()
-                .filter(land -> land.getClassification().equals(classification.trim()))
-                .collect(Collectors.toList());
-        }
-        
-        if (name != null && !name.trim().isEmpty()) {
-            forestLandList = forestLandList.stream()
-                .filter(land -> land.getName().contains(name.trim()))
-                .collect(Collectors.toList());
-        }
-        
-        if (location != null && !location.trim().isEmpty()) {
-            forestLandList = forestLandList.stream()
-                .filter(land -> land.getLocation() != null && land.getLocation().contains(location.trim()))
-                .collect(Collectors.toList());
+        // 游标分页：传入cursor时从游标之后取数，忽略page
+        Map<String, Object> response = new HashMap<>();
+        OrderedIndex.Key after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            after = PageCursor.decode(cursor);
+            if (after == null) {
+                response.put("success", false);
+                response.put("message", "无效的分页游标");
+                return ResponseEntity.badRequest().body(response);
+            }
         }
         
-        // 排序
-        forestLandList.sort((a, b) -> b.getCreateTime().compareTo(a.getCreateTime()));
-        
-        // 分页
-        int total = forestLandList.size();
-        int start = (page - 1) * size;
-        int end = Math.min(start + size, total);
+        // 分页（沿创建时间有序索引直接取当前页）
+        long version = forestLandRepository.getVersion();
+        PageResult<ForestLand> result = forestLandRepository.findPage(criteria, after, (page - 1) * size, size);
+        int total = result.getTotal();
         
-        List<ForestLand> pagedList = start < total ? forestLandList.subList(start, end) : new ArrayList<>();
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("data", pagedList);
+        // 记录输出缓存的JSON字节（按fields裁剪属性）
+        response.put("data", jsonBytesCacheService.getAll(EntityType.FOREST_LAND, forestLandRepository.getRowVersions(), version, result.getRows(), ForestLand::getId, fields));
         response.put("total", total);
         response.put("page", page);
         response.put("size", size);
         response.put("totalPages", (int) Math.ceil((double) total / size));
+        response.put("nextCursor", result.getNextCursor());
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * 导出林地信息（流式输出，过滤条件同列表）
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportForestLands(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String classification,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String location) {
+        Criteria criteria = new Criteria()
+            .eq("classification", classification)
+            .contains("name", name)
+            .contains("location", location);
+        
+        return exportService.<ForestLand>export("forestlands", format, rows -> forestLandRepository.scan(criteria, rows));
+    }
+    
     /**
      * 获取林地统计信息
      */
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getForestLandStats() {
-        Map<Long, ForestLand> allForestLands = dataGeneratorService.getForestLands();
-        List<ForestLand> forestLandList = new ArrayList<>(allForestLands.values());
+    public ResponseEntity<?> getForestLandStats(WebRequest webRequest) {
+        // 数据未变化时返回304，否则按数据版本号取缓存的统计，不再遍历林地
+        if (webRequest.checkNotModified(ETagUtil.of(forestLandRepository.getVersion()))) {
+            return null;
+        }
+        
+        return aggregateCacheService.respond(webRequest, "forestlands/stats", List.of(),
+            new long[] {forestLandRepository.getVersion()}, this::buildForestLandStats);
+    }
+    
+    /**
+     * 计算林地统计信息
+     */
+    private Map<String, Object> buildForestLandStats() {
+        List<ForestLand> forestLandList = forestLandRepository.findAll();
         
         Map<String, Object> stats = new HashMap<>();
         
@@ -92,15 +141,18 @@ public class ForestClassifyController {
         stats.put("totalCount", forestLandList.size());
         
         // 按分类统计数量
-        Map<String, Long> classificationCounts = forestLandList.stream()
-            .collect(Collectors.groupingBy(ForestLand::getClassification, Collectors.counting()));
+        Map<String, Long> classificationCounts = SymbolTable.countBy(forestLandList, ForestLand::getClassificationCode,
+            ForestLand::getClassification);
         stats.put("classificationCounts", classificationCounts);
         
         // 按分类统计面积
         Map<String, Double> classificationAreas = new HashMap<>();
         for (String classification : Arrays.asList("用材林", "防护林", "经济林")) {
+            int code = SymbolTable.lookup(classification);
             double totalArea = forestLandList.stream()
-                .filter(land -> classification.equals(land.getClassification()))
+                .filter(land -> land.getClassificationCode() >= 0
+                    ? land.getClassificationCode() == code
+                    : classification.equals(land.getClassification()))
                 .mapToDouble(ForestLand::getArea)
                 .sum();
             classificationAreas.put(classification, Math.round(totalArea * 100.0) / 100.0);
@@ -124,16 +176,16 @@ public class ForestClassifyController {
             .collect(Collectors.groupingBy(ForestLand::getLocation, Collectors.counting()));
         stats.put("locationStats", locationStats);
         
-        return ResponseEntity.ok(stats);
+        return stats;
     }
     
     /**
      * 获取林地详情
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ForestLand> getForestLandById(@PathVariable Long id) {
-        Map<Long, ForestLand> allForestLands = dataGeneratorService.getForestLands();
-        ForestLand forestLand = allForestLands.get(id);
+    public ResponseEntity<RawJson> getForestLandById(@PathVariable Long id,
+            @RequestParam(required = false) String fields) {
+        RawJson forestLand = jsonBytesCacheService.find(EntityType.FOREST_LAND, forestLandRepository.getRowVersions(), id, forestLandRepository::findById, fields).orElse(null);
         
         if (forestLand == null) {
             return ResponseEntity.notFound().build();
@@ -164,7 +216,7 @@ public class ForestClassifyController {
         forestLand.setUpdateTime(LocalDateTime.now());
         
         // 保存到内存
-        dataGeneratorService.getForestLands().put(forestLand.getId(), forestLand);
+        forestLandRepository.save(forestLand);
         
         response.put("success", true);
         response.put("message", "林地信息创建成功");
@@ -180,9 +232,8 @@ public class ForestClassifyController {
     public ResponseEntity<Map<String, Object>> updateForestLand(@PathVariable Long id, 
                                                                @Valid @RequestBody ForestLand forestLand) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, ForestLand> allForestLands = dataGeneratorService.getForestLands();
         
-        ForestLand existingForestLand = allForestLands.get(id);
+        ForestLand existingForestLand = forestLandRepository.findById(id).orElse(null);
         if (existingForestLand == null) {
             response.put("success", false);
             response.put("message", "林地信息不存在");
@@ -203,7 +254,7 @@ public class ForestClassifyController {
         forestLand.setCreateTime(existingForestLand.getCreateTime());
         forestLand.setUpdateTime(LocalDateTime.now());
         
-        allForestLands.put(id, forestLand);
+        forestLandRepository.save(forestLand);
         
         response.put("success", true);
         response.put("message", "林地信息更新成功");
@@ -218,10 +269,8 @@ public class ForestClassifyController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, Object>> deleteForestLand(@PathVariable Long id) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, ForestLand> allForestLands = dataGeneratorService.getForestLands();
         
-        ForestLand forestLand = allForestLands.remove(id);
-        if (forestLand == null) {
+        if (!forestLandRepository.deleteById(id)) {
             response.put("success", false);
             response.put("message", "林地信息不存在");
             return ResponseEntity.status(404).body(response);
@@ -239,14 +288,8 @@ public class ForestClassifyController {
     @DeleteMapping("/batch")
     public ResponseEntity<Map<String, Object>> deleteForestLands(@RequestBody List<Long> ids) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, ForestLand> allForestLands = dataGeneratorService.getForestLands();
         
-        int deletedCount = 0;
-        for (Long id : ids) {
-            if (allForestLands.remove(id) != null) {
-                deletedCount++;
-            }
-        }
+        int deletedCount = forestLandRepository.deleteAllById(ids);
         
         response.put("success", true);
         response.put("message", "成功删除 " + deletedCount + " 条林地信息");
@@ -260,10 +303,7 @@ public class ForestClassifyController {
      */
     @GetMapping("/by-classification/{classification}")
     public ResponseEntity<List<ForestLand>> getForestLandsByClassification(@PathVariable String classification) {
-        Map<Long, ForestLand> allForestLands = dataGeneratorService.getForestLands();
-        
-        List<ForestLand> filteredList = allForestLands.values().stream()
-            .filter(land -> classification.equals(land.getClassification()))
+        List<ForestLand> filteredList = forestLandRepository.findAll(new Criteria().eq("classification", classification)).stream()
             .sorted((a, b) -> b.getCreateTime().compareTo(a.getCreateTime()))
             .collect(Collectors.toList());
         
@@ -2,11 +2,26 @@ package com.forest.management.controller;
 
 import com.forest.management.model.ForestRights;
 import com.forest.management.model.ForestLand;
+import com.forest.management.repository.ForestLandRepository;
+import com.forest.management.repository.ForestRightsRepository;
+import com.forest.management.service.AggregateCacheService;
 import com.forest.management.service.DataGeneratorService;
+import com.forest.management.service.ExportService;
+import com.forest.management.service.JsonBytesCacheService;
 import com.forest.management.service.ValidationService;
+import com.forest.management.storage.Criteria;
+import com.forest.management.storage.DuplicateKeyException;
+import com.forest.management.storage.EntityType;
+import com.forest.management.storage.OrderedIndex;
+import com.forest.management.storage.PageCursor;
+import com.forest.management.storage.PageResult;
+import com.forest.management.storage.SymbolTable;
+import com.forest.management.util.RawJson;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -21,12 +36,29 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = {"http://localhost:5173", "http://127.0.0.1:5173"})
 public class ForestRightsController {
     
+    private static final int CANCELLED = SymbolTable.encode("注销");
+    
     @Autowired
     private DataGeneratorService dataGeneratorService;
     
+    @Autowired
+    private ForestLandRepository forestLandRepository;
+    
+    @Autowired
+    private ForestRightsRepository forestRightsRepository;
+    
     @Autowired
     private ValidationService validationService;
     
+    @Autowired
+    private AggregateCacheService aggregateCacheService;
+    
+    @Autowired
+    private JsonBytesCacheService jsonBytesCacheService;
+    
+    @Autowired
+    private ExportService exportService;
+    
     /**
      * 获取林权证书列表
      */
@@ -36,46 +68,40 @@ public class ForestRightsController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String certificateNo,
             @RequestParam(required = false) String ownerName,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
         
-        Map<Long, ForestRights> allRights = dataGeneratorService.getForestRights();
-        List<ForestRights> rightsList = new ArrayList<>(allRights.values());
-        
-        // 过滤条件
-        if (certificateNo != null && !certificateNo.trim().isEmpty()) {
-            rightsList = rightsList.stream()
-                .filter(rights -> rights.getCertificateNo().contains(certificateNo.trim()))
-                .collect(Collectors.toList());
-        }
-        
-        if (ownerName != null && !ownerName.trim().isEmpty()) {
-            rightsList = rightsList.stream()
-                .filter(rights -> rights.getOwnerName().contains(ownerName.trim()))
-                .collect(Collectors.toList());
-        }
+        // 过滤条件（编号、权利人走N元文法索引，状态走哈希索引）
+        Criteria criteria = new Criteria()
+            .contains("certificateNo", certificateNo)
+            .contains("ownerName", ownerName)
+            .eq("status", status);
         
-        if (status != null && !status.trim().isEmpty()) {
-            rightsList = rightsList.stream()
-                .filter(rights -> rights.getStatus().equals(status.trim()))
-                .collect(Collectors.toList());
+        // 游标分页：传入cursor时从游标之后取数，忽略page
+        Map<String, Object> response = new HashMap<>();
+        OrderedIndex.Key after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            after = PageCursor.decode(cursor);
+            if (after == null) {
+                response.put("success", false);
+                response.put("message", "无效的分页游标");
+                return ResponseEntity.badRequest().body(response);
+            }
         }
         
-        // 排序
-        rightsList.sort((a, b) -> b.getCreateTime().compareTo(a.getCreateTime()));
-        
-        // 分页
-        int total = rightsList.size();
-        int start = (page - 1) * size;
-        int end = Math.min(start + size, total);
-        
-        List<ForestRights> pagedList = start < total ? rightsList.subList(start, end) : new ArrayList<>();
+        // 分页（沿创建时间有序索引直接取当前页）
+        long version = forestRightsRepository.getVersion();
+        PageResult<ForestRights> result = forestRightsRepository.findPage(criteria, after, (page - 1) * size, size);
+        int total = result.getTotal();
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("data", pagedList);
+        // 记录输出缓存的JSON字节
+        response.put("data", jsonBytesCacheService.getAll(EntityType.FOREST_RIGHTS, forestRightsRepository.getRowVersions(), version, result.getRows(), ForestRights::getId, fields));
         response.put("total", total);
         response.put("page", page);
         response.put("size", size);
         response.put("totalPages", (int) Math.ceil((double) total / size));
+        response.put("nextCursor", result.getNextCursor());
         
         return ResponseEntity.ok(response);
     }
@@ -85,9 +111,8 @@ public class ForestRightsController {
      */
     @GetMapping("/expiring")
     public ResponseEntity<List<ForestRights>> getExpiringRights() {
-        Map<Long, ForestRights> allRights = dataGeneratorService.getForestRights();
         
-        List<ForestRights> expiringRights = allRights.values().stream()
+        List<ForestRights> expiringRights = forestRightsRepository.findAll().stream()
             .filter(ForestRights::isExpiringSoon)
             .sorted(Comparator.comparing(ForestRights::getExpiryDate))
             .collect(Collectors.toList());
@@ -95,13 +120,31 @@ public class ForestRightsController {
         return ResponseEntity.ok(expiringRights);
     }
     
+    /**
+     * 导出林权证书（流式输出，过滤条件同列表）
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRights(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String certificateNo,
+            @RequestParam(required = false) String ownerName,
+            @RequestParam(required = false) String status) {
+        Criteria criteria = new Criteria()
+            .contains("certificateNo", certificateNo)
+            .contains("ownerName", ownerName)
+            .eq("status", status);
+        
+        return exportService.<ForestRights>export("rights", format, rows -> forestRightsRepository.scan(criteria, rows));
+    }
+    
     /**
      * 获取证书详情
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ForestRights> getRightsById(@PathVariable Long id) {
-        Map<Long, ForestRights> allRights = dataGeneratorService.getForestRights();
-        ForestRights rights = allRights.get(id);
+    public ResponseEntity<RawJson> getRightsById(@PathVariable Long id,
+            @RequestParam(required = false) String fields) {
+        // 命中时直接输出缓存的JSON字节，不再读取和序列化记录
+        RawJson rights = jsonBytesCacheService.find(EntityType.FOREST_RIGHTS, forestRightsRepository.getRowVersions(), id, forestRightsRepository::findById, fields).orElse(null);
         
         if (rights == null) {
             return ResponseEntity.notFound().build();
@@ -126,19 +169,8 @@ public class ForestRightsController {
             return ResponseEntity.badRequest().body(response);
         }
         
-        // 检查证书编号是否重复
-        boolean exists = dataGeneratorService.getForestRights().values().stream()
-            .anyMatch(existing -> existing.getCertificateNo().equals(rights.getCertificateNo()));
-        
-        if (exists) {
-            response.put("success", false);
-            response.put("message", "证书编号已存在");
-            return ResponseEntity.badRequest().body(response);
-        }
-        
         // 设置关联的林地名称
-        Map<Long, ForestLand> forestLands = dataGeneratorService.getForestLands();
-        ForestLand forestLand = forestLands.get(rights.getForestLandId());
+        ForestLand forestLand = forestLandRepository.findById(rights.getForestLandId()).orElse(null);
         if (forestLand != null) {
             rights.setForestLandName(forestLand.getName());
         }
@@ -151,8 +183,14 @@ public class ForestRightsController {
         // 自动更新状态
         updateRightsStatus(rights);
         
-        // 保存到内存
-        dataGeneratorService.getForestRights().put(rights.getId(), rights);
+        // 保存到内存，编号唯一性由存储的唯一索引保证，检查与写入是原子的
+        try {
+            forestRightsRepository.save(rights);
+        } catch (DuplicateKeyException e) {
+            response.put("success", false);
+            response.put("message", "证书编号已存在");
+            return ResponseEntity.badRequest().body(response);
+        }
         
         response.put("success", true);
         response.put("message", "林权证书创建成功");
@@ -168,9 +206,8 @@ public class ForestRightsController {
     public ResponseEntity<Map<String, Object>> updateRights(@PathVariable Long id, 
                                                            @Valid @RequestBody ForestRights rights) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, ForestRights> allRights = dataGeneratorService.getForestRights();
         
-        ForestRights existingRights = allRights.get(id);
+        ForestRights existingRights = forestRightsRepository.findById(id).orElse(null);
         if (existingRights == null) {
             response.put("success", false);
             response.put("message", "林权证书不存在");
@@ -186,20 +223,8 @@ public class ForestRightsController {
             return ResponseEntity.badRequest().body(response);
         }
         
-        // 检查证书编号是否重复（排除自己）
-        boolean exists = allRights.values().stream()
-            .anyMatch(existing -> !existing.getId().equals(id) && 
-                     existing.getCertificateNo().equals(rights.getCertificateNo()));
-        
-        if (exists) {
-            response.put("success", false);
-            response.put("message", "证书编号已存在");
-            return ResponseEntity.badRequest().body(response);
-        }
-        
         // 设置关联的林地名称
-        Map<Long, ForestLand> forestLands = dataGeneratorService.getForestLands();
-        ForestLand forestLand = forestLands.get(rights.getForestLandId());
+        ForestLand forestLand = forestLandRepository.findById(rights.getForestLandId()).orElse(null);
         if (forestLand != null) {
             rights.setForestLandName(forestLand.getName());
         }
@@ -212,7 +237,14 @@ public class ForestRightsController {
         // 自动更新状态
         updateRightsStatus(rights);
         
-        allRights.put(id, rights);
+        // 编号唯一性由存储的唯一索引保证，检查与写入是原子的
+        try {
+            forestRightsRepository.save(rights);
+        } catch (DuplicateKeyException e) {
+            response.put("success", false);
+            response.put("message", "证书编号已存在");
+            return ResponseEntity.badRequest().body(response);
+        }
         
         response.put("success", true);
         response.put("message", "林权证书更新成功");
@@ -228,9 +260,8 @@ public class ForestRightsController {
     public ResponseEntity<Map<String, Object>> updateRightsStatus(@PathVariable Long id, 
                                                                  @RequestBody Map<String, String> request) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, ForestRights> allRights = dataGeneratorService.getForestRights();
         
-        ForestRights rights = allRights.get(id);
+        ForestRights rights = forestRightsRepository.findById(id).orElse(null);
         if (rights == null) {
             response.put("success", false);
             response.put("message", "林权证书不存在");
@@ -244,12 +275,20 @@ public class ForestRightsController {
             return ResponseEntity.badRequest().body(response);
         }
         
-        rights.setStatus(newStatus);
-        rights.setUpdateTime(LocalDateTime.now());
+        // 通过存储修改，保持状态索引同步；返回修改后的记录
+        Optional<ForestRights> updated = forestRightsRepository.update(id, r -> {
+            r.setStatus(newStatus);
+            r.setUpdateTime(LocalDateTime.now());
+        });
+        if (updated.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "林权证书不存在");
+            return ResponseEntity.status(404).body(response);
+        }
         
         response.put("success", true);
         response.put("message", "证书状态更新成功");
-        response.put("data", rights);
+        response.put("data", updated.get());
         
         return ResponseEntity.ok(response);
     }
@@ -260,10 +299,8 @@ public class ForestRightsController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, Object>> deleteRights(@PathVariable Long id) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, ForestRights> allRights = dataGeneratorService.getForestRights();
         
-        ForestRights rights = allRights.remove(id);
-        if (rights == null) {
+        if (!forestRightsRepository.deleteById(id)) {
             response.put("success", false);
             response.put("message", "林权证书不存在");
             return ResponseEntity.status(404).body(response);
@@ -281,14 +318,8 @@ public class ForestRightsController {
     @DeleteMapping("/batch")
     public ResponseEntity<Map<String, Object>> deleteRights(@RequestBody List<Long> ids) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, ForestRights> allRights = dataGeneratorService.getForestRights();
         
-        int deletedCount = 0;
-        for (Long id : ids) {
-            if (allRights.remove(id) != null) {
-                deletedCount++;
-            }
-        }
+        int deletedCount = forestRightsRepository.deleteAllById(ids);
         
         response.put("success", true);
         response.put("message", "成功删除 " + deletedCount + " 条林权证书");
@@ -301,9 +332,17 @@ public class ForestRightsController {
      * 获取统计信息
      */
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Object>> getStatistics() {
-        Map<Long, ForestRights> allRights = dataGeneratorService.getForestRights();
-        List<ForestRights> rightsList = new ArrayList<>(allRights.values());
+    public ResponseEntity<?> getStatistics(WebRequest webRequest) {
+        // 到期数量随日期变化，日期也参与缓存键
+        return aggregateCacheService.respond(webRequest, "rights/statistics", List.of(),
+            new long[] {forestRightsRepository.getVersion(), LocalDate.now().toEpochDay()}, this::buildStatistics);
+    }
+    
+    /**
+     * 计算证书统计数据
+     */
+    private Map<String, Object> buildStatistics() {
+        List<ForestRights> rightsList = forestRightsRepository.findAll();
         
         Map<String, Object> stats = new HashMap<>();
         
@@ -311,8 +350,7 @@ public class ForestRightsController {
         stats.put("totalCount", rightsList.size());
         
         // 按状态统计
-        Map<String, Long> statusStats = rightsList.stream()
-            .collect(Collectors.groupingBy(ForestRights::getStatus, Collectors.counting()));
+        Map<String, Long> statusStats = SymbolTable.countBy(rightsList, ForestRights::getStatusCode, ForestRights::getStatus);
         stats.put("statusStats", statusStats);
         
         // 即将到期数量
@@ -328,12 +366,10 @@ public class ForestRightsController {
         stats.put("expiredCount", expiredCount);
         
         // 按发证机关统计
-        Map<String, Long> organStats = rightsList.stream()
-            .filter(rights -> rights.getIssueOrgan() != null)
-            .collect(Collectors.groupingBy(ForestRights::getIssueOrgan, Collectors.counting()));
+        Map<String, Long> organStats = SymbolTable.countBy(rightsList, ForestRights::getIssueOrganCode, ForestRights::getIssueOrgan);
         stats.put("organStats", organStats);
         
-        return ResponseEntity.ok(stats);
+        return stats;
     }
     
     /**
@@ -341,9 +377,8 @@ public class ForestRightsController {
      */
     @GetMapping("/forest-lands")
     public ResponseEntity<List<Map<String, Object>>> getForestLandOptions() {
-        Map<Long, ForestLand> allForestLands = dataGeneratorService.getForestLands();
         
-        List<Map<String, Object>> options = allForestLands.values().stream()
+        List<Map<String, Object>> options = forestLandRepository.findAll().stream()
             .map(forestLand -> {
                 Map<String, Object> option = new HashMap<>();
                 option.put("id", forestLand.getId());
@@ -386,8 +421,7 @@ public class ForestRightsController {
             errors.add("必须选择关联的林地");
         } else {
             // 检查林地是否存在
-            Map<Long, ForestLand> forestLands = dataGeneratorService.getForestLands();
-            if (!forestLands.containsKey(rights.getForestLandId())) {
+            if (!forestLandRepository.existsById(rights.getForestLandId())) {
                 errors.add("关联的林地不存在");
             }
         }
@@ -416,7 +450,7 @@ public class ForestRightsController {
             rights.setStatus("过期");
         } else if (rights.isExpiringSoon()) {
             rights.setStatus("即将到期");
-        } else if (!"注销".equals(rights.getStatus())) {
+        } else if (rights.getStatusCode() != CANCELLED) {
             rights.setStatus("有效");
         }
     }
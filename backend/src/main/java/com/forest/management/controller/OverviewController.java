@@ -1,12 +1,17 @@
 package com.forest.management.controller;
 
 import com.forest.management.model.*;
+import com.forest.management.repository.*;
+import com.forest.management.service.AggregateCacheService;
 import com.forest.management.service.DataGeneratorService;
+import com.forest.management.service.OverviewStatisticsService;
+import com.forest.management.storage.Criteria;
+import com.forest.management.storage.SymbolTable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -18,116 +23,85 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = {"http://localhost:5173", "http://127.0.0.1:5173"})
 public class OverviewController {
     
+    private static final int PENDING = SymbolTable.encode("待审批");
+    
     @Autowired
     private DataGeneratorService dataGeneratorService;
     
+    @Autowired
+    private TreeArchiveRepository treeArchiveRepository;
+    
+    @Autowired
+    private ForestLandRepository forestLandRepository;
+    
+    @Autowired
+    private ResourceMonitorRepository resourceMonitorRepository;
+    
+    @Autowired
+    private ForestRightsRepository forestRightsRepository;
+    
+    @Autowired
+    private CuttingPermitRepository cuttingPermitRepository;
+    
+    @Autowired
+    private OverviewStatisticsService overviewStatisticsService;
+    
+    @Autowired
+    private AggregateCacheService aggregateCacheService;
+    
     /**
      * 获取系统概览统计数据
      */
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Object>> getOverviewStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // 获取各模块数据
-        Map<Long, TreeArchive> trees = dataGeneratorService.getTreeArchives();
-        Map<Long, ForestLand> forestLands = dataGeneratorService.getForestLands();
-        Map<Long, ResourceMonitor> monitors = dataGeneratorService.getResourceMonitors();
-        Map<Long, ForestRights> rights = dataGeneratorService.getForestRights();
-        Map<Long, CuttingPermit> permits = dataGeneratorService.getCuttingPermits();
-        
-        // 基础统计
-        stats.put("totalTrees", trees.size());
-        stats.put("totalForestLands", forestLands.size());
-        stats.put("totalRights", rights.size());
-        stats.put("totalPermits", permits.size());
-        stats.put("totalMonitorRecords", monitors.size());
-        
-        // 林地总面积
-        double totalArea = forestLands.values().stream()
-            .mapToDouble(ForestLand::getArea)
-            .sum();
-        stats.put("totalArea", Math.round(totalArea * 100.0) / 100.0);
-        
-        // 林木健康状态统计
-        Map<String, Long> healthStats = trees.values().stream()
-            .collect(Collectors.groupingBy(TreeArchive::getHealthStatus, Collectors.counting()));
-        stats.put("treeHealthStats", healthStats);
-        
-        // 林地分类统计
-        Map<String, Long> classificationStats = forestLands.values().stream()
-            .collect(Collectors.groupingBy(ForestLand::getClassification, Collectors.counting()));
-        stats.put("forestClassificationStats", classificationStats);
-        
-        // 林权证书状态统计
-        Map<String, Long> rightsStatusStats = rights.values().stream()
-            .collect(Collectors.groupingBy(ForestRights::getStatus, Collectors.counting()));
-        stats.put("rightsStatusStats", rightsStatusStats);
-        
-        // 采伐许可状态统计
-        Map<String, Long> permitsStatusStats = permits.values().stream()
-            .collect(Collectors.groupingBy(CuttingPermit::getStatus, Collectors.counting()));
-        stats.put("permitsStatusStats", permitsStatusStats);
-        
-        // 即将到期的证书和许可数量
-        long expiringRights = rights.values().stream()
-            .filter(ForestRights::isExpiringSoon)
-            .count();
-        stats.put("expiringRights", expiringRights);
-        
-        long expiringPermits = permits.values().stream()
-            .filter(CuttingPermit::isExpiringSoon)
-            .count();
-        stats.put("expiringPermits", expiringPermits);
-        
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<Map<String, Object>> getOverviewStatistics(WebRequest webRequest) {
+        // 数据未变化时返回304，不再拼装统计
+        if (webRequest.checkNotModified(overviewStatisticsService.getETag())) {
+            return null;
+        }
+        return ResponseEntity.ok(overviewStatisticsService.getStatistics());
     }
     
     /**
      * 获取趋势分析数据
      */
     @GetMapping("/trends")
-    public ResponseEntity<Map<String, Object>> getTrendAnalysis(
-            @RequestParam(defaultValue = "2024") String year) {
+    public ResponseEntity<?> getTrendAnalysis(
+            @RequestParam(defaultValue = "2024") String year,
+            WebRequest webRequest) {
         
+        // 按年份缓存，监测数据写入后重新聚合
+        return aggregateCacheService.respond(webRequest, "overview/trends", List.of(year),
+            new long[] {resourceMonitorRepository.getVersion()}, () -> buildTrendAnalysis(year));
+    }
+    
+    /**
+     * 计算月度趋势数据
+     */
+    private Map<String, Object> buildTrendAnalysis(String year) {
         Map<String, Object> trends = new HashMap<>();
         
-        // 获取监测数据
-        Map<Long, ResourceMonitor> monitors = dataGeneratorService.getResourceMonitors();
-        List<ResourceMonitor> yearMonitors = monitors.values().stream()
-            .filter(monitor -> monitor.getMonitorDate().getYear() == Integer.parseInt(year))
-            .collect(Collectors.toList());
+        int targetYear = Integer.parseInt(year);
         
-        // 按月份分组
-        Map<String, List<ResourceMonitor>> monthlyData = yearMonitors.stream()
-            .collect(Collectors.groupingBy(monitor -> 
-                monitor.getMonitorDate().format(DateTimeFormatter.ofPattern("yyyy-MM"))));
-        
-        // 生成月度趋势数据
+        // 生成月度趋势数据，直接在列式序列上按月份日期范围聚合
         List<Map<String, Object>> monthlyTrends = new ArrayList<>();
         for (int month = 1; month <= 12; month++) {
             String monthKey = String.format("%s-%02d", year, month);
-            List<ResourceMonitor> monthData = monthlyData.getOrDefault(monthKey, new ArrayList<>());
+            LocalDate monthStart = LocalDate.of(targetYear, month, 1);
+            LocalDate monthEnd = monthStart.plusMonths(1).minusDays(1);
             
             Map<String, Object> monthTrend = new HashMap<>();
             monthTrend.put("month", monthKey);
             monthTrend.put("monthName", month + "月");
             
             // 计算平均生长量和蓄积量
-            OptionalDouble avgGrowth = monthData.stream()
-                .filter(m -> "生长量".equals(m.getMonitorType()))
-                .mapToDouble(ResourceMonitor::getCurrentValue)
-                .average();
-            
-            OptionalDouble avgVolume = monthData.stream()
-                .filter(m -> "蓄积量".equals(m.getMonitorType()))
-                .mapToDouble(ResourceMonitor::getCurrentValue)
-                .average();
+            Double avgGrowth = resourceMonitorRepository.aggregate("生长量", null, monthStart, monthEnd).getAverage();
+            Double avgVolume = resourceMonitorRepository.aggregate("蓄积量", null, monthStart, monthEnd).getAverage();
             
-            monthTrend.put("avgGrowth", avgGrowth.isPresent() ? 
-                Math.round(avgGrowth.getAsDouble() * 100.0) / 100.0 : 0);
-            monthTrend.put("avgVolume", avgVolume.isPresent() ? 
-                Math.round(avgVolume.getAsDouble() * 100.0) / 100.0 : 0);
-            monthTrend.put("recordCount", monthData.size());
+            monthTrend.put("avgGrowth", avgGrowth != null ? 
+                Math.round(avgGrowth * 100.0) / 100.0 : 0);
+            monthTrend.put("avgVolume", avgVolume != null ? 
+                Math.round(avgVolume * 100.0) / 100.0 : 0);
+            monthTrend.put("recordCount", resourceMonitorRepository.aggregate(null, null, monthStart, monthEnd).getCount());
             
             monthlyTrends.add(monthTrend);
         }
@@ -135,7 +109,7 @@ public class OverviewController {
         trends.put("monthlyTrends", monthlyTrends);
         trends.put("year", year);
         
-        return ResponseEntity.ok(trends);
+        return trends;
     }
     
     /**
@@ -145,13 +119,8 @@ public class OverviewController {
     public ResponseEntity<List<Map<String, Object>>> getAlerts() {
         List<Map<String, Object>> alerts = new ArrayList<>();
         
-        // 获取各模块数据
-        Map<Long, ForestRights> rights = dataGeneratorService.getForestRights();
-        Map<Long, CuttingPermit> permits = dataGeneratorService.getCuttingPermits();
-        Map<Long, ResourceMonitor> monitors = dataGeneratorService.getResourceMonitors();
-        
         // 林权证书到期预警
-        rights.values().stream()
+        forestRightsRepository.findAll().stream()
             .filter(ForestRights::isExpiringSoon)
             .forEach(right -> {
                 Map<String, Object> alert = new HashMap<>();
@@ -166,7 +135,7 @@ public class OverviewController {
             });
         
         // 采伐许可到期预警
-        permits.values().stream()
+        cuttingPermitRepository.findAll().stream()
             .filter(CuttingPermit::isExpiringSoon)
             .forEach(permit -> {
                 Map<String, Object> alert = new HashMap<>();
@@ -181,8 +150,7 @@ public class OverviewController {
             });
         
         // 资源异常变化预警
-        monitors.values().stream()
-            .filter(monitor -> monitor.getChangeRate() != null && Math.abs(monitor.getChangeRate()) > 30)
+        resourceMonitorRepository.findChanges(null, 30).stream()
             .limit(5) // 限制数量
             .forEach(monitor -> {
                 Map<String, Object> alert = new HashMap<>();
@@ -215,16 +183,8 @@ public class OverviewController {
     public ResponseEntity<List<Map<String, Object>>> getRecentActivities() {
         List<Map<String, Object>> activities = new ArrayList<>();
         
-        // 获取各模块数据
-        Map<Long, TreeArchive> trees = dataGeneratorService.getTreeArchives();
-        Map<Long, ForestLand> forestLands = dataGeneratorService.getForestLands();
-        Map<Long, ForestRights> rights = dataGeneratorService.getForestRights();
-        Map<Long, CuttingPermit> permits = dataGeneratorService.getCuttingPermits();
-        
-        // 最近创建的林木档案
-        trees.values().stream()
-            .sorted((a, b) -> b.getCreateTime().compareTo(a.getCreateTime()))
-            .limit(3)
+        // 最近创建的林木档案（最近记录直接取有序索引的前几条）
+        treeArchiveRepository.findPage(new Criteria(), null, 0, 3).getRows()
             .forEach(tree -> {
                 Map<String, Object> activity = new HashMap<>();
                 activity.put("type", "tree_created");
@@ -236,9 +196,7 @@ public class OverviewController {
             });
         
         // 最近创建的林地
-        forestLands.values().stream()
-            .sorted((a, b) -> b.getCreateTime().compareTo(a.getCreateTime()))
-            .limit(2)
+        forestLandRepository.findPage(new Criteria(), null, 0, 2).getRows()
             .forEach(land -> {
                 Map<String, Object> activity = new HashMap<>();
                 activity.put("type", "forestland_created");
@@ -250,9 +208,7 @@ public class OverviewController {
             });
         
         // 最近的证书
-        rights.values().stream()
-            .sorted((a, b) -> b.getCreateTime().compareTo(a.getCreateTime()))
-            .limit(2)
+        forestRightsRepository.findPage(new Criteria(), null, 0, 2).getRows()
             .forEach(right -> {
                 Map<String, Object> activity = new HashMap<>();
                 activity.put("type", "rights_created");
@@ -265,8 +221,8 @@ public class OverviewController {
             });
         
         // 最近的许可审批
-        permits.values().stream()
-            .filter(permit -> !"待审批".equals(permit.getStatus()))
+        cuttingPermitRepository.findAll().stream()
+            .filter(permit -> permit.getStatusCode() != PENDING)
             .sorted((a, b) -> {
                 LocalDate dateA = a.getApprovalDate() != null ? a.getApprovalDate() : a.getApplicationDate();
                 LocalDate dateB = b.getApprovalDate() != null ? b.getApprovalDate() : b.getApplicationDate();
@@ -309,16 +265,16 @@ public class OverviewController {
         status.put("version", "v1.0.0");
         status.put("buildTime", "2024-01-15");
         status.put("runMode", "演示模式");
-        status.put("dataStorage", "内存存储");
+        status.put("dataStorage", dataGeneratorService.isPersistent() ? "内存存储 + 预写日志" : "内存存储");
         status.put("startTime", new Date());
         
         // 数据统计
         status.put("totalRecords", 
-            dataGeneratorService.getTreeArchives().size() +
-            dataGeneratorService.getForestLands().size() +
-            dataGeneratorService.getResourceMonitors().size() +
-            dataGeneratorService.getForestRights().size() +
-            dataGeneratorService.getCuttingPermits().size());
+            treeArchiveRepository.count() +
+            forestLandRepository.count() +
+            resourceMonitorRepository.count() +
+            forestRightsRepository.count() +
+            cuttingPermitRepository.count());
         
         // 系统状态
         status.put("status", "运行正常");
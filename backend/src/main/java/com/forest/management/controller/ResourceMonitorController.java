@@ -1,13 +1,19 @@
 package com.forest.management.controller;
 
 import com.forest.management.model.ResourceMonitor;
-import com.forest.management.model.ForestLand;
-import com.forest.management.service.DataGeneratorService;
+import com.forest.management.repository.ForestLandRepository;
+import com.forest.management.repository.ResourceMonitorRepository;
+import com.forest.management.service.ExportService;
+import com.forest.management.service.JsonBytesCacheService;
+import com.forest.management.storage.EntityType;
+import com.forest.management.storage.SeriesAggregate;
+import com.forest.management.util.ETagUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -20,7 +26,16 @@ import java.util.stream.Collectors;
 public class ResourceMonitorController {
     
     @Autowired
-    private DataGeneratorService dataGeneratorService;
+    private ForestLandRepository forestLandRepository;
+    
+    @Autowired
+    private ResourceMonitorRepository resourceMonitorRepository;
+    
+    @Autowired
+    private JsonBytesCacheService jsonBytesCacheService;
+    
+    @Autowired
+    private ExportService exportService;
     
     /**
      * 获取生长量数据
@@ -29,40 +44,18 @@ public class ResourceMonitorController {
     public ResponseEntity<Map<String, Object>> getGrowthData(
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
-            @RequestParam(required = false) Long forestLandId) {
+            @RequestParam(required = false) Long forestLandId,
+            @RequestParam(required = false) String fields) {
         
-        Map<Long, ResourceMonitor> allMonitors = dataGeneratorService.getResourceMonitors();
-        List<ResourceMonitor> growthData = allMonitors.values().stream()
-            .filter(monitor -> "生长量".equals(monitor.getMonitorType()))
-            .collect(Collectors.toList());
-        
-        // 日期过滤
-        if (startDate != null && !startDate.isEmpty()) {
-            LocalDate start = LocalDate.parse(startDate);
-            growthData = growthData.stream()
-                .filter(monitor -> !monitor.getMonitorDate().isBefore(start))
-                .collect(Collectors.toList());
-        }
-        
-        if (endDate != null && !endDate.isEmpty()) {
-            LocalDate end = LocalDate.parse(endDate);
-            growthData = growthData.stream()
-                .filter(monitor -> !monitor.getMonitorDate().isAfter(end))
-                .collect(Collectors.toList());
-        }
-        
-        // 林地过滤
-        if (forestLandId != null) {
-            growthData = growthData.stream()
-                .filter(monitor -> forestLandId.equals(monitor.getForestLandId()))
-                .collect(Collectors.toList());
-        }
-        
-        // 按日期排序
-        growthData.sort(Comparator.comparing(ResourceMonitor::getMonitorDate));
+        // 按类型、林地定位分区，在分区内按日期范围读取，结果已按日期排序
+        LocalDate start = startDate != null && !startDate.isEmpty() ? LocalDate.parse(startDate) : null;
+        LocalDate end = endDate != null && !endDate.isEmpty() ? LocalDate.parse(endDate) : null;
+        long version = resourceMonitorRepository.getVersion();
+        List<ResourceMonitor> growthData = resourceMonitorRepository
+            .findAll("生长量", forestLandId, start, end);
         
         Map<String, Object> response = new HashMap<>();
-        response.put("data", growthData);
+        response.put("data", jsonBytesCacheService.getAll(EntityType.RESOURCE_MONITOR, resourceMonitorRepository.getRowVersions(), version, growthData, ResourceMonitor::getId, fields));
         response.put("total", growthData.size());
         
         return ResponseEntity.ok(response);
@@ -75,100 +68,82 @@ public class ResourceMonitorController {
     public ResponseEntity<Map<String, Object>> getVolumeData(
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
-            @RequestParam(required = false) Long forestLandId) {
-        
-        Map<Long, ResourceMonitor> allMonitors = dataGeneratorService.getResourceMonitors();
-        List<ResourceMonitor> volumeData = allMonitors.values().stream()
-            .filter(monitor -> "蓄积量".equals(monitor.getMonitorType()))
-            .collect(Collectors.toList());
+            @RequestParam(required = false) Long forestLandId,
+            @RequestParam(required = false) String fields) {
         
-        // 日期过滤
-        if (startDate != null && !startDate.isEmpty()) {
-            LocalDate start = LocalDate.parse(startDate);
-            volumeData = volumeData.stream()
-                .filter(monitor -> !monitor.getMonitorDate().isBefore(start))
-                .collect(Collectors.toList());
-        }
-        
-        if (endDate != null && !endDate.isEmpty()) {
-            LocalDate end = LocalDate.parse(endDate);
-            volumeData = volumeData.stream()
-                .filter(monitor -> !monitor.getMonitorDate().isAfter(end))
-                .collect(Collectors.toList());
-        }
-        
-        // 林地过滤
-        if (forestLandId != null) {
-            volumeData = volumeData.stream()
-                .filter(monitor -> forestLandId.equals(monitor.getForestLandId()))
-                .collect(Collectors.toList());
-        }
-        
-        // 按日期排序
-        volumeData.sort(Comparator.comparing(ResourceMonitor::getMonitorDate));
+        // 按类型、林地定位分区，在分区内按日期范围读取，结果已按日期排序
+        LocalDate start = startDate != null && !startDate.isEmpty() ? LocalDate.parse(startDate) : null;
+        LocalDate end = endDate != null && !endDate.isEmpty() ? LocalDate.parse(endDate) : null;
+        long version = resourceMonitorRepository.getVersion();
+        List<ResourceMonitor> volumeData = resourceMonitorRepository
+            .findAll("蓄积量", forestLandId, start, end);
         
         Map<String, Object> response = new HashMap<>();
-        response.put("data", volumeData);
+        response.put("data", jsonBytesCacheService.getAll(EntityType.RESOURCE_MONITOR, resourceMonitorRepository.getRowVersions(), version, volumeData, ResourceMonitor::getId, fields));
         response.put("total", volumeData.size());
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * 导出监测记录（流式输出，过滤条件同列表）
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMonitors(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String monitorType,
+            @RequestParam(required = false) Long forestLandId,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+        LocalDate start = startDate != null && !startDate.isEmpty() ? LocalDate.parse(startDate) : null;
+        LocalDate end = endDate != null && !endDate.isEmpty() ? LocalDate.parse(endDate) : null;
+        String type = monitorType != null && !monitorType.isEmpty() ? monitorType : null;
+        
+        // 逐个分区解压输出，分区内按日期升序
+        return exportService.<ResourceMonitor>export("monitoring", format,
+            rows -> resourceMonitorRepository.scan(type, forestLandId, start, end, rows));
+    }
+    
     /**
      * 获取变化趋势数据
      */
     @GetMapping("/trends")
     public ResponseEntity<Map<String, Object>> getTrends(
             @RequestParam(defaultValue = "2024") String year,
-            @RequestParam(required = false) String monitorType) {
-        
-        Map<Long, ResourceMonitor> allMonitors = dataGeneratorService.getResourceMonitors();
-        List<ResourceMonitor> monitorData = new ArrayList<>(allMonitors.values());
-        
-        // 年份过滤
-        int targetYear = Integer.parseInt(year);
-        monitorData = monitorData.stream()
-            .filter(monitor -> monitor.getMonitorDate().getYear() == targetYear)
-            .collect(Collectors.toList());
+            @RequestParam(required = false) String monitorType,
+            WebRequest webRequest) {
         
-        // 监测类型过滤
-        if (monitorType != null && !monitorType.isEmpty()) {
-            monitorData = monitorData.stream()
-                .filter(monitor -> monitorType.equals(monitor.getMonitorType()))
-                .collect(Collectors.toList());
+        // 监测数据未变化时返回304，不再按月聚合
+        if (webRequest.checkNotModified(ETagUtil.of(resourceMonitorRepository.getVersion()))) {
+            return null;
         }
         
-        // 按月份分组统计
-        Map<String, List<ResourceMonitor>> monthlyData = monitorData.stream()
-            .collect(Collectors.groupingBy(monitor -> 
-                monitor.getMonitorDate().format(DateTimeFormatter.ofPattern("yyyy-MM"))));
+        int targetYear = Integer.parseInt(year);
         
-        // 构建趋势数据
+        // 按月份分组统计，直接在列式序列上按日期范围聚合
         List<Map<String, Object>> trendData = new ArrayList<>();
         for (int month = 1; month <= 12; month++) {
             String monthKey = String.format("%d-%02d", targetYear, month);
-            List<ResourceMonitor> monthData = monthlyData.getOrDefault(monthKey, new ArrayList<>());
+            LocalDate monthStart = LocalDate.of(targetYear, month, 1);
+            LocalDate monthEnd = monthStart.plusMonths(1).minusDays(1);
             
             Map<String, Object> monthTrend = new HashMap<>();
             monthTrend.put("month", monthKey);
             monthTrend.put("monthName", month + "月");
             
-            if (!monthData.isEmpty()) {
-                // 按监测类型分组计算平均值
-                Map<String, Double> typeAverages = monthData.stream()
-                    .collect(Collectors.groupingBy(
-                        ResourceMonitor::getMonitorType,
-                        Collectors.averagingDouble(ResourceMonitor::getCurrentValue)
-                    ));
-                
-                monthTrend.put("growthAvg", typeAverages.getOrDefault("生长量", 0.0));
-                monthTrend.put("volumeAvg", typeAverages.getOrDefault("蓄积量", 0.0));
-                monthTrend.put("dataCount", monthData.size());
-            } else {
-                monthTrend.put("growthAvg", 0.0);
-                monthTrend.put("volumeAvg", 0.0);
-                monthTrend.put("dataCount", 0);
-            }
+            // 监测类型过滤
+            boolean hasType = monitorType != null && !monitorType.isEmpty();
+            SeriesAggregate growth = !hasType || "生长量".equals(monitorType)
+                ? resourceMonitorRepository.aggregate("生长量", null, monthStart, monthEnd) : new SeriesAggregate();
+            SeriesAggregate volume = !hasType || "蓄积量".equals(monitorType)
+                ? resourceMonitorRepository.aggregate("蓄积量", null, monthStart, monthEnd) : new SeriesAggregate();
+            long dataCount = hasType
+                ? resourceMonitorRepository.aggregate(monitorType, null, monthStart, monthEnd).getCount()
+                : resourceMonitorRepository.aggregate(null, null, monthStart, monthEnd).getCount();
+            
+            monthTrend.put("growthAvg", growth.getAverage() != null ? growth.getAverage() : 0.0);
+            monthTrend.put("volumeAvg", volume.getAverage() != null ? volume.getAverage() : 0.0);
+            monthTrend.put("dataCount", dataCount);
             
             trendData.add(monthTrend);
         }
@@ -185,13 +160,11 @@ public class ResourceMonitorController {
      */
     @GetMapping("/alerts")
     public ResponseEntity<List<Map<String, Object>>> getAlerts() {
-        Map<Long, ResourceMonitor> allMonitors = dataGeneratorService.getResourceMonitors();
         List<Map<String, Object>> alerts = new ArrayList<>();
         
-        // 获取最近的监测数据
-        List<ResourceMonitor> recentData = allMonitors.values().stream()
-            .filter(monitor -> monitor.getMonitorDate().isAfter(LocalDate.now().minusMonths(1)))
-            .collect(Collectors.toList());
+        // 获取最近变化率超过提醒阈值的监测数据
+        List<ResourceMonitor> recentData = resourceMonitorRepository
+            .findChanges(LocalDate.now().minusMonths(1).plusDays(1), 20);
         
         // 检查异常变化
         for (ResourceMonitor monitor : recentData) {
@@ -242,43 +215,36 @@ public class ResourceMonitorController {
      * 获取监测统计信息
      */
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Object>> getStatistics() {
-        Map<Long, ResourceMonitor> allMonitors = dataGeneratorService.getResourceMonitors();
-        Map<Long, ForestLand> allForestLands = dataGeneratorService.getForestLands();
-        
-        List<ResourceMonitor> monitorList = new ArrayList<>(allMonitors.values());
+    public ResponseEntity<Map<String, Object>> getStatistics(WebRequest webRequest) {
+        // 总监测点数取自林地，两者的版本号都参与ETag
+        if (webRequest.checkNotModified(ETagUtil.of(resourceMonitorRepository.getVersion(), forestLandRepository.getVersion()))) {
+            return null;
+        }
         
         Map<String, Object> stats = new HashMap<>();
         
         // 总监测点数
-        stats.put("totalMonitorPoints", allForestLands.size());
+        stats.put("totalMonitorPoints", forestLandRepository.count());
         
         // 总监测记录数
-        stats.put("totalRecords", monitorList.size());
+        stats.put("totalRecords", resourceMonitorRepository.count());
         
         // 按监测类型统计
-        Map<String, Long> typeStats = monitorList.stream()
-            .collect(Collectors.groupingBy(ResourceMonitor::getMonitorType, Collectors.counting()));
+        Map<String, Long> typeStats = new HashMap<>();
+        for (String type : resourceMonitorRepository.findTypes()) {
+            typeStats.put(type, resourceMonitorRepository.aggregate(type, null, null, null).getCount());
+        }
         stats.put("typeStats", typeStats);
         
         // 最新监测数据
-        Optional<ResourceMonitor> latestRecord = monitorList.stream()
-            .max(Comparator.comparing(ResourceMonitor::getMonitorDate));
-        stats.put("latestMonitorDate", latestRecord.map(ResourceMonitor::getMonitorDate).orElse(null));
+        stats.put("latestMonitorDate", resourceMonitorRepository.findLatestDate());
         
         // 平均生长量和蓄积量
-        OptionalDouble avgGrowth = monitorList.stream()
-            .filter(monitor -> "生长量".equals(monitor.getMonitorType()))
-            .mapToDouble(ResourceMonitor::getCurrentValue)
-            .average();
+        Double avgGrowth = resourceMonitorRepository.aggregate("生长量", null, null, null).getAverage();
+        Double avgVolume = resourceMonitorRepository.aggregate("蓄积量", null, null, null).getAverage();
         
-        OptionalDouble avgVolume = monitorList.stream()
-            .filter(monitor -> "蓄积量".equals(monitor.getMonitorType()))
-            .mapToDouble(ResourceMonitor::getCurrentValue)
-            .average();
-        
-        stats.put("avgGrowth", avgGrowth.isPresent() ? Math.round(avgGrowth.getAsDouble() * 100.0) / 100.0 : 0);
-        stats.put("avgVolume", avgVolume.isPresent() ? Math.round(avgVolume.getAsDouble() * 100.0) / 100.0 : 0);
+        stats.put("avgGrowth", avgGrowth != null ? Math.round(avgGrowth * 100.0) / 100.0 : 0);
+        stats.put("avgVolume", avgVolume != null ? Math.round(avgVolume * 100.0) / 100.0 : 0);
         
         return ResponseEntity.ok(stats);
     }
@@ -288,9 +254,7 @@ public class ResourceMonitorController {
      */
     @GetMapping("/forest-lands")
     public ResponseEntity<List<Map<String, Object>>> getForestLands() {
-        Map<Long, ForestLand> allForestLands = dataGeneratorService.getForestLands();
-        
-        List<Map<String, Object>> forestLandOptions = allForestLands.values().stream()
+        List<Map<String, Object>> forestLandOptions = forestLandRepository.findAll().stream()
             .map(forestLand -> {
                 Map<String, Object> option = new HashMap<>();
                 option.put("id", forestLand.getId());
@@ -1,15 +1,27 @@
 package com.forest.management.controller;
 
 import com.forest.management.model.TreeArchive;
+import com.forest.management.repository.TreeArchiveRepository;
+import com.forest.management.service.AggregateCacheService;
 import com.forest.management.service.DataGeneratorService;
+import com.forest.management.service.ExportService;
+import com.forest.management.service.JsonBytesCacheService;
 import com.forest.management.service.ValidationService;
+import com.forest.management.storage.Criteria;
+import com.forest.management.storage.EntityType;
+import com.forest.management.storage.OrderedIndex;
+import com.forest.management.storage.PageCursor;
+import com.forest.management.storage.PageResult;
+import com.forest.management.util.ETagUtil;
+import com.forest.management.util.RawJson;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.context.request.WebRequest;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 林木资源档案控制器
@@ -22,9 +34,21 @@ public class TreeArchiveController {
     @Autowired
     private DataGeneratorService dataGeneratorService;
     
+    @Autowired
+    private TreeArchiveRepository treeArchiveRepository;
+    
     @Autowired
     private ValidationService validationService;
     
+    @Autowired
+    private AggregateCacheService aggregateCacheService;
+    
+    @Autowired
+    private JsonBytesCacheService jsonBytesCacheService;
+    
+    @Autowired
+    private ExportService exportService;
+    
     /**
      * 获取林木列表
      */
@@ -34,57 +58,69 @@ public class TreeArchiveController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String treeSpecies,
             @RequestParam(required = false) String healthStatus,
-            @RequestParam(required = false) String location) {
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
         
-        Map<Long, TreeArchive> allTrees = dataGeneratorService.getTreeArchives();
-        List<TreeArchive> treeList = new ArrayList<>(allTrees.values());
+        // 过滤条件（树种、健康状态走二级索引）
+        Criteria criteria = new Criteria()
+            .contains("treeSpecies", treeSpecies)
+            .eq("healthStatus", healthStatus)
+            .contains("location", location);
         
-        // 过滤条件
-        if (treeSpecies != null && !treeSpecies.trim().isEmpty()) {
-            treeList = treeList.stream()
-                .filter(tree -> tree.getTreeSpecies().contains(treeSpecies.trim()))
-                .collect(Collectors.toList());
-        }
-        
-        if (healthStatus != null && !healthStatus.trim().isEmpty()) {
-            treeList = treeList.stream()
-                .filter(tree -> tree.getHealthStatus().equals(healthStatus.trim()))
-                .collect(Collectors.toList());
-        }
-        
-        if (location != null && !location.trim().isEmpty()) {
-            treeList = treeList.stream()
-                .filter(tree -> tree.getLocation() != null && tree.getLocation().contains(location.trim()))
-                .collect(Collectors.toList());
+        // 游标分页：传入cursor时从游标之后取数，忽略page
+        Map<String, Object> response = new HashMap<>();
+        OrderedIndex.Key after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            after = PageCursor.decode(cursor);
+            if (after == null) {
+                response.put("success", false);
+                response.put("message", "无效的分页游标");
+                return ResponseEntity.badRequest().body(response);
+            }
         }
         
-        // 排序
-        treeList.sort((a, b) -> b.getCreateTime().compareTo(a.getCreateTime()));
+        // 分页（沿创建时间有序索引直接取当前页）
+        long version = treeArchiveRepository.getVersion();
+        PageResult<TreeArchive> result = treeArchiveRepository.findPage(criteria, after, (page - 1) * size, size);
+        int total = result.getTotal();
         
-        // 分页
-        int total = treeList.size();
-        int start = (page - 1) * size;
-        int end = Math.min(start + size, total);
-        
-        List<TreeArchive> pagedList = start < total ? treeList.subList(start, end) : new ArrayList<>();
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("data", pagedList);
+        // 记录输出缓存的JSON字节
+        response.put("data", jsonBytesCacheService.getAll(EntityType.TREE_ARCHIVE, treeArchiveRepository.getRowVersions(), version, result.getRows(), TreeArchive::getId, fields));
         response.put("total", total);
         response.put("page", page);
         response.put("size", size);
         response.put("totalPages", (int) Math.ceil((double) total / size));
+        response.put("nextCursor", result.getNextCursor());
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * 导出林木档案（流式输出，过滤条件同列表）
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTrees(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String treeSpecies,
+            @RequestParam(required = false) String healthStatus,
+            @RequestParam(required = false) String location) {
+        Criteria criteria = new Criteria()
+            .contains("treeSpecies", treeSpecies)
+            .eq("healthStatus", healthStatus)
+            .contains("location", location);
+        
+        return exportService.<TreeArchive>export("trees", format, rows -> treeArchiveRepository.scan(criteria, rows));
+    }
+    
     /**
      * 获取林木详情
      */
     @GetMapping("/{id}")
-    public ResponseEntity<TreeArchive> getTreeById(@PathVariable Long id) {
-        Map<Long, TreeArchive> allTrees = dataGeneratorService.getTreeArchives();
-        TreeArchive tree = allTrees.get(id);
+    public ResponseEntity<RawJson> getTreeById(@PathVariable Long id,
+            @RequestParam(required = false) String fields) {
+        // 命中时直接输出缓存的JSON字节，不再读取和序列化记录
+        RawJson tree = jsonBytesCacheService.find(EntityType.TREE_ARCHIVE, treeArchiveRepository.getRowVersions(), id, treeArchiveRepository::findById, fields).orElse(null);
         
         if (tree == null) {
             return ResponseEntity.notFound().build();
@@ -114,8 +150,8 @@ public class TreeArchiveController {
         tree.setCreateTime(LocalDateTime.now());
         tree.setUpdateTime(LocalDateTime.now());
         
-        // 保存到内存
-        dataGeneratorService.getTreeArchives().put(tree.getId(), tree);
+        // 保存
+        treeArchiveRepository.save(tree);
         
         response.put("success", true);
         response.put("message", "林木档案创建成功");
@@ -131,9 +167,7 @@ public class TreeArchiveController {
     public ResponseEntity<Map<String, Object>> updateTree(@PathVariable Long id, 
                                                          @Valid @RequestBody TreeArchive tree) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, TreeArchive> allTrees = dataGeneratorService.getTreeArchives();
-        
-        TreeArchive existingTree = allTrees.get(id);
+        TreeArchive existingTree = treeArchiveRepository.findById(id).orElse(null);
         if (existingTree == null) {
             response.put("success", false);
             response.put("message", "林木档案不存在");
@@ -154,7 +188,7 @@ public class TreeArchiveController {
         tree.setCreateTime(existingTree.getCreateTime());
         tree.setUpdateTime(LocalDateTime.now());
         
-        allTrees.put(id, tree);
+        treeArchiveRepository.save(tree);
         
         response.put("success", true);
         response.put("message", "林木档案更新成功");
@@ -169,10 +203,7 @@ public class TreeArchiveController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, Object>> deleteTree(@PathVariable Long id) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, TreeArchive> allTrees = dataGeneratorService.getTreeArchives();
-        
-        TreeArchive tree = allTrees.remove(id);
-        if (tree == null) {
+        if (!treeArchiveRepository.deleteById(id)) {
             response.put("success", false);
             response.put("message", "林木档案不存在");
             return ResponseEntity.status(404).body(response);
@@ -190,14 +221,7 @@ public class TreeArchiveController {
     @DeleteMapping("/batch")
     public ResponseEntity<Map<String, Object>> deleteTrees(@RequestBody List<Long> ids) {
         Map<String, Object> response = new HashMap<>();
-        Map<Long, TreeArchive> allTrees = dataGeneratorService.getTreeArchives();
-        
-        int deletedCount = 0;
-        for (Long id : ids) {
-            if (allTrees.remove(id) != null) {
-                deletedCount++;
-            }
-        }
+        int deletedCount = treeArchiveRepository.deleteAllById(ids);
         
         response.put("success", true);
         response.put("message", "成功删除 " + deletedCount + " 条林木档案");
@@ -210,33 +234,39 @@ public class TreeArchiveController {
      * 获取统计信息
      */
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Object>> getStatistics() {
-        Map<Long, TreeArchive> allTrees = dataGeneratorService.getTreeArchives();
-        List<TreeArchive> treeList = new ArrayList<>(allTrees.values());
+    public ResponseEntity<?> getStatistics(WebRequest webRequest) {
+        // 数据未变化时返回304，否则按数据版本号取缓存的统计
+        if (webRequest.checkNotModified(ETagUtil.of(treeArchiveRepository.getVersion()))) {
+            return null;
+        }
         
+        return aggregateCacheService.respond(webRequest, "trees/statistics", List.of(),
+            new long[] {treeArchiveRepository.getVersion()}, this::buildStatistics);
+    }
+    
+    /**
+     * 计算统计信息（计数与合计由存储在写入时增量维护，这里只读取汇总值）
+     */
+    private Map<String, Object> buildStatistics() {
         Map<String, Object> stats = new HashMap<>();
         
         // 总数统计
-        stats.put("totalCount", treeList.size());
+        stats.put("totalCount", treeArchiveRepository.count());
         
         // 按树种统计
-        Map<String, Long> speciesStats = treeList.stream()
-            .collect(Collectors.groupingBy(TreeArchive::getTreeSpecies, Collectors.counting()));
-        stats.put("speciesStats", speciesStats);
+        stats.put("speciesStats", treeArchiveRepository.getSpeciesCounts());
         
         // 按健康状态统计
-        Map<String, Long> healthStats = treeList.stream()
-            .collect(Collectors.groupingBy(TreeArchive::getHealthStatus, Collectors.counting()));
-        stats.put("healthStats", healthStats);
+        stats.put("healthStats", treeArchiveRepository.getHealthCounts());
         
         // 平均胸径和树高
-        OptionalDouble avgDiameter = treeList.stream().mapToDouble(TreeArchive::getDiameter).average();
-        OptionalDouble avgHeight = treeList.stream().mapToDouble(TreeArchive::getHeight).average();
+        Double avgDiameter = treeArchiveRepository.getAverageDiameter();
+        Double avgHeight = treeArchiveRepository.getAverageHeight();
         
-        stats.put("avgDiameter", avgDiameter.isPresent() ? Math.round(avgDiameter.getAsDouble() * 100.0) / 100.0 : 0);
-        stats.put("avgHeight", avgHeight.isPresent() ? Math.round(avgHeight.getAsDouble() * 100.0) / 100.0 : 0);
+        stats.put("avgDiameter", avgDiameter != null ? Math.round(avgDiameter * 100.0) / 100.0 : 0);
+        stats.put("avgHeight", avgHeight != null ? Math.round(avgHeight * 100.0) / 100.0 : 0);
         
-        return ResponseEntity.ok(stats);
+        return stats;
     }
     
     /**
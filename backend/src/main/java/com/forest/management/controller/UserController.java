@@ -2,6 +2,7 @@ package com.forest.management.controller;
 
 import com.forest.management.model.User;
 import com.forest.management.service.AuthService;
+import com.forest.management.service.PasswordHashingBusyException;
 import com.forest.management.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -88,6 +89,8 @@ public class UserController extends BaseController {
             
             User user = userService.createUser(request.getUsername(), request.getPassword(), request.getRole());
             return success("创建用户成功", user);
+        } catch (PasswordHashingBusyException e) {
+            return error("创建用户失败: " + e.getMessage(), e.getStatus());
         } catch (Exception e) {
             return error("创建用户失败: " + e.getMessage());
         }
@@ -1,5 +1,7 @@
 package com.forest.management.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.forest.management.storage.SymbolTable;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -10,6 +12,9 @@ import java.time.LocalDateTime;
  * 采伐许可实体类
  */
 public class CuttingPermit {
+    
+    private static final int APPROVED = SymbolTable.encode("已批准");
+    
     private Long id;
     
     @NotBlank(message = "许可证编号不能为空")
@@ -39,6 +44,7 @@ public class CuttingPermit {
     
     @NotBlank(message = "状态不能为空")
     private String status; // 状态：待审批、已批准、已拒绝、已过期
+    private int statusCode = -1;
     
     private String approvalOpinion; // 审批意见
     private String approver; // 审批人
@@ -56,7 +62,7 @@ public class CuttingPermit {
     public CuttingPermit() {
         this.createTime = LocalDateTime.now();
         this.updateTime = LocalDateTime.now();
-        this.status = "待审批";
+        setStatus("待审批");
         this.applicationDate = LocalDate.now();
     }
     
@@ -73,7 +79,7 @@ public class CuttingPermit {
     
     // 审批通过
     public void approve(String approver, String opinion) {
-        this.status = "已批准";
+        setStatus("已批准");
         this.approver = approver;
         this.approvalOpinion = opinion;
         this.approvalDate = LocalDate.now();
@@ -83,7 +89,7 @@ public class CuttingPermit {
     
     // 审批拒绝
     public void reject(String approver, String opinion) {
-        this.status = "已拒绝";
+        setStatus("已拒绝");
         this.approver = approver;
         this.approvalOpinion = opinion;
         this.approvalDate = LocalDate.now();
@@ -92,16 +98,22 @@ public class CuttingPermit {
     
     // 检查是否即将到期
     public boolean isExpiringSoon() {
-        if (validUntil == null || !"已批准".equals(status)) return false;
+        if (validUntil == null || statusCode != APPROVED) return false;
         return validUntil.isBefore(LocalDate.now().plusDays(30));
     }
     
     // 检查是否已过期
     public boolean isExpired() {
-        if (validUntil == null || !"已批准".equals(status)) return false;
+        if (validUntil == null || statusCode != APPROVED) return false;
         return validUntil.isBefore(LocalDate.now());
     }
     
+    // 登记审批状态的编码
+    public void internSymbols() {
+        this.statusCode = SymbolTable.encode(status);
+        this.status = SymbolTable.decode(statusCode);
+    }
+    
     // Getter和Setter方法
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -134,7 +146,18 @@ public class CuttingPermit {
     public void setReason(String reason) { this.reason = reason; }
     
     public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public void setStatus(String status) {
+        this.statusCode = SymbolTable.lookup(status);
+        this.status = statusCode >= 0 ? SymbolTable.decode(statusCode) : status;
+    }
+    
+    @JsonIgnore
+    public int getStatusCode() { return statusCode; }
+    @JsonIgnore
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+        this.status = SymbolTable.decode(statusCode);
+    }
     
     public String getApprovalOpinion() { return approvalOpinion; }
     public void setApprovalOpinion(String approvalOpinion) { this.approvalOpinion = approvalOpinion; }
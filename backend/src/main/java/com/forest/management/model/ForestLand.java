@@ -1,5 +1,7 @@
 package com.forest.management.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.forest.management.storage.SymbolTable;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -16,6 +18,7 @@ public class ForestLand {
     
     @NotBlank(message = "林地分类不能为空")
     private String classification; // 用材林、防护林、经济林
+    private int classificationCode = -1;
     
     @NotNull(message = "面积不能为空")
     @Positive(message = "面积必须为正数")
@@ -36,11 +39,17 @@ public class ForestLand {
     public ForestLand(String name, String classification, Double area, String location) {
         this();
         this.name = name;
-        this.classification = classification;
+        setClassification(classification);
         this.area = area;
         this.location = location;
     }
     
+    // 登记林地分类的编码
+    public void internSymbols() {
+        this.classificationCode = SymbolTable.encode(classification);
+        this.classification = SymbolTable.decode(classificationCode);
+    }
+    
     // Getter和Setter方法
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -49,7 +58,18 @@ public class ForestLand {
     public void setName(String name) { this.name = name; }
     
     public String getClassification() { return classification; }
-    public void setClassification(String classification) { this.classification = classification; }
+    public void setClassification(String classification) {
+        this.classificationCode = SymbolTable.lookup(classification);
+        this.classification = classificationCode >= 0 ? SymbolTable.decode(classificationCode) : classification;
+    }
+    
+    @JsonIgnore
+    public int getClassificationCode() { return classificationCode; }
+    @JsonIgnore
+    public void setClassificationCode(int classificationCode) {
+        this.classificationCode = classificationCode;
+        this.classification = SymbolTable.decode(classificationCode);
+    }
     
     public Double getArea() { return area; }
     public void setArea(Double area) { this.area = area; }
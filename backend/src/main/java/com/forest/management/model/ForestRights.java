@@ -1,5 +1,7 @@
 package com.forest.management.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.forest.management.storage.SymbolTable;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
@@ -33,8 +35,10 @@ public class ForestRights {
     
     @NotBlank(message = "证书状态不能为空")
     private String status; // 状态：有效、过期、注销
+    private int statusCode = -1;
     
     private String issueOrgan; // 发证机关
+    private int issueOrganCode = -1;
     private String remarks; // 备注
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
@@ -43,7 +47,7 @@ public class ForestRights {
     public ForestRights() {
         this.createTime = LocalDateTime.now();
         this.updateTime = LocalDateTime.now();
-        this.status = "有效";
+        setStatus("有效");
     }
     
     public ForestRights(String certificateNo, String ownerName, Long forestLandId, 
@@ -68,6 +72,14 @@ public class ForestRights {
         return expiryDate.isBefore(LocalDate.now());
     }
     
+    // 登记证书状态、发证机关的编码
+    public void internSymbols() {
+        this.statusCode = SymbolTable.encode(status);
+        this.status = SymbolTable.decode(statusCode);
+        this.issueOrganCode = SymbolTable.encode(issueOrgan);
+        this.issueOrgan = SymbolTable.decode(issueOrganCode);
+    }
+    
     // Getter和Setter方法
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -97,10 +109,32 @@ public class ForestRights {
     public void setExpiryDate(LocalDate expiryDate) { this.expiryDate = expiryDate; }
     
     public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public void setStatus(String status) {
+        this.statusCode = SymbolTable.lookup(status);
+        this.status = statusCode >= 0 ? SymbolTable.decode(statusCode) : status;
+    }
+    
+    @JsonIgnore
+    public int getStatusCode() { return statusCode; }
+    @JsonIgnore
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+        this.status = SymbolTable.decode(statusCode);
+    }
     
     public String getIssueOrgan() { return issueOrgan; }
-    public void setIssueOrgan(String issueOrgan) { this.issueOrgan = issueOrgan; }
+    public void setIssueOrgan(String issueOrgan) {
+        this.issueOrganCode = SymbolTable.lookup(issueOrgan);
+        this.issueOrgan = issueOrganCode >= 0 ? SymbolTable.decode(issueOrganCode) : issueOrgan;
+    }
+    
+    @JsonIgnore
+    public int getIssueOrganCode() { return issueOrganCode; }
+    @JsonIgnore
+    public void setIssueOrganCode(int issueOrganCode) {
+        this.issueOrganCode = issueOrganCode;
+        this.issueOrgan = SymbolTable.decode(issueOrganCode);
+    }
     
     public String getRemarks() { return remarks; }
     public void setRemarks(String remarks) { this.remarks = remarks; }
@@ -1,5 +1,7 @@
 package com.forest.management.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.forest.management.storage.SymbolTable;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.time.LocalDate;
@@ -18,6 +20,7 @@ public class ResourceMonitor {
     
     @NotNull(message = "监测类型不能为空")
     private String monitorType; // 监测类型：生长量、蓄积量
+    private int monitorTypeCode = -1;
     
     @NotNull(message = "当前值不能为空")
     @Positive(message = "当前值必须为正数")
@@ -31,6 +34,7 @@ public class ResourceMonitor {
     private LocalDate monitorDate; // 监测日期
     
     private String unit; // 单位
+    private int unitCode = -1;
     private String remarks; // 备注
     private LocalDateTime createTime;
     
@@ -42,7 +46,7 @@ public class ResourceMonitor {
     public ResourceMonitor(Long forestLandId, String monitorType, Double currentValue, LocalDate monitorDate) {
         this();
         this.forestLandId = forestLandId;
-        this.monitorType = monitorType;
+        setMonitorType(monitorType);
         this.currentValue = currentValue;
         this.monitorDate = monitorDate;
     }
@@ -55,6 +59,14 @@ public class ResourceMonitor {
         }
     }
     
+    // 登记监测类型、单位的编码
+    public void internSymbols() {
+        this.monitorTypeCode = SymbolTable.encode(monitorType);
+        this.monitorType = SymbolTable.decode(monitorTypeCode);
+        this.unitCode = SymbolTable.encode(unit);
+        this.unit = SymbolTable.decode(unitCode);
+    }
+    
     // Getter和Setter方法
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -66,7 +78,18 @@ public class ResourceMonitor {
     public void setForestLandName(String forestLandName) { this.forestLandName = forestLandName; }
     
     public String getMonitorType() { return monitorType; }
-    public void setMonitorType(String monitorType) { this.monitorType = monitorType; }
+    public void setMonitorType(String monitorType) {
+        this.monitorTypeCode = SymbolTable.lookup(monitorType);
+        this.monitorType = monitorTypeCode >= 0 ? SymbolTable.decode(monitorTypeCode) : monitorType;
+    }
+    
+    @JsonIgnore
+    public int getMonitorTypeCode() { return monitorTypeCode; }
+    @JsonIgnore
+    public void setMonitorTypeCode(int monitorTypeCode) {
+        this.monitorTypeCode = monitorTypeCode;
+        this.monitorType = SymbolTable.decode(monitorTypeCode);
+    }
     
     public Double getCurrentValue() { return currentValue; }
     public void setCurrentValue(Double currentValue) { 
@@ -90,7 +113,18 @@ public class ResourceMonitor {
     public void setMonitorDate(LocalDate monitorDate) { this.monitorDate = monitorDate; }
     
     public String getUnit() { return unit; }
-    public void setUnit(String unit) { this.unit = unit; }
+    public void setUnit(String unit) {
+        this.unitCode = SymbolTable.lookup(unit);
+        this.unit = unitCode >= 0 ? SymbolTable.decode(unitCode) : unit;
+    }
+    
+    @JsonIgnore
+    public int getUnitCode() { return unitCode; }
+    @JsonIgnore
+    public void setUnitCode(int unitCode) {
+        this.unitCode = unitCode;
+        this.unit = SymbolTable.decode(unitCode);
+    }
     
     public String getRemarks() { return remarks; }
     public void setRemarks(String remarks) { this.remarks = remarks; }
@@ -1,5 +1,7 @@
 package com.forest.management.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.forest.management.storage.SymbolTable;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -13,6 +15,7 @@ public class TreeArchive {
     
     @NotBlank(message = "树种不能为空")
     private String treeSpecies;
+    private int treeSpeciesCode = -1;
     
     @NotNull(message = "胸径不能为空")
     @Positive(message = "胸径必须为正数")
@@ -24,6 +27,7 @@ public class TreeArchive {
     
     @NotBlank(message = "健康状态不能为空")
     private String healthStatus;
+    private int healthStatusCode = -1;
     
     private String location;
     private LocalDateTime createTime;
@@ -37,19 +41,38 @@ public class TreeArchive {
     
     public TreeArchive(String treeSpecies, Double diameter, Double height, String healthStatus, String location) {
         this();
-        this.treeSpecies = treeSpecies;
+        setTreeSpecies(treeSpecies);
         this.diameter = diameter;
         this.height = height;
-        this.healthStatus = healthStatus;
+        setHealthStatus(healthStatus);
         this.location = location;
     }
     
+    // 登记树种、健康状态的编码
+    public void internSymbols() {
+        this.treeSpeciesCode = SymbolTable.encode(treeSpecies);
+        this.treeSpecies = SymbolTable.decode(treeSpeciesCode);
+        this.healthStatusCode = SymbolTable.encode(healthStatus);
+        this.healthStatus = SymbolTable.decode(healthStatusCode);
+    }
+    
     // Getter和Setter方法
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     
     public String getTreeSpecies() { return treeSpecies; }
-    public void setTreeSpecies(String treeSpecies) { this.treeSpecies = treeSpecies; }
+    public void setTreeSpecies(String treeSpecies) {
+        this.treeSpeciesCode = SymbolTable.lookup(treeSpecies);
+        this.treeSpecies = treeSpeciesCode >= 0 ? SymbolTable.decode(treeSpeciesCode) : treeSpecies;
+    }
+    
+    @JsonIgnore
+    public int getTreeSpeciesCode() { return treeSpeciesCode; }
+    @JsonIgnore
+    public void setTreeSpeciesCode(int treeSpeciesCode) {
+        this.treeSpeciesCode = treeSpeciesCode;
+        this.treeSpecies = SymbolTable.decode(treeSpeciesCode);
+    }
     
     public Double getDiameter() { return diameter; }
     public void setDiameter(Double diameter) { this.diameter = diameter; }
@@ -58,7 +81,18 @@ public class TreeArchive {
     public void setHeight(Double height) { this.height = height; }
     
     public String getHealthStatus() { return healthStatus; }
-    public void setHealthStatus(String healthStatus) { this.healthStatus = healthStatus; }
+    public void setHealthStatus(String healthStatus) {
+        this.healthStatusCode = SymbolTable.lookup(healthStatus);
+        this.healthStatus = healthStatusCode >= 0 ? SymbolTable.decode(healthStatusCode) : healthStatus;
+    }
+    
+    @JsonIgnore
+    public int getHealthStatusCode() { return healthStatusCode; }
+    @JsonIgnore
+    public void setHealthStatusCode(int healthStatusCode) {
+        this.healthStatusCode = healthStatusCode;
+        this.healthStatus = SymbolTable.decode(healthStatusCode);
+    }
     
     public String getLocation() { return location; }
     public void setLocation(String location) { this.location = location; }
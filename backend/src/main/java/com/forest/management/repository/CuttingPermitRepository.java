@@ -0,0 +1,22 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.CuttingPermit;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 采伐许可数据存储库
+ */
+public interface CuttingPermitRepository extends EntityRepository<CuttingPermit> {
+
+    /**
+     * 按审批状态计数
+     */
+    Map<String, Long> getStatusCounts();
+
+    /**
+     * 有效期早于date的已批准许可数
+     */
+    long countExpiringBefore(LocalDate date);
+}
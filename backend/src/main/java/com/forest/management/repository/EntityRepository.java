@@ -0,0 +1,90 @@
+package com.forest.management.repository;
+
+import com.forest.management.storage.Criteria;
+import com.forest.management.storage.OrderedIndex;
+import com.forest.management.storage.PageResult;
+import com.forest.management.storage.RowVersions;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * 实体数据存储库
+ * 控制器和服务通过它读写实体，不直接访问底层存储；
+ * 记录保存在堆内还是磁盘上由 forest.storage.engine 决定，对调用方透明
+ */
+public interface EntityRepository<T> {
+
+    /**
+     * 保存实体（按ID新增或覆盖），ID由调用方生成
+     * 唯一键冲突时抛出DuplicateKeyException且不做任何修改
+     */
+    T save(T entity);
+
+    /**
+     * 批量保存
+     */
+    void saveAll(Collection<T> entities);
+
+    /**
+     * 根据ID查找
+     */
+    Optional<T> findById(Long id);
+
+    /**
+     * 检查ID是否存在
+     */
+    boolean existsById(Long id);
+
+    /**
+     * 获取全部实体
+     */
+    List<T> findAll();
+
+    /**
+     * 按条件查询
+     */
+    List<T> findAll(Criteria criteria);
+
+    /**
+     * 按创建时间倒序逐条遍历满足条件的记录，不物化结果集合（用于导出）
+     */
+    void scan(Criteria criteria, Consumer<T> action);
+
+    /**
+     * 按创建时间倒序分页查询，after不为空时为键集分页（offset被忽略）
+     */
+    PageResult<T> findPage(Criteria criteria, OrderedIndex.Key after, int offset, int limit);
+
+    /**
+     * 原地修改实体（如审批、状态变更），不存在时返回空
+     */
+    Optional<T> update(Long id, Consumer<T> mutator);
+
+    /**
+     * 删除实体，返回是否存在
+     */
+    boolean deleteById(Long id);
+
+    /**
+     * 批量删除，返回实际删除的条数
+     */
+    int deleteAllById(Collection<Long> ids);
+
+    /**
+     * 获取实体总数
+     */
+    int count();
+
+    /**
+     * 数据版本号，每次写入后递增
+     */
+    long getVersion();
+
+    /**
+     * 行版本号，用于按行缓存派生数据（如实体的JSON字节）
+     */
+    RowVersions getRowVersions();
+}
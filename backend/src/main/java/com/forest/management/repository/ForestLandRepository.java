@@ -0,0 +1,21 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.ForestLand;
+
+import java.util.Map;
+
+/**
+ * 林地信息数据存储库
+ */
+public interface ForestLandRepository extends EntityRepository<ForestLand> {
+
+    /**
+     * 按林地分类计数
+     */
+    Map<String, Long> getClassificationCounts();
+
+    /**
+     * 林地总面积
+     */
+    double getTotalArea();
+}
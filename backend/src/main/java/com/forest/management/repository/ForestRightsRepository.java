@@ -0,0 +1,22 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.ForestRights;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 林权证书数据存储库
+ */
+public interface ForestRightsRepository extends EntityRepository<ForestRights> {
+
+    /**
+     * 按证书状态计数
+     */
+    Map<String, Long> getStatusCounts();
+
+    /**
+     * 到期日早于date的证书数
+     */
+    long countExpiringBefore(LocalDate date);
+}
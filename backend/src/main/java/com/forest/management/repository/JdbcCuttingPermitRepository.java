@@ -0,0 +1,89 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.CuttingPermit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 采伐许可数据存储库（嵌入式关系库，表cutting_permit，许可证编号唯一）
+ */
+@Repository
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "jdbc")
+public class JdbcCuttingPermitRepository extends JdbcRepository<CuttingPermit> implements CuttingPermitRepository {
+
+    public JdbcCuttingPermitRepository(JdbcTemplate jdbc, TransactionTemplate transactions,
+                                       @Value("${forest.storage.jdbc.batch-size:500}") int batchSize) {
+        super(jdbc, transactions, batchSize, "cutting_permit",
+            "id", "permit_no", "applicant_name", "applicant_phone", "applicant_id_card", "forest_land_id",
+            "forest_land_name", "cutting_area", "cutting_volume", "reason", "status", "approval_opinion", "approver",
+            "application_date", "approval_date", "valid_until", "create_time", "update_time");
+        unique("permitNo", CuttingPermit::getPermitNo);
+        filter("permitNo", "permit_no");
+        filter("applicantName", "applicant_name");
+        filter("status", "status");
+    }
+
+    @Override
+    protected Object[] values(CuttingPermit permit) {
+        return new Object[]{permit.getId(), permit.getPermitNo(), permit.getApplicantName(), permit.getApplicantPhone(),
+            permit.getApplicantIdCard(), permit.getForestLandId(), permit.getForestLandName(), permit.getCuttingArea(),
+            permit.getCuttingVolume(), permit.getReason(), permit.getStatus(), permit.getApprovalOpinion(),
+            permit.getApprover(), permit.getApplicationDate(), permit.getApprovalDate(), permit.getValidUntil(),
+            permit.getCreateTime(), permit.getUpdateTime()};
+    }
+
+    @Override
+    protected CuttingPermit mapRow(ResultSet rs) throws SQLException {
+        CuttingPermit permit = new CuttingPermit();
+        permit.setId(getLong(rs, "id"));
+        permit.setPermitNo(rs.getString("permit_no"));
+        permit.setApplicantName(rs.getString("applicant_name"));
+        permit.setApplicantPhone(rs.getString("applicant_phone"));
+        permit.setApplicantIdCard(rs.getString("applicant_id_card"));
+        permit.setForestLandId(getLong(rs, "forest_land_id"));
+        permit.setForestLandName(rs.getString("forest_land_name"));
+        permit.setCuttingArea(getDouble(rs, "cutting_area"));
+        permit.setCuttingVolume(getDouble(rs, "cutting_volume"));
+        permit.setReason(rs.getString("reason"));
+        permit.setStatus(rs.getString("status"));
+        permit.setApprovalOpinion(rs.getString("approval_opinion"));
+        permit.setApprover(rs.getString("approver"));
+        permit.setApplicationDate(getDate(rs, "application_date"));
+        permit.setApprovalDate(getDate(rs, "approval_date"));
+        permit.setValidUntil(getDate(rs, "valid_until"));
+        permit.setCreateTime(getDateTime(rs, "create_time"));
+        permit.setUpdateTime(getDateTime(rs, "update_time"));
+        return permit;
+    }
+
+    @Override
+    protected Long idOf(CuttingPermit permit) {
+        return permit.getId();
+    }
+
+    @Override
+    protected LocalDateTime createTimeOf(CuttingPermit permit) {
+        return permit.getCreateTime();
+    }
+
+    @Override
+    public Map<String, Long> getStatusCounts() {
+        return countBy("status");
+    }
+
+    @Override
+    public long countExpiringBefore(LocalDate date) {
+        Long count = jdbc.queryForObject(
+            "SELECT COUNT(*) FROM cutting_permit WHERE status = '已批准' AND valid_until < ?", Long.class, date);
+        return count != null ? count : 0;
+    }
+}
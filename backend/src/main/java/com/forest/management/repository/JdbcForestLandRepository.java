@@ -0,0 +1,72 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.ForestLand;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 林地信息数据存储库（嵌入式关系库，表forest_land）
+ */
+@Repository
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "jdbc")
+public class JdbcForestLandRepository extends JdbcRepository<ForestLand> implements ForestLandRepository {
+
+    public JdbcForestLandRepository(JdbcTemplate jdbc, TransactionTemplate transactions,
+                                    @Value("${forest.storage.jdbc.batch-size:500}") int batchSize) {
+        super(jdbc, transactions, batchSize, "forest_land",
+            "id", "name", "classification", "area", "location", "coordinates", "description", "create_time", "update_time");
+        filter("classification", "classification");
+        filter("name", "name");
+        filter("location", "location");
+    }
+
+    @Override
+    protected Object[] values(ForestLand land) {
+        return new Object[]{land.getId(), land.getName(), land.getClassification(), land.getArea(), land.getLocation(),
+            land.getCoordinates(), land.getDescription(), land.getCreateTime(), land.getUpdateTime()};
+    }
+
+    @Override
+    protected ForestLand mapRow(ResultSet rs) throws SQLException {
+        ForestLand land = new ForestLand();
+        land.setId(getLong(rs, "id"));
+        land.setName(rs.getString("name"));
+        land.setClassification(rs.getString("classification"));
+        land.setArea(getDouble(rs, "area"));
+        land.setLocation(rs.getString("location"));
+        land.setCoordinates(rs.getString("coordinates"));
+        land.setDescription(rs.getString("description"));
+        land.setCreateTime(getDateTime(rs, "create_time"));
+        land.setUpdateTime(getDateTime(rs, "update_time"));
+        return land;
+    }
+
+    @Override
+    protected Long idOf(ForestLand land) {
+        return land.getId();
+    }
+
+    @Override
+    protected LocalDateTime createTimeOf(ForestLand land) {
+        return land.getCreateTime();
+    }
+
+    @Override
+    public Map<String, Long> getClassificationCounts() {
+        return countBy("classification");
+    }
+
+    @Override
+    public double getTotalArea() {
+        Double total = jdbc.queryForObject("SELECT COALESCE(SUM(area), 0) FROM forest_land", Double.class);
+        return total != null ? total : 0;
+    }
+}
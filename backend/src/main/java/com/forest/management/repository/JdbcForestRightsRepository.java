@@ -0,0 +1,82 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.ForestRights;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 林权证书数据存储库（嵌入式关系库，表forest_rights，证书编号唯一）
+ */
+@Repository
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "jdbc")
+public class JdbcForestRightsRepository extends JdbcRepository<ForestRights> implements ForestRightsRepository {
+
+    public JdbcForestRightsRepository(JdbcTemplate jdbc, TransactionTemplate transactions,
+                                      @Value("${forest.storage.jdbc.batch-size:500}") int batchSize) {
+        super(jdbc, transactions, batchSize, "forest_rights",
+            "id", "certificate_no", "owner_name", "owner_id_card", "owner_phone", "forest_land_id", "forest_land_name",
+            "issue_date", "expiry_date", "status", "issue_organ", "remarks", "create_time", "update_time");
+        unique("certificateNo", ForestRights::getCertificateNo);
+        filter("certificateNo", "certificate_no");
+        filter("ownerName", "owner_name");
+        filter("status", "status");
+    }
+
+    @Override
+    protected Object[] values(ForestRights rights) {
+        return new Object[]{rights.getId(), rights.getCertificateNo(), rights.getOwnerName(), rights.getOwnerIdCard(),
+            rights.getOwnerPhone(), rights.getForestLandId(), rights.getForestLandName(), rights.getIssueDate(),
+            rights.getExpiryDate(), rights.getStatus(), rights.getIssueOrgan(), rights.getRemarks(),
+            rights.getCreateTime(), rights.getUpdateTime()};
+    }
+
+    @Override
+    protected ForestRights mapRow(ResultSet rs) throws SQLException {
+        ForestRights rights = new ForestRights();
+        rights.setId(getLong(rs, "id"));
+        rights.setCertificateNo(rs.getString("certificate_no"));
+        rights.setOwnerName(rs.getString("owner_name"));
+        rights.setOwnerIdCard(rs.getString("owner_id_card"));
+        rights.setOwnerPhone(rs.getString("owner_phone"));
+        rights.setForestLandId(getLong(rs, "forest_land_id"));
+        rights.setForestLandName(rs.getString("forest_land_name"));
+        rights.setIssueDate(getDate(rs, "issue_date"));
+        rights.setExpiryDate(getDate(rs, "expiry_date"));
+        rights.setStatus(rs.getString("status"));
+        rights.setIssueOrgan(rs.getString("issue_organ"));
+        rights.setRemarks(rs.getString("remarks"));
+        rights.setCreateTime(getDateTime(rs, "create_time"));
+        rights.setUpdateTime(getDateTime(rs, "update_time"));
+        return rights;
+    }
+
+    @Override
+    protected Long idOf(ForestRights rights) {
+        return rights.getId();
+    }
+
+    @Override
+    protected LocalDateTime createTimeOf(ForestRights rights) {
+        return rights.getCreateTime();
+    }
+
+    @Override
+    public Map<String, Long> getStatusCounts() {
+        return countBy("status");
+    }
+
+    @Override
+    public long countExpiringBefore(LocalDate date) {
+        Long count = jdbc.queryForObject("SELECT COUNT(*) FROM forest_rights WHERE expiry_date < ?", Long.class, date);
+        return count != null ? count : 0;
+    }
+}
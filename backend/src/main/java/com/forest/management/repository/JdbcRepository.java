@@ -0,0 +1,342 @@
+package com.forest.management.repository;
+
+import com.forest.management.storage.Criteria;
+import com.forest.management.storage.DuplicateKeyException;
+import com.forest.management.storage.OrderedIndex;
+import com.forest.management.storage.PageCursor;
+import com.forest.management.storage.PageResult;
+import com.forest.management.storage.RowVersions;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 基于嵌入式关系库的存储库实现
+ * 每个实体对应一张表，第一列为主键id；查询字段在构造时登记到对应的列，
+ * 列表分页与内存存储一致，按 (创建时间倒序, ID倒序) 排列，创建时间为空的记录排在最后
+ */
+public abstract class JdbcRepository<T> implements EntityRepository<T> {
+
+    protected final JdbcTemplate jdbc;
+    protected final TransactionTemplate transactions;
+    protected final String table;
+    private final int batchSize;
+    private final String columnList;
+    private final String mergeSql;
+    private final Map<String, String> filterColumns = new HashMap<>();
+    private final RowVersions versions = new RowVersions();
+
+    // 唯一键，冲突时按内存存储的方式报告字段名和值
+    private String uniqueField;
+    private Function<T, String> uniqueAccessor;
+
+    protected JdbcRepository(JdbcTemplate jdbc, TransactionTemplate transactions, int batchSize,
+                             String table, String... columns) {
+        this.jdbc = jdbc;
+        this.transactions = transactions;
+        this.batchSize = Math.max(batchSize, 1);
+        this.table = table;
+        this.columnList = String.join(", ", columns);
+        this.mergeSql = "MERGE INTO " + table + " (" + columnList + ") KEY (id) VALUES ("
+            + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+    }
+
+    /**
+     * 登记查询字段对应的列
+     */
+    protected void filter(String field, String column) {
+        filterColumns.put(field, column);
+    }
+
+    /**
+     * 登记唯一键字段（约束由表结构保证）
+     */
+    protected void unique(String field, Function<T, String> accessor) {
+        this.uniqueField = field;
+        this.uniqueAccessor = accessor;
+    }
+
+    /**
+     * 按列顺序取出实体的字段值
+     */
+    protected abstract Object[] values(T entity);
+
+    /**
+     * 将当前行还原为实体
+     */
+    protected abstract T mapRow(ResultSet rs) throws SQLException;
+
+    protected abstract Long idOf(T entity);
+
+    protected abstract LocalDateTime createTimeOf(T entity);
+
+    @Override
+    public T save(T entity) {
+        Objects.requireNonNull(idOf(entity), "id");
+        try {
+            jdbc.update(mergeSql, values(entity));
+        } catch (org.springframework.dao.DuplicateKeyException e) {
+            throw new DuplicateKeyException(uniqueField, uniqueAccessor != null ? uniqueAccessor.apply(entity) : null);
+        }
+        bumpVersions(List.of(idOf(entity)));
+        return entity;
+    }
+
+    /**
+     * 批量保存，按batch-size分批提交同一条预编译语句，整体在一个事务内
+     */
+    @Override
+    public void saveAll(Collection<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            Objects.requireNonNull(idOf(entity), "id");
+            args.add(values(entity));
+        }
+        try {
+            transactions.executeWithoutResult(status -> {
+                for (int from = 0; from < args.size(); from += batchSize) {
+                    jdbc.batchUpdate(mergeSql, args.subList(from, Math.min(from + batchSize, args.size())));
+                }
+            });
+        } catch (org.springframework.dao.DuplicateKeyException e) {
+            throw new DuplicateKeyException(uniqueField, null);
+        }
+        bumpVersions(entities.stream().map(this::idOf).toList());
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        List<T> rows = jdbc.query("SELECT " + columnList + " FROM " + table + " WHERE id = ?", (rs, n) -> mapRow(rs), id);
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return !jdbc.queryForList("SELECT id FROM " + table + " WHERE id = ?", Long.class, id).isEmpty();
+    }
+
+    @Override
+    public List<T> findAll() {
+        return findAll(new Criteria());
+    }
+
+    @Override
+    public List<T> findAll(Criteria criteria) {
+        List<Object> args = new ArrayList<>();
+        String where = where(criteria, args);
+        return jdbc.query("SELECT " + columnList + " FROM " + table + where + " ORDER BY id",
+            (rs, n) -> mapRow(rs), args.toArray());
+    }
+
+    /**
+     * 逐行读取结果集回调，H2对超出MAX_MEMORY_ROWS的结果集使用临时文件缓冲
+     */
+    @Override
+    public void scan(Criteria criteria, Consumer<T> action) {
+        List<Object> args = new ArrayList<>();
+        String where = where(criteria, args);
+        jdbc.query("SELECT " + columnList + " FROM " + table + where + " ORDER BY create_time DESC NULLS LAST, id DESC",
+            (RowCallbackHandler) rs -> action.accept(mapRow(rs)), args.toArray());
+    }
+
+    /**
+     * 多取一条判断是否还有下一页；总数只按过滤条件计算，与游标无关
+     */
+    @Override
+    public PageResult<T> findPage(Criteria criteria, OrderedIndex.Key after, int offset, int limit) {
+        List<Object> args = new ArrayList<>();
+        String where = where(criteria, args);
+        Integer total = jdbc.queryForObject("SELECT COUNT(*) FROM " + table + where, Integer.class, args.toArray());
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(columnList).append(" FROM ").append(table).append(where);
+        if (after != null) {
+            sql.append(where.isEmpty() ? " WHERE " : " AND ");
+            if (after.getTime().equals(LocalDateTime.MIN)) {
+                sql.append("(create_time IS NULL AND id < ?)");
+            } else {
+                Timestamp time = Timestamp.valueOf(after.getTime());
+                sql.append("(create_time < ? OR create_time IS NULL OR (create_time = ? AND id < ?))");
+                args.add(time);
+                args.add(time);
+            }
+            args.add(after.getId());
+        }
+        sql.append(" ORDER BY create_time DESC NULLS LAST, id DESC LIMIT ? OFFSET ?");
+        args.add(limit + 1);
+        args.add(after != null ? 0 : Math.max(offset, 0));
+
+        List<T> rows = jdbc.query(sql.toString(), (rs, n) -> mapRow(rs), args.toArray());
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = new ArrayList<>(rows.subList(0, limit));
+            T last = rows.get(rows.size() - 1);
+            LocalDateTime time = createTimeOf(last);
+            nextCursor = PageCursor.encode(new OrderedIndex.Key(time != null ? time : LocalDateTime.MIN, idOf(last)));
+        }
+        return new PageResult<>(rows, total != null ? total : 0, nextCursor);
+    }
+
+    /**
+     * 在事务内锁定记录后修改并写回
+     */
+    @Override
+    public Optional<T> update(Long id, Consumer<T> mutator) {
+        T updated = transactions.execute(status -> {
+            List<T> rows = jdbc.query("SELECT " + columnList + " FROM " + table + " WHERE id = ? FOR UPDATE",
+                (rs, n) -> mapRow(rs), id);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            T row = rows.get(0);
+            mutator.accept(row);
+            save(row);
+            return row;
+        });
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        boolean deleted = jdbc.update("DELETE FROM " + table + " WHERE id = ?", id) > 0;
+        if (deleted) {
+            bumpVersions(List.of(id));
+        }
+        return deleted;
+    }
+
+    /**
+     * 批量删除，按batch-size分批提交
+     */
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        List<Object[]> args = ids.stream().map(id -> new Object[]{id}).toList();
+        Integer deleted = transactions.execute(status -> {
+            int count = 0;
+            for (int from = 0; from < args.size(); from += batchSize) {
+                for (int rows : jdbc.batchUpdate("DELETE FROM " + table + " WHERE id = ?",
+                        args.subList(from, Math.min(from + batchSize, args.size())))) {
+                    count += Math.max(rows, 0);
+                }
+            }
+            return count;
+        });
+        if (deleted != null && deleted > 0) {
+            bumpVersions(ids);
+        }
+        return deleted != null ? deleted : 0;
+    }
+
+    @Override
+    public int count() {
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public long getVersion() {
+        return versions.get();
+    }
+
+    @Override
+    public RowVersions getRowVersions() {
+        return versions;
+    }
+
+    /**
+     * 递增写入行的版本号；处于事务中时（如update）在提交之后才递增，
+     * 避免读取方在提交前拿到新版本号、读到旧数据并以新版本号缓存
+     */
+    private void bumpVersions(Collection<Long> ids) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(versions::bump);
+                }
+            });
+        } else {
+            ids.forEach(versions::bump);
+        }
+    }
+
+    /**
+     * 表中最大的ID，空表时返回0
+     */
+    public long maxId() {
+        Long max = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max != null ? max : 0;
+    }
+
+    /**
+     * 按列分组计数，空值不计
+     */
+    protected Map<String, Long> countBy(String column) {
+        Map<String, Long> counts = new HashMap<>();
+        jdbc.query("SELECT " + column + ", COUNT(*) FROM " + table + " WHERE " + column + " IS NOT NULL GROUP BY " + column,
+            rs -> {
+                counts.put(rs.getString(1), rs.getLong(2));
+            });
+        return counts;
+    }
+
+    /**
+     * 列的平均值（忽略空值），没有记录时返回null
+     */
+    protected Double averageOf(String column) {
+        return jdbc.queryForObject("SELECT AVG(" + column + ") FROM " + table, Double.class);
+    }
+
+    /**
+     * 将查询条件转为WHERE子句，包含子串的条件转义LIKE通配符
+     */
+    private String where(Criteria criteria, List<Object> args) {
+        if (criteria.isEmpty()) {
+            return "";
+        }
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "");
+        for (Criteria.Condition condition : criteria.getConditions()) {
+            String column = filterColumns.get(condition.getField());
+            if (column == null) {
+                throw new IllegalArgumentException("不支持的查询字段: " + condition.getField());
+            }
+            if (condition.getOperator() == Criteria.Operator.EQ) {
+                where.add(column + " = ?");
+                args.add(condition.getValue());
+            } else {
+                where.add(column + " LIKE ? ESCAPE '\\'");
+                args.add("%" + condition.getValue().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+            }
+        }
+        return where.toString();
+    }
+
+    protected static Long getLong(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, Long.class);
+    }
+
+    protected static Double getDouble(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, Double.class);
+    }
+
+    protected static LocalDate getDate(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, LocalDate.class);
+    }
+
+    protected static LocalDateTime getDateTime(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, LocalDateTime.class);
+    }
+}
@@ -0,0 +1,175 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.ResourceMonitor;
+import com.forest.management.storage.RowVersions;
+import com.forest.management.storage.SeriesAggregate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 资源监测数据存储库（嵌入式关系库，表resource_monitor）
+ * 按 (监测类型, 林地, 监测日期) 建复合索引，与内存存储的分区方式对应
+ */
+@Repository
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "jdbc")
+public class JdbcResourceMonitorRepository implements ResourceMonitorRepository {
+
+    private static final String COLUMNS = "id, forest_land_id, forest_land_name, monitor_type, current_value, "
+        + "previous_value, monitor_date, unit, remarks, create_time";
+    private static final String INSERT_SQL = "INSERT INTO resource_monitor (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final int batchSize;
+    private final RowVersions versions = new RowVersions();
+
+    public JdbcResourceMonitorRepository(JdbcTemplate jdbc, TransactionTemplate transactions,
+                                         @Value("${forest.storage.jdbc.batch-size:500}") int batchSize) {
+        this.jdbc = jdbc;
+        this.transactions = transactions;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    @Override
+    public void save(ResourceMonitor monitor) {
+        jdbc.update(INSERT_SQL, values(monitor));
+        versions.bump(monitor.getId());
+    }
+
+    @Override
+    public void saveAll(Collection<ResourceMonitor> monitors) {
+        List<Object[]> args = monitors.stream().map(JdbcResourceMonitorRepository::values).toList();
+        transactions.executeWithoutResult(status -> {
+            for (int from = 0; from < args.size(); from += batchSize) {
+                jdbc.batchUpdate(INSERT_SQL, args.subList(from, Math.min(from + batchSize, args.size())));
+            }
+        });
+        monitors.forEach(monitor -> versions.bump(monitor.getId()));
+    }
+
+    @Override
+    public List<ResourceMonitor> findAll(String monitorType, Long forestLandId, LocalDate start, LocalDate end) {
+        List<Object> args = new ArrayList<>();
+        String where = where(monitorType, forestLandId, start, end, args);
+        return jdbc.query("SELECT " + COLUMNS + " FROM resource_monitor" + where + " ORDER BY monitor_date, id",
+            (rs, n) -> mapRow(rs), args.toArray());
+    }
+
+    @Override
+    public void scan(String monitorType, Long forestLandId, LocalDate start, LocalDate end, Consumer<ResourceMonitor> action) {
+        List<Object> args = new ArrayList<>();
+        String where = where(monitorType, forestLandId, start, end, args);
+        jdbc.query("SELECT " + COLUMNS + " FROM resource_monitor" + where + " ORDER BY monitor_date, id",
+            (RowCallbackHandler) rs -> action.accept(mapRow(rs)), args.toArray());
+    }
+
+    @Override
+    public List<ResourceMonitor> findChanges(LocalDate start, double minAbsChangeRate) {
+        List<Object> args = new ArrayList<>();
+        String where = where(null, null, start, null, args);
+        args.add(minAbsChangeRate);
+        return jdbc.query("SELECT " + COLUMNS + " FROM resource_monitor"
+                + (where.isEmpty() ? " WHERE " : where + " AND ")
+                + "previous_value > 0 AND ABS((current_value - previous_value) / previous_value * 100) > ?"
+                + " ORDER BY monitor_date, id",
+            (rs, n) -> mapRow(rs), args.toArray());
+    }
+
+    @Override
+    public SeriesAggregate aggregate(String monitorType, Long forestLandId, LocalDate start, LocalDate end) {
+        List<Object> args = new ArrayList<>();
+        String where = where(monitorType, forestLandId, start, end, args);
+        return jdbc.queryForObject("SELECT COUNT(current_value), COALESCE(SUM(current_value), 0) FROM resource_monitor" + where,
+            (rs, n) -> new SeriesAggregate(rs.getLong(1), rs.getDouble(2)), args.toArray());
+    }
+
+    @Override
+    public Set<String> findTypes() {
+        return new HashSet<>(jdbc.queryForList("SELECT DISTINCT monitor_type FROM resource_monitor", String.class));
+    }
+
+    @Override
+    public LocalDate findLatestDate() {
+        return jdbc.queryForObject("SELECT MAX(monitor_date) FROM resource_monitor", LocalDate.class);
+    }
+
+    @Override
+    public int count() {
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM resource_monitor", Integer.class);
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public long getVersion() {
+        return versions.get();
+    }
+
+    @Override
+    public RowVersions getRowVersions() {
+        return versions;
+    }
+
+    /**
+     * 表中最大的ID，空表时返回0
+     */
+    public long maxId() {
+        Long max = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM resource_monitor", Long.class);
+        return max != null ? max : 0;
+    }
+
+    /**
+     * 日期范围 [start, end] 两端都包含，各参数为null时表示不限
+     */
+    private static String where(String monitorType, Long forestLandId, LocalDate start, LocalDate end, List<Object> args) {
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+        if (monitorType != null) {
+            where.add("monitor_type = ?");
+            args.add(monitorType);
+        }
+        if (forestLandId != null) {
+            where.add("forest_land_id = ?");
+            args.add(forestLandId);
+        }
+        if (start != null) {
+            where.add("monitor_date >= ?");
+            args.add(start);
+        }
+        if (end != null) {
+            where.add("monitor_date <= ?");
+            args.add(end);
+        }
+        return where.toString();
+    }
+
+    private static Object[] values(ResourceMonitor monitor) {
+        return new Object[]{monitor.getId(), monitor.getForestLandId(), monitor.getForestLandName(),
+            monitor.getMonitorType(), monitor.getCurrentValue(), monitor.getPreviousValue(), monitor.getMonitorDate(),
+            monitor.getUnit(), monitor.getRemarks(), monitor.getCreateTime()};
+    }
+
+    private static ResourceMonitor mapRow(ResultSet rs) throws SQLException {
+        ResourceMonitor monitor = new ResourceMonitor();
+        monitor.setId(rs.getObject("id", Long.class));
+        monitor.setForestLandId(rs.getObject("forest_land_id", Long.class));
+        monitor.setForestLandName(rs.getString("forest_land_name"));
+        monitor.setMonitorType(rs.getString("monitor_type"));
+        monitor.setCurrentValue(rs.getObject("current_value", Double.class));
+        monitor.setPreviousValue(rs.getObject("previous_value", Double.class));
+        monitor.setMonitorDate(rs.getObject("monitor_date", LocalDate.class));
+        monitor.setUnit(rs.getString("unit"));
+        monitor.setRemarks(rs.getString("remarks"));
+        monitor.setCreateTime(rs.getObject("create_time", LocalDateTime.class));
+        return monitor;
+    }
+}
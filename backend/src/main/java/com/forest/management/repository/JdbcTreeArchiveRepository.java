@@ -0,0 +1,80 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.TreeArchive;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 林木档案数据存储库（嵌入式关系库，表tree_archive）
+ */
+@Repository
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "jdbc")
+public class JdbcTreeArchiveRepository extends JdbcRepository<TreeArchive> implements TreeArchiveRepository {
+
+    public JdbcTreeArchiveRepository(JdbcTemplate jdbc, TransactionTemplate transactions,
+                                     @Value("${forest.storage.jdbc.batch-size:500}") int batchSize) {
+        super(jdbc, transactions, batchSize, "tree_archive",
+            "id", "tree_species", "diameter", "height", "health_status", "location", "create_time", "update_time");
+        filter("treeSpecies", "tree_species");
+        filter("healthStatus", "health_status");
+        filter("location", "location");
+    }
+
+    @Override
+    protected Object[] values(TreeArchive tree) {
+        return new Object[]{tree.getId(), tree.getTreeSpecies(), tree.getDiameter(), tree.getHeight(),
+            tree.getHealthStatus(), tree.getLocation(), tree.getCreateTime(), tree.getUpdateTime()};
+    }
+
+    @Override
+    protected TreeArchive mapRow(ResultSet rs) throws SQLException {
+        TreeArchive tree = new TreeArchive();
+        tree.setId(getLong(rs, "id"));
+        tree.setTreeSpecies(rs.getString("tree_species"));
+        tree.setDiameter(getDouble(rs, "diameter"));
+        tree.setHeight(getDouble(rs, "height"));
+        tree.setHealthStatus(rs.getString("health_status"));
+        tree.setLocation(rs.getString("location"));
+        tree.setCreateTime(getDateTime(rs, "create_time"));
+        tree.setUpdateTime(getDateTime(rs, "update_time"));
+        return tree;
+    }
+
+    @Override
+    protected Long idOf(TreeArchive tree) {
+        return tree.getId();
+    }
+
+    @Override
+    protected LocalDateTime createTimeOf(TreeArchive tree) {
+        return tree.getCreateTime();
+    }
+
+    @Override
+    public Map<String, Long> getSpeciesCounts() {
+        return countBy("tree_species");
+    }
+
+    @Override
+    public Map<String, Long> getHealthCounts() {
+        return countBy("health_status");
+    }
+
+    @Override
+    public Double getAverageDiameter() {
+        return averageOf("diameter");
+    }
+
+    @Override
+    public Double getAverageHeight() {
+        return averageOf("height");
+    }
+}
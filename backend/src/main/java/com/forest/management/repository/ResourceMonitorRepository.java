@@ -0,0 +1,73 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.ResourceMonitor;
+import com.forest.management.storage.RowVersions;
+import com.forest.management.storage.SeriesAggregate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 资源监测数据存储库
+ * 监测记录按时间序列只追加，不提供按ID修改和删除
+ */
+public interface ResourceMonitorRepository {
+
+    /**
+     * 追加监测记录
+     */
+    void save(ResourceMonitor monitor);
+
+    /**
+     * 批量追加监测记录
+     */
+    void saveAll(Collection<ResourceMonitor> monitors);
+
+    /**
+     * 查询 [start, end] 日期范围内的监测记录，按日期升序返回，各参数为null时表示不限
+     */
+    List<ResourceMonitor> findAll(String monitorType, Long forestLandId, LocalDate start, LocalDate end);
+
+    /**
+     * 逐条遍历 [start, end] 日期范围内的监测记录，不物化结果集合（用于导出），各参数为null时表示不限
+     */
+    void scan(String monitorType, Long forestLandId, LocalDate start, LocalDate end, Consumer<ResourceMonitor> action);
+
+    /**
+     * 查询变化率绝对值超过minAbsChangeRate的监测记录
+     */
+    List<ResourceMonitor> findChanges(LocalDate start, double minAbsChangeRate);
+
+    /**
+     * 聚合 [start, end] 日期范围内的当前值，各参数为null时表示不限
+     */
+    SeriesAggregate aggregate(String monitorType, Long forestLandId, LocalDate start, LocalDate end);
+
+    /**
+     * 已有的监测类型
+     */
+    Set<String> findTypes();
+
+    /**
+     * 最新的监测日期，没有数据时返回null
+     */
+    LocalDate findLatestDate();
+
+    /**
+     * 获取记录总数
+     */
+    int count();
+
+    /**
+     * 数据版本号，每次写入后递增
+     */
+    long getVersion();
+
+    /**
+     * 行版本号，用于按行缓存派生数据（如实体的JSON字节）
+     */
+    RowVersions getRowVersions();
+}
@@ -0,0 +1,31 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.CuttingPermit;
+import com.forest.management.storage.CuttingPermitStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 采伐许可数据存储库（基于CuttingPermitStore，计数与合计由存储增量维护）
+ */
+@Repository
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "memory", matchIfMissing = true)
+public class StoreCuttingPermitRepository extends StoreRepository<CuttingPermit, CuttingPermitStore> implements CuttingPermitRepository {
+
+    public StoreCuttingPermitRepository(CuttingPermitStore store) {
+        super(store, CuttingPermit::getId);
+    }
+
+    @Override
+    public Map<String, Long> getStatusCounts() {
+        return store.getStatusCounts();
+    }
+
+    @Override
+    public long countExpiringBefore(LocalDate date) {
+        return store.countExpiringBefore(date);
+    }
+}
@@ -0,0 +1,30 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.ForestLand;
+import com.forest.management.storage.ForestLandStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+/**
+ * 林地信息数据存储库（基于ForestLandStore，计数与合计由存储增量维护）
+ */
+@Repository
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "memory", matchIfMissing = true)
+public class StoreForestLandRepository extends StoreRepository<ForestLand, ForestLandStore> implements ForestLandRepository {
+
+    public StoreForestLandRepository(ForestLandStore store) {
+        super(store, ForestLand::getId);
+    }
+
+    @Override
+    public Map<String, Long> getClassificationCounts() {
+        return store.getClassificationCounts();
+    }
+
+    @Override
+    public double getTotalArea() {
+        return store.getTotalArea();
+    }
+}
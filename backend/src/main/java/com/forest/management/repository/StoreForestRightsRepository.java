@@ -0,0 +1,31 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.ForestRights;
+import com.forest.management.storage.ForestRightsStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 林权证书数据存储库（基于ForestRightsStore，计数与合计由存储增量维护）
+ */
+@Repository
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "memory", matchIfMissing = true)
+public class StoreForestRightsRepository extends StoreRepository<ForestRights, ForestRightsStore> implements ForestRightsRepository {
+
+    public StoreForestRightsRepository(ForestRightsStore store) {
+        super(store, ForestRights::getId);
+    }
+
+    @Override
+    public Map<String, Long> getStatusCounts() {
+        return store.getStatusCounts();
+    }
+
+    @Override
+    public long countExpiringBefore(LocalDate date) {
+        return store.countExpiringBefore(date);
+    }
+}
@@ -0,0 +1,110 @@
+package com.forest.management.repository;
+
+import com.forest.management.storage.Criteria;
+import com.forest.management.storage.EntityStore;
+import com.forest.management.storage.OrderedIndex;
+import com.forest.management.storage.PageResult;
+import com.forest.management.storage.RowVersions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 基于EntityStore的存储库实现
+ * 索引始终在堆内维护，行本身由存储的行存储（堆内或磁盘）保存
+ */
+public abstract class StoreRepository<T, S extends EntityStore<T>> implements EntityRepository<T> {
+
+    protected final S store;
+    private final Function<T, Long> idOf;
+
+    protected StoreRepository(S store, Function<T, Long> idOf) {
+        this.store = store;
+        this.idOf = idOf;
+    }
+
+    @Override
+    public T save(T entity) {
+        Long id = Objects.requireNonNull(idOf.apply(entity), "id");
+        store.put(id, entity);
+        return entity;
+    }
+
+    @Override
+    public void saveAll(Collection<T> entities) {
+        for (T entity : entities) {
+            save(entity);
+        }
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return store.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return new ArrayList<>(store.values());
+    }
+
+    @Override
+    public List<T> findAll(Criteria criteria) {
+        return store.select(criteria);
+    }
+
+    @Override
+    public void scan(Criteria criteria, Consumer<T> action) {
+        store.scan(criteria, action);
+    }
+
+    @Override
+    public PageResult<T> findPage(Criteria criteria, OrderedIndex.Key after, int offset, int limit) {
+        return store.page(criteria, after, offset, limit);
+    }
+
+    @Override
+    public Optional<T> update(Long id, Consumer<T> mutator) {
+        return Optional.ofNullable(store.update(id, mutator));
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return store.remove(id) != null;
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        int deleted = 0;
+        for (Long id : ids) {
+            if (deleteById(id)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public int count() {
+        return store.size();
+    }
+
+    @Override
+    public long getVersion() {
+        return store.getVersion();
+    }
+
+    @Override
+    public RowVersions getRowVersions() {
+        return store.getRowVersions();
+    }
+}
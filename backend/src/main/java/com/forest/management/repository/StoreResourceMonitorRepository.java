@@ -0,0 +1,83 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.ResourceMonitor;
+import com.forest.management.storage.MonitorSeriesStore;
+import com.forest.management.storage.RowVersions;
+import com.forest.management.storage.SeriesAggregate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 资源监测数据存储库（基于列式压缩的MonitorSeriesStore）
+ */
+@Repository
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "memory", matchIfMissing = true)
+public class StoreResourceMonitorRepository implements ResourceMonitorRepository {
+
+    private final MonitorSeriesStore store;
+
+    public StoreResourceMonitorRepository(MonitorSeriesStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void save(ResourceMonitor monitor) {
+        store.add(monitor);
+    }
+
+    @Override
+    public void saveAll(Collection<ResourceMonitor> monitors) {
+        monitors.forEach(store::add);
+    }
+
+    @Override
+    public List<ResourceMonitor> findAll(String monitorType, Long forestLandId, LocalDate start, LocalDate end) {
+        return store.query(monitorType, forestLandId, start, end);
+    }
+
+    @Override
+    public void scan(String monitorType, Long forestLandId, LocalDate start, LocalDate end, Consumer<ResourceMonitor> action) {
+        store.scan(monitorType, forestLandId, start, end, action);
+    }
+
+    @Override
+    public List<ResourceMonitor> findChanges(LocalDate start, double minAbsChangeRate) {
+        return store.findChanges(start, minAbsChangeRate);
+    }
+
+    @Override
+    public SeriesAggregate aggregate(String monitorType, Long forestLandId, LocalDate start, LocalDate end) {
+        return store.aggregate(monitorType, forestLandId, start, end);
+    }
+
+    @Override
+    public Set<String> findTypes() {
+        return store.types();
+    }
+
+    @Override
+    public LocalDate findLatestDate() {
+        return store.latestDate();
+    }
+
+    @Override
+    public int count() {
+        return store.size();
+    }
+
+    @Override
+    public long getVersion() {
+        return store.getVersion();
+    }
+
+    @Override
+    public RowVersions getRowVersions() {
+        return store.getRowVersions();
+    }
+}
@@ -0,0 +1,40 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.TreeArchive;
+import com.forest.management.storage.TreeArchiveStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+/**
+ * 林木档案数据存储库（基于TreeArchiveStore，计数与合计由存储增量维护）
+ */
+@Repository
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "memory", matchIfMissing = true)
+public class StoreTreeArchiveRepository extends StoreRepository<TreeArchive, TreeArchiveStore> implements TreeArchiveRepository {
+
+    public StoreTreeArchiveRepository(TreeArchiveStore store) {
+        super(store, TreeArchive::getId);
+    }
+
+    @Override
+    public Map<String, Long> getSpeciesCounts() {
+        return store.getSpeciesCounts();
+    }
+
+    @Override
+    public Map<String, Long> getHealthCounts() {
+        return store.getHealthCounts();
+    }
+
+    @Override
+    public Double getAverageDiameter() {
+        return store.getAverageDiameter();
+    }
+
+    @Override
+    public Double getAverageHeight() {
+        return store.getAverageHeight();
+    }
+}
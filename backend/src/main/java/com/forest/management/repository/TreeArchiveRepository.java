@@ -0,0 +1,31 @@
+package com.forest.management.repository;
+
+import com.forest.management.model.TreeArchive;
+
+import java.util.Map;
+
+/**
+ * 林木档案数据存储库
+ */
+public interface TreeArchiveRepository extends EntityRepository<TreeArchive> {
+
+    /**
+     * 按树种计数
+     */
+    Map<String, Long> getSpeciesCounts();
+
+    /**
+     * 按健康状态计数
+     */
+    Map<String, Long> getHealthCounts();
+
+    /**
+     * 平均胸径，没有记录时返回null
+     */
+    Double getAverageDiameter();
+
+    /**
+     * 平均树高，没有记录时返回null
+     */
+    Double getAverageHeight();
+}
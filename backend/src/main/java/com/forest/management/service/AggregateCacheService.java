@@ -0,0 +1,217 @@
+package com.forest.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forest.management.util.ETagUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 统计类接口的结果缓存
+ * 键由接口名、查询参数和所依赖数据的版本号组成，写入使版本号变化后旧结果不再命中，
+ * 由容量淘汰（W-TinyLFU）清除；命中率和加载耗时以 cache="aggregates" 导出为指标。
+ * 结果的gzip压缩字节随缓存项保存，每个数据版本只压缩一次
+ */
+@Service
+public class AggregateCacheService {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+    private final ObjectMapper objectMapper;
+    private final int compressionLevel;
+    private final int compressionMinSize;
+    private final Cache<Key, Entry> cache;
+
+    public AggregateCacheService(ObjectMapper objectMapper,
+                                 @Value("${forest.cache.aggregates.max-size:1000}") long maxSize,
+                                 @Value("${forest.compression.level:6}") int compressionLevel,
+                                 @Value("${forest.compression.min-size:2048}") int compressionMinSize,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.compressionLevel = compressionLevel;
+        this.compressionMinSize = compressionMinSize;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, cache, "aggregates");
+            Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", "aggregates")
+                .description("The ratio of cache requests which were hits")
+                .register(registry);
+            // 非加载型缓存不导出加载指标，按缓存自身的统计补上
+            FunctionTimer.builder("cache.load.duration", cache, c -> c.stats().loadCount(),
+                    c -> c.stats().totalLoadTime(), TimeUnit.NANOSECONDS)
+                .tag("cache", "aggregates")
+                .description("Time spent computing aggregate results on cache misses")
+                .register(registry);
+        });
+    }
+
+    /**
+     * 获取缓存的结果，未命中时调用loader计算（同一个键只计算一次）
+     * params 为影响结果的查询参数（可含null），versions 为结果所依赖数据的版本号
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(String endpoint, List<?> params, long[] versions, Supplier<V> loader) {
+        return (V) entry(endpoint, params, versions, loader).value;
+    }
+
+    /**
+     * 获取缓存的结果并生成响应
+     * 客户端接受gzip且要求JSON时直接输出缓存的压缩字节（不足压缩阈值的结果除外），否则照常由消息转换器输出。
+     * ETag由versions生成：压缩字节与未压缩的输出字节不同，压缩时使用弱ETag；
+     * 输出形式取决于Accept-Encoding和Accept，两者都列入Vary
+     */
+    public ResponseEntity<?> respond(WebRequest request, String endpoint, List<?> params, long[] versions,
+                                     Supplier<?> loader) {
+        Entry entry = entry(endpoint, params, versions, loader);
+        if (acceptsGzip(request) && acceptsJson(request)) {
+            byte[] gzip = entry.gzip();
+            if (gzip != null) {
+                return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(ETagUtil.weak(versions))
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT)
+                    .body(gzip);
+            }
+        }
+        return ResponseEntity.ok()
+            .eTag(ETagUtil.of(versions))
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT)
+            .body(entry.value);
+    }
+
+    private Entry entry(String endpoint, List<?> params, long[] versions, Supplier<?> loader) {
+        return cache.get(new Key(endpoint, params, versions), key -> new Entry(loader.get()));
+    }
+
+    private static boolean acceptsGzip(WebRequest request) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        for (String coding : header.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+            // gzip;q=0 表示不接受
+            return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+
+    private static boolean acceptsJson(WebRequest request) {
+        String header = request.getHeader(HttpHeaders.ACCEPT);
+        if (header == null || header.isEmpty()) {
+            return true;
+        }
+        // 明确要求二进制格式时交给对应的消息转换器
+        List<MediaType> accepted = MediaType.parseMediaTypes(header);
+        for (MediaType type : accepted) {
+            if (type.equalsTypeAndSubtype(SMILE) || type.equalsTypeAndSubtype(CBOR)) {
+                return false;
+            }
+        }
+        for (MediaType type : accepted) {
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class Entry {
+        private final Object value;
+        private volatile byte[] gzip;
+        private volatile boolean compressed;
+
+        private Entry(Object value) {
+            this.value = value;
+        }
+
+        /**
+         * 压缩后的JSON，首次调用时序列化并压缩；结果小于阈值时返回null
+         */
+        private byte[] gzip() {
+            if (!compressed) {
+                synchronized (this) {
+                    if (!compressed) {
+                        gzip = compress(value);
+                        compressed = true;
+                    }
+                }
+            }
+            return gzip;
+        }
+    }
+
+    private byte[] compress(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            if (json.length < compressionMinSize) {
+                return null;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+                {
+                    def.setLevel(compressionLevel);
+                }
+            }) {
+                gzip.write(json);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Key {
+        private final String endpoint;
+        private final List<?> params;
+        private final long[] versions;
+
+        private Key(String endpoint, List<?> params, long[] versions) {
+            this.endpoint = endpoint;
+            this.params = params;
+            this.versions = versions;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return endpoint.equals(key.endpoint) && params.equals(key.params) && Arrays.equals(versions, key.versions);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hash(endpoint, params) + Arrays.hashCode(versions);
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package com.forest.management.service;
 
 import com.forest.management.model.*;
+import com.forest.management.storage.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * 演示数据生成服务
@@ -15,12 +26,19 @@ import java.util.concurrent.atomic.AtomicLong;
 @Service
 public class DataGeneratorService {
     
-    // 内存存储
-    private final Map<Long, TreeArchive> treeArchives = new ConcurrentHashMap<>();
-    private final Map<Long, ForestLand> forestLands = new ConcurrentHashMap<>();
-    private final Map<Long, ResourceMonitor> resourceMonitors = new ConcurrentHashMap<>();
-    private final Map<Long, ForestRights> forestRights = new ConcurrentHashMap<>();
-    private final Map<Long, CuttingPermit> cuttingPermits = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(DataGeneratorService.class);
+    
+    // 实体存储（按配置选择行存储，由StorageConfig创建）
+    @Autowired
+    private TreeArchiveStore treeArchives;
+    @Autowired
+    private ForestLandStore forestLands;
+    @Autowired
+    private MonitorSeriesStore resourceMonitors;
+    @Autowired
+    private ForestRightsStore forestRights;
+    @Autowired
+    private CuttingPermitStore cuttingPermits;
     
     // ID生成器
     private final AtomicLong treeIdGenerator = new AtomicLong(1);
@@ -55,8 +73,44 @@ public class DataGeneratorService {
         "林分改良", "抚育间伐", "卫生伐", "更新伐"
     };
     
+    // 预写日志，未启用持久化时为null
+    @Autowired(required = false)
+    private WriteAheadLog writeAheadLog;
+    
+    @Value("${forest.storage.snapshot.on-shutdown:true}")
+    private boolean snapshotOnShutdown;
+    
+    // 最近一次快照包含的最后一条日志序号
+    private volatile long snapshotLsn;
+    
     @PostConstruct
-    public void initData() {
+    public void initData() throws IOException {
+        if (writeAheadLog == null) {
+            generateDemoData();
+            return;
+        }
+        
+        // 先加载最新快照，再重放快照之后的日志；都没有（首次启动）时生成演示数据并整批写入日志
+        // 快照不是一致性镜像（生成时不阻塞写入），唯一键在重放日志之后才一致，期间不做唯一键检查
+        Optional<Path> snapshot = StoreSnapshot.latest(writeAheadLog.getDirectory());
+        List<EntityStore<?>> stores = List.of(forestLands, treeArchives, forestRights, cuttingPermits);
+        stores.forEach(EntityStore::suspendUniqueKeys);
+        if (snapshot.isPresent()) {
+            snapshotLsn = loadSnapshot(snapshot.get());
+        }
+        long replayed = writeAheadLog.replay(snapshotLsn, this::applyLogRecord);
+        stores.forEach(EntityStore::rebuildUniqueKeys);
+        writeAheadLog.start();
+        if (snapshot.isEmpty() && replayed == 0) {
+            generateDemoData();
+            logInitialData(writeAheadLog);
+        }
+        restoreIdGenerators();
+        // 之后的写入逐条登记到日志
+        attachJournals(writeAheadLog);
+    }
+    
+    private void generateDemoData() {
         generateForestLands();
         generateTreeArchives();
         generateResourceMonitors();
@@ -64,6 +118,196 @@ public class DataGeneratorService {
         generateCuttingPermits();
     }
     
+    /**
+     * 是否启用了持久化
+     */
+    public boolean isPersistent() {
+        return writeAheadLog != null;
+    }
+    
+    /**
+     * 定时生成快照，见 {@link #takeSnapshot()}
+     */
+    @Scheduled(fixedDelayString = "${forest.storage.snapshot.interval-ms:600000}",
+               initialDelayString = "${forest.storage.snapshot.interval-ms:600000}")
+    public void scheduledSnapshot() {
+        try {
+            takeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("生成快照失败", e);
+        }
+    }
+    
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        if (snapshotOnShutdown) {
+            scheduledSnapshot();
+        }
+    }
+    
+    /**
+     * 生成快照并删除快照之前的日志段，下次启动只需加载快照并重放之后的日志
+     * 只在切换日志段时等待进行中的写入完成，之后生成快照期间不阻塞写入：
+     * 快照一定包含切换点之前的写入，也可能包含之后的写入（重放日志时再写一遍，结果相同）；
+     * 上次快照后没有新写入时跳过。未启用持久化时不做任何事
+     */
+    public synchronized void takeSnapshot() throws IOException {
+        if (writeAheadLog == null) {
+            return;
+        }
+        long lsn = writeAheadLog.rotate();
+        if (lsn == snapshotLsn) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Path file;
+        try (StoreSnapshot.Writer writer = StoreSnapshot.create(writeAheadLog.getDirectory(), lsn)) {
+            writer.writeSection(EntityType.FOREST_LAND, EntityCodecs.FOREST_LAND, forestLands.values()::forEach);
+            writer.writeSection(EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE, treeArchives.values()::forEach);
+            writer.writeSection(EntityType.RESOURCE_MONITOR, EntityCodecs.RESOURCE_MONITOR, resourceMonitors::forEach);
+            writer.writeSection(EntityType.FOREST_RIGHTS, EntityCodecs.FOREST_RIGHTS, forestRights.values()::forEach);
+            writer.writeSection(EntityType.CUTTING_PERMIT, EntityCodecs.CUTTING_PERMIT, cuttingPermits.values()::forEach);
+            writer.writeSequence(EntityType.FOREST_LAND, forestLandIdGenerator.get());
+            writer.writeSequence(EntityType.TREE_ARCHIVE, treeIdGenerator.get());
+            writer.writeSequence(EntityType.RESOURCE_MONITOR, monitorIdGenerator.get());
+            writer.writeSequence(EntityType.FOREST_RIGHTS, rightsIdGenerator.get());
+            writer.writeSequence(EntityType.CUTTING_PERMIT, permitIdGenerator.get());
+            file = writer.commit();
+        }
+        writeAheadLog.deleteSegmentsUpTo(lsn);
+        snapshotLsn = lsn;
+        log.info("已生成快照 {}，用时 {} ms", file.getFileName(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * 加载快照，返回快照包含的最后一条日志序号
+     * 各实体的数据段互不相关，并行加载
+     */
+    private long loadSnapshot(Path file) throws IOException {
+        long start = System.currentTimeMillis();
+        try (StoreSnapshot snapshot = StoreSnapshot.open(file)) {
+            ExecutorService executor = Executors.newFixedThreadPool(EntityType.values().length);
+            try {
+                List<Future<Void>> loads = executor.invokeAll(List.of(
+                    () -> load(snapshot, EntityType.FOREST_LAND, EntityCodecs.FOREST_LAND,
+                        land -> forestLands.put(land.getId(), land)),
+                    () -> load(snapshot, EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE,
+                        tree -> treeArchives.put(tree.getId(), tree)),
+                    () -> load(snapshot, EntityType.RESOURCE_MONITOR, EntityCodecs.RESOURCE_MONITOR,
+                        resourceMonitors::add),
+                    () -> load(snapshot, EntityType.FOREST_RIGHTS, EntityCodecs.FOREST_RIGHTS,
+                        rights -> forestRights.put(rights.getId(), rights)),
+                    () -> load(snapshot, EntityType.CUTTING_PERMIT, EntityCodecs.CUTTING_PERMIT,
+                        permit -> cuttingPermits.put(permit.getId(), permit))));
+                for (Future<Void> load : loads) {
+                    load.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("加载快照时被中断", e);
+            } catch (ExecutionException e) {
+                throw new IOException("加载快照失败: " + file.getFileName(), e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+            forestLandIdGenerator.set(Math.max(1, snapshot.getSequence(EntityType.FOREST_LAND)));
+            treeIdGenerator.set(Math.max(1, snapshot.getSequence(EntityType.TREE_ARCHIVE)));
+            monitorIdGenerator.set(Math.max(1, snapshot.getSequence(EntityType.RESOURCE_MONITOR)));
+            rightsIdGenerator.set(Math.max(1, snapshot.getSequence(EntityType.FOREST_RIGHTS)));
+            permitIdGenerator.set(Math.max(1, snapshot.getSequence(EntityType.CUTTING_PERMIT)));
+            log.info("已加载快照 {}，用时 {} ms", file.getFileName(), System.currentTimeMillis() - start);
+            return snapshot.getLsn();
+        }
+    }
+    
+    private static <T> Void load(StoreSnapshot snapshot, EntityType type, EntityCodec<T> codec,
+                                 Consumer<T> sink) throws IOException {
+        snapshot.load(type, codec, sink);
+        return null;
+    }
+    
+    /**
+     * 将一条日志记录应用到对应的存储
+     */
+    private void applyLogRecord(WriteAheadLog.Record record) {
+        switch (record.getType()) {
+            case TREE_ARCHIVE -> applyLogRecord(treeArchives, EntityCodecs.TREE_ARCHIVE, record);
+            case FOREST_LAND -> applyLogRecord(forestLands, EntityCodecs.FOREST_LAND, record);
+            case FOREST_RIGHTS -> applyLogRecord(forestRights, EntityCodecs.FOREST_RIGHTS, record);
+            case CUTTING_PERMIT -> applyLogRecord(cuttingPermits, EntityCodecs.CUTTING_PERMIT, record);
+            case RESOURCE_MONITOR -> {
+                if (record.getOp() == WriteAheadLog.OP_CLEAR) {
+                    resourceMonitors.clear();
+                } else if (record.getOp() == WriteAheadLog.OP_PUT) {
+                    // 监测记录只追加，快照生成期间写入的记录可能已在快照中
+                    ResourceMonitor monitor = EntityCodecs.RESOURCE_MONITOR.decode(record.getPayload());
+                    if (!resourceMonitors.contains(monitor)) {
+                        resourceMonitors.add(monitor);
+                    }
+                }
+            }
+        }
+    }
+    
+    private <T> void applyLogRecord(EntityStore<T> store, EntityCodec<T> codec, WriteAheadLog.Record record) {
+        switch (record.getOp()) {
+            case WriteAheadLog.OP_PUT -> store.put(record.getId(), codec.decode(record.getPayload()));
+            case WriteAheadLog.OP_REMOVE -> store.remove(record.getId());
+            case WriteAheadLog.OP_CLEAR -> store.clear();
+            default -> throw new IllegalStateException("未知的日志操作: " + record.getOp());
+        }
+    }
+    
+    /**
+     * 将已有数据整批写入日志，只等待最后一条落盘
+     */
+    private void logInitialData(WriteAheadLog log) {
+        long lsn = 0;
+        lsn = Math.max(lsn, logAll(log, EntityType.FOREST_LAND, EntityCodecs.FOREST_LAND,
+            forestLands.values(), ForestLand::getId));
+        lsn = Math.max(lsn, logAll(log, EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE,
+            treeArchives.values(), TreeArchive::getId));
+        lsn = Math.max(lsn, logAll(log, EntityType.RESOURCE_MONITOR, EntityCodecs.RESOURCE_MONITOR,
+            resourceMonitors.query(null, null, null, null), ResourceMonitor::getId));
+        lsn = Math.max(lsn, logAll(log, EntityType.FOREST_RIGHTS, EntityCodecs.FOREST_RIGHTS,
+            forestRights.values(), ForestRights::getId));
+        lsn = Math.max(lsn, logAll(log, EntityType.CUTTING_PERMIT, EntityCodecs.CUTTING_PERMIT,
+            cuttingPermits.values(), CuttingPermit::getId));
+        log.awaitDurable(lsn);
+    }
+    
+    private <T> long logAll(WriteAheadLog log, EntityType type, EntityCodec<T> codec,
+                            Collection<T> rows, Function<T, Long> idOf) {
+        long lsn = 0;
+        for (T row : rows) {
+            lsn = log.append(type, WriteAheadLog.OP_PUT, idOf.apply(row), codec.encode(row));
+        }
+        return lsn;
+    }
+    
+    private void attachJournals(WriteAheadLog log) {
+        treeArchives.setJournal(new WalJournal<>(log, EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE));
+        forestLands.setJournal(new WalJournal<>(log, EntityType.FOREST_LAND, EntityCodecs.FOREST_LAND));
+        resourceMonitors.setJournal(new WalJournal<>(log, EntityType.RESOURCE_MONITOR, EntityCodecs.RESOURCE_MONITOR));
+        forestRights.setJournal(new WalJournal<>(log, EntityType.FOREST_RIGHTS, EntityCodecs.FOREST_RIGHTS));
+        cuttingPermits.setJournal(new WalJournal<>(log, EntityType.CUTTING_PERMIT, EntityCodecs.CUTTING_PERMIT));
+    }
+    
+    /**
+     * 恢复数据后ID生成器从现有最大ID之后继续（不小于快照中记录的取值）
+     */
+    private void restoreIdGenerators() {
+        treeIdGenerator.accumulateAndGet(maxKey(treeArchives) + 1, Math::max);
+        forestLandIdGenerator.accumulateAndGet(maxKey(forestLands) + 1, Math::max);
+        monitorIdGenerator.accumulateAndGet(resourceMonitors.maxId() + 1, Math::max);
+        rightsIdGenerator.accumulateAndGet(maxKey(forestRights) + 1, Math::max);
+        permitIdGenerator.accumulateAndGet(maxKey(cuttingPermits) + 1, Math::max);
+    }
+    
+    private static long maxKey(Map<Long, ?> store) {
+        return store.keySet().stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+    
     /**
      * 生成林地数据
      */
@@ -147,7 +391,7 @@ public class DataGeneratorService {
                         monitor.setPreviousValue(previousValue);
                     }
                     
-                    resourceMonitors.put(monitor.getId(), monitor);
+                    resourceMonitors.add(monitor);
                 }
             }
         }
@@ -262,11 +506,11 @@ public class DataGeneratorService {
     }
     
     // Getter方法供Controller使用
-    public Map<Long, TreeArchive> getTreeArchives() { return treeArchives; }
-    public Map<Long, ForestLand> getForestLands() { return forestLands; }
-    public Map<Long, ResourceMonitor> getResourceMonitors() { return resourceMonitors; }
-    public Map<Long, ForestRights> getForestRights() { return forestRights; }
-    public Map<Long, CuttingPermit> getCuttingPermits() { return cuttingPermits; }
+    public TreeArchiveStore getTreeArchives() { return treeArchives; }
+    public ForestLandStore getForestLands() { return forestLands; }
+    public MonitorSeriesStore getResourceMonitors() { return resourceMonitors; }
+    public ForestRightsStore getForestRights() { return forestRights; }
+    public CuttingPermitStore getCuttingPermits() { return cuttingPermits; }
     
     // ID生成器
     public Long generateTreeId() { return treeIdGenerator.getAndIncrement(); }
@@ -274,4 +518,18 @@ public class DataGeneratorService {
     public Long generateMonitorId() { return monitorIdGenerator.getAndIncrement(); }
     public Long generateRightsId() { return rightsIdGenerator.getAndIncrement(); }
     public Long generatePermitId() { return permitIdGenerator.getAndIncrement(); }
+    
+    /**
+     * 使ID生成器从maxId之后取值，外部存储（如关系库）中已有更大的ID时调用
+     */
+    public void reserveIds(EntityType type, long maxId) {
+        AtomicLong generator = switch (type) {
+            case TREE_ARCHIVE -> treeIdGenerator;
+            case FOREST_LAND -> forestLandIdGenerator;
+            case RESOURCE_MONITOR -> monitorIdGenerator;
+            case FOREST_RIGHTS -> rightsIdGenerator;
+            case CUTTING_PERMIT -> permitIdGenerator;
+        };
+        generator.accumulateAndGet(maxId + 1, Math::max);
+    }
 }
\ No newline at end of file
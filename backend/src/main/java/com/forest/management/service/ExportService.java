@@ -0,0 +1,91 @@
+package com.forest.management.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 整表流式导出
+ * 边遍历存储边通过JsonGenerator写出记录，不在内存中组装结果列表；
+ * 支持 ndjson（每行一条记录）和 json（单个数组）两种格式
+ */
+@Service
+public class ExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String JSON = "json";
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ObjectMapper objectMapper;
+    // 逐条写出时不刷新，由生成器和容器的缓冲区决定写出时机
+    private final ObjectWriter rowWriter;
+
+    public ExportService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * 是否为支持的导出格式
+     */
+    private static boolean isSupported(String format) {
+        return NDJSON.equals(format) || JSON.equals(format);
+    }
+
+    /**
+     * 生成导出响应，格式不支持时返回400；source 在写出响应时才被调用，依次把记录交给传入的回调
+     */
+    public <T> ResponseEntity<StreamingResponseBody> export(String name, String format, Consumer<Consumer<T>> source) {
+        if (!isSupported(format)) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "不支持的导出格式，必须是：ndjson、json之一");
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, response));
+        }
+        
+        boolean ndjson = NDJSON.equals(format);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                gen.setRootValueSeparator(null);
+                if (!ndjson) {
+                    gen.writeStartArray();
+                }
+                source.accept(row -> write(gen, row, ndjson));
+                if (!ndjson) {
+                    gen.writeEndArray();
+                }
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(ndjson ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + format + "\"")
+            .body(body);
+    }
+
+    private void write(JsonGenerator gen, Object row, boolean ndjson) {
+        try {
+            rowWriter.writeValue(gen, row);
+            if (ndjson) {
+                gen.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
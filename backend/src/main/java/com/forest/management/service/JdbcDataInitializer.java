@@ -0,0 +1,72 @@
+package com.forest.management.service;
+
+import com.forest.management.model.ResourceMonitor;
+import com.forest.management.repository.*;
+import com.forest.management.storage.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 嵌入式关系库的初始数据
+ * 表为空（首次启动）时把演示数据整批写入，之后ID生成器从库中现有最大ID之后继续
+ */
+@Component
+@ConditionalOnProperty(prefix = "forest.storage", name = "repository", havingValue = "jdbc")
+public class JdbcDataInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcDataInitializer.class);
+
+    @Autowired
+    private DataGeneratorService dataGeneratorService;
+
+    @Autowired
+    private JdbcTreeArchiveRepository treeArchiveRepository;
+
+    @Autowired
+    private JdbcForestLandRepository forestLandRepository;
+
+    @Autowired
+    private JdbcResourceMonitorRepository resourceMonitorRepository;
+
+    @Autowired
+    private JdbcForestRightsRepository forestRightsRepository;
+
+    @Autowired
+    private JdbcCuttingPermitRepository cuttingPermitRepository;
+
+    @PostConstruct
+    public void initData() {
+        if (forestLandRepository.count() == 0) {
+            forestLandRepository.saveAll(dataGeneratorService.getForestLands().values());
+        }
+        if (treeArchiveRepository.count() == 0) {
+            treeArchiveRepository.saveAll(dataGeneratorService.getTreeArchives().values());
+        }
+        if (resourceMonitorRepository.count() == 0) {
+            List<ResourceMonitor> monitors = new ArrayList<>();
+            dataGeneratorService.getResourceMonitors().forEach(monitors::add);
+            resourceMonitorRepository.saveAll(monitors);
+        }
+        if (forestRightsRepository.count() == 0) {
+            forestRightsRepository.saveAll(dataGeneratorService.getForestRights().values());
+        }
+        if (cuttingPermitRepository.count() == 0) {
+            cuttingPermitRepository.saveAll(dataGeneratorService.getCuttingPermits().values());
+        }
+
+        dataGeneratorService.reserveIds(EntityType.TREE_ARCHIVE, treeArchiveRepository.maxId());
+        dataGeneratorService.reserveIds(EntityType.FOREST_LAND, forestLandRepository.maxId());
+        dataGeneratorService.reserveIds(EntityType.RESOURCE_MONITOR, resourceMonitorRepository.maxId());
+        dataGeneratorService.reserveIds(EntityType.FOREST_RIGHTS, forestRightsRepository.maxId());
+        dataGeneratorService.reserveIds(EntityType.CUTTING_PERMIT, cuttingPermitRepository.maxId());
+        log.info("关系库数据就绪: 林木档案{}条, 林地{}条, 监测记录{}条, 林权证书{}条, 采伐许可{}条",
+            treeArchiveRepository.count(), forestLandRepository.count(), resourceMonitorRepository.count(),
+            forestRightsRepository.count(), cuttingPermitRepository.count());
+    }
+}
@@ -0,0 +1,153 @@
+package com.forest.management.service;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.forest.management.storage.EntityType;
+import com.forest.management.storage.RowVersions;
+import com.forest.management.util.RawJson;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * 实体JSON字节缓存
+ * 详情和列表接口输出实体时复用已序列化的UTF-8字节，不再逐次经过Jackson序列化。
+ * 缓存键取记录的行版本号（见RowVersions）：某行写入后只有该行（及同一条带的行）不再命中，由容量淘汰清除；
+ * 实体JSON含随日期变化的属性（如expired、expiringSoon），日期也参与缓存键。
+ * 传入fields（逗号分隔的属性名）时只序列化这些属性，属性集合同样参与缓存键
+ */
+@Service
+public class JsonBytesCacheService {
+
+    private static final String FIELDS_FILTER = "fields";
+
+    private final ObjectMapper objectMapper;
+    // 按属性裁剪时使用，所有类型挂上同一个过滤器
+    private final ObjectMapper projectionMapper;
+    private final Cache<Key, RawJson> cache;
+
+    public JsonBytesCacheService(ObjectMapper objectMapper,
+                                 @Value("${forest.cache.entity-json.max-bytes:33554432}") long maxBytes,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.projectionMapper = objectMapper.copy().addMixIn(Object.class, FieldsFilterMixin.class);
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .<Key, RawJson>weigher((key, json) -> json.length())
+            .recordStats()
+            .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "entity-json"));
+    }
+
+    /**
+     * 获取实体的JSON，未缓存时通过loader读取实体，实体不存在时返回空
+     * 行版本号在读取实体之前取得，保证缓存的字节不旧于版本号
+     */
+    public <T> Optional<RawJson> find(EntityType type, RowVersions versions, Long id,
+                                      Function<Long, Optional<T>> loader, String fields) {
+        Set<String> projection = parseFields(fields);
+        long rowVersion = versions.get(id);
+        return Optional.ofNullable(cache.get(new Key(type, rowVersion, id, LocalDate.now().toEpochDay(), projection),
+            key -> loader.apply(id).map(entity -> serialize(entity, projection)).orElse(null)));
+    }
+
+    /**
+     * 批量获取一页记录的JSON
+     * tableVersion须在读取rows之前取得：读取期间表没有写入时，此刻的行版本号与rows一致，按行版本号缓存；
+     * 否则无法确定某行读到的是写入前还是写入后的数据，本次直接序列化，不读写缓存
+     */
+    public <T> List<RawJson> getAll(EntityType type, RowVersions versions, long tableVersion, List<T> rows,
+                                    Function<T, Long> idOf, String fields) {
+        Set<String> projection = parseFields(fields);
+        boolean consistent = versions.get() == tableVersion;
+        long day = LocalDate.now().toEpochDay();
+        List<RawJson> result = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            Long id = idOf.apply(row);
+            result.add(consistent
+                ? cache.get(new Key(type, versions.get(id), id, day, projection), key -> serialize(row, projection))
+                : serialize(row, projection));
+        }
+        return result;
+    }
+
+    /**
+     * 解析fields参数，未指定时返回null（输出全部属性）；排序后作为缓存键，顺序不同的同一组属性共用缓存
+     */
+    private static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> result = new TreeSet<>();
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                result.add(field.trim());
+            }
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    private RawJson serialize(Object entity, Set<String> fields) {
+        try {
+            if (fields == null) {
+                return new RawJson(objectMapper.writeValueAsBytes(entity));
+            }
+            SimpleFilterProvider filters = new SimpleFilterProvider()
+                .addFilter(FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+            return new RawJson(projectionMapper.writer(filters).writeValueAsBytes(entity));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @JsonFilter(FIELDS_FILTER)
+    private interface FieldsFilterMixin {
+    }
+
+    private static final class Key {
+        private final EntityType type;
+        private final long rowVersion;
+        private final Long id;
+        private final long day;
+        private final Set<String> fields;
+
+        private Key(EntityType type, long rowVersion, Long id, long day, Set<String> fields) {
+            this.type = type;
+            this.rowVersion = rowVersion;
+            this.id = id;
+            this.day = day;
+            this.fields = fields;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return rowVersion == key.rowVersion && day == key.day && type == key.type && id.equals(key.id)
+                && Objects.equals(fields, key.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, rowVersion, id, day, fields);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.forest.management.service;
+
+import com.forest.management.repository.CuttingPermitRepository;
+import com.forest.management.repository.ForestLandRepository;
+import com.forest.management.repository.ForestRightsRepository;
+import com.forest.management.repository.ResourceMonitorRepository;
+import com.forest.management.repository.TreeArchiveRepository;
+import com.forest.management.util.ETagUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 系统概览统计服务
+ * 概览数据由各存储增量维护的计数与合计拼装成不可变快照；
+ * 数据未变化时直接返回快照，到期数量随日期变化，由定时任务在每日零点刷新
+ */
+@Service
+public class OverviewStatisticsService {
+
+    @Autowired
+    private TreeArchiveRepository treeArchiveRepository;
+
+    @Autowired
+    private ForestLandRepository forestLandRepository;
+
+    @Autowired
+    private ForestRightsRepository forestRightsRepository;
+
+    @Autowired
+    private CuttingPermitRepository cuttingPermitRepository;
+
+    @Autowired
+    private ResourceMonitorRepository resourceMonitorRepository;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 获取当前概览统计（只读）
+     */
+    public Map<String, Object> getStatistics() {
+        long[] stamp = currentStamp();
+        Snapshot current = snapshot;
+        if (current == null || !Arrays.equals(current.stamp, stamp)) {
+            current = rebuild(stamp);
+        }
+        return current.stats;
+    }
+
+    /**
+     * 当前概览统计的ETag，数据和日期都未变化时保持不变
+     */
+    public String getETag() {
+        return ETagUtil.of(currentStamp());
+    }
+
+    /**
+     * 每日零点重算快照，使到期数量跟随日期变化
+     */
+    @Scheduled(cron = "0 0 0 * * *")
+    public void refresh() {
+        rebuild(currentStamp());
+    }
+
+    private Snapshot rebuild(long[] stamp) {
+        LocalDate threshold = LocalDate.ofEpochDay(stamp[0]).plusDays(30);
+
+        Map<String, Object> stats = new HashMap<>();
+
+        // 基础统计
+        stats.put("totalTrees", treeArchiveRepository.count());
+        stats.put("totalForestLands", forestLandRepository.count());
+        stats.put("totalRights", forestRightsRepository.count());
+        stats.put("totalPermits", cuttingPermitRepository.count());
+        stats.put("totalMonitorRecords", resourceMonitorRepository.count());
+
+        // 林地总面积
+        stats.put("totalArea", Math.round(forestLandRepository.getTotalArea() * 100.0) / 100.0);
+
+        // 分组统计
+        stats.put("treeHealthStats", treeArchiveRepository.getHealthCounts());
+        stats.put("forestClassificationStats", forestLandRepository.getClassificationCounts());
+        stats.put("rightsStatusStats", forestRightsRepository.getStatusCounts());
+        stats.put("permitsStatusStats", cuttingPermitRepository.getStatusCounts());
+
+        // 即将到期的证书和许可数量
+        stats.put("expiringRights", forestRightsRepository.countExpiringBefore(threshold));
+        stats.put("expiringPermits", cuttingPermitRepository.countExpiringBefore(threshold));
+
+        Snapshot built = new Snapshot(stamp, Collections.unmodifiableMap(stats));
+        snapshot = built;
+        return built;
+    }
+
+    /**
+     * 快照版本：当前日期与各数据源的版本号
+     */
+    private long[] currentStamp() {
+        return new long[] {
+            LocalDate.now().toEpochDay(),
+            treeArchiveRepository.getVersion(),
+            forestLandRepository.getVersion(),
+            forestRightsRepository.getVersion(),
+            cuttingPermitRepository.getVersion(),
+            resourceMonitorRepository.getVersion()
+        };
+    }
+
+    private static final class Snapshot {
+        private final long[] stamp;
+        private final Map<String, Object> stats;
+
+        private Snapshot(long[] stamp, Map<String, Object> stats) {
+            this.stamp = stamp;
+            this.stats = stats;
+        }
+    }
+}
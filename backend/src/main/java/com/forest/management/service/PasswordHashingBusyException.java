@@ -0,0 +1,18 @@
+package com.forest.management.service;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 密码哈希线程池繁忙：队列已满（429）或排队超时（503），请求未被处理
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public PasswordHashingBusyException(String message, HttpStatus status) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() { return status; }
+}
@@ -0,0 +1,146 @@
+package com.forest.management.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希服务
+ * BCrypt的加密和校验在专用的有界线程池上执行（线程数默认等于CPU核数），不占用请求线程的计算时间；
+ * 等待队列满时立即拒绝（429），排队超过等待时间时放弃（503），登录高峰不会拖慢其他接口。
+ * 线程池和耗时指标以 name="password-hashing" 导出
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final String METRIC_NAME = "password-hashing";
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    // 没有指标注册表时为null
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Counter rejected;
+
+    public PasswordHashingService(@Value("${forest.password.bcrypt-strength:10}") int strength,
+                                  @Value("${forest.password.threads:0}") int threads,
+                                  @Value("${forest.password.queue-capacity:64}") int queueCapacity,
+                                  @Value("${forest.password.timeout-ms:5000}") long timeoutMillis,
+                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        meterRegistry.ifAvailable(registry -> {
+            ExecutorServiceMetrics.monitor(registry, executor, METRIC_NAME, List.of());
+            encodeTimer = Timer.builder("password.hash.duration").tag("operation", "encode")
+                .description("BCrypt hashing time on the password-hashing pool").register(registry);
+            matchesTimer = Timer.builder("password.hash.duration").tag("operation", "matches")
+                .description("BCrypt verification time on the password-hashing pool").register(registry);
+            rejected = Counter.builder("password.hash.rejected")
+                .description("Password hashing requests refused because the pool was saturated").register(registry);
+            Gauge.builder("password.hash.cost", () -> strength)
+                .description("BCrypt log2 rounds").register(registry);
+        });
+    }
+
+    /**
+     * 加密密码
+     */
+    public String encode(String rawPassword) {
+        return submit(encodeTimer, () -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * 校验密码
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> T submit(Timer timer, Supplier<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.get();
+                } finally {
+                    if (timer != null) {
+                        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            throw new PasswordHashingBusyException("请求过多，请稍后重试", HttpStatus.TOO_MANY_REQUESTS);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            abandon(future);
+            throw new PasswordHashingBusyException("服务繁忙，请稍后重试", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            abandon(future);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("服务繁忙，请稍后重试", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 放弃仍在排队的任务，并从队列中移除以腾出位置
+     */
+    private void abandon(Future<?> future) {
+        future.cancel(false);
+        if (future instanceof Runnable) {
+            executor.remove((Runnable) future);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
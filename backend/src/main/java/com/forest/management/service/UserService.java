@@ -3,7 +3,6 @@ package com.forest.management.service;
 import com.forest.management.model.User;
 import com.forest.management.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -19,7 +18,9 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    // 加密和校验在专用线程池上执行，繁忙时抛出 PasswordHashingBusyException
+    @Autowired
+    private PasswordHashingService passwordHashingService;
 
     /**
      * 创建新用户
@@ -48,7 +49,7 @@ public class UserService {
         
         User user = new User();
         user.setUsername(username.trim());
-        user.setPassword(passwordEncoder.encode(password));
+        user.setPassword(passwordHashingService.encode(password));
         user.setRole(role);
         user.setEnabled(true);
         user.setCreatedAt(LocalDateTime.now());
@@ -132,7 +133,7 @@ public class UserService {
      * 验证用户密码
      */
     public boolean validatePassword(User user, String rawPassword) {
-        return passwordEncoder.matches(rawPassword, user.getPassword());
+        return passwordHashingService.matches(rawPassword, user.getPassword());
     }
 
     /**
@@ -150,7 +151,7 @@ public class UserService {
         }
         
         User user = userOpt.get();
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         userRepository.save(user);
     }
 
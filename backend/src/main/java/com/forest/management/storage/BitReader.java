@@ -0,0 +1,41 @@
+package com.forest.management.storage;
+
+/**
+ * 按位读取BitWriter写出的数据
+ */
+final class BitReader {
+
+    private final long[] words;
+    private long position;
+
+    BitReader(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * 读取bits位（0-64），作为无符号数返回
+     */
+    long read(int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        int index = (int) (position >>> 6);
+        int free = 64 - (int) (position & 63);
+        long result;
+        if (bits <= free) {
+            result = words[index] >>> (free - bits);
+        } else {
+            int spill = bits - free;
+            result = (words[index] << spill) | (words[index + 1] >>> (64 - spill));
+        }
+        if (bits < 64) {
+            result &= (1L << bits) - 1;
+        }
+        position += bits;
+        return result;
+    }
+
+    boolean readBit() {
+        return read(1) != 0;
+    }
+}
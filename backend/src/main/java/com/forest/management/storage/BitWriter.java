@@ -0,0 +1,48 @@
+package com.forest.management.storage;
+
+import java.util.Arrays;
+
+/**
+ * 按位写入的缓冲区，高位在前
+ */
+final class BitWriter {
+
+    private long[] words = new long[8];
+    private long position;
+
+    /**
+     * 写入value的低bits位（0-64）
+     */
+    void write(long value, int bits) {
+        if (bits == 0) {
+            return;
+        }
+        if (bits < 64) {
+            value &= (1L << bits) - 1;
+        }
+        int index = (int) (position >>> 6);
+        int free = 64 - (int) (position & 63);
+        if (index + 1 >= words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        if (bits <= free) {
+            words[index] |= value << (free - bits);
+        } else {
+            int spill = bits - free;
+            words[index] |= value >>> spill;
+            words[index + 1] |= value << (64 - spill);
+        }
+        position += bits;
+    }
+
+    void writeBit(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * 已写入的数据（按实际长度裁剪）
+     */
+    long[] toArray() {
+        return Arrays.copyOf(words, (int) ((position + 63) >>> 6));
+    }
+}
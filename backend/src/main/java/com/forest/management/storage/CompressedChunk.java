@@ -0,0 +1,124 @@
+package com.forest.management.storage;
+
+/**
+ * 封存后的监测数据块（不可变）
+ * 每个样本依次写入ID、日期、创建时间（二阶差分）、当前值、上期值（异或编码）和单位、林地名称编码（游程编码），
+ * 另保存日期范围和当前值合计，完全落在查询范围内的块聚合时无需解压
+ */
+final class CompressedChunk {
+
+    private final long[] data;
+    private final int size;
+    private final long minDay;
+    private final long maxDay;
+    private final double valueSum;
+
+    private CompressedChunk(long[] data, int size, long minDay, long maxDay, double valueSum) {
+        this.data = data;
+        this.size = size;
+        this.minDay = minDay;
+        this.maxDay = maxDay;
+        this.valueSum = valueSum;
+    }
+
+    /**
+     * 压缩数据块，chunk不能为空
+     */
+    static CompressedChunk encode(MonitorChunk chunk) {
+        BitWriter out = new BitWriter();
+        GorillaCodec.DeltaEncoder ids = new GorillaCodec.DeltaEncoder();
+        GorillaCodec.DeltaEncoder days = new GorillaCodec.DeltaEncoder();
+        GorillaCodec.DeltaEncoder createTimes = new GorillaCodec.DeltaEncoder();
+        GorillaCodec.XorEncoder values = new GorillaCodec.XorEncoder();
+        GorillaCodec.XorEncoder previous = new GorillaCodec.XorEncoder();
+        int unit = -1;
+        int name = -1;
+        double sum = 0;
+        for (int i = 0; i < chunk.size; i++) {
+            ids.write(out, chunk.ids[i]);
+            days.write(out, chunk.days[i]);
+            createTimes.write(out, chunk.createTimes[i]);
+            values.write(out, chunk.values[i]);
+            previous.write(out, chunk.previous[i]);
+            unit = writeRun(out, unit, chunk.units[i]);
+            name = writeRun(out, name, chunk.names[i]);
+            sum += chunk.values[i];
+        }
+        return new CompressedChunk(out.toArray(), chunk.size, chunk.days[0], chunk.days[chunk.size - 1], sum);
+    }
+
+    /**
+     * 解压为未压缩数据块
+     */
+    MonitorChunk decode() {
+        MonitorChunk chunk = new MonitorChunk(size);
+        BitReader in = new BitReader(data);
+        GorillaCodec.DeltaDecoder ids = new GorillaCodec.DeltaDecoder();
+        GorillaCodec.DeltaDecoder days = new GorillaCodec.DeltaDecoder();
+        GorillaCodec.DeltaDecoder createTimes = new GorillaCodec.DeltaDecoder();
+        GorillaCodec.XorDecoder values = new GorillaCodec.XorDecoder();
+        GorillaCodec.XorDecoder previous = new GorillaCodec.XorDecoder();
+        int unit = -1;
+        int name = -1;
+        for (int i = 0; i < size; i++) {
+            chunk.ids[i] = ids.read(in);
+            chunk.days[i] = days.read(in);
+            chunk.createTimes[i] = createTimes.read(in);
+            chunk.values[i] = values.read(in);
+            chunk.previous[i] = previous.read(in);
+            chunk.units[i] = unit = readRun(in, unit);
+            chunk.names[i] = name = readRun(in, name);
+        }
+        chunk.size = size;
+        return chunk;
+    }
+
+    /**
+     * 游程编码：与上一个样本相同时只写一个0位，否则写1位加32位编码（-1为缺失）
+     */
+    private static int writeRun(BitWriter out, int last, int code) {
+        if (code == last) {
+            out.writeBit(false);
+        } else {
+            out.writeBit(true);
+            out.write(code & 0xFFFFFFFFL, 32);
+        }
+        return code;
+    }
+
+    private static int readRun(BitReader in, int last) {
+        return in.readBit() ? (int) in.read(32) : last;
+    }
+
+    /**
+     * 在 [fromDay, toDay) 范围内累加当前值；整块落在范围内时直接使用预存的合计
+     */
+    void aggregate(long fromDay, long toDay, SeriesAggregate aggregate) {
+        if (maxDay < fromDay || minDay >= toDay) {
+            return;
+        }
+        if (minDay >= fromDay && maxDay < toDay) {
+            aggregate.add(size, valueSum);
+            return;
+        }
+        decode().aggregate(fromDay, toDay, aggregate);
+    }
+
+    /**
+     * 是否与 [fromDay, toDay) 有交集
+     */
+    boolean overlaps(long fromDay, long toDay) {
+        return maxDay >= fromDay && minDay < toDay;
+    }
+
+    int size() { return size; }
+    long getMinDay() { return minDay; }
+    long getMaxDay() { return maxDay; }
+
+    /**
+     * 压缩后占用的字节数
+     */
+    int sizeInBytes() {
+        return data.length * Long.BYTES;
+    }
+}
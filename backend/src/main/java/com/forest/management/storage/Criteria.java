@@ -0,0 +1,77 @@
+package com.forest.management.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 列表查询条件
+ * 空值或空白的条件会被忽略，与控制器原有的过滤语义保持一致
+ */
+public class Criteria {
+
+    public enum Operator {
+        EQ,       // 完全相等
+        CONTAINS  // 包含子串
+    }
+
+    /**
+     * 单个字段条件
+     */
+    public static class Condition {
+        private final String field;
+        private final Operator operator;
+        private final String value;
+
+        public Condition(String field, Operator operator, String value) {
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        public String getField() { return field; }
+        public Operator getOperator() { return operator; }
+        public String getValue() { return value; }
+
+        /**
+         * 判断字段值是否满足条件
+         */
+        public boolean test(String fieldValue) {
+            if (fieldValue == null) {
+                return false;
+            }
+            return operator == Operator.EQ ? fieldValue.equals(value) : fieldValue.contains(value);
+        }
+    }
+
+    private final List<Condition> conditions = new ArrayList<>();
+
+    /**
+     * 字段等于指定值
+     */
+    public Criteria eq(String field, String value) {
+        return add(field, Operator.EQ, value);
+    }
+
+    /**
+     * 字段包含指定子串
+     */
+    public Criteria contains(String field, String value) {
+        return add(field, Operator.CONTAINS, value);
+    }
+
+    private Criteria add(String field, Operator operator, String value) {
+        if (value != null && !value.trim().isEmpty()) {
+            conditions.add(new Condition(field, operator, value.trim()));
+        }
+        return this;
+    }
+
+    public List<Condition> getConditions() {
+        return Collections.unmodifiableList(conditions);
+    }
+
+    public boolean isEmpty() {
+        return conditions.isEmpty();
+    }
+}
@@ -0,0 +1,52 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.CuttingPermit;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 采伐许可存储
+ * 许可证编号、申请人维护N元文法索引，审批状态维护哈希索引
+ * 许可证编号维护唯一键索引，重复写入时抛出DuplicateKeyException
+ * 另按创建时间维护有序索引，供列表分页使用
+ * 状态计数与已批准许可的有效期分布随写入增量维护
+ */
+public class CuttingPermitStore extends EntityStore<CuttingPermit> {
+
+    private static final int APPROVED = SymbolTable.encode("已批准");
+
+    private final GroupCountIndex<CuttingPermit> statusCounts;
+    private final DateCountIndex<CuttingPermit> validUntilDates;
+
+    public CuttingPermitStore() {
+        this(new HeapRowStorage<>());
+    }
+
+    /**
+     * 使用指定的行存储，如磁盘上的DiskRowStorage
+     */
+    public CuttingPermitStore(RowStorage<CuttingPermit> rows) {
+        super(rows);
+        orderBy(CuttingPermit::getCreateTime);
+        symbols(CuttingPermit::internSymbols);
+        codec(EntityCodecs.CUTTING_PERMIT);
+        uniqueIndex("permitNo", CuttingPermit::getPermitNo);
+        ngramIndex("permitNo", CuttingPermit::getPermitNo);
+        ngramIndex("applicantName", CuttingPermit::getApplicantName);
+        hashIndex("status", CuttingPermit::getStatus, CuttingPermit::getStatusCode);
+        statusCounts = countBy(CuttingPermit::getStatusCode);
+        validUntilDates = countByDate(p -> p.getStatusCode() == APPROVED ? p.getValidUntil() : null);
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts.counts();
+    }
+
+    /**
+     * 有效期早于date的已批准许可数（与CuttingPermit.isExpiringSoon口径一致）
+     */
+    public long countExpiringBefore(LocalDate date) {
+        return validUntilDates.countBefore(date);
+    }
+}
@@ -0,0 +1,55 @@
+package com.forest.management.storage;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 日期计数索引：日期 -> 记录数（按日期有序）
+ * 到期数量等随时间变化的统计只需对日期前缀求和，不必遍历记录
+ */
+public class DateCountIndex<T> implements StoreIndex<T> {
+
+    private final Function<T, LocalDate> extractor;
+    private final ConcurrentSkipListMap<LocalDate, LongAdder> counters = new ConcurrentSkipListMap<>();
+
+    public DateCountIndex(Function<T, LocalDate> extractor) {
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void add(Long id, T row) {
+        LocalDate date = extractor.apply(row);
+        if (date != null) {
+            counters.computeIfAbsent(date, k -> new LongAdder()).increment();
+        }
+    }
+
+    @Override
+    public void remove(Long id, T row) {
+        LocalDate date = extractor.apply(row);
+        if (date != null) {
+            LongAdder counter = counters.get(date);
+            if (counter != null) {
+                counter.decrement();
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        counters.clear();
+    }
+
+    /**
+     * 日期早于date的记录数
+     */
+    public long countBefore(LocalDate date) {
+        long total = 0;
+        for (LongAdder counter : counters.headMap(date, false).values()) {
+            total += counter.sum();
+        }
+        return total;
+    }
+}
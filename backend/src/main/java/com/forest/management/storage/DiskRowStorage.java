@@ -0,0 +1,522 @@
+package com.forest.management.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * 磁盘行存储（追加写的日志结构文件）
+ * 每次写入把编码后的整行追加到数据文件末尾（[长度 int][编码后的实体]），不改写旧数据；
+ * 堆内只保留ID到文件偏移的目录（按ID分页的long数组，每行8字节）和按行数限定容量的LRU行缓存，
+ * 热点行直接从缓存返回，其余行按偏移读出后解码，数据量可以超过堆内存。
+ * 旧版本占用的空间超过有效数据且超过COMPACT_MIN_BYTES时整理：有效行复制到新文件后切换。
+ * 数据文件只是工作区，每次启动重建，持久化仍由预写日志和快照负责
+ */
+public class DiskRowStorage<T> implements RowStorage<T> {
+
+    private static final int DIRECTORY_PAGE_BITS = 16;
+    private static final int DIRECTORY_PAGE_SIZE = 1 << DIRECTORY_PAGE_BITS;
+    private static final int LOCK_STRIPES = 64;
+    // 一次读取的字节数，多数行一次读完
+    private static final int READ_AHEAD = 512;
+    static final long COMPACT_MIN_BYTES = 64L << 20;
+
+    /**
+     * 一个锁分段：同一分段内的读写互斥，分段内各自维护LRU缓存
+     */
+    private static final class Stripe<T> {
+        // 持锁期间会读写文件，使用显式锁以免虚拟线程被固定在载体线程上
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<Long, T> cache;
+
+        Stripe(int capacity) {
+            cache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, T> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+
+    private final Path file;
+    private final EntityCodec<T> codec;
+    private final long compactMinBytes;
+    // 读写持有读锁，整理和清空持有写锁
+    private final ReentrantReadWriteLock fileLock = new ReentrantReadWriteLock();
+    private FileChannel channel;
+    private int generation;
+    private final AtomicLong end = new AtomicLong();
+    private final AtomicLong liveBytes = new AtomicLong();
+    // 目录项为文件偏移+1，0表示不存在
+    private volatile AtomicLongArray[] directory = new AtomicLongArray[0];
+    private final Stripe<T>[] stripes;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong maxId = new AtomicLong(-1);
+
+    /**
+     * 在file处创建数据文件（已存在时清空），关闭时删除
+     *
+     * @param cacheRows 行缓存容量（行数），0表示不缓存
+     */
+    public DiskRowStorage(Path file, EntityCodec<T> codec, int cacheRows) throws IOException {
+        this(file, codec, cacheRows, COMPACT_MIN_BYTES);
+    }
+
+    @SuppressWarnings("unchecked")
+    DiskRowStorage(Path file, EntityCodec<T> codec, int cacheRows, long compactMinBytes) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.file = file;
+        this.codec = codec;
+        this.compactMinBytes = compactMinBytes;
+        this.channel = openFile(file);
+        this.stripes = new Stripe[LOCK_STRIPES];
+        int capacity = cacheRows > 0 ? Math.max(1, cacheRows / LOCK_STRIPES) : 0;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new Stripe<>(capacity);
+        }
+    }
+
+    @Override
+    public T get(long id) {
+        if (id < 0) {
+            return null;
+        }
+        Stripe<T> stripe = stripeFor(id);
+        fileLock.readLock().lock();
+        try {
+            stripe.lock.lock();
+            try {
+                return load(stripe, id);
+            } finally {
+                stripe.lock.unlock();
+            }
+        } finally {
+            fileLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return slot(id) != 0;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public T compute(long id, BiFunction<Long, T, T> function) {
+        return compute(id, function, false);
+    }
+
+    @Override
+    public T computeIfPresent(long id, BiFunction<Long, T, T> function) {
+        return compute(id, function, true);
+    }
+
+    private T compute(long id, BiFunction<Long, T, T> function, boolean onlyIfPresent) {
+        if (id < 0) {
+            throw new IllegalArgumentException("ID不能为负数: " + id);
+        }
+        Stripe<T> stripe = stripeFor(id);
+        T updated;
+        fileLock.readLock().lock();
+        try {
+            stripe.lock.lock();
+            try {
+                T old = load(stripe, id);
+                if (old == null && onlyIfPresent) {
+                    return null;
+                }
+                try {
+                    updated = function.apply(id, old);
+                } catch (RuntimeException e) {
+                    // 函数可能已经改动了缓存中的对象，丢弃后下次从文件读取
+                    stripe.cache.remove(id);
+                    throw e;
+                }
+                long oldSlot = slot(id);
+                long oldBytes = oldSlot != 0 ? Integer.BYTES + readLength(oldSlot - 1) : 0;
+                if (updated != null) {
+                    byte[] data = codec.encode(updated);
+                    long position = append(data);
+                    setSlot(id, position + 1);
+                    liveBytes.addAndGet(Integer.BYTES + data.length - oldBytes);
+                    stripe.cache.put(id, updated);
+                    if (oldSlot == 0) {
+                        size.incrementAndGet();
+                        maxId.accumulateAndGet(id, Math::max);
+                    }
+                } else if (oldSlot != 0) {
+                    setSlot(id, 0);
+                    liveBytes.addAndGet(-oldBytes);
+                    stripe.cache.remove(id);
+                    size.decrementAndGet();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        } finally {
+            fileLock.readLock().unlock();
+        }
+        if (needsCompaction()) {
+            compact();
+        }
+        return updated;
+    }
+
+    @Override
+    public void clear() {
+        fileLock.writeLock().lock();
+        try {
+            channel.truncate(0);
+            end.set(0);
+            liveBytes.set(0);
+            directory = new AtomicLongArray[0];
+            for (Stripe<T> stripe : stripes) {
+                stripe.lock.lock();
+                try {
+                    stripe.cache.clear();
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            size.set(0);
+            maxId.set(-1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("清空磁盘行存储失败", e);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<Long, T> action) {
+        long last = maxId.get();
+        for (long id = 0; id <= last; id++) {
+            if (contains(id)) {
+                T row = get(id);
+                if (row != null) {
+                    action.accept(id, row);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Set<Long> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Long> iterator() {
+                return new SlotIterator<>((id, row) -> id, false);
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Long && DiskRowStorage.this.contains((Long) o);
+            }
+
+            @Override
+            public int size() {
+                return size.get();
+            }
+        };
+    }
+
+    @Override
+    public Collection<T> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new SlotIterator<>((id, row) -> row, true);
+            }
+
+            @Override
+            public int size() {
+                return size.get();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<Long, T>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<Long, T>> iterator() {
+                return new SlotIterator<>(AbstractMap.SimpleImmutableEntry::new, true);
+            }
+
+            @Override
+            public int size() {
+                return size.get();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        fileLock.writeLock().lock();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 数据文件当前长度（含旧版本）
+     */
+    long getFileBytes() {
+        return end.get();
+    }
+
+    /**
+     * 有效行占用的字节数
+     */
+    long getLiveBytes() {
+        return liveBytes.get();
+    }
+
+    /**
+     * 按ID顺序扫描目录的迭代器（弱一致），materialize为false时不读取行
+     */
+    private final class SlotIterator<E> implements Iterator<E> {
+        private final BiFunction<Long, T, E> mapper;
+        private final boolean materialize;
+        private final long last = maxId.get();
+        private long cursor = -1;
+        private E next;
+
+        SlotIterator(BiFunction<Long, T, E> mapper, boolean materialize) {
+            this.mapper = mapper;
+            this.materialize = materialize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && cursor < last) {
+                cursor++;
+                if (!contains(cursor)) {
+                    continue;
+                }
+                T row = null;
+                if (materialize && (row = get(cursor)) == null) {
+                    continue;
+                }
+                next = mapper.apply(cursor, row);
+            }
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    /**
+     * 先查缓存，未命中时从文件读取并放入缓存，调用方持有分段锁
+     */
+    private T load(Stripe<T> stripe, long id) {
+        T cached = stripe.cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long slot = slot(id);
+        if (slot == 0) {
+            return null;
+        }
+        T row = read(slot - 1);
+        stripe.cache.put(id, row);
+        return row;
+    }
+
+    private T read(long position) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_AHEAD);
+            readAtLeast(channel, buffer, position, Integer.BYTES);
+            int length = buffer.getInt(0);
+            int total = Integer.BYTES + length;
+            if (total > buffer.capacity()) {
+                buffer.flip();
+                buffer = ByteBuffer.allocate(total).put(buffer);
+            }
+            if (buffer.position() < total) {
+                buffer.limit(total);
+                readAtLeast(channel, buffer, position + buffer.position(), total - buffer.position());
+            }
+            return codec.read(new DataInputStream(
+                new ByteArrayInputStream(buffer.array(), Integer.BYTES, length)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取磁盘行存储失败", e);
+        }
+    }
+
+    private int readLength(long position) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+            readAtLeast(channel, buffer, position, Integer.BYTES);
+            return buffer.getInt(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取磁盘行存储失败", e);
+        }
+    }
+
+    /**
+     * 追加一行，返回写入位置；各分段并发追加，先占位再按位置写入
+     */
+    private long append(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + data.length);
+        buffer.putInt(data.length).put(data).flip();
+        long position = end.getAndAdd(buffer.remaining());
+        try {
+            writeFully(channel, buffer, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入磁盘行存储失败", e);
+        }
+        return position;
+    }
+
+    private boolean needsCompaction() {
+        long garbage = end.get() - liveBytes.get();
+        return garbage > compactMinBytes && garbage > liveBytes.get();
+    }
+
+    /**
+     * 整理数据文件：按ID顺序把有效行原样复制到新文件，更新目录后关闭旧文件
+     */
+    void compact() {
+        fileLock.writeLock().lock();
+        try {
+            if (!needsCompaction()) {
+                return;
+            }
+            Path target = file.resolveSibling(file.getFileName() + "." + (generation + 1));
+            FileChannel compacted = openFile(target);
+            long position = 0;
+            try {
+                long last = maxId.get();
+                for (long id = 0; id <= last; id++) {
+                    long slot = slot(id);
+                    if (slot == 0) {
+                        continue;
+                    }
+                    int bytes = Integer.BYTES + readLength(slot - 1);
+                    ByteBuffer row = ByteBuffer.allocate(bytes);
+                    readAtLeast(channel, row, slot - 1, bytes);
+                    row.flip();
+                    writeFully(compacted, row, position);
+                    setSlot(id, position + 1);
+                    position += bytes;
+                }
+            } catch (IOException | RuntimeException e) {
+                compacted.close();
+                throw e;
+            }
+            channel.close();
+            channel = compacted;
+            generation++;
+            end.set(position);
+            liveBytes.set(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("整理磁盘行存储失败", e);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    private long slot(long id) {
+        if (id < 0) {
+            return 0;
+        }
+        AtomicLongArray[] pages = directory;
+        long page = id >>> DIRECTORY_PAGE_BITS;
+        if (page >= pages.length || pages[(int) page] == null) {
+            return 0;
+        }
+        return pages[(int) page].get((int) (id & (DIRECTORY_PAGE_SIZE - 1)));
+    }
+
+    private void setSlot(long id, long value) {
+        long page = id >>> DIRECTORY_PAGE_BITS;
+        if (page >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ID超出范围: " + id);
+        }
+        AtomicLongArray[] pages = directory;
+        if (page >= pages.length || pages[(int) page] == null) {
+            if (value == 0) {
+                return;
+            }
+            pages = growDirectory((int) page);
+        }
+        pages[(int) page].set((int) (id & (DIRECTORY_PAGE_SIZE - 1)), value);
+    }
+
+    private synchronized AtomicLongArray[] growDirectory(int page) {
+        AtomicLongArray[] current = directory;
+        if (page < current.length && current[page] != null) {
+            return current;
+        }
+        // 复制后整体发布，读取方不加锁也只会看到完整的目录页
+        AtomicLongArray[] grown = Arrays.copyOf(current, Math.max(current.length, page + 1));
+        grown[page] = new AtomicLongArray(DIRECTORY_PAGE_SIZE);
+        directory = grown;
+        return grown;
+    }
+
+    private Stripe<T> stripeFor(long id) {
+        return stripes[(int) (id % LOCK_STRIPES)];
+    }
+
+    private static FileChannel openFile(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * 从position开始读取到buffer中，至少读到min字节（buffer剩余空间更大时可能多读）
+     */
+    private static void readAtLeast(FileChannel channel, ByteBuffer buffer, long position, int min)
+            throws IOException {
+        int target = buffer.position() + min;
+        while (buffer.position() < target) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("磁盘行存储文件不完整");
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
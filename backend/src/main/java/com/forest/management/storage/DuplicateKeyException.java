@@ -0,0 +1,19 @@
+package com.forest.management.storage;
+
+/**
+ * 唯一键冲突异常，写入存储时由唯一索引抛出，此时存储内容保持不变
+ */
+public class DuplicateKeyException extends RuntimeException {
+
+    private final String field;
+    private final String value;
+
+    public DuplicateKeyException(String field, String value) {
+        super("唯一键冲突: " + field + "=" + value);
+        this.field = field;
+        this.value = value;
+    }
+
+    public String getField() { return field; }
+    public String getValue() { return value; }
+}
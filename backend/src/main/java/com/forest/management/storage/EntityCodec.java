@@ -0,0 +1,37 @@
+package com.forest.management.storage;
+
+import java.io.*;
+
+/**
+ * 实体二进制编解码，用于预写日志和快照
+ */
+public interface EntityCodec<T> {
+
+    void write(DataOutput out, T row) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    /**
+     * 编码为字节数组
+     */
+    default byte[] encode(T row) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            write(new DataOutputStream(bytes), row);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 从字节数组解码
+     */
+    default T decode(byte[] data) {
+        try {
+            return read(new DataInputStream(new ByteArrayInputStream(data)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * 各实体的二进制编解码
+ * 字段按声明顺序写入，可空字段先写一个存在标记
+ */
+public final class EntityCodecs {
+
+    private EntityCodecs() {
+    }
+
+    public static final EntityCodec<TreeArchive> TREE_ARCHIVE = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, TreeArchive tree) throws IOException {
+            writeLong(out, tree.getId());
+            writeString(out, tree.getTreeSpecies());
+            writeDouble(out, tree.getDiameter());
+            writeDouble(out, tree.getHeight());
+            writeString(out, tree.getHealthStatus());
+            writeString(out, tree.getLocation());
+            writeDateTime(out, tree.getCreateTime());
+            writeDateTime(out, tree.getUpdateTime());
+        }
+
+        @Override
+        public TreeArchive read(DataInput in) throws IOException {
+            TreeArchive tree = new TreeArchive();
+            tree.setId(readLong(in));
+            tree.setTreeSpecies(readString(in));
+            tree.setDiameter(readDouble(in));
+            tree.setHeight(readDouble(in));
+            tree.setHealthStatus(readString(in));
+            tree.setLocation(readString(in));
+            tree.setCreateTime(readDateTime(in));
+            tree.setUpdateTime(readDateTime(in));
+            return tree;
+        }
+    };
+
+    public static final EntityCodec<ForestLand> FOREST_LAND = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, ForestLand land) throws IOException {
+            writeLong(out, land.getId());
+            writeString(out, land.getName());
+            writeString(out, land.getClassification());
+            writeDouble(out, land.getArea());
+            writeString(out, land.getLocation());
+            writeString(out, land.getCoordinates());
+            writeString(out, land.getDescription());
+            writeDateTime(out, land.getCreateTime());
+            writeDateTime(out, land.getUpdateTime());
+        }
+
+        @Override
+        public ForestLand read(DataInput in) throws IOException {
+            ForestLand land = new ForestLand();
+            land.setId(readLong(in));
+            land.setName(readString(in));
+            land.setClassification(readString(in));
+            land.setArea(readDouble(in));
+            land.setLocation(readString(in));
+            land.setCoordinates(readString(in));
+            land.setDescription(readString(in));
+            land.setCreateTime(readDateTime(in));
+            land.setUpdateTime(readDateTime(in));
+            return land;
+        }
+    };
+
+    public static final EntityCodec<ResourceMonitor> RESOURCE_MONITOR = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, ResourceMonitor monitor) throws IOException {
+            writeLong(out, monitor.getId());
+            writeLong(out, monitor.getForestLandId());
+            writeString(out, monitor.getForestLandName());
+            writeString(out, monitor.getMonitorType());
+            writeDouble(out, monitor.getCurrentValue());
+            writeDouble(out, monitor.getPreviousValue());
+            writeDate(out, monitor.getMonitorDate());
+            writeString(out, monitor.getUnit());
+            writeString(out, monitor.getRemarks());
+            writeDateTime(out, monitor.getCreateTime());
+        }
+
+        @Override
+        public ResourceMonitor read(DataInput in) throws IOException {
+            ResourceMonitor monitor = new ResourceMonitor();
+            monitor.setId(readLong(in));
+            monitor.setForestLandId(readLong(in));
+            monitor.setForestLandName(readString(in));
+            monitor.setMonitorType(readString(in));
+            monitor.setCurrentValue(readDouble(in));
+            monitor.setPreviousValue(readDouble(in));
+            monitor.setMonitorDate(readDate(in));
+            monitor.setUnit(readString(in));
+            monitor.setRemarks(readString(in));
+            monitor.setCreateTime(readDateTime(in));
+            return monitor;
+        }
+    };
+
+    public static final EntityCodec<ForestRights> FOREST_RIGHTS = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, ForestRights rights) throws IOException {
+            writeLong(out, rights.getId());
+            writeString(out, rights.getCertificateNo());
+            writeString(out, rights.getOwnerName());
+            writeString(out, rights.getOwnerIdCard());
+            writeString(out, rights.getOwnerPhone());
+            writeLong(out, rights.getForestLandId());
+            writeString(out, rights.getForestLandName());
+            writeDate(out, rights.getIssueDate());
+            writeDate(out, rights.getExpiryDate());
+            writeString(out, rights.getStatus());
+            writeString(out, rights.getIssueOrgan());
+            writeString(out, rights.getRemarks());
+            writeDateTime(out, rights.getCreateTime());
+            writeDateTime(out, rights.getUpdateTime());
+        }
+
+        @Override
+        public ForestRights read(DataInput in) throws IOException {
+            ForestRights rights = new ForestRights();
+            rights.setId(readLong(in));
+            rights.setCertificateNo(readString(in));
+            rights.setOwnerName(readString(in));
+            rights.setOwnerIdCard(readString(in));
+            rights.setOwnerPhone(readString(in));
+            rights.setForestLandId(readLong(in));
+            rights.setForestLandName(readString(in));
+            rights.setIssueDate(readDate(in));
+            rights.setExpiryDate(readDate(in));
+            rights.setStatus(readString(in));
+            rights.setIssueOrgan(readString(in));
+            rights.setRemarks(readString(in));
+            rights.setCreateTime(readDateTime(in));
+            rights.setUpdateTime(readDateTime(in));
+            return rights;
+        }
+    };
+
+    public static final EntityCodec<CuttingPermit> CUTTING_PERMIT = new EntityCodec<>() {
+        @Override
+        public void write(DataOutput out, CuttingPermit permit) throws IOException {
+            writeLong(out, permit.getId());
+            writeString(out, permit.getPermitNo());
+            writeString(out, permit.getApplicantName());
+            writeString(out, permit.getApplicantPhone());
+            writeString(out, permit.getApplicantIdCard());
+            writeLong(out, permit.getForestLandId());
+            writeString(out, permit.getForestLandName());
+            writeDouble(out, permit.getCuttingArea());
+            writeDouble(out, permit.getCuttingVolume());
+            writeString(out, permit.getReason());
+            writeString(out, permit.getStatus());
+            writeString(out, permit.getApprovalOpinion());
+            writeString(out, permit.getApprover());
+            writeDate(out, permit.getApplicationDate());
+            writeDate(out, permit.getApprovalDate());
+            writeDate(out, permit.getValidUntil());
+            writeDateTime(out, permit.getCreateTime());
+            writeDateTime(out, permit.getUpdateTime());
+        }
+
+        @Override
+        public CuttingPermit read(DataInput in) throws IOException {
+            CuttingPermit permit = new CuttingPermit();
+            permit.setId(readLong(in));
+            permit.setPermitNo(readString(in));
+            permit.setApplicantName(readString(in));
+            permit.setApplicantPhone(readString(in));
+            permit.setApplicantIdCard(readString(in));
+            permit.setForestLandId(readLong(in));
+            permit.setForestLandName(readString(in));
+            permit.setCuttingArea(readDouble(in));
+            permit.setCuttingVolume(readDouble(in));
+            permit.setReason(readString(in));
+            permit.setStatus(readString(in));
+            permit.setApprovalOpinion(readString(in));
+            permit.setApprover(readString(in));
+            permit.setApplicationDate(readDate(in));
+            permit.setApprovalDate(readDate(in));
+            permit.setValidUntil(readDate(in));
+            permit.setCreateTime(readDateTime(in));
+            permit.setUpdateTime(readDateTime(in));
+            return permit;
+        }
+    };
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    static void writeDouble(DataOutput out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    static Double readDouble(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    static void writeDate(DataOutput out, LocalDate value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochDay());
+        }
+    }
+
+    static LocalDate readDate(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+    }
+
+    static void writeDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toLocalDate().toEpochDay());
+            out.writeLong(value.toLocalTime().toNanoOfDay());
+        }
+    }
+
+    static LocalDateTime readDateTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        return date.atTime(LocalTime.ofNanoOfDay(in.readLong()));
+    }
+}
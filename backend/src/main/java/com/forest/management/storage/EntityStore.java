@@ -0,0 +1,619 @@
+package com.forest.management.storage;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * 带二级索引的内存实体存储
+ * 对外仍表现为Map，所有写入（put/remove/clear）都会同步维护已注册的索引，
+ * 设置了写入日志时同时登记到日志。记录本身保存在行存储中（默认堆内，见RowStorage）
+ */
+public class EntityStore<T> extends AbstractMap<Long, T> implements AutoCloseable {
+
+    private final RowStorage<T> rows;
+    private final List<StoreIndex<T>> indexes = new ArrayList<>();
+    private final List<UniqueIndex<T>> uniqueIndexes = new ArrayList<>();
+    private final Map<String, List<FieldIndex<T>>> fieldIndexes = new HashMap<>();
+    private final Map<String, Function<T, String>> fields = new HashMap<>();
+    private OrderedIndex<T> ordered;
+    private Consumer<T> symbols;
+    private EntityCodec<T> codec;
+    private final RowVersions versions = new RowVersions();
+    private volatile StoreJournal<T> journal;
+    private volatile boolean uniqueKeysSuspended;
+
+    // 候选集合占比超过 1/DENSE_RATIO 时沿有序索引遍历，否则对候选集合单独排序
+    private static final int DENSE_RATIO = 8;
+
+    public EntityStore() {
+        this(new HeapRowStorage<>());
+    }
+
+    protected EntityStore(RowStorage<T> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * 注册可查询字段（无索引时按行扫描过滤）
+     */
+    protected void field(String name, Function<T, String> accessor) {
+        fields.put(name, accessor);
+    }
+
+    /**
+     * 注册索引，需在存储写入数据之前调用
+     */
+    @SuppressWarnings("unchecked")
+    protected <I extends StoreIndex<T>> I index(I index) {
+        // 唯一索引单独维护：写入时先占用新键值，冲突时无需回滚其它索引
+        if (index instanceof UniqueIndex) {
+            uniqueIndexes.add((UniqueIndex<T>) index);
+        } else {
+            indexes.add(index);
+        }
+        if (index instanceof FieldIndex) {
+            FieldIndex<T> fieldIndex = (FieldIndex<T>) index;
+            List<FieldIndex<T>> list = fieldIndexes.computeIfAbsent(fieldIndex.getField(), k -> new ArrayList<>());
+            if (index instanceof UniqueIndex) {
+                list.add(0, fieldIndex);
+            } else {
+                list.add(fieldIndex);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 注册唯一键索引，写入重复键值时抛出DuplicateKeyException
+     */
+    protected UniqueIndex<T> uniqueIndex(String name, Function<T, String> accessor) {
+        field(name, accessor);
+        return index(new UniqueIndex<>(name, accessor));
+    }
+
+    /**
+     * 注册哈希索引（字段值按符号表编码），同时注册为可查询字段
+     */
+    protected HashIndex<T> hashIndex(String name, Function<T, String> accessor, ToIntFunction<T> code) {
+        field(name, accessor);
+        return index(new HashIndex<>(name, code));
+    }
+
+    /**
+     * 注册符号登记操作，记录被存储接受（写入、修改）时、维护索引之前调用，
+     * 取值只在此时登记到全局符号表，未通过校验的请求不会占用符号表
+     */
+    protected void symbols(Consumer<T> interner) {
+        this.symbols = interner;
+    }
+
+    /**
+     * 注册编解码器，update通过编解码复制记录，在副本上修改后整体替换
+     */
+    protected void codec(EntityCodec<T> codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * 注册分页使用的有序索引（按创建时间倒序）
+     */
+    protected void orderBy(Function<T, LocalDateTime> createTime) {
+        ordered = index(new OrderedIndex<>(createTime));
+    }
+
+    /**
+     * 注册N元文法索引，同时注册为可查询字段
+     */
+    protected NGramIndex<T> ngramIndex(String name, Function<T, String> accessor) {
+        field(name, accessor);
+        return index(new NGramIndex<>(name, accessor));
+    }
+
+    /**
+     * 注册分组计数索引（字段值按符号表编码）
+     */
+    protected GroupCountIndex<T> countBy(ToIntFunction<T> code) {
+        return index(new GroupCountIndex<>(code));
+    }
+
+    /**
+     * 注册日期计数索引
+     */
+    protected DateCountIndex<T> countByDate(Function<T, LocalDate> accessor) {
+        return index(new DateCountIndex<>(accessor));
+    }
+
+    /**
+     * 注册数值累加索引
+     */
+    protected SumIndex<T> sumOf(Function<T, Double> accessor) {
+        return index(new SumIndex<>(accessor));
+    }
+
+    /**
+     * 设置写入日志，之后的每次写入都会登记到日志并按日志的策略等待落盘
+     */
+    public void setJournal(StoreJournal<T> journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * 暂停唯一键检查，期间的写入不维护唯一键索引
+     * 用于加载快照和重放日志：快照生成时不阻塞写入，可能同时包含改名前后的键值，重放日志后才一致
+     */
+    public void suspendUniqueKeys() {
+        uniqueKeysSuspended = true;
+        uniqueIndexes.forEach(UniqueIndex::clear);
+    }
+
+    /**
+     * 按当前数据重建唯一键索引并恢复唯一键检查，仍有重复键值时抛出DuplicateKeyException
+     */
+    public void rebuildUniqueKeys() {
+        for (UniqueIndex<T> index : uniqueIndexes) {
+            index.clear();
+            rows.forEach(index::add);
+        }
+        uniqueKeysSuspended = false;
+    }
+
+    /**
+     * 数据版本号，每次写入后递增，可用于判断派生数据是否需要重算
+     */
+    public long getVersion() {
+        return versions.get();
+    }
+
+    /**
+     * 行版本号，某行写入后该行（及同一条带的行）的版本号递增
+     */
+    public RowVersions getRowVersions() {
+        return versions;
+    }
+
+    @Override
+    public T get(Object id) {
+        return id instanceof Long ? rows.get((Long) id) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object id) {
+        return id instanceof Long && rows.contains((Long) id);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * 写入记录，唯一键冲突时抛出DuplicateKeyException且不做任何修改
+     * row须是新对象：写回从存储取出、原地修改过的对象时旧值已丢失，索引无法按旧值移除，
+     * 此时抛出IllegalArgumentException，修改已有记录应使用update
+     */
+    @Override
+    public T put(Long id, T row) {
+        Objects.requireNonNull(id, "id");
+        Objects.requireNonNull(row, "row");
+        Object[] previous = new Object[1];
+        long[] lsn = new long[1];
+        StoreJournal<T> journal = this.journal;
+        beginApply(journal);
+        try {
+            rows.compute(id, (key, old) -> {
+                if (old == row) {
+                    throw new IllegalArgumentException("不能写回存储中的同一个对象，请使用update修改记录");
+                }
+                previous[0] = old;
+                lsn[0] = replace(key, old, row, journal);
+                return row;
+            });
+            versions.bump(id);
+        } finally {
+            endApply(journal);
+        }
+        if (journal != null) {
+            journal.sync(lsn[0]);
+        }
+        @SuppressWarnings("unchecked")
+        T old = (T) previous[0];
+        return old;
+    }
+
+    @Override
+    public T remove(Object id) {
+        if (!(id instanceof Long)) {
+            return null;
+        }
+        Object[] removed = new Object[1];
+        long[] lsn = new long[1];
+        StoreJournal<T> journal = this.journal;
+        beginApply(journal);
+        try {
+            rows.computeIfPresent((Long) id, (key, old) -> {
+                if (journal != null) {
+                    lsn[0] = journal.remove(key);
+                }
+                removeFromIndexes(key, old);
+                for (UniqueIndex<T> index : uniqueIndexes) {
+                    index.remove(key, old);
+                }
+                removed[0] = old;
+                return null;
+            });
+            if (removed[0] != null) {
+                versions.bump((Long) id);
+            }
+        } finally {
+            endApply(journal);
+        }
+        if (removed[0] != null) {
+            if (journal != null) {
+                journal.sync(lsn[0]);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        T old = (T) removed[0];
+        return old;
+    }
+
+    /**
+     * 修改记录（如审批、状态变更）：复制记录后在副本上修改，再像put一样整体替换并维护索引
+     * 修改操作抛出异常或唯一键冲突时原记录保持不变；记录不存在时返回null
+     */
+    public T update(Long id, Consumer<T> mutator) {
+        if (codec == null) {
+            throw new IllegalStateException("存储未注册编解码器");
+        }
+        long[] lsn = new long[1];
+        StoreJournal<T> journal = this.journal;
+        T updated;
+        beginApply(journal);
+        try {
+            updated = rows.computeIfPresent(id, (key, old) -> {
+                T row = codec.decode(codec.encode(old));
+                mutator.accept(row);
+                lsn[0] = replace(key, old, row, journal);
+                return row;
+            });
+            if (updated != null) {
+                versions.bump(id);
+            }
+        } finally {
+            endApply(journal);
+        }
+        if (updated != null) {
+            if (journal != null) {
+                journal.sync(lsn[0]);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * 用row替换old（old可以为空）：检查行存储能否写入、登记符号、维护索引并写入日志，返回日志序号
+     * 先占用row的唯一键值（冲突时尚未做任何修改），写入日志成功后才释放old的键值，
+     * 因此失败回滚时只需释放新占用的键值、恢复普通索引，不会因键值被其它记录抢占而失败
+     */
+    private long replace(Long key, T old, T row, StoreJournal<T> journal) {
+        rows.check(row);
+        internSymbols(row);
+        List<UniqueIndex<T>> uniques = uniqueKeysSuspended ? List.of() : uniqueIndexes;
+        int claimed = 0;
+        try {
+            for (; claimed < uniques.size(); claimed++) {
+                uniques.get(claimed).add(key, row);
+            }
+        } catch (RuntimeException e) {
+            releaseClaimed(uniques, claimed, key, old, row);
+            throw e;
+        }
+        if (old != null) {
+            removeFromIndexes(key, old);
+        }
+        boolean indexed = false;
+        try {
+            addToIndexes(key, row);
+            indexed = true;
+            long lsn = journal != null ? journal.put(key, row) : 0;
+            if (old != null) {
+                for (UniqueIndex<T> index : uniques) {
+                    if (!index.sameKey(old, row)) {
+                        index.remove(key, old);
+                    }
+                }
+            }
+            return lsn;
+        } catch (RuntimeException e) {
+            if (indexed) {
+                removeFromIndexes(key, row);
+            }
+            if (old != null) {
+                addToIndexes(key, old);
+            }
+            releaseClaimed(uniques, uniques.size(), key, old, row);
+            throw e;
+        }
+    }
+
+    /**
+     * 释放前count个唯一索引中为row占用的键值，与old相同的键值原本就属于该记录，保留不动
+     */
+    private void releaseClaimed(List<UniqueIndex<T>> uniques, int count, Long key, T old, T row) {
+        for (int i = 0; i < count; i++) {
+            UniqueIndex<T> index = uniques.get(i);
+            if (old == null || !index.sameKey(old, row)) {
+                index.remove(key, row);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        StoreJournal<T> journal = this.journal;
+        long lsn;
+        beginApply(journal);
+        try {
+            lsn = journal != null ? journal.clear() : 0;
+            rows.clear();
+            indexes.forEach(StoreIndex::clear);
+            uniqueIndexes.forEach(UniqueIndex::clear);
+            versions.bumpAll();
+        } finally {
+            endApply(journal);
+        }
+        if (journal != null) {
+            journal.sync(lsn);
+        }
+    }
+
+    @Override
+    public Collection<T> values() {
+        return rows.values();
+    }
+
+    @Override
+    public Set<Long> keySet() {
+        return rows.keySet();
+    }
+
+    @Override
+    public Set<Entry<Long, T>> entrySet() {
+        return rows.entrySet();
+    }
+
+    /**
+     * 释放行存储占用的资源
+     */
+    @Override
+    public void close() {
+        rows.close();
+    }
+
+    /**
+     * 按条件查询记录ID
+     * 有索引的条件取倒排表求交集（从最小的集合开始），其余条件逐条校验
+     */
+    public List<Long> findIds(Criteria criteria) {
+        List<Set<Long>> candidates = new ArrayList<>();
+        List<Criteria.Condition> residual = new ArrayList<>();
+        for (Criteria.Condition condition : criteria.getConditions()) {
+            if (!fields.containsKey(condition.getField())) {
+                throw new IllegalArgumentException("不支持的查询字段: " + condition.getField());
+            }
+            Set<Long> found = null;
+            boolean exact = false;
+            for (FieldIndex<T> index : fieldIndexes.getOrDefault(condition.getField(), Collections.emptyList())) {
+                found = index.find(condition.getOperator(), condition.getValue());
+                if (found != null) {
+                    exact = index.isExact(condition.getOperator());
+                    break;
+                }
+            }
+            if (found == null || !exact) {
+                residual.add(condition);
+            }
+            if (found != null) {
+                candidates.add(found);
+            }
+        }
+
+        List<Long> result = new ArrayList<>();
+        if (candidates.isEmpty()) {
+            rows.forEach((id, row) -> {
+                if (matches(row, residual)) {
+                    result.add(id);
+                }
+            });
+            return result;
+        }
+
+        candidates.sort(Comparator.comparingInt(Set::size));
+        Set<Long> smallest = candidates.get(0);
+        for (Long id : smallest) {
+            if (!containsAll(candidates, id)) {
+                continue;
+            }
+            if (!residual.isEmpty()) {
+                T row = rows.get(id);
+                if (row == null || !matches(row, residual)) {
+                    continue;
+                }
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * 按条件查询记录
+     */
+    public List<T> select(Criteria criteria) {
+        List<T> result = new ArrayList<>();
+        for (Long id : findIds(criteria)) {
+            T row = rows.get(id);
+            if (row != null) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按创建时间倒序分页查询（页码分页）
+     */
+    public PageResult<T> page(Criteria criteria, int offset, int limit) {
+        return page(criteria, null, offset, limit);
+    }
+
+    /**
+     * 按创建时间倒序分页查询
+     * after不为空时为键集分页，从游标之后开始取数，offset被忽略；
+     * 无过滤条件或候选集合较大时沿有序索引遍历，候选集合较小时只对候选记录排序
+     */
+    public PageResult<T> page(Criteria criteria, OrderedIndex.Key after, int offset, int limit) {
+        if (ordered == null) {
+            throw new IllegalStateException("存储未注册有序索引");
+        }
+        int skip = after != null ? 0 : Math.max(offset, 0);
+        NavigableSet<OrderedIndex.Key> keys = after != null ? ordered.keys().tailSet(after, false) : ordered.keys();
+        if (criteria.isEmpty()) {
+            return collect(keys, null, skip, limit, rows.size());
+        }
+
+        Set<Long> ids = new HashSet<>(findIds(criteria));
+        if ((long) ids.size() * DENSE_RATIO >= rows.size()) {
+            return collect(keys, ids, skip, limit, ids.size());
+        }
+
+        List<OrderedIndex.Key> candidates = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T row = rows.get(id);
+            if (row == null) {
+                continue;
+            }
+            OrderedIndex.Key key = ordered.keyOf(id, row);
+            if (after == null || key.compareTo(after) > 0) {
+                candidates.add(key);
+            }
+        }
+        Collections.sort(candidates);
+        return collect(candidates, null, skip, limit, ids.size());
+    }
+
+    /**
+     * 按排序键顺序跳过skip条匹配记录后取limit条，并在还有后续数据时生成下一页游标
+     */
+    private PageResult<T> collect(Iterable<OrderedIndex.Key> keys, Set<Long> filter, int skip, int limit, int total) {
+        List<T> page = new ArrayList<>();
+        OrderedIndex.Key last = null;
+        boolean hasMore = false;
+        int skipped = 0;
+        for (OrderedIndex.Key key : keys) {
+            if (filter != null && !filter.contains(key.getId())) {
+                continue;
+            }
+            // 只还原本页的记录，跳过的记录只检查是否存在
+            if (!rows.contains(key.getId())) {
+                continue;
+            }
+            if (skipped < skip) {
+                skipped++;
+                continue;
+            }
+            if (page.size() >= limit) {
+                hasMore = true;
+                break;
+            }
+            T row = rows.get(key.getId());
+            if (row == null) {
+                continue;
+            }
+            page.add(row);
+            last = key;
+        }
+        String nextCursor = hasMore && last != null ? PageCursor.encode(last) : null;
+        return new PageResult<>(page, total, nextCursor);
+    }
+
+    private boolean containsAll(List<Set<Long>> candidates, Long id) {
+        for (int i = 1; i < candidates.size(); i++) {
+            if (!candidates.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按创建时间倒序逐条遍历满足条件的记录，不物化结果集合（用于导出）
+     * 遍历沿有序索引进行，遍历期间的并发写入可能可见也可能不可见
+     */
+    public void scan(Criteria criteria, Consumer<T> action) {
+        if (ordered == null) {
+            throw new IllegalStateException("存储未注册有序索引");
+        }
+        List<Criteria.Condition> conditions = criteria.getConditions();
+        for (Criteria.Condition condition : conditions) {
+            if (!fields.containsKey(condition.getField())) {
+                throw new IllegalArgumentException("不支持的查询字段: " + condition.getField());
+            }
+        }
+        for (OrderedIndex.Key key : ordered.keys()) {
+            T row = rows.get(key.getId());
+            if (row != null && matches(row, conditions)) {
+                action.accept(row);
+            }
+        }
+    }
+
+    private boolean matches(T row, List<Criteria.Condition> conditions) {
+        for (Criteria.Condition condition : conditions) {
+            if (!condition.test(fields.get(condition.getField()).apply(row))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void beginApply(StoreJournal<?> journal) {
+        if (journal != null) {
+            journal.beginApply();
+        }
+    }
+
+    private static void endApply(StoreJournal<?> journal) {
+        if (journal != null) {
+            journal.endApply();
+        }
+    }
+
+    private void internSymbols(T row) {
+        if (symbols != null) {
+            symbols.accept(row);
+        }
+    }
+
+    private void addToIndexes(Long id, T row) {
+        for (int i = 0; i < indexes.size(); i++) {
+            try {
+                indexes.get(i).add(id, row);
+            } catch (RuntimeException e) {
+                for (int j = i - 1; j >= 0; j--) {
+                    indexes.get(j).remove(id, row);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void removeFromIndexes(Long id, T row) {
+        for (StoreIndex<T> index : indexes) {
+            index.remove(id, row);
+        }
+    }
+}
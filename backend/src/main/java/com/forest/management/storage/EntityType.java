@@ -0,0 +1,31 @@
+package com.forest.management.storage;
+
+/**
+ * 持久化的实体类型，code写入日志记录和快照
+ */
+public enum EntityType {
+    TREE_ARCHIVE(1),
+    FOREST_LAND(2),
+    RESOURCE_MONITOR(3),
+    FOREST_RIGHTS(4),
+    CUTTING_PERMIT(5);
+
+    private final byte code;
+
+    EntityType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static EntityType fromCode(byte code) {
+        for (EntityType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("未知的实体类型: " + code);
+    }
+}
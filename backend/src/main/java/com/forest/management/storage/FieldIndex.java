@@ -0,0 +1,24 @@
+package com.forest.management.storage;
+
+import java.util.Set;
+
+/**
+ * 可用于条件查询的字段索引
+ */
+public interface FieldIndex<T> extends StoreIndex<T> {
+
+    /**
+     * 索引对应的字段名
+     */
+    String getField();
+
+    /**
+     * 查找满足条件的记录ID，索引无法处理该操作时返回null
+     */
+    Set<Long> find(Criteria.Operator operator, String value);
+
+    /**
+     * find返回的结果是否精确，不精确时由存储再逐条校验
+     */
+    boolean isExact(Criteria.Operator operator);
+}
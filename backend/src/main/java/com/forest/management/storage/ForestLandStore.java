@@ -0,0 +1,44 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.ForestLand;
+
+import java.util.Map;
+
+/**
+ * 林地信息存储
+ * 林地分类维护哈希索引，名称和位置维护N元文法索引
+ * 另按创建时间维护有序索引，供列表分页使用
+ * 分类计数与总面积随写入增量维护
+ */
+public class ForestLandStore extends EntityStore<ForestLand> {
+
+    private final GroupCountIndex<ForestLand> classificationCounts;
+    private final SumIndex<ForestLand> areaSum;
+
+    public ForestLandStore() {
+        this(new HeapRowStorage<>());
+    }
+
+    /**
+     * 使用指定的行存储，如磁盘上的DiskRowStorage
+     */
+    public ForestLandStore(RowStorage<ForestLand> rows) {
+        super(rows);
+        orderBy(ForestLand::getCreateTime);
+        symbols(ForestLand::internSymbols);
+        codec(EntityCodecs.FOREST_LAND);
+        hashIndex("classification", ForestLand::getClassification, ForestLand::getClassificationCode);
+        ngramIndex("name", ForestLand::getName);
+        ngramIndex("location", ForestLand::getLocation);
+        classificationCounts = countBy(ForestLand::getClassificationCode);
+        areaSum = sumOf(ForestLand::getArea);
+    }
+
+    public Map<String, Long> getClassificationCounts() {
+        return classificationCounts.counts();
+    }
+
+    public double getTotalArea() {
+        return areaSum.getSum();
+    }
+}
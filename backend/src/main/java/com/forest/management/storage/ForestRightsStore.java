@@ -0,0 +1,50 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.ForestRights;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 林权证书存储
+ * 证书编号、权利人维护N元文法索引，证书状态维护哈希索引
+ * 证书编号维护唯一键索引，重复写入时抛出DuplicateKeyException
+ * 另按创建时间维护有序索引，供列表分页使用
+ * 状态计数与到期日期分布随写入增量维护
+ */
+public class ForestRightsStore extends EntityStore<ForestRights> {
+
+    private final GroupCountIndex<ForestRights> statusCounts;
+    private final DateCountIndex<ForestRights> expiryDates;
+
+    public ForestRightsStore() {
+        this(new HeapRowStorage<>());
+    }
+
+    /**
+     * 使用指定的行存储，如磁盘上的DiskRowStorage
+     */
+    public ForestRightsStore(RowStorage<ForestRights> rows) {
+        super(rows);
+        orderBy(ForestRights::getCreateTime);
+        symbols(ForestRights::internSymbols);
+        codec(EntityCodecs.FOREST_RIGHTS);
+        uniqueIndex("certificateNo", ForestRights::getCertificateNo);
+        ngramIndex("certificateNo", ForestRights::getCertificateNo);
+        ngramIndex("ownerName", ForestRights::getOwnerName);
+        hashIndex("status", ForestRights::getStatus, ForestRights::getStatusCode);
+        statusCounts = countBy(ForestRights::getStatusCode);
+        expiryDates = countByDate(ForestRights::getExpiryDate);
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts.counts();
+    }
+
+    /**
+     * 到期日早于date的证书数（与ForestRights.isExpiringSoon口径一致）
+     */
+    public long countExpiringBefore(LocalDate date) {
+        return expiryDates.countBefore(date);
+    }
+}
@@ -0,0 +1,153 @@
+package com.forest.management.storage;
+
+/**
+ * Gorilla风格的时序编码
+ * 整数列（日期、ID、时间戳）使用二阶差分编码，浮点列与前值异或后只写有效位
+ */
+final class GorillaCodec {
+
+    private GorillaCodec() {
+    }
+
+    /**
+     * 二阶差分编码：0 / 10+7位 / 110+9位 / 1110+12位 / 1111+64位
+     */
+    static final class DeltaEncoder {
+        private long previous;
+        private long previousDelta;
+        private boolean first = true;
+
+        void write(BitWriter out, long value) {
+            if (first) {
+                out.write(value, 64);
+                previous = value;
+                first = false;
+                return;
+            }
+            long delta = value - previous;
+            long dod = delta - previousDelta;
+            if (dod == 0) {
+                out.writeBit(false);
+            } else if (fits(dod, 7)) {
+                out.write(0b10, 2);
+                out.write(dod, 7);
+            } else if (fits(dod, 9)) {
+                out.write(0b110, 3);
+                out.write(dod, 9);
+            } else if (fits(dod, 12)) {
+                out.write(0b1110, 4);
+                out.write(dod, 12);
+            } else {
+                out.write(0b1111, 4);
+                out.write(dod, 64);
+            }
+            previous = value;
+            previousDelta = delta;
+        }
+
+        private static boolean fits(long value, int bits) {
+            long bound = 1L << (bits - 1);
+            return value >= -bound && value < bound;
+        }
+    }
+
+    static final class DeltaDecoder {
+        private long previous;
+        private long previousDelta;
+        private boolean first = true;
+
+        long read(BitReader in) {
+            if (first) {
+                previous = in.read(64);
+                first = false;
+                return previous;
+            }
+            long dod;
+            if (!in.readBit()) {
+                dod = 0;
+            } else if (!in.readBit()) {
+                dod = signed(in.read(7), 7);
+            } else if (!in.readBit()) {
+                dod = signed(in.read(9), 9);
+            } else if (!in.readBit()) {
+                dod = signed(in.read(12), 12);
+            } else {
+                dod = in.read(64);
+            }
+            previousDelta += dod;
+            previous += previousDelta;
+            return previous;
+        }
+
+        private static long signed(long value, int bits) {
+            return (value << (64 - bits)) >> (64 - bits);
+        }
+    }
+
+    /**
+     * 浮点异或编码：与前值相同写0；
+     * 否则写1，有效位落在上一个窗口内时写0+窗口内的位，不然写1+前导零(5位)+有效位长度(6位)+有效位
+     */
+    static final class XorEncoder {
+        private long previous;
+        private int previousLeading = -1;
+        private int previousTrailing;
+        private boolean first = true;
+
+        void write(BitWriter out, double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            if (first) {
+                out.write(bits, 64);
+                previous = bits;
+                first = false;
+                return;
+            }
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.writeBit(false);
+                return;
+            }
+            out.writeBit(true);
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                out.writeBit(false);
+                out.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                return;
+            }
+            int significant = 64 - leading - trailing;
+            out.writeBit(true);
+            out.write(leading, 5);
+            out.write(significant - 1, 6);
+            out.write(xor >>> trailing, significant);
+            previousLeading = leading;
+            previousTrailing = trailing;
+        }
+    }
+
+    static final class XorDecoder {
+        private long previous;
+        private int previousLeading;
+        private int previousTrailing;
+        private boolean first = true;
+
+        double read(BitReader in) {
+            if (first) {
+                previous = in.read(64);
+                first = false;
+                return Double.longBitsToDouble(previous);
+            }
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    previousLeading = (int) in.read(5);
+                    int significant = (int) in.read(6) + 1;
+                    previousTrailing = 64 - previousLeading - significant;
+                }
+                int significant = 64 - previousLeading - previousTrailing;
+                previous ^= in.read(significant) << previousTrailing;
+            }
+            return Double.longBitsToDouble(previous);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.forest.management.storage;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * 分组计数索引：字段值 -> 记录数
+ * 写入时增减计数器，统计时无需遍历记录；字段值按符号表编码，计数器按编码存放在数组中
+ */
+public class GroupCountIndex<T> implements StoreIndex<T> {
+
+    private final ToIntFunction<T> extractor;
+    private volatile LongAdder[] counters = new LongAdder[0];
+
+    public GroupCountIndex(ToIntFunction<T> extractor) {
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void add(Long id, T row) {
+        int code = extractor.applyAsInt(row);
+        if (code >= 0) {
+            counterFor(code).increment();
+        }
+    }
+
+    @Override
+    public void remove(Long id, T row) {
+        int code = extractor.applyAsInt(row);
+        LongAdder[] current = counters;
+        if (code >= 0 && code < current.length && current[code] != null) {
+            current[code].decrement();
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        counters = new LongAdder[0];
+    }
+
+    /**
+     * 某一分组的记录数
+     */
+    public long count(String key) {
+        int code = SymbolTable.lookup(key);
+        LongAdder[] current = counters;
+        return code >= 0 && code < current.length && current[code] != null ? current[code].sum() : 0;
+    }
+
+    /**
+     * 各分组的记录数，计数为0的分组不返回
+     */
+    public Map<String, Long> counts() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        LongAdder[] current = counters;
+        for (int code = 0; code < current.length; code++) {
+            long count = current[code] != null ? current[code].sum() : 0;
+            if (count > 0) {
+                result.put(SymbolTable.decode(code), count);
+            }
+        }
+        return result;
+    }
+
+    private LongAdder counterFor(int code) {
+        LongAdder[] current = counters;
+        if (code < current.length && current[code] != null) {
+            return current[code];
+        }
+        synchronized (this) {
+            current = counters;
+            if (code < current.length && current[code] != null) {
+                return current[code];
+            }
+            LongAdder[] grown = Arrays.copyOf(current, Math.max(current.length, code + 1));
+            grown[code] = new LongAdder();
+            counters = grown;
+            return grown[code];
+        }
+    }
+}
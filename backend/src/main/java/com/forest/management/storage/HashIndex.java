@@ -0,0 +1,115 @@
+package com.forest.management.storage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * 哈希二级索引：字段值 -> 记录ID倒排表
+ * 适用于树种、健康状态这类取值较少的字段，字段值按符号表编码，倒排表按编码存放在数组中
+ */
+public class HashIndex<T> implements FieldIndex<T> {
+
+    private final String field;
+    private final ToIntFunction<T> extractor;
+    @SuppressWarnings("unchecked")
+    private volatile Set<Long>[] postings = new Set[0];
+
+    public HashIndex(String field, ToIntFunction<T> extractor) {
+        this.field = field;
+        this.extractor = extractor;
+    }
+
+    @Override
+    public String getField() {
+        return field;
+    }
+
+    @Override
+    public void add(Long id, T row) {
+        int code = extractor.applyAsInt(row);
+        if (code < 0) {
+            return;
+        }
+        postingsFor(code).add(id);
+    }
+
+    @Override
+    public void remove(Long id, T row) {
+        int code = extractor.applyAsInt(row);
+        Set<Long>[] current = postings;
+        if (code >= 0 && code < current.length && current[code] != null) {
+            current[code].remove(id);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        @SuppressWarnings("unchecked")
+        Set<Long>[] empty = new Set[0];
+        postings = empty;
+    }
+
+    @Override
+    public Set<Long> find(Criteria.Operator operator, String value) {
+        if (operator == Criteria.Operator.EQ) {
+            return get(value);
+        }
+        // 包含查询：取值个数很少，遍历出现过的取值后合并倒排表
+        Set<Long> result = new HashSet<>();
+        Set<Long>[] current = postings;
+        for (int code = 0; code < current.length; code++) {
+            if (current[code] != null && SymbolTable.decode(code).contains(value)) {
+                result.addAll(current[code]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isExact(Criteria.Operator operator) {
+        return true;
+    }
+
+    /**
+     * 获取某个取值对应的记录ID
+     */
+    public Set<Long> get(String key) {
+        int code = SymbolTable.lookup(key);
+        Set<Long>[] current = postings;
+        Set<Long> ids = code >= 0 && code < current.length ? current[code] : null;
+        return ids != null ? Collections.unmodifiableSet(ids) : Collections.emptySet();
+    }
+
+    /**
+     * 当前出现过的所有取值
+     */
+    public Set<String> keys() {
+        Set<String> keys = new LinkedHashSet<>();
+        Set<Long>[] current = postings;
+        for (int code = 0; code < current.length; code++) {
+            if (current[code] != null && !current[code].isEmpty()) {
+                keys.add(SymbolTable.decode(code));
+            }
+        }
+        return keys;
+    }
+
+    private Set<Long> postingsFor(int code) {
+        Set<Long>[] current = postings;
+        if (code < current.length && current[code] != null) {
+            return current[code];
+        }
+        synchronized (this) {
+            current = postings;
+            if (code < current.length && current[code] != null) {
+                return current[code];
+            }
+            // 复制后整体发布，读取方无需加锁
+            Set<Long>[] grown = Arrays.copyOf(current, Math.max(current.length, code + 1));
+            grown[code] = ConcurrentHashMap.newKeySet();
+            postings = grown;
+            return grown[code];
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.forest.management.storage;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * 堆内行存储，直接保存实体对象
+ */
+public class HeapRowStorage<T> implements RowStorage<T> {
+
+    private final ConcurrentHashMap<Long, T> rows = new ConcurrentHashMap<>();
+
+    @Override
+    public T get(long id) {
+        return rows.get(id);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return rows.containsKey(id);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public T compute(long id, BiFunction<Long, T, T> function) {
+        return rows.compute(id, function);
+    }
+
+    @Override
+    public T computeIfPresent(long id, BiFunction<Long, T, T> function) {
+        return rows.computeIfPresent(id, function);
+    }
+
+    @Override
+    public void clear() {
+        rows.clear();
+    }
+
+    @Override
+    public void forEach(BiConsumer<Long, T> action) {
+        rows.forEach(action);
+    }
+
+    @Override
+    public Set<Long> keySet() {
+        return Collections.unmodifiableSet(rows.keySet());
+    }
+
+    @Override
+    public Collection<T> values() {
+        return Collections.unmodifiableCollection(rows.values());
+    }
+
+    @Override
+    public Set<Map.Entry<Long, T>> entrySet() {
+        return Collections.unmodifiableMap(rows).entrySet();
+    }
+}
@@ -0,0 +1,544 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.TreeArchive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * 林木档案的堆外行存储
+ * 每行是内存映射文件中的一条64字节定长记录，位置由ID直接决定（ID即槽位号，无需堆内映射表）；
+ * 树种、健康状态直接存全局符号表编码，时间存为纪元秒+纳秒；
+ * 位置是自由文本，UTF-8字节追加写入另一个映射文件（溢出区），记录中只存偏移和长度。
+ * 只在读取时还原为TreeArchive对象，堆内不再保存每行的记录对象。
+ * 注意：堆内存仍随档案数量线性增长——TreeArchiveStore的二级索引仍在堆内，
+ * 包括有序索引（每行一个创建时间+ID的跳表节点）、位置的N元文法倒排表以及树种、健康状态的倒排表；
+ * 本存储只去掉了记录对象本身的占用。
+ * 映射文件只是工作区，每次启动重建，持久化仍由预写日志和快照负责；
+ * 溢出区只追加，修改位置或删除记录留下的旧字节不回收，直到清空存储或下次启动
+ *
+ * 记录布局：
+ * [0 标志 byte][4 树种 int][8 健康状态 int][12 位置长度 int，-1为空][16 胸径 double][24 树高 double]
+ * [32 创建时间秒 long][40 创建时间纳秒 int][44 更新时间纳秒 int][48 更新时间秒 long][56 位置偏移 long]
+ */
+public class MappedTreeArchiveStorage implements RowStorage<TreeArchive> {
+
+    static final int RECORD_BYTES = 64;
+    // 每个映射区的记录数，单个映射区64MB
+    static final int RECORDS_PER_REGION = 1 << 20;
+    private static final long REGION_BYTES = (long) RECORDS_PER_REGION * RECORD_BYTES;
+    // 溢出区每个映射区16MB，单个位置不跨映射区
+    static final int OVERFLOW_REGION_BYTES = 1 << 24;
+    private static final int LOCK_STRIPES = 64;
+
+    private static final int FLAGS = 0;
+    private static final int SPECIES = 4;
+    private static final int HEALTH = 8;
+    private static final int LOCATION_LENGTH = 12;
+    private static final int DIAMETER = 16;
+    private static final int HEIGHT = 24;
+    private static final int CREATE_SECONDS = 32;
+    private static final int CREATE_NANOS = 40;
+    private static final int UPDATE_NANOS = 44;
+    private static final int UPDATE_SECONDS = 48;
+    private static final int LOCATION_OFFSET = 56;
+
+    private static final byte PRESENT = 1;
+    private static final byte HAS_DIAMETER = 1 << 1;
+    private static final byte HAS_HEIGHT = 1 << 2;
+    private static final byte HAS_CREATE_TIME = 1 << 3;
+    private static final byte HAS_UPDATE_TIME = 1 << 4;
+
+    private final Regions records;
+    private final Regions overflow;
+    // 溢出区下一次写入的位置
+    private final AtomicLong overflowTail = new AtomicLong();
+    private final StampedLock[] locks = new StampedLock[LOCK_STRIPES];
+    private final AtomicInteger size = new AtomicInteger();
+    // 写入过的最大ID，遍历时扫描到此为止
+    private final AtomicLong maxId = new AtomicLong(-1);
+
+    /**
+     * 在file处创建映射文件（已存在时清空），溢出区为同目录下的file.locations，
+     * 关闭时删除（Linux上打开后即删除目录项，异常退出也不会残留）
+     */
+    public MappedTreeArchiveStorage(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        records = new Regions(open(file), REGION_BYTES);
+        try {
+            overflow = new Regions(open(file.resolveSibling(file.getFileName() + ".locations")), OVERFLOW_REGION_BYTES);
+        } catch (IOException e) {
+            records.close();
+            throw e;
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new StampedLock();
+        }
+    }
+
+    /**
+     * 读取时先取得的原始字段（含位置字节），校验通过后再还原为对象
+     */
+    private static final class Raw {
+        byte flags;
+        int species;
+        int health;
+        byte[] location;
+        double diameter;
+        double height;
+        long createSeconds;
+        int createNanos;
+        long updateSeconds;
+        int updateNanos;
+    }
+
+    @Override
+    public TreeArchive get(long id) {
+        MappedByteBuffer region = regionFor(id, false);
+        if (region == null) {
+            return null;
+        }
+        int offset = offset(id);
+        StampedLock lock = lockFor(id);
+        Raw raw = new Raw();
+        long stamp = lock.tryOptimisticRead();
+        boolean consistent;
+        try {
+            read(region, offset, raw);
+            consistent = lock.validate(stamp);
+        } catch (RuntimeException e) {
+            // 读到写了一半的记录，位置偏移和长度可能无效
+            consistent = false;
+        }
+        if (!consistent) {
+            stamp = lock.readLock();
+            try {
+                read(region, offset, raw);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return materialize(id, raw);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        MappedByteBuffer region = regionFor(id, false);
+        return region != null && (region.get(offset(id) + FLAGS) & PRESENT) != 0;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public TreeArchive compute(long id, BiFunction<Long, TreeArchive, TreeArchive> function) {
+        return compute(id, function, false);
+    }
+
+    @Override
+    public TreeArchive computeIfPresent(long id, BiFunction<Long, TreeArchive, TreeArchive> function) {
+        return compute(id, function, true);
+    }
+
+    private TreeArchive compute(long id, BiFunction<Long, TreeArchive, TreeArchive> function, boolean onlyIfPresent) {
+        MappedByteBuffer region = regionFor(id, true);
+        int offset = offset(id);
+        StampedLock lock = lockFor(id);
+        long stamp = lock.writeLock();
+        try {
+            Raw raw = new Raw();
+            read(region, offset, raw);
+            TreeArchive old = materialize(id, raw);
+            if (old == null && onlyIfPresent) {
+                return null;
+            }
+            TreeArchive updated = function.apply(id, old);
+            if (updated != null) {
+                // 位置未变时沿用溢出区中已有的字节
+                boolean sameLocation = old != null && Objects.equals(old.getLocation(), updated.getLocation());
+                write(region, offset, updated, sameLocation);
+                if (old == null) {
+                    size.incrementAndGet();
+                    maxId.accumulateAndGet(id, Math::max);
+                }
+            } else if (old != null) {
+                region.put(offset + FLAGS, (byte) 0);
+                size.decrementAndGet();
+            }
+            return updated;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void check(TreeArchive row) {
+        String location = row.getLocation();
+        // 按字符数先做粗判，UTF-8每个字符最多3字节（代理对4字节对应2个字符）
+        if (location != null && location.length() * 3L > OVERFLOW_REGION_BYTES) {
+            int length = location.getBytes(StandardCharsets.UTF_8).length;
+            if (length > OVERFLOW_REGION_BYTES) {
+                throw new IllegalArgumentException("位置过长: " + length + " 字节");
+            }
+        }
+    }
+
+    /**
+     * 清空记录并从头复用溢出区；持有全部条带锁，期间没有进行中的写入
+     */
+    @Override
+    public void clear() {
+        long[] stamps = new long[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stamps[i] = locks[i].writeLock();
+        }
+        try {
+            for (long id = maxId.get(); id >= 0; id--) {
+                MappedByteBuffer region = regionFor(id, false);
+                if (region != null) {
+                    region.put(offset(id) + FLAGS, (byte) 0);
+                }
+            }
+            size.set(0);
+            maxId.set(-1);
+            overflowTail.set(0);
+        } finally {
+            for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+                locks[i].unlockWrite(stamps[i]);
+            }
+        }
+    }
+
+    /**
+     * 溢出区已分配的字节数
+     */
+    long overflowBytes() {
+        return overflowTail.get();
+    }
+
+    @Override
+    public void forEach(BiConsumer<Long, TreeArchive> action) {
+        long last = maxId.get();
+        for (long id = 0; id <= last; id++) {
+            if (contains(id)) {
+                TreeArchive row = get(id);
+                if (row != null) {
+                    action.accept(id, row);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Set<Long> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Long> iterator() {
+                return new SlotIterator<>((id, row) -> id, false);
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Long && MappedTreeArchiveStorage.this.contains((Long) o);
+            }
+
+            @Override
+            public int size() {
+                return size.get();
+            }
+        };
+    }
+
+    @Override
+    public Collection<TreeArchive> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<TreeArchive> iterator() {
+                return new SlotIterator<>((id, row) -> row, true);
+            }
+
+            @Override
+            public int size() {
+                return size.get();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<Long, TreeArchive>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<Long, TreeArchive>> iterator() {
+                return new SlotIterator<>(AbstractMap.SimpleImmutableEntry::new, true);
+            }
+
+            @Override
+            public int size() {
+                return size.get();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        try {
+            records.close();
+        } finally {
+            overflow.close();
+        }
+    }
+
+    /**
+     * 按ID顺序扫描有效槽位的迭代器（弱一致），materialize为false时不还原对象
+     */
+    private final class SlotIterator<E> implements Iterator<E> {
+        private final BiFunction<Long, TreeArchive, E> mapper;
+        private final boolean materialize;
+        private final long last = maxId.get();
+        private long cursor = -1;
+        private E next;
+
+        SlotIterator(BiFunction<Long, TreeArchive, E> mapper, boolean materialize) {
+            this.mapper = mapper;
+            this.materialize = materialize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && cursor < last) {
+                cursor++;
+                if (!contains(cursor)) {
+                    continue;
+                }
+                TreeArchive row = null;
+                if (materialize && (row = get(cursor)) == null) {
+                    continue;
+                }
+                next = mapper.apply(cursor, row);
+            }
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    private void read(MappedByteBuffer region, int offset, Raw raw) {
+        raw.flags = region.get(offset + FLAGS);
+        raw.species = region.getInt(offset + SPECIES);
+        raw.health = region.getInt(offset + HEALTH);
+        raw.location = (raw.flags & PRESENT) != 0
+            ? readLocation(region.getLong(offset + LOCATION_OFFSET), region.getInt(offset + LOCATION_LENGTH)) : null;
+        raw.diameter = region.getDouble(offset + DIAMETER);
+        raw.height = region.getDouble(offset + HEIGHT);
+        raw.createSeconds = region.getLong(offset + CREATE_SECONDS);
+        raw.createNanos = region.getInt(offset + CREATE_NANOS);
+        raw.updateSeconds = region.getLong(offset + UPDATE_SECONDS);
+        raw.updateNanos = region.getInt(offset + UPDATE_NANOS);
+    }
+
+    private TreeArchive materialize(long id, Raw raw) {
+        if ((raw.flags & PRESENT) == 0) {
+            return null;
+        }
+        TreeArchive tree = new TreeArchive();
+        tree.setId(id);
+        tree.setTreeSpeciesCode(raw.species);
+        tree.setHealthStatusCode(raw.health);
+        tree.setLocation(raw.location != null ? new String(raw.location, StandardCharsets.UTF_8) : null);
+        tree.setDiameter((raw.flags & HAS_DIAMETER) != 0 ? raw.diameter : null);
+        tree.setHeight((raw.flags & HAS_HEIGHT) != 0 ? raw.height : null);
+        tree.setCreateTime((raw.flags & HAS_CREATE_TIME) != 0
+            ? LocalDateTime.ofEpochSecond(raw.createSeconds, raw.createNanos, ZoneOffset.UTC) : null);
+        tree.setUpdateTime((raw.flags & HAS_UPDATE_TIME) != 0
+            ? LocalDateTime.ofEpochSecond(raw.updateSeconds, raw.updateNanos, ZoneOffset.UTC) : null);
+        return tree;
+    }
+
+    /**
+     * 先把位置写入溢出区（唯一可能失败的一步），再修改记录，失败时记录保持原样
+     */
+    private void write(MappedByteBuffer region, int offset, TreeArchive tree, boolean sameLocation) {
+        long locationOffset = 0;
+        int locationLength = -1;
+        if (!sameLocation && tree.getLocation() != null) {
+            byte[] bytes = tree.getLocation().getBytes(StandardCharsets.UTF_8);
+            locationOffset = writeLocation(bytes);
+            locationLength = bytes.length;
+        }
+        byte flags = PRESENT;
+        region.putInt(offset + SPECIES, tree.getTreeSpeciesCode());
+        region.putInt(offset + HEALTH, tree.getHealthStatusCode());
+        if (!sameLocation) {
+            region.putLong(offset + LOCATION_OFFSET, locationOffset);
+            region.putInt(offset + LOCATION_LENGTH, locationLength);
+        }
+        if (tree.getDiameter() != null) {
+            flags |= HAS_DIAMETER;
+            region.putDouble(offset + DIAMETER, tree.getDiameter());
+        }
+        if (tree.getHeight() != null) {
+            flags |= HAS_HEIGHT;
+            region.putDouble(offset + HEIGHT, tree.getHeight());
+        }
+        if (tree.getCreateTime() != null) {
+            flags |= HAS_CREATE_TIME;
+            region.putLong(offset + CREATE_SECONDS, tree.getCreateTime().toEpochSecond(ZoneOffset.UTC));
+            region.putInt(offset + CREATE_NANOS, tree.getCreateTime().getNano());
+        }
+        if (tree.getUpdateTime() != null) {
+            flags |= HAS_UPDATE_TIME;
+            region.putLong(offset + UPDATE_SECONDS, tree.getUpdateTime().toEpochSecond(ZoneOffset.UTC));
+            region.putInt(offset + UPDATE_NANOS, tree.getUpdateTime().getNano());
+        }
+        region.put(offset + FLAGS, flags);
+    }
+
+    /**
+     * 位置的UTF-8字节写入溢出区，返回偏移，由调用方写入记录
+     * 清空存储后溢出区从头复用，读取方须在校验记录的版本之前读出位置字节（见read）
+     */
+    private long writeLocation(byte[] bytes) {
+        if (bytes.length > OVERFLOW_REGION_BYTES) {
+            throw new IllegalArgumentException("位置过长: " + bytes.length + " 字节");
+        }
+        long position = allocate(bytes.length);
+        overflow.get(position / OVERFLOW_REGION_BYTES, true).put((int) (position % OVERFLOW_REGION_BYTES), bytes);
+        return position;
+    }
+
+    private byte[] readLocation(long position, int length) {
+        if (length < 0) {
+            return null;
+        }
+        if (length > OVERFLOW_REGION_BYTES) {
+            throw new IllegalStateException("位置长度无效: " + length);
+        }
+        MappedByteBuffer region = overflow.get(position / OVERFLOW_REGION_BYTES, false);
+        if (region == null) {
+            throw new IllegalStateException("溢出区偏移无效: " + position);
+        }
+        byte[] bytes = new byte[length];
+        region.get((int) (position % OVERFLOW_REGION_BYTES), bytes);
+        return bytes;
+    }
+
+    /**
+     * 在溢出区分配length字节，放不下当前映射区的剩余空间时从下一个映射区开始
+     */
+    private long allocate(int length) {
+        while (true) {
+            long tail = overflowTail.get();
+            long regionEnd = (tail / OVERFLOW_REGION_BYTES + 1) * OVERFLOW_REGION_BYTES;
+            long start = tail + length > regionEnd ? regionEnd : tail;
+            if (overflowTail.compareAndSet(tail, start + length)) {
+                return start;
+            }
+        }
+    }
+
+    /**
+     * ID所在的映射区，create为false且尚未映射时返回null
+     */
+    private MappedByteBuffer regionFor(long id, boolean create) {
+        if (id < 0) {
+            if (create) {
+                throw new IllegalArgumentException("ID不能为负数: " + id);
+            }
+            return null;
+        }
+        return records.get(id / RECORDS_PER_REGION, create);
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * 按需映射的定长映射区列表
+     */
+    private static final class Regions {
+        private final FileChannel channel;
+        private final long regionBytes;
+        private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+
+        Regions(FileChannel channel, long regionBytes) {
+            this.channel = channel;
+            this.regionBytes = regionBytes;
+        }
+
+        /**
+         * 第index个映射区，create为false且尚未映射时返回null
+         */
+        MappedByteBuffer get(long index, boolean create) {
+            if (index >= Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("超出映射范围: " + index);
+            }
+            MappedByteBuffer[] current = regions;
+            if (index < current.length && current[(int) index] != null) {
+                return current[(int) index];
+            }
+            if (!create) {
+                return null;
+            }
+            synchronized (this) {
+                current = regions;
+                if (index < current.length && current[(int) index] != null) {
+                    return current[(int) index];
+                }
+                // 复制后整体发布，读取方不加锁也只会看到完整映射的区域
+                MappedByteBuffer[] grown = Arrays.copyOf(current, Math.max(current.length, (int) index + 1));
+                try {
+                    grown[(int) index] = channel.map(FileChannel.MapMode.READ_WRITE, index * regionBytes, regionBytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("映射林木档案存储文件失败", e);
+                }
+                regions = grown;
+                return grown[(int) index];
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private StampedLock lockFor(long id) {
+        return locks[(int) (id % LOCK_STRIPES)];
+    }
+
+    private static int offset(long id) {
+        return (int) (id % RECORDS_PER_REGION) * RECORD_BYTES;
+    }
+}
@@ -0,0 +1,97 @@
+package com.forest.management.storage;
+
+import java.util.Arrays;
+
+/**
+ * 监测序列的未压缩数据块
+ * 各列为基本类型数组，样本按 (日期, ID) 升序；序列的头块和解压后的封存块都使用该结构
+ */
+final class MonitorChunk {
+
+    long[] ids;
+    long[] days;           // 监测日期（epoch day）
+    double[] values;       // 当前值
+    double[] previous;     // 上期值，缺失为NaN
+    long[] createTimes;    // 创建时间（UTC毫秒）
+    int[] units;           // 单位（符号表编码，缺失为-1）
+    int[] names;           // 林地名称（序列内字典编码，缺失为-1）
+    int size;
+
+    MonitorChunk(int capacity) {
+        ids = new long[capacity];
+        days = new long[capacity];
+        values = new double[capacity];
+        previous = new double[capacity];
+        createTimes = new long[capacity];
+        units = new int[capacity];
+        names = new int[capacity];
+    }
+
+    /**
+     * 写入样本，保持按 (日期, ID) 升序
+     */
+    void add(long id, long day, double value, double previousValue, long createTime, int unit, int name) {
+        if (size == ids.length) {
+            int capacity = Math.max(size * 2, 16);
+            ids = Arrays.copyOf(ids, capacity);
+            days = Arrays.copyOf(days, capacity);
+            values = Arrays.copyOf(values, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            createTimes = Arrays.copyOf(createTimes, capacity);
+            units = Arrays.copyOf(units, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        int pos = size;
+        while (pos > 0 && (days[pos - 1] > day || (days[pos - 1] == day && ids[pos - 1] > id))) {
+            pos--;
+        }
+        if (pos < size) {
+            int moved = size - pos;
+            System.arraycopy(ids, pos, ids, pos + 1, moved);
+            System.arraycopy(days, pos, days, pos + 1, moved);
+            System.arraycopy(values, pos, values, pos + 1, moved);
+            System.arraycopy(previous, pos, previous, pos + 1, moved);
+            System.arraycopy(createTimes, pos, createTimes, pos + 1, moved);
+            System.arraycopy(units, pos, units, pos + 1, moved);
+            System.arraycopy(names, pos, names, pos + 1, moved);
+        }
+        ids[pos] = id;
+        days[pos] = day;
+        values[pos] = value;
+        previous[pos] = previousValue;
+        createTimes[pos] = createTime;
+        units[pos] = unit;
+        names[pos] = name;
+        size++;
+    }
+
+    /**
+     * 在 [fromDay, toDay) 范围内累加当前值，结果计入aggregate
+     */
+    void aggregate(long fromDay, long toDay, SeriesAggregate aggregate) {
+        int from = lowerBound(fromDay);
+        int to = lowerBound(toDay);
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        aggregate.add(to - from, sum);
+    }
+
+    /**
+     * 第一个日期不小于day的位置
+     */
+    int lowerBound(long day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,185 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.ResourceMonitor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个林地、单个监测类型的监测序列（列式存储）
+ * 林地ID、类型是分区键，在序列级只存一份；单位、林地名称按样本保存为编码列
+ * （单位用符号表编码，林地名称用序列内的字典，改名后新样本使用新名称、历史样本不变）。
+ * 样本按监测日期升序，
+ * 只有头块可写，写满CHUNK_SIZE条后封存为不可变的压缩块，查询时按需解压。
+ * 上期值为空时存NaN，备注稀疏存放
+ */
+class MonitorSeries {
+
+    // 封存块的样本数（约十年的月度数据）
+    static final int CHUNK_SIZE = 120;
+
+    private final Long forestLandId;
+    private final String monitorType;
+    private final int monitorTypeCode;
+    // 林地名称字典，样本中保存下标；同一林地的名称通常只有一两个
+    private final List<String> names = new ArrayList<>();
+
+    private final List<CompressedChunk> sealed = new ArrayList<>();
+    private MonitorChunk head = new MonitorChunk(CHUNK_SIZE);
+    private final Map<Long, String> remarks = new HashMap<>();
+    private int size;
+
+    MonitorSeries(ResourceMonitor first) {
+        this.forestLandId = first.getForestLandId();
+        this.monitorType = first.getMonitorType();
+        this.monitorTypeCode = first.getMonitorTypeCode();
+    }
+
+    Long getForestLandId() { return forestLandId; }
+    String getMonitorType() { return monitorType; }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 写入样本
+     * 日期不早于头块的样本直接写入头块；补录的历史样本写入对应的封存块（解压、插入后重新压缩）
+     */
+    synchronized void add(ResourceMonitor monitor) {
+        long id = monitor.getId();
+        long day = monitor.getMonitorDate().toEpochDay();
+        double value = toPrimitive(monitor.getCurrentValue());
+        double previousValue = toPrimitive(monitor.getPreviousValue());
+        LocalDateTime createTime = monitor.getCreateTime() != null ? monitor.getCreateTime() : LocalDateTime.now();
+        long createMillis = createTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+        int unit = monitor.getUnitCode();
+        int name = nameCode(monitor.getForestLandName());
+
+        int target = sealedChunkFor(day);
+        if (target < 0) {
+            head.add(id, day, value, previousValue, createMillis, unit, name);
+            if (head.size >= CHUNK_SIZE) {
+                sealed.add(CompressedChunk.encode(head));
+                head = new MonitorChunk(CHUNK_SIZE);
+            }
+        } else {
+            MonitorChunk chunk = sealed.get(target).decode();
+            chunk.add(id, day, value, previousValue, createMillis, unit, name);
+            sealed.set(target, CompressedChunk.encode(chunk));
+        }
+        if (monitor.getRemarks() != null) {
+            remarks.put(id, monitor.getRemarks());
+        }
+        size++;
+    }
+
+    /**
+     * 在 [fromDay, toDay) 范围内累加当前值，结果计入aggregate
+     */
+    synchronized void aggregate(long fromDay, long toDay, SeriesAggregate aggregate) {
+        for (CompressedChunk chunk : sealed) {
+            chunk.aggregate(fromDay, toDay, aggregate);
+        }
+        head.aggregate(fromDay, toDay, aggregate);
+    }
+
+    /**
+     * 最新一条样本的监测日期，序列为空时返回null
+     */
+    synchronized LocalDate latestDate() {
+        if (head.size > 0) {
+            return LocalDate.ofEpochDay(head.days[head.size - 1]);
+        }
+        return sealed.isEmpty() ? null : LocalDate.ofEpochDay(sealed.get(sealed.size() - 1).getMaxDay());
+    }
+
+    /**
+     * 将 [fromDay, toDay) 范围内、变化率绝对值超过minAbsChangeRate的样本还原为实体
+     * minAbsChangeRate为负数时不按变化率过滤
+     */
+    synchronized void collect(long fromDay, long toDay, double minAbsChangeRate, List<ResourceMonitor> out) {
+        for (CompressedChunk chunk : sealed) {
+            if (chunk.overlaps(fromDay, toDay)) {
+                collect(chunk.decode(), fromDay, toDay, minAbsChangeRate, out);
+            }
+        }
+        collect(head, fromDay, toDay, minAbsChangeRate, out);
+    }
+
+    /**
+     * 样本应写入的封存块下标，应写入头块时返回-1
+     * 各块的日期区间首尾相接、不重叠
+     */
+    private int sealedChunkFor(long day) {
+        if (sealed.isEmpty()) {
+            return -1;
+        }
+        if (head.size > 0 ? day >= head.days[0] : day >= sealed.get(sealed.size() - 1).getMaxDay()) {
+            return -1;
+        }
+        for (int i = sealed.size() - 1; i > 0; i--) {
+            if (sealed.get(i).getMinDay() <= day) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private void collect(MonitorChunk chunk, long fromDay, long toDay, double minAbsChangeRate,
+                         List<ResourceMonitor> out) {
+        int to = chunk.lowerBound(toDay);
+        for (int i = chunk.lowerBound(fromDay); i < to; i++) {
+            if (minAbsChangeRate >= 0) {
+                double prev = chunk.previous[i];
+                // 与ResourceMonitor.calculateChanges口径一致：上期值为正时才有变化率
+                if (!(prev > 0) || Math.abs((chunk.values[i] - prev) / prev * 100) <= minAbsChangeRate) {
+                    continue;
+                }
+            }
+            out.add(materialize(chunk, i));
+        }
+    }
+
+    private ResourceMonitor materialize(MonitorChunk chunk, int i) {
+        ResourceMonitor monitor = new ResourceMonitor();
+        monitor.setId(chunk.ids[i]);
+        monitor.setForestLandId(forestLandId);
+        monitor.setForestLandName(chunk.names[i] >= 0 ? names.get(chunk.names[i]) : null);
+        monitor.setMonitorTypeCode(monitorTypeCode);
+        monitor.setUnitCode(chunk.units[i]);
+        monitor.setMonitorDate(LocalDate.ofEpochDay(chunk.days[i]));
+        monitor.setCurrentValue(toBoxed(chunk.values[i]));
+        monitor.setPreviousValue(toBoxed(chunk.previous[i]));
+        long millis = chunk.createTimes[i];
+        monitor.setCreateTime(LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+            (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC));
+        monitor.setRemarks(remarks.get(chunk.ids[i]));
+        return monitor;
+    }
+
+    private int nameCode(String name) {
+        if (name == null) {
+            return -1;
+        }
+        int code = names.indexOf(name);
+        if (code < 0) {
+            code = names.size();
+            names.add(name);
+        }
+        return code;
+    }
+
+    private static double toPrimitive(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static Double toBoxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
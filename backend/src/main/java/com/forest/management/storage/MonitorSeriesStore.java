@@ -0,0 +1,243 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.ResourceMonitor;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 资源监测数据列式存储
+ * 按 (监测类型, 林地ID) 分区，每个分区是一条按日期有序的列式序列；
+ * 查询先按类型、林地定位分区，再在序列内二分日期范围，聚合直接在基本类型数组上进行；
+ * 历史数据按块封存压缩（见CompressedChunk），查询时按需解压
+ */
+public class MonitorSeriesStore {
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Long, MonitorSeries>> partitions = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong maxId = new AtomicLong();
+    private final RowVersions versions = new RowVersions();
+    private volatile StoreJournal<ResourceMonitor> journal;
+
+    /**
+     * 设置写入日志，之后写入的记录都会登记到日志并按日志的策略等待落盘
+     */
+    public void setJournal(StoreJournal<ResourceMonitor> journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * 写入一条监测记录
+     * 先登记到日志再写入序列，日志拒绝写入（已关闭或刷盘失败）时内存中不留下这条记录
+     */
+    public void add(ResourceMonitor monitor) {
+        Objects.requireNonNull(monitor.getId(), "id");
+        Objects.requireNonNull(monitor.getForestLandId(), "forestLandId");
+        Objects.requireNonNull(monitor.getMonitorType(), "monitorType");
+        Objects.requireNonNull(monitor.getMonitorDate(), "monitorDate");
+        monitor.internSymbols();
+        StoreJournal<ResourceMonitor> journal = this.journal;
+        long lsn;
+        beginApply(journal);
+        try {
+            lsn = journal != null ? journal.put(monitor.getId(), monitor) : 0;
+            partitions.computeIfAbsent(monitor.getMonitorType(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(monitor.getForestLandId(), k -> new MonitorSeries(monitor))
+                .add(monitor);
+            size.incrementAndGet();
+            maxId.accumulateAndGet(monitor.getId(), Math::max);
+            versions.bump(monitor.getId());
+        } finally {
+            endApply(journal);
+        }
+        if (journal != null) {
+            journal.sync(lsn);
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 数据版本号，每次写入后递增
+     */
+    public long getVersion() {
+        return versions.get();
+    }
+
+    /**
+     * 行版本号，记录写入后递增
+     */
+    public RowVersions getRowVersions() {
+        return versions;
+    }
+
+    /**
+     * 已写入记录的最大ID，没有数据时为0
+     */
+    public long maxId() {
+        return maxId.get();
+    }
+
+    /**
+     * 已有的监测类型
+     */
+    public Set<String> types() {
+        return Collections.unmodifiableSet(partitions.keySet());
+    }
+
+    /**
+     * 聚合 [start, end] 日期范围内的当前值
+     * 各参数为null时表示不限
+     */
+    public SeriesAggregate aggregate(String monitorType, Long forestLandId, LocalDate start, LocalDate end) {
+        SeriesAggregate aggregate = new SeriesAggregate();
+        long fromDay = fromDay(start);
+        long toDay = toDay(end);
+        for (MonitorSeries series : series(monitorType, forestLandId)) {
+            series.aggregate(fromDay, toDay, aggregate);
+        }
+        return aggregate;
+    }
+
+    /**
+     * 查询 [start, end] 日期范围内的监测记录，按日期升序返回
+     * 各参数为null时表示不限
+     */
+    public List<ResourceMonitor> query(String monitorType, Long forestLandId, LocalDate start, LocalDate end) {
+        return collect(monitorType, forestLandId, start, end, -1);
+    }
+
+    /**
+     * 查询变化率绝对值超过minAbsChangeRate的监测记录，按日期升序返回
+     */
+    public List<ResourceMonitor> findChanges(LocalDate start, double minAbsChangeRate) {
+        return collect(null, null, start, null, minAbsChangeRate);
+    }
+
+    /**
+     * 是否已有该记录（同一分区、同一日期下ID相同），用于重放日志时跳过快照中已包含的记录
+     */
+    public boolean contains(ResourceMonitor monitor) {
+        List<ResourceMonitor> sameDay = query(monitor.getMonitorType(), monitor.getForestLandId(),
+            monitor.getMonitorDate(), monitor.getMonitorDate());
+        return sameDay.stream().anyMatch(existing -> existing.getId().equals(monitor.getId()));
+    }
+
+    /**
+     * 逐个分区遍历全部记录（不保证整体顺序），每次只解压一个分区
+     */
+    public void forEach(Consumer<ResourceMonitor> action) {
+        List<ResourceMonitor> buffer = new ArrayList<>();
+        for (MonitorSeries series : series(null, null)) {
+            series.collect(Long.MIN_VALUE, Long.MAX_VALUE, -1, buffer);
+            buffer.forEach(action);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * 逐个分区遍历 [start, end] 日期范围内的记录（分区内按日期升序，不保证整体顺序），每次只解压一个分区
+     * 各参数为null时表示不限
+     */
+    public void scan(String monitorType, Long forestLandId, LocalDate start, LocalDate end, Consumer<ResourceMonitor> action) {
+        List<ResourceMonitor> buffer = new ArrayList<>();
+        long fromDay = fromDay(start);
+        long toDay = toDay(end);
+        for (MonitorSeries series : series(monitorType, forestLandId)) {
+            series.collect(fromDay, toDay, -1, buffer);
+            buffer.forEach(action);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * 最新的监测日期，没有数据时返回null
+     */
+    public LocalDate latestDate() {
+        LocalDate latest = null;
+        for (MonitorSeries series : series(null, null)) {
+            LocalDate date = series.latestDate();
+            if (date != null && (latest == null || date.isAfter(latest))) {
+                latest = date;
+            }
+        }
+        return latest;
+    }
+
+    public void clear() {
+        StoreJournal<ResourceMonitor> journal = this.journal;
+        long lsn;
+        beginApply(journal);
+        try {
+            lsn = journal != null ? journal.clear() : 0;
+            partitions.clear();
+            size.set(0);
+            maxId.set(0);
+            versions.bumpAll();
+        } finally {
+            endApply(journal);
+        }
+        if (journal != null) {
+            journal.sync(lsn);
+        }
+    }
+
+    private static void beginApply(StoreJournal<?> journal) {
+        if (journal != null) {
+            journal.beginApply();
+        }
+    }
+
+    private static void endApply(StoreJournal<?> journal) {
+        if (journal != null) {
+            journal.endApply();
+        }
+    }
+
+    private List<ResourceMonitor> collect(String monitorType, Long forestLandId,
+                                          LocalDate start, LocalDate end, double minAbsChangeRate) {
+        List<ResourceMonitor> result = new ArrayList<>();
+        long fromDay = fromDay(start);
+        long toDay = toDay(end);
+        for (MonitorSeries series : series(monitorType, forestLandId)) {
+            series.collect(fromDay, toDay, minAbsChangeRate, result);
+        }
+        result.sort(Comparator.comparing(ResourceMonitor::getMonitorDate).thenComparing(ResourceMonitor::getId));
+        return result;
+    }
+
+    /**
+     * 按类型、林地定位分区
+     */
+    private List<MonitorSeries> series(String monitorType, Long forestLandId) {
+        Collection<ConcurrentHashMap<Long, MonitorSeries>> byType = monitorType != null
+            ? Optional.ofNullable(partitions.get(monitorType)).map(List::of).orElse(List.of())
+            : partitions.values();
+        List<MonitorSeries> result = new ArrayList<>();
+        for (ConcurrentHashMap<Long, MonitorSeries> byLand : byType) {
+            if (forestLandId != null) {
+                MonitorSeries series = byLand.get(forestLandId);
+                if (series != null) {
+                    result.add(series);
+                }
+            } else {
+                result.addAll(byLand.values());
+            }
+        }
+        return result;
+    }
+
+    private static long fromDay(LocalDate start) {
+        return start != null ? start.toEpochDay() : Long.MIN_VALUE;
+    }
+
+    private static long toDay(LocalDate end) {
+        return end != null ? end.toEpochDay() + 1 : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,110 @@
+package com.forest.management.storage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * N元文法倒排索引，用于名称、编号、地点等字段的子串查询
+ * 按字符切分，中文与字母数字统一处理：索引全部一元和二元片段，
+ * 单字查询直接取一元倒排表，多字查询对所有二元片段的倒排表求交集后由存储逐条校验
+ */
+public class NGramIndex<T> implements FieldIndex<T> {
+
+    private static final int GRAM_SIZE = 2;
+
+    private final String field;
+    private final Function<T, String> extractor;
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    public NGramIndex(String field, Function<T, String> extractor) {
+        this.field = field;
+        this.extractor = extractor;
+    }
+
+    @Override
+    public String getField() {
+        return field;
+    }
+
+    @Override
+    public void add(Long id, T row) {
+        for (String gram : grams(extractor.apply(row), true)) {
+            postings.compute(gram, (k, ids) -> {
+                Set<Long> set = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                set.add(id);
+                return set;
+            });
+        }
+    }
+
+    @Override
+    public void remove(Long id, T row) {
+        for (String gram : grams(extractor.apply(row), true)) {
+            postings.computeIfPresent(gram, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    @Override
+    public void clear() {
+        postings.clear();
+    }
+
+    @Override
+    public Set<Long> find(Criteria.Operator operator, String value) {
+        if (value.length() < GRAM_SIZE) {
+            Set<Long> ids = postings.get(value);
+            return ids != null ? Collections.unmodifiableSet(ids) : Collections.emptySet();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(value, false)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>();
+        for (Long id : lists.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isExact(Criteria.Operator operator) {
+        // 二元片段同时出现不代表原串连续出现，由存储校验
+        return false;
+    }
+
+    /**
+     * 切分文本片段，建索引时额外包含一元片段以支持单字查询
+     */
+    private static Set<String> grams(String text, boolean withUnigrams) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            if (withUnigrams) {
+                grams.add(text.substring(i, i + 1));
+            }
+            if (i + GRAM_SIZE <= text.length()) {
+                grams.add(text.substring(i, i + GRAM_SIZE));
+            }
+        }
+        return grams;
+    }
+}
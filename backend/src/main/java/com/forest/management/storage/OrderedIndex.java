@@ -0,0 +1,86 @@
+package com.forest.management.storage;
+
+import java.time.LocalDateTime;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * 有序索引：按 (创建时间倒序, ID倒序) 排列的跳表
+ * 列表分页直接沿索引遍历，不再对全部数据排序
+ */
+public class OrderedIndex<T> implements StoreIndex<T> {
+
+    private final Function<T, LocalDateTime> extractor;
+    private final ConcurrentSkipListSet<Key> keys = new ConcurrentSkipListSet<>();
+
+    public OrderedIndex(Function<T, LocalDateTime> extractor) {
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void add(Long id, T row) {
+        keys.add(keyOf(id, row));
+    }
+
+    @Override
+    public void remove(Long id, T row) {
+        keys.remove(keyOf(id, row));
+    }
+
+    @Override
+    public void clear() {
+        keys.clear();
+    }
+
+    /**
+     * 计算记录的排序键
+     */
+    public Key keyOf(Long id, T row) {
+        LocalDateTime time = extractor.apply(row);
+        return new Key(time != null ? time : LocalDateTime.MIN, id);
+    }
+
+    /**
+     * 按排序顺序的全部键（弱一致视图）
+     */
+    public NavigableSet<Key> keys() {
+        return keys;
+    }
+
+    /**
+     * 排序键，越新的记录越靠前
+     */
+    public static final class Key implements Comparable<Key> {
+        private final LocalDateTime time;
+        private final long id;
+
+        public Key(LocalDateTime time, long id) {
+            this.time = time;
+            this.id = id;
+        }
+
+        public LocalDateTime getTime() { return time; }
+        public long getId() { return id; }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = other.time.compareTo(time);
+            return result != 0 ? result : Long.compare(other.id, id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return id == key.id && time.equals(key.time);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(time, id);
+        }
+    }
+}
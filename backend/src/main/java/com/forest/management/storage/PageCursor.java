@@ -0,0 +1,43 @@
+package com.forest.management.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 键集分页游标
+ * 游标对客户端不透明，内容为最后一条记录的 (创建时间, ID)
+ */
+public final class PageCursor {
+
+    private static final char SEPARATOR = '_';
+
+    private PageCursor() {
+    }
+
+    /**
+     * 将排序键编码为游标
+     */
+    public static String encode(OrderedIndex.Key key) {
+        String raw = key.getId() + String.valueOf(SEPARATOR) + key.getTime();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，格式不正确时返回null
+     */
+    public static OrderedIndex.Key decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0) {
+                return null;
+            }
+            long id = Long.parseLong(raw.substring(0, separator));
+            LocalDateTime time = LocalDateTime.parse(raw.substring(separator + 1));
+            return new OrderedIndex.Key(time, id);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.forest.management.storage;
+
+import java.util.List;
+
+/**
+ * 分页查询结果
+ */
+public class PageResult<T> {
+    private final List<T> rows;
+    private final int total;
+    private final String nextCursor; // 下一页游标，没有更多数据时为null
+
+    public PageResult(List<T> rows, int total, String nextCursor) {
+        this.rows = rows;
+        this.total = total;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getRows() { return rows; }
+    public int getTotal() { return total; }
+    public String getNextCursor() { return nextCursor; }
+}
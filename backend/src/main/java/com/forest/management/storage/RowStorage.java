@@ -0,0 +1,56 @@
+package com.forest.management.storage;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * 实体存储的行存储
+ * EntityStore通过它读写记录本身，索引仍由EntityStore维护；
+ * 同一ID上的compute互斥执行，函数返回null表示删除该行
+ */
+public interface RowStorage<T> extends Closeable {
+
+    T get(long id);
+
+    boolean contains(long id);
+
+    int size();
+
+    /**
+     * 按旧值计算新值并写入，语义同 {@link Map#compute}
+     */
+    T compute(long id, BiFunction<Long, T, T> function);
+
+    /**
+     * 行存在时按旧值计算新值并写入，语义同 {@link Map#computeIfPresent}
+     */
+    T computeIfPresent(long id, BiFunction<Long, T, T> function);
+
+    /**
+     * 检查行能否写入（如超出定长格式的限制），不能写入时抛出IllegalArgumentException
+     * EntityStore在修改索引和写入日志之前调用，compute中的写入不再因此失败
+     */
+    default void check(T row) {
+    }
+
+    void clear();
+
+    /**
+     * 遍历全部行（弱一致）
+     */
+    void forEach(BiConsumer<Long, T> action);
+
+    Set<Long> keySet();
+
+    Collection<T> values();
+
+    Set<Map.Entry<Long, T>> entrySet();
+
+    @Override
+    default void close() {
+    }
+}
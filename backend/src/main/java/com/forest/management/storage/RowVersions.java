@@ -0,0 +1,53 @@
+package com.forest.management.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 表版本号与行版本号
+ * 行版本号按ID分条带计数（不为每行单独保存，内存固定），写入某行只使计入同一条带的行失效；
+ * 表版本号每次写入都递增，用于判断整表的派生数据（统计、列表页）是否需要重算
+ */
+public final class RowVersions {
+
+    private static final int STRIPES = 4096;
+
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES);
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 表版本号
+     */
+    public long get() {
+        return version.get();
+    }
+
+    /**
+     * 行版本号，须在读取该行之前取得，保证以此为键缓存的数据不旧于版本号
+     */
+    public long get(long id) {
+        return stripes.get(stripe(id));
+    }
+
+    /**
+     * 写入某行之后调用
+     */
+    public void bump(long id) {
+        stripes.incrementAndGet(stripe(id));
+        version.incrementAndGet();
+    }
+
+    /**
+     * 整表变更（清空、批量写入）之后调用，所有行版本号都递增
+     */
+    public void bumpAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.incrementAndGet(i);
+        }
+        version.incrementAndGet();
+    }
+
+    private static int stripe(long id) {
+        return (int) (id & (STRIPES - 1));
+    }
+}
@@ -0,0 +1,32 @@
+package com.forest.management.storage;
+
+/**
+ * 监测序列聚合结果：样本数与合计
+ */
+public class SeriesAggregate {
+    private long count;
+    private double sum;
+
+    public SeriesAggregate() {
+    }
+
+    public SeriesAggregate(long count, double sum) {
+        this.count = count;
+        this.sum = sum;
+    }
+
+    void add(long count, double sum) {
+        this.count += count;
+        this.sum += sum;
+    }
+
+    public long getCount() { return count; }
+    public double getSum() { return sum; }
+
+    /**
+     * 平均值，没有样本时返回null
+     */
+    public Double getAverage() {
+        return count > 0 ? sum / count : null;
+    }
+}
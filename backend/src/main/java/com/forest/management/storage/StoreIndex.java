@@ -0,0 +1,22 @@
+package com.forest.management.storage;
+
+/**
+ * 实体存储索引，由EntityStore在记录写入和删除时同步维护
+ */
+public interface StoreIndex<T> {
+
+    /**
+     * 记录加入存储
+     */
+    void add(Long id, T row);
+
+    /**
+     * 记录从存储中移除
+     */
+    void remove(Long id, T row);
+
+    /**
+     * 清空索引
+     */
+    void clear();
+}
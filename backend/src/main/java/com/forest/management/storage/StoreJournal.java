@@ -0,0 +1,24 @@
+package com.forest.management.storage;
+
+/**
+ * 存储写入日志
+ * 存储在修改记录时（持有该记录的锁）调用put/remove/clear登记变更并取得日志序号，
+ * 释放锁后调用sync等待变更按配置的策略落盘。
+ * 登记日志并修改内存的整个过程包在beginApply/endApply之间，日志据此判断哪些修改已经完成
+ */
+public interface StoreJournal<T> {
+
+    long put(Long id, T row);
+
+    long remove(Long id);
+
+    long clear();
+
+    void sync(long lsn);
+
+    default void beginApply() {
+    }
+
+    default void endApply() {
+    }
+}
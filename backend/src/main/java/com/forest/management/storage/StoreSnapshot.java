@@ -0,0 +1,330 @@
+package com.forest.management.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 存储快照文件
+ * 快照是各实体存储的二进制镜像，文件名中的LSN表示快照包含了该序号及之前的全部日志；
+ * 生成快照时不阻塞写入（逐行遍历），遍历期间的写入可能部分可见，
+ * 恢复时重放LSN之后的日志即可收敛到一致状态（日志中的写入都按ID覆盖或删除，重复应用结果不变）。
+ * 读取时按段内存映射，各实体分段存放，可以并行加载。
+ *
+ * 文件格式：[魔数 int][版本 int] 若干数据段 [尾部] [尾部长度 int][魔数 int]
+ * 数据段：逐行 [长度 int][编码后的实体]
+ * 尾部：[LSN long][段数 int]{[实体类型 byte][偏移 long][长度 long][行数 long][CRC32 int]}
+ *       [序列数 int]{[实体类型 byte][下一个ID long]}[尾部CRC32 int]
+ */
+public final class StoreSnapshot implements Closeable {
+
+    private static final int MAGIC = 0x46534E50; // "FSNP"
+    private static final int VERSION = 1;
+    private static final Pattern FILE_NAME = Pattern.compile("snapshot-(\\d{20})\\.snap");
+    private static final String TEMP_SUFFIX = ".tmp";
+    // 每次映射的最大字节数，超过时分多次映射
+    private static final long MAP_WINDOW = 256L << 20;
+
+    /**
+     * 一个实体的数据段
+     */
+    private static final class Section {
+        long offset;
+        long length;
+        long count;
+        int crc;
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long lsn;
+    private final Map<EntityType, Section> sections;
+    private final Map<EntityType, Long> sequences;
+
+    private StoreSnapshot(Path file, FileChannel channel, long lsn,
+                          Map<EntityType, Section> sections, Map<EntityType, Long> sequences) {
+        this.file = file;
+        this.channel = channel;
+        this.lsn = lsn;
+        this.sections = sections;
+        this.sequences = sequences;
+    }
+
+    /**
+     * 目录中最新的快照文件
+     */
+    public static Optional<Path> latest(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> FILE_NAME.matcher(path.getFileName().toString()).matches())
+                .max(Path::compareTo);
+        }
+    }
+
+    /**
+     * 打开快照文件并校验尾部
+     */
+    public static StoreSnapshot open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < Integer.BYTES * 4) {
+                throw new IOException("快照文件不完整: " + file.getFileName());
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Integer.BYTES * 2);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("不支持的快照文件: " + file.getFileName());
+            }
+            ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, size - Integer.BYTES * 2, Integer.BYTES * 2);
+            int footerLength = trailer.getInt();
+            if (trailer.getInt() != MAGIC || footerLength < Integer.BYTES || footerLength > size - Integer.BYTES * 4) {
+                throw new IOException("快照文件不完整: " + file.getFileName());
+            }
+            ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY,
+                size - Integer.BYTES * 2 - footerLength, footerLength);
+            ByteBuffer body = footer.slice(0, footerLength - Integer.BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != footer.getInt(footerLength - Integer.BYTES)) {
+                throw new IOException("快照文件校验失败: " + file.getFileName());
+            }
+
+            long lsn = footer.getLong();
+            Map<EntityType, Section> sections = new EnumMap<>(EntityType.class);
+            for (int i = footer.getInt(); i > 0; i--) {
+                Section section = new Section();
+                EntityType type = EntityType.fromCode(footer.get());
+                section.offset = footer.getLong();
+                section.length = footer.getLong();
+                section.count = footer.getLong();
+                section.crc = footer.getInt();
+                sections.put(type, section);
+            }
+            Map<EntityType, Long> sequences = new EnumMap<>(EntityType.class);
+            for (int i = footer.getInt(); i > 0; i--) {
+                EntityType type = EntityType.fromCode(footer.get());
+                sequences.put(type, footer.getLong());
+            }
+            return new StoreSnapshot(file, channel, lsn, sections, sequences);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e instanceof IOException io ? io : new IOException("快照文件格式错误: " + file.getFileName(), e);
+        }
+    }
+
+    /**
+     * 开始写入新快照
+     *
+     * @param lsn 快照包含的最后一条日志序号
+     */
+    public static Writer create(Path directory, long lsn) throws IOException {
+        return new Writer(directory, lsn);
+    }
+
+    public long getLsn() {
+        return lsn;
+    }
+
+    /**
+     * 快照时的ID生成器取值，没有记录时返回0
+     */
+    public long getSequence(EntityType type) {
+        return sequences.getOrDefault(type, 0L);
+    }
+
+    /**
+     * 数据段的行数，没有该段时返回0
+     */
+    public long count(EntityType type) {
+        Section section = sections.get(type);
+        return section != null ? section.count : 0;
+    }
+
+    /**
+     * 逐行解码一个数据段，读完后校验CRC
+     */
+    public <T> void load(EntityType type, EntityCodec<T> codec, Consumer<T> sink) throws IOException {
+        Section section = sections.get(type);
+        if (section == null) {
+            return;
+        }
+        long end = section.offset + section.length;
+        long position = section.offset;
+        ByteBuffer window = map(position, end);
+        CRC32 crc = new CRC32();
+        for (long i = 0; i < section.count; i++) {
+            if (window.remaining() < Integer.BYTES) {
+                window = map(position, end);
+            }
+            int length = window.getInt(window.position());
+            if (length < 0 || position + Integer.BYTES + length > end) {
+                throw new IOException("快照数据段损坏: " + file.getFileName() + " " + type);
+            }
+            if (window.remaining() < Integer.BYTES + length) {
+                window = map(position, end);
+            }
+            window.getInt();
+            byte[] data = new byte[length];
+            window.get(data);
+            crc.update(data);
+            position += Integer.BYTES + length;
+            sink.accept(codec.decode(data));
+        }
+        if ((int) crc.getValue() != section.crc) {
+            throw new IOException("快照数据段校验失败: " + file.getFileName() + " " + type);
+        }
+    }
+
+    private ByteBuffer map(long position, long end) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(end - position, MAP_WINDOW));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 快照写入器
+     * 先写临时文件，commit时落盘并原子改名，再删除旧快照；未commit就关闭时丢弃临时文件
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path directory;
+        private final Path temp;
+        private final long lsn;
+        private final DataOutputStream out;
+        private final Map<EntityType, Section> sections = new EnumMap<>(EntityType.class);
+        private final Map<EntityType, Long> sequences = new EnumMap<>(EntityType.class);
+        private long position;
+        private boolean committed;
+
+        private Writer(Path directory, long lsn) throws IOException {
+            Files.createDirectories(directory);
+            this.directory = directory;
+            this.lsn = lsn;
+            this.temp = directory.resolve(fileName(lsn) + TEMP_SUFFIX);
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 256 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            position = Integer.BYTES * 2;
+        }
+
+        /**
+         * 写入一个实体的全部行，rows负责把每一行交给传入的回调
+         */
+        public <T> void writeSection(EntityType type, EntityCodec<T> codec, Consumer<Consumer<T>> rows) throws IOException {
+            Section section = new Section();
+            section.offset = position;
+            CRC32 crc = new CRC32();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            DataOutputStream row = new DataOutputStream(buffer);
+            try {
+                rows.accept(value -> {
+                    try {
+                        buffer.reset();
+                        codec.write(row, value);
+                        out.writeInt(buffer.size());
+                        buffer.writeTo(out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    crc.update(buffer.toByteArray());
+                    position += Integer.BYTES + buffer.size();
+                    section.count++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            section.length = position - section.offset;
+            section.crc = (int) crc.getValue();
+            sections.put(type, section);
+        }
+
+        /**
+         * 记录ID生成器的下一个取值
+         */
+        public void writeSequence(EntityType type, long nextId) {
+            sequences.put(type, nextId);
+        }
+
+        /**
+         * 写入尾部并发布快照，返回快照文件路径
+         */
+        public Path commit() throws IOException {
+            ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+            DataOutputStream footer = new DataOutputStream(footerBytes);
+            footer.writeLong(lsn);
+            footer.writeInt(sections.size());
+            for (Map.Entry<EntityType, Section> entry : sections.entrySet()) {
+                Section section = entry.getValue();
+                footer.writeByte(entry.getKey().getCode());
+                footer.writeLong(section.offset);
+                footer.writeLong(section.length);
+                footer.writeLong(section.count);
+                footer.writeInt(section.crc);
+            }
+            footer.writeInt(sequences.size());
+            for (Map.Entry<EntityType, Long> entry : sequences.entrySet()) {
+                footer.writeByte(entry.getKey().getCode());
+                footer.writeLong(entry.getValue());
+            }
+            CRC32 crc = new CRC32();
+            crc.update(footerBytes.toByteArray());
+            footer.writeInt((int) crc.getValue());
+
+            footerBytes.writeTo(out);
+            out.writeInt(footerBytes.size());
+            out.writeInt(MAGIC);
+            out.close();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+
+            Path target = directory.resolve(fileName(lsn));
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            committed = true;
+            deleteOlderThan(target);
+            return target;
+        }
+
+        private void deleteOlderThan(Path target) throws IOException {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path path : (Iterable<Path>) files::iterator) {
+                    String name = path.getFileName().toString();
+                    boolean olderSnapshot = FILE_NAME.matcher(name).matches() && path.compareTo(target) < 0;
+                    boolean staleTemp = name.endsWith(TEMP_SUFFIX)
+                        && FILE_NAME.matcher(name.substring(0, name.length() - TEMP_SUFFIX.length())).matches();
+                    if (olderSnapshot || staleTemp) {
+                        Files.deleteIfExists(path);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static String fileName(long lsn) {
+        return String.format("snapshot-%020d.snap", lsn);
+    }
+}
@@ -0,0 +1,72 @@
+package com.forest.management.storage;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 字符串字典：把取值有限的字符串编码为从0开始的整数
+ * 编码只增不减，null编码为-1
+ */
+public class StringDictionary {
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size;
+
+    /**
+     * 取字符串的编码，没有时分配新编码
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            // 先写数组再发布编码，其它线程拿到编码时一定能解码
+            String[] current = values;
+            current[size] = value;
+            values = current;
+            codes.put(value, size);
+            return size++;
+        }
+    }
+
+    /**
+     * 查找已有编码，不分配新编码；null或没有时返回-1
+     */
+    public int lookup(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    /**
+     * 编码对应的字符串，-1返回null
+     */
+    public String decode(int code) {
+        if (code < 0) {
+            return null;
+        }
+        String[] current = values;
+        if (code >= current.length || current[code] == null) {
+            throw new IllegalArgumentException("未知的字典编码: " + code);
+        }
+        return current[code];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
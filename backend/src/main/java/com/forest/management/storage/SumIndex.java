@@ -0,0 +1,59 @@
+package com.forest.management.storage;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 数值累加索引：维护字段的合计与非空记录数，用于求和与平均值
+ */
+public class SumIndex<T> implements StoreIndex<T> {
+
+    private final Function<T, Double> extractor;
+    private final DoubleAdder sum = new DoubleAdder();
+    private final LongAdder count = new LongAdder();
+
+    public SumIndex(Function<T, Double> extractor) {
+        this.extractor = extractor;
+    }
+
+    @Override
+    public void add(Long id, T row) {
+        Double value = extractor.apply(row);
+        if (value != null) {
+            sum.add(value);
+            count.increment();
+        }
+    }
+
+    @Override
+    public void remove(Long id, T row) {
+        Double value = extractor.apply(row);
+        if (value != null) {
+            sum.add(-value);
+            count.decrement();
+        }
+    }
+
+    @Override
+    public void clear() {
+        sum.reset();
+        count.reset();
+    }
+
+    public double getSum() {
+        return sum.sum();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 平均值，没有记录时返回null
+     */
+    public Double getAverage() {
+        long n = count.sum();
+        return n > 0 ? sum.sum() / n : null;
+    }
+}
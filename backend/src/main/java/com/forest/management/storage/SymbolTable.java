@@ -0,0 +1,87 @@
+package com.forest.management.storage;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * 全局符号表
+ * 树种、健康状态、林地分类、监测类型、状态等取值很少的字段编码为int，
+ * 实体只引用符号表中的同一个字符串实例；索引、过滤和分组直接比较编码，不再逐个比较字符串。
+ * 实体的setter只查找已有编码，未登记的取值保留原字符串（编码为-1），请求反序列化不会分配编码；
+ * 存储接受写入时才调用实体的internSymbols登记编码（见EntityStore.symbols），未通过校验的请求不占用符号表
+ */
+public final class SymbolTable {
+
+    private static final StringDictionary SYMBOLS = new StringDictionary();
+
+    private SymbolTable() {
+    }
+
+    /**
+     * 取字符串的编码，没有时分配新编码；null编码为-1
+     */
+    public static int encode(String value) {
+        return SYMBOLS.encode(value);
+    }
+
+    /**
+     * 查找已有编码，不分配新编码（用于查询条件）；没有时返回-1
+     */
+    public static int lookup(String value) {
+        return SYMBOLS.lookup(value);
+    }
+
+    /**
+     * 编码对应的字符串，-1返回null
+     */
+    public static String decode(int code) {
+        return SYMBOLS.decode(code);
+    }
+
+    /**
+     * 已分配的编码个数，编码取值为 [0, size)
+     */
+    public static int size() {
+        return SYMBOLS.size();
+    }
+
+    /**
+     * 按编码分组计数，返回 符号 -> 数量，取值为null的行不计入
+     * 未登记到符号表的行（编码为-1，如直接从数据库读出的记录）按原字符串计数
+     */
+    public static <T> Map<String, Long> countBy(Collection<T> rows, ToIntFunction<T> code, Function<T, String> value) {
+        long[] counts = new long[size()];
+        Map<String, Long> unregistered = null;
+        for (T row : rows) {
+            int c = code.applyAsInt(row);
+            if (c < 0) {
+                String raw = value.apply(row);
+                if (raw != null) {
+                    if (unregistered == null) {
+                        unregistered = new LinkedHashMap<>();
+                    }
+                    unregistered.merge(raw, 1L, Long::sum);
+                }
+                continue;
+            }
+            if (c >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(c + 1, counts.length * 2));
+            }
+            counts[c]++;
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > 0) {
+                result.put(decode(c), counts[c]);
+            }
+        }
+        if (unregistered != null) {
+            unregistered.forEach((key, count) -> result.merge(key, count, Long::sum));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.TreeArchive;
+
+import java.util.Map;
+
+/**
+ * 林木档案存储
+ * 按树种、健康状态维护哈希二级索引，位置维护N元文法索引
+ * 另按创建时间维护有序索引，供列表分页使用
+ * 树种、健康状态的计数及胸径、树高的合计随写入增量维护，统计时无需遍历
+ * 记录默认保存在堆内，也可以保存在堆外的内存映射文件中（forest.storage.tree-archive.engine=mapped）
+ * 或磁盘上的追加写文件中（engine=disk）；无论记录保存在哪里，上述索引都在堆内，随档案数量线性增长
+ */
+public class TreeArchiveStore extends EntityStore<TreeArchive> {
+
+    private final GroupCountIndex<TreeArchive> speciesCounts;
+    private final GroupCountIndex<TreeArchive> healthCounts;
+    private final SumIndex<TreeArchive> diameterSum;
+    private final SumIndex<TreeArchive> heightSum;
+
+    public TreeArchiveStore() {
+        this(new HeapRowStorage<>());
+    }
+
+    /**
+     * 使用指定的行存储，如堆外的MappedTreeArchiveStorage、磁盘上的DiskRowStorage
+     */
+    public TreeArchiveStore(RowStorage<TreeArchive> rows) {
+        super(rows);
+        orderBy(TreeArchive::getCreateTime);
+        symbols(TreeArchive::internSymbols);
+        codec(EntityCodecs.TREE_ARCHIVE);
+        hashIndex("treeSpecies", TreeArchive::getTreeSpecies, TreeArchive::getTreeSpeciesCode);
+        hashIndex("healthStatus", TreeArchive::getHealthStatus, TreeArchive::getHealthStatusCode);
+        ngramIndex("location", TreeArchive::getLocation);
+        speciesCounts = countBy(TreeArchive::getTreeSpeciesCode);
+        healthCounts = countBy(TreeArchive::getHealthStatusCode);
+        diameterSum = sumOf(TreeArchive::getDiameter);
+        heightSum = sumOf(TreeArchive::getHeight);
+    }
+
+    public Map<String, Long> getSpeciesCounts() {
+        return speciesCounts.counts();
+    }
+
+    public Map<String, Long> getHealthCounts() {
+        return healthCounts.counts();
+    }
+
+    /**
+     * 平均胸径，没有记录时返回null
+     */
+    public Double getAverageDiameter() {
+        return diameterSum.getAverage();
+    }
+
+    /**
+     * 平均树高，没有记录时返回null
+     */
+    public Double getAverageHeight() {
+        return heightSum.getAverage();
+    }
+}
@@ -0,0 +1,81 @@
+package com.forest.management.storage;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 唯一键索引：字段值 -> 记录ID
+ * 通过putIfAbsent原子占用键值，检查与写入在同一步完成
+ */
+public class UniqueIndex<T> implements FieldIndex<T> {
+
+    private final String field;
+    private final Function<T, String> extractor;
+    private final ConcurrentHashMap<String, Long> owners = new ConcurrentHashMap<>();
+
+    public UniqueIndex(String field, Function<T, String> extractor) {
+        this.field = field;
+        this.extractor = extractor;
+    }
+
+    @Override
+    public String getField() {
+        return field;
+    }
+
+    @Override
+    public void add(Long id, T row) {
+        String key = extractor.apply(row);
+        if (key == null) {
+            return;
+        }
+        Long owner = owners.putIfAbsent(key, id);
+        if (owner != null && !owner.equals(id)) {
+            throw new DuplicateKeyException(field, key);
+        }
+    }
+
+    @Override
+    public void remove(Long id, T row) {
+        String key = extractor.apply(row);
+        if (key != null) {
+            owners.remove(key, id);
+        }
+    }
+
+    @Override
+    public void clear() {
+        owners.clear();
+    }
+
+    @Override
+    public Set<Long> find(Criteria.Operator operator, String value) {
+        if (operator != Criteria.Operator.EQ) {
+            return null;
+        }
+        Long id = owners.get(value);
+        return id != null ? Collections.singleton(id) : Collections.emptySet();
+    }
+
+    @Override
+    public boolean isExact(Criteria.Operator operator) {
+        return true;
+    }
+
+    /**
+     * 两条记录的键值是否相同
+     */
+    public boolean sameKey(T a, T b) {
+        return Objects.equals(extractor.apply(a), extractor.apply(b));
+    }
+
+    /**
+     * 键值当前的所属记录ID，未占用时返回null
+     */
+    public Long getOwner(String key) {
+        return key != null ? owners.get(key) : null;
+    }
+}
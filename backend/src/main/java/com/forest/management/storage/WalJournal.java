@@ -0,0 +1,47 @@
+package com.forest.management.storage;
+
+/**
+ * 将某一类实体的变更写入预写日志
+ */
+public class WalJournal<T> implements StoreJournal<T> {
+
+    private final WriteAheadLog log;
+    private final EntityType type;
+    private final EntityCodec<T> codec;
+
+    public WalJournal(WriteAheadLog log, EntityType type, EntityCodec<T> codec) {
+        this.log = log;
+        this.type = type;
+        this.codec = codec;
+    }
+
+    @Override
+    public long put(Long id, T row) {
+        return log.append(type, WriteAheadLog.OP_PUT, id, codec.encode(row));
+    }
+
+    @Override
+    public long remove(Long id) {
+        return log.append(type, WriteAheadLog.OP_REMOVE, id, null);
+    }
+
+    @Override
+    public long clear() {
+        return log.append(type, WriteAheadLog.OP_CLEAR, 0L, null);
+    }
+
+    @Override
+    public void sync(long lsn) {
+        log.awaitDurable(lsn);
+    }
+
+    @Override
+    public void beginApply() {
+        log.beginApply();
+    }
+
+    @Override
+    public void endApply() {
+        log.endApply();
+    }
+}
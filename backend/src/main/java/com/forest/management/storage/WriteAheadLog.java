@@ -0,0 +1,539 @@
+package com.forest.management.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 追加写的预写日志（组提交）
+ * 写入线程只把记录追加到内存缓冲区并取得日志序号（LSN），由后台刷盘线程按批写入文件并fsync；
+ * syncCommit为true时写入线程等待所在批次落盘后返回，每批只付出一次fsync的代价；
+ * 为false时不等待，最多丢失最近一个批次窗口内的写入。
+ * 日志按段存放（forest-<首条LSN>.wal），生成快照时切换到新段，快照之前的段随后删除。
+ * 存储登记日志并修改内存的过程由修改屏障（beginApply/endApply）包住，切换段时等待进行中的修改完成，
+ * 切换点之前的记录对应的修改此时都已可见，之后生成的快照一定包含它们。
+ *
+ * 记录格式：[长度 int][CRC32 int][LSN long][实体类型 byte][操作 byte][ID long][负载]
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    public static final byte OP_PUT = 1;
+    public static final byte OP_REMOVE = 2;
+    public static final byte OP_CLEAR = 3;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("forest-(\\d{20})\\.wal");
+    // 早期版本的单文件日志，打开时改名为第一个段
+    private static final String LEGACY_FILE_NAME = "forest.wal";
+
+    // 记录头：LSN + 实体类型 + 操作 + ID
+    private static final int HEADER_BYTES = Long.BYTES + 2 + Long.BYTES;
+    // 缓冲区超过该大小时提前刷盘，不再等待批次窗口结束
+    private static final int MAX_BATCH_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final boolean syncCommit;
+    private final long batchWindowMillis;
+    private final List<Path> segments = new ArrayList<>();
+    private FileChannel channel;
+
+    // 等待落盘的请求线程在条件变量上挂起，不占用载体线程（虚拟线程）
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    // 修改屏障：修改期间持有读锁，切换段时持有写锁
+    private final ReentrantReadWriteLock applyFence = new ReentrantReadWriteLock();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(64 * 1024);
+    private long nextLsn = 1;
+    private long appendedLsn;
+    private long durableLsn;
+    // 切换日志段：切换点之前的记录及其LSN，由刷盘线程写入旧段后切换
+    private byte[] rotateBatch;
+    private long rotateLsn = -1;
+    private IOException failure;
+    private boolean replayed;
+    private boolean closed;
+    private Thread flusher;
+
+    public WriteAheadLog(Path directory, boolean syncCommit, long batchWindowMillis) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.syncCommit = syncCommit;
+        this.batchWindowMillis = Math.max(batchWindowMillis, 0);
+
+        Path legacy = directory.resolve(LEGACY_FILE_NAME);
+        if (Files.exists(legacy)) {
+            Files.move(legacy, directory.resolve(segmentName(1)));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                .sorted()
+                .forEach(segments::add);
+        }
+    }
+
+    /**
+     * 日志中的一条记录
+     */
+    public static final class Record {
+        private final long lsn;
+        private final EntityType type;
+        private final byte op;
+        private final long id;
+        private final byte[] payload;
+
+        Record(long lsn, EntityType type, byte op, long id, byte[] payload) {
+            this.lsn = lsn;
+            this.type = type;
+            this.op = op;
+            this.id = id;
+            this.payload = payload;
+        }
+
+        public long getLsn() { return lsn; }
+        public EntityType getType() { return type; }
+        public byte getOp() { return op; }
+        public long getId() { return id; }
+        public byte[] getPayload() { return payload; }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 重放全部日志，见 {@link #replay(long, Consumer)}
+     */
+    public long replay(Consumer<Record> handler) throws IOException {
+        return replay(0, handler);
+    }
+
+    /**
+     * 重放LSN大于afterLsn的记录，需在start之前调用
+     * 最后一段尾部不完整或校验失败的记录（上次退出时写了一半）会被截断，之后从该位置继续追加
+     *
+     * @return 重放的记录数
+     */
+    public long replay(long afterLsn, Consumer<Record> handler) throws IOException {
+        long count = 0;
+        long lastLsn = afterLsn;
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            boolean last = i == segments.size() - 1;
+            // 后面还有段时，本段的记录全部不晚于下一段的首条LSN，可整段跳过
+            if (!last && firstLsn(segments.get(i + 1)) <= afterLsn + 1) {
+                continue;
+            }
+            long[] state = {lastLsn, 0};
+            long validEnd = replaySegment(segment, afterLsn, handler, state);
+            lastLsn = state[0];
+            count += state[1];
+            long size = Files.size(segment);
+            if (validEnd < size) {
+                if (!last) {
+                    throw new IOException("预写日志损坏: " + segment.getFileName() + " 位置 " + validEnd);
+                }
+                log.warn("预写日志尾部存在不完整记录，从位置 {} 截断（原大小 {}）", validEnd, size);
+                try (FileChannel truncate = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    truncate.truncate(validEnd);
+                }
+            }
+        }
+        lastLsn = Math.max(lastLsn, segments.isEmpty() ? 0 : firstLsn(segments.get(segments.size() - 1)) - 1);
+        lock.lock();
+        try {
+            nextLsn = lastLsn + 1;
+            appendedLsn = lastLsn;
+            durableLsn = lastLsn;
+            replayed = true;
+        } finally {
+            lock.unlock();
+        }
+        return count;
+    }
+
+    /**
+     * 重放一个段，返回有效数据的结束位置；state = [最后的LSN, 重放数]
+     */
+    private long replaySegment(Path segment, long afterLsn, Consumer<Record> handler, long[] state) throws IOException {
+        long validEnd = 0;
+        long size = Files.size(segment);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(segment), 64 * 1024))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length < HEADER_BYTES || length > size) {
+                    break;
+                }
+                int crc;
+                byte[] body = new byte[length];
+                try {
+                    crc = in.readInt();
+                    in.readFully(body);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (crc != checksum(body)) {
+                    break;
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(body);
+                long lsn = buffer.getLong();
+                validEnd += Integer.BYTES * 2 + length;
+                state[0] = Math.max(state[0], lsn);
+                if (lsn <= afterLsn) {
+                    continue;
+                }
+                EntityType type = EntityType.fromCode(buffer.get());
+                byte op = buffer.get();
+                long id = buffer.getLong();
+                byte[] payload = null;
+                if (buffer.hasRemaining()) {
+                    payload = new byte[buffer.remaining()];
+                    buffer.get(payload);
+                }
+                handler.accept(new Record(lsn, type, op, id, payload));
+                state[1]++;
+            }
+        }
+        return validEnd;
+    }
+
+    /**
+     * 启动后台刷盘线程，未重放过时先扫描一遍日志以确定下一个日志序号
+     */
+    public void start() throws IOException {
+        lock.lock();
+        try {
+            if (flusher != null) {
+                return;
+            }
+            if (!replayed) {
+                replay(record -> { });
+            }
+            if (segments.isEmpty()) {
+                segments.add(directory.resolve(segmentName(nextLsn)));
+            }
+            Path current = segments.get(segments.size() - 1);
+            channel = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            flusher = new Thread(this::flushLoop, "wal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 追加一条记录，返回日志序号；只写入内存缓冲区，不等待落盘
+     * 刷盘线程已因写入失败退出时拒绝追加，调用方（存储）据此放弃对内存的修改
+     */
+    public long append(EntityType type, byte op, long id, byte[] payload) {
+        int payloadLength = payload != null ? payload.length : 0;
+        ByteBuffer body = ByteBuffer.allocate(HEADER_BYTES + payloadLength);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("预写日志已关闭");
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("预写日志写入失败", failure);
+            }
+            long lsn = nextLsn++;
+            body.putLong(lsn).put(type.getCode()).put(op).putLong(id);
+            if (payload != null) {
+                body.put(payload);
+            }
+            byte[] bytes = body.array();
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES * 2);
+            header.putInt(bytes.length).putInt(checksum(bytes));
+            pending.write(header.array(), 0, header.capacity());
+            pending.write(bytes, 0, bytes.length);
+            appendedLsn = lsn;
+            if (pending.size() == header.capacity() + bytes.length || pending.size() >= MAX_BATCH_BYTES) {
+                changed.signalAll();
+            }
+            return lsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 开始一次修改：在登记日志并修改内存之前调用，修改完成（对读取可见）后调用endApply
+     */
+    public void beginApply() {
+        applyFence.readLock().lock();
+    }
+
+    /**
+     * 结束一次修改，见 {@link #beginApply()}
+     */
+    public void endApply() {
+        applyFence.readLock().unlock();
+    }
+
+    /**
+     * 等待lsn及之前的记录落盘（syncCommit为false时立即返回）
+     */
+    public void awaitDurable(long lsn) {
+        if (!syncCommit || lsn <= 0) {
+            return;
+        }
+        waitFor(lsn);
+    }
+
+    /**
+     * 切换到新的日志段并等待旧段落盘，当前段为空时不切换
+     * 切换点在修改屏障内确定：返回时LSN不超过切换点的修改都已完成
+     *
+     * @return 旧段中最后一条记录的LSN，之后的记录都在新段中
+     */
+    public long rotate() {
+        long lsn;
+        ReentrantReadWriteLock.WriteLock fence = applyFence.writeLock();
+        fence.lock();
+        boolean fenced = true;
+        lock.lock();
+        try {
+            if (closed || flusher == null) {
+                throw new IllegalStateException("预写日志未启动");
+            }
+            while (rotateLsn >= 0) {
+                awaitLock();
+            }
+            lsn = appendedLsn;
+            // 当前段还没有记录时不切换
+            if (lsn < firstLsn(segments.get(segments.size() - 1))) {
+                return lsn;
+            }
+            rotateBatch = pending.toByteArray();
+            rotateLsn = lsn;
+            pending = new ByteArrayOutputStream(64 * 1024);
+            changed.signalAll();
+            // 切换点已确定，放行之后的修改，不必等旧段落盘
+            fence.unlock();
+            fenced = false;
+            while (rotateLsn >= 0 && failure == null) {
+                awaitLock();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("预写日志写入失败", failure);
+            }
+        } finally {
+            lock.unlock();
+            if (fenced) {
+                fence.unlock();
+            }
+        }
+        waitFor(lsn);
+        return lsn;
+    }
+
+    /**
+     * 删除所有记录都不晚于lsn的日志段（当前写入的段除外）
+     */
+    public void deleteSegmentsUpTo(long lsn) throws IOException {
+        List<Path> obsolete = new ArrayList<>();
+        lock.lock();
+        try {
+            while (segments.size() > 1 && firstLsn(segments.get(1)) <= lsn + 1) {
+                obsolete.add(segments.remove(0));
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Path segment : obsolete) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    /**
+     * 最近一条已落盘记录的日志序号
+     */
+    public long getDurableLsn() {
+        lock.lock();
+        try {
+            return durableLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void waitFor(long lsn) {
+        lock.lock();
+        try {
+            while (durableLsn < lsn) {
+                if (failure != null) {
+                    throw new UncheckedIOException("预写日志写入失败", failure);
+                }
+                if (flusher == null || (closed && !flusher.isAlive())) {
+                    throw new IllegalStateException("预写日志未启动");
+                }
+                awaitLock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitLock() {
+        try {
+            changed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待预写日志时被中断", e);
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            byte[] batch;
+            long batchLsn;
+            boolean rotating;
+            lock.lock();
+            try {
+                try {
+                    while (pending.size() == 0 && rotateLsn < 0 && !closed) {
+                        changed.await();
+                    }
+                    rotating = rotateLsn >= 0;
+                    if (!rotating && pending.size() == 0) {
+                        return;
+                    }
+                    // 批次窗口：等待更多写入加入本批，缓冲区满、需要切换段或关闭时提前结束
+                    long deadline = System.currentTimeMillis() + batchWindowMillis;
+                    long remaining;
+                    while (!rotating && !closed && pending.size() < MAX_BATCH_BYTES
+                            && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                        changed.await(remaining, TimeUnit.MILLISECONDS);
+                        rotating = rotateLsn >= 0;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (rotating) {
+                    batch = rotateBatch;
+                    batchLsn = rotateLsn;
+                } else {
+                    batch = pending.toByteArray();
+                    batchLsn = appendedLsn;
+                    pending = new ByteArrayOutputStream(Math.max(64 * 1024, batch.length));
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                if (rotating) {
+                    channel.close();
+                    Path next = directory.resolve(segmentName(batchLsn + 1));
+                    channel = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    lock.lock();
+                    try {
+                        segments.add(next);
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            } catch (IOException e) {
+                log.error("预写日志写入失败", e);
+                lock.lock();
+                try {
+                    failure = e;
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                durableLsn = Math.max(durableLsn, batchLsn);
+                if (rotating) {
+                    rotateBatch = null;
+                    rotateLsn = -1;
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 刷出剩余记录并关闭日志
+     */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            thread = flusher;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private static String segmentName(long firstLsn) {
+        return String.format("forest-%020d.wal", firstLsn);
+    }
+
+    private static long firstLsn(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("不是日志段文件: " + segment);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
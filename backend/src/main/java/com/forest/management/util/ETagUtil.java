@@ -0,0 +1,32 @@
+package com.forest.management.util;
+
+/**
+ * 实体标签（ETag）工具类
+ * 标签由本次启动的时间戳和数据版本号组成；版本号在每次启动时从零开始计数，
+ * 加入启动时间戳后，重启前客户端缓存的标签不会与重启后的数据误匹配
+ */
+public final class ETagUtil {
+
+    private static final String INSTANCE = Long.toHexString(System.currentTimeMillis());
+
+    private ETagUtil() {
+    }
+
+    /**
+     * 由一组版本号生成强ETag
+     */
+    public static String of(long... versions) {
+        StringBuilder tag = new StringBuilder("\"").append(INSTANCE);
+        for (long version : versions) {
+            tag.append('-').append(Long.toHexString(version));
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * 由一组版本号生成弱ETag，用于同一内容的其他编码（如gzip压缩字节）
+     */
+    public static String weak(long... versions) {
+        return "W/" + of(versions);
+    }
+}
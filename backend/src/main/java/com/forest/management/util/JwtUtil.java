@@ -1,16 +1,29 @@
 package com.forest.management.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT工具类
+ * 验签通过的声明按Token的SHA-256摘要缓存，条目在Token过期时失效，同一Token只解析、验签一次
  */
 @Component
 public class JwtUtil {
@@ -21,6 +34,38 @@ public class JwtUtil {
     
     // Token过期时间（24小时）
     private static final long EXPIRATION_TIME = 24 * 60 * 60 * 1000;
+    
+    // 已验签的声明，键为Token摘要（不保留Token原文）
+    private final Cache<ByteBuffer, Claims> claimsCache;
+    
+    public JwtUtil(@Value("${forest.jwt.claims-cache-size:10000}") long claimsCacheSize,
+                   ObjectProvider<MeterRegistry> meterRegistry) {
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        if (expiration == null) {
+                            return Long.MAX_VALUE;
+                        }
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, claimsCache, "jwt-claims"));
+    }
 
     /**
      * 生成JWT Token
@@ -77,19 +122,30 @@ public class JwtUtil {
     }
 
     /**
-     * 提取Token中的所有声明
+     * 提取Token中的所有声明（命中缓存时不再解析和验签，无效的Token不缓存）
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
+            return claimsCache.get(digest(token), k -> Jwts.parserBuilder()
                     .setSigningKey(key)
                     .build()
                     .parseClaimsJws(token)
-                    .getBody();
-        } catch (JwtException e) {
+                    .getBody());
+        } catch (JwtException | IllegalArgumentException e) {
             throw new RuntimeException("无效的JWT Token", e);
         }
     }
+    
+    private static ByteBuffer digest(String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("Token不能为空");
+        }
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
     /**
      * 检查Token是否过期
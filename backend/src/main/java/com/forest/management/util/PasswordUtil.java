@@ -1,17 +1,22 @@
 package com.forest.management.util;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import com.forest.management.service.PasswordHashingService;
 import org.springframework.stereotype.Component;
 
 import java.util.regex.Pattern;
 
 /**
  * 密码工具类
+ * 加密和校验是实例方法，经注入的密码哈希服务在专用线程池上执行；强度校验等纯计算的方法仍为静态方法
  */
 @Component
 public class PasswordUtil {
     
-    private static final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PasswordHashingService hashingService;
+    
+    public PasswordUtil(PasswordHashingService hashingService) {
+        this.hashingService = hashingService;
+    }
     
     // 密码强度正则表达式：至少6个字符，包含字母和数字
     private static final Pattern PASSWORD_PATTERN = Pattern.compile("^(?=.*[A-Za-z])(?=.*\\d)[A-Za-z\\d@$!%*#?&]{6,}$");
@@ -19,15 +24,15 @@ public class PasswordUtil {
     /**
      * 加密密码
      */
-    public static String encodePassword(String rawPassword) {
-        return passwordEncoder.encode(rawPassword);
+    public String encodePassword(String rawPassword) {
+        return hashingService.encode(rawPassword);
     }
 
     /**
      * 验证密码
      */
-    public static boolean matches(String rawPassword, String encodedPassword) {
-        return passwordEncoder.matches(rawPassword, encodedPassword);
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return hashingService.matches(rawPassword, encodedPassword);
     }
 
     /**
@@ -0,0 +1,91 @@
+-- 嵌入式关系库表结构（forest.storage.repository=jdbc），启动时执行，已存在的表和索引保持不变
+-- 等值过滤字段建普通索引；列表分页按 (create_time 倒序, id 倒序) 排列，建对应的复合索引
+-- 名称、位置等包含子串的过滤以 LIKE '%...%' 执行，无法使用B树索引
+
+CREATE TABLE IF NOT EXISTS tree_archive (
+    id            BIGINT PRIMARY KEY,
+    tree_species  VARCHAR(50),
+    diameter      DOUBLE PRECISION,
+    height        DOUBLE PRECISION,
+    health_status VARCHAR(20),
+    location      VARCHAR(200),
+    create_time   TIMESTAMP(9),
+    update_time   TIMESTAMP(9)
+);
+CREATE INDEX IF NOT EXISTS idx_tree_archive_species ON tree_archive (tree_species);
+CREATE INDEX IF NOT EXISTS idx_tree_archive_health ON tree_archive (health_status);
+CREATE INDEX IF NOT EXISTS idx_tree_archive_created ON tree_archive (create_time DESC, id DESC);
+
+CREATE TABLE IF NOT EXISTS forest_land (
+    id             BIGINT PRIMARY KEY,
+    name           VARCHAR(100),
+    classification VARCHAR(20),
+    area           DOUBLE PRECISION,
+    location       VARCHAR(200),
+    coordinates    VARCHAR(100),
+    description    VARCHAR(1000),
+    create_time    TIMESTAMP(9),
+    update_time    TIMESTAMP(9)
+);
+CREATE INDEX IF NOT EXISTS idx_forest_land_classification ON forest_land (classification);
+CREATE INDEX IF NOT EXISTS idx_forest_land_created ON forest_land (create_time DESC, id DESC);
+
+CREATE TABLE IF NOT EXISTS resource_monitor (
+    id               BIGINT PRIMARY KEY,
+    forest_land_id   BIGINT,
+    forest_land_name VARCHAR(100),
+    monitor_type     VARCHAR(20),
+    current_value    DOUBLE PRECISION,
+    previous_value   DOUBLE PRECISION,
+    monitor_date     DATE,
+    unit             VARCHAR(20),
+    remarks          VARCHAR(1000),
+    create_time      TIMESTAMP(9)
+);
+CREATE INDEX IF NOT EXISTS idx_resource_monitor_series ON resource_monitor (monitor_type, forest_land_id, monitor_date);
+CREATE INDEX IF NOT EXISTS idx_resource_monitor_date ON resource_monitor (monitor_date);
+
+CREATE TABLE IF NOT EXISTS forest_rights (
+    id               BIGINT PRIMARY KEY,
+    certificate_no   VARCHAR(50),
+    owner_name       VARCHAR(50),
+    owner_id_card    VARCHAR(30),
+    owner_phone      VARCHAR(30),
+    forest_land_id   BIGINT,
+    forest_land_name VARCHAR(100),
+    issue_date       DATE,
+    expiry_date      DATE,
+    status           VARCHAR(20),
+    issue_organ      VARCHAR(100),
+    remarks          VARCHAR(1000),
+    create_time      TIMESTAMP(9),
+    update_time      TIMESTAMP(9),
+    CONSTRAINT uk_forest_rights_certificate_no UNIQUE (certificate_no)
+);
+CREATE INDEX IF NOT EXISTS idx_forest_rights_status ON forest_rights (status);
+CREATE INDEX IF NOT EXISTS idx_forest_rights_expiry ON forest_rights (expiry_date);
+CREATE INDEX IF NOT EXISTS idx_forest_rights_created ON forest_rights (create_time DESC, id DESC);
+
+CREATE TABLE IF NOT EXISTS cutting_permit (
+    id                BIGINT PRIMARY KEY,
+    permit_no         VARCHAR(50),
+    applicant_name    VARCHAR(50),
+    applicant_phone   VARCHAR(30),
+    applicant_id_card VARCHAR(30),
+    forest_land_id    BIGINT,
+    forest_land_name  VARCHAR(100),
+    cutting_area      DOUBLE PRECISION,
+    cutting_volume    DOUBLE PRECISION,
+    reason            VARCHAR(1000),
+    status            VARCHAR(20),
+    approval_opinion  VARCHAR(1000),
+    approver          VARCHAR(50),
+    application_date  DATE,
+    approval_date     DATE,
+    valid_until       DATE,
+    create_time       TIMESTAMP(9),
+    update_time       TIMESTAMP(9),
+    CONSTRAINT uk_cutting_permit_permit_no UNIQUE (permit_no)
+);
+CREATE INDEX IF NOT EXISTS idx_cutting_permit_status ON cutting_permit (status, valid_until);
+CREATE INDEX IF NOT EXISTS idx_cutting_permit_created ON cutting_permit (create_time DESC, id DESC);
@@ -0,0 +1,200 @@
+package com.forest.management.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求执行模式对比基准
+ * 分别以平台线程池和虚拟线程（spring.threads.virtual.enabled）启动应用进程，
+ * 在给定并发连接数下压测读接口和登录接口（BCrypt），输出吞吐量和延迟分位数。
+ *
+ * 运行（需JDK 21）：
+ *   mvn -Pjava21 package -DskipTests
+ *   java -cp target/test-classes com.forest.management.bench.ExecutionModeBenchmark \
+ *       target/forest-management-0.0.1-SNAPSHOT.jar [并发数=10000] [压测秒数=30] [应用参数...]
+ * 应用参数原样传给被测进程，例如 --forest.storage.repository=jdbc 以压测磁盘存储库。
+ * 并发数较大时需调高文件描述符上限（ulimit -n）。
+ */
+public class ExecutionModeBenchmark {
+
+    private static final int WARMUP_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("用法: ExecutionModeBenchmark <应用jar> [并发数] [压测秒数] [应用参数...]");
+            System.exit(1);
+        }
+        String jar = args[0];
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        List<String> appArgs = args.length > 3 ? Arrays.asList(args).subList(3, args.length) : List.of();
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %-7s %10s %8s %10s %9s %9s",
+            "模式", "接口", "请求数", "失败", "吞吐(r/s)", "p50(ms)", "p99(ms)"));
+        for (boolean virtual : new boolean[] {false, true}) {
+            String mode = virtual ? "virtual" : "platform";
+            int port = freePort();
+            Process app = startApp(jar, port, virtual, concurrency, appArgs);
+            try {
+                String base = "http://127.0.0.1:" + port;
+                awaitReady(base + "/api/trees/statistics");
+                for (Scenario scenario : Scenario.values()) {
+                    run(base, scenario, concurrency, WARMUP_SECONDS);
+                    Result result = run(base, scenario, concurrency, seconds);
+                    report.add(String.format("%-9s %-7s %10d %8d %10.0f %9.1f %9.1f",
+                        mode, scenario.label, result.requests, result.errors,
+                        result.requests / (double) seconds, result.percentile(50), result.percentile(99)));
+                    System.out.println(report.get(report.size() - 1));
+                }
+            } finally {
+                app.destroy();
+                if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                    app.destroyForcibly();
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.println("并发连接数 " + concurrency + "，每项压测 " + seconds + " 秒");
+        report.forEach(System.out::println);
+    }
+
+    /**
+     * 压测场景
+     */
+    private enum Scenario {
+        READ("read") {
+            @Override
+            HttpRequest request(String base) {
+                return HttpRequest.newBuilder(URI.create(base + "/api/trees?page=1&size=20")).GET().build();
+            }
+        },
+        LOGIN("login") {
+            @Override
+            HttpRequest request(String base) {
+                return HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"admin123\"}"))
+                    .build();
+            }
+        };
+
+        private final String label;
+
+        Scenario(String label) {
+            this.label = label;
+        }
+
+        abstract HttpRequest request(String base);
+    }
+
+    /**
+     * 在并发上限内持续发送请求，直到压测时间结束并等待在途请求完成
+     */
+    private static Result run(String base, Scenario scenario, int concurrency, int seconds) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+        HttpRequest request = scenario.request(base);
+        Semaphore inFlight = new Semaphore(concurrency);
+        Result result = new Result();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < deadline) {
+            if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    boolean ok = error == null && response.statusCode() < 400;
+                    result.record(System.nanoTime() - start, ok);
+                    inFlight.release();
+                });
+        }
+        inFlight.acquire(concurrency);
+        return result;
+    }
+
+    private static Process startApp(String jar, int port, boolean virtual, int concurrency, List<String> appArgs)
+            throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-jar");
+        command.add(jar);
+        command.add("--server.port=" + port);
+        command.add("--spring.threads.virtual.enabled=" + virtual);
+        // 两种模式使用相同的连接上限，差别只在请求执行的线程
+        command.add("--server.tomcat.max-connections=" + (concurrency + 1000));
+        command.add("--server.tomcat.accept-count=" + concurrency);
+        command.add("--logging.level.root=WARN");
+        command.add("--logging.level.com.forest.management=WARN");
+        command.add("--logging.level.org.springframework.web=WARN");
+        command.addAll(appArgs);
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    private static void awaitReady(String url) throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // 尚未启动完成
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("应用未能在2分钟内启动: " + url);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * 一轮压测的结果，延迟按微秒记录
+     */
+    private static final class Result {
+        private long[] latencies = new long[1 << 16];
+        private int requests;
+        private int errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (requests == latencies.length) {
+                latencies = Arrays.copyOf(latencies, requests * 2);
+            }
+            latencies[requests++] = TimeUnit.NANOSECONDS.toMicros(nanos);
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized double percentile(int p) {
+            if (requests == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, requests);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(p / 100.0 * requests) - 1;
+            return sorted[Math.max(index, 0)] / 1000.0;
+        }
+    }
+}
@@ -1,21 +1,32 @@
 package com.forest.management.controller;
 
+import com.forest.management.config.MessageConverterConfig;
 import com.forest.management.model.TreeArchive;
+import com.forest.management.repository.StoreTreeArchiveRepository;
+import com.forest.management.service.AggregateCacheService;
 import com.forest.management.service.DataGeneratorService;
+import com.forest.management.service.ExportService;
+import com.forest.management.service.JsonBytesCacheService;
 import com.forest.management.service.ValidationService;
+import com.forest.management.storage.TreeArchiveStore;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
@@ -26,8 +37,18 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * 林木档案控制器测试
  */
 @WebMvcTest(TreeArchiveController.class)
+@Import({StoreTreeArchiveRepository.class, AggregateCacheService.class, JsonBytesCacheService.class, ExportService.class, MessageConverterConfig.class,
+        TreeArchiveControllerTest.StoreConfig.class})
 public class TreeArchiveControllerTest {
 
+    @TestConfiguration
+    static class StoreConfig {
+        @Bean
+        TreeArchiveStore treeArchiveStore() {
+            return new TreeArchiveStore();
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -41,7 +62,8 @@ public class TreeArchiveControllerTest {
     private ObjectMapper objectMapper;
 
     private TreeArchive testTree;
-    private Map<Long, TreeArchive> testTreeMap;
+    @Autowired
+    private TreeArchiveStore treeArchives;
 
     @BeforeEach
     void setUp() {
@@ -55,14 +77,12 @@ public class TreeArchiveControllerTest {
         testTree.setCreateTime(LocalDateTime.now());
         testTree.setUpdateTime(LocalDateTime.now());
 
-        testTreeMap = new HashMap<>();
-        testTreeMap.put(1L, testTree);
+        treeArchives.clear();
+        treeArchives.put(1L, testTree);
     }
 
     @Test
     void testGetTreeList() throws Exception {
-        when(dataGeneratorService.getTreeArchives()).thenReturn(testTreeMap);
-
         mockMvc.perform(get("/api/trees")
                 .param("page", "1")
                 .param("size", "10"))
@@ -74,9 +94,16 @@ public class TreeArchiveControllerTest {
     }
 
     @Test
-    void testGetTreeById() throws Exception {
-        when(dataGeneratorService.getTreeArchives()).thenReturn(testTreeMap);
+    void testGetTreeListWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/trees")
+                .param("cursor", "invalid"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("无效的分页游标"));
+    }
 
+    @Test
+    void testGetTreeById() throws Exception {
         mockMvc.perform(get("/api/trees/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
@@ -86,9 +113,32 @@ public class TreeArchiveControllerTest {
                 .andExpect(jsonPath("$.healthStatus").value("健康"));
     }
 
+    @Test
+    void testCachedJsonFollowsWrites() throws Exception {
+        // 缓存的字节与直接序列化的结果一致
+        mockMvc.perform(get("/api/trees/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(testTree), true));
+        mockMvc.perform(get("/api/trees"))
+                .andExpect(jsonPath("$.data[0].treeSpecies").value("松树"))
+                .andExpect(jsonPath("$.total").value(1));
+
+        treeArchives.update(1L, tree -> tree.setTreeSpecies("杉树"));
+
+        mockMvc.perform(get("/api/trees/1"))
+                .andExpect(jsonPath("$.treeSpecies").value("杉树"));
+        mockMvc.perform(get("/api/trees"))
+                .andExpect(jsonPath("$.data[0].treeSpecies").value("杉树"));
+        mockMvc.perform(get("/api/trees").param("treeSpecies", "松树"))
+                .andExpect(jsonPath("$.total").value(0));
+        mockMvc.perform(get("/api/trees/statistics"))
+                .andExpect(jsonPath("$.speciesStats.length()").value(1))
+                .andExpect(jsonPath("$.speciesStats['杉树']").value(1));
+    }
+
     @Test
     void testGetTreeByIdNotFound() throws Exception {
-        when(dataGeneratorService.getTreeArchives()).thenReturn(new HashMap<>());
+        treeArchives.clear();
 
         mockMvc.perform(get("/api/trees/999"))
                 .andExpect(status().isNotFound());
@@ -103,7 +153,7 @@ public class TreeArchiveControllerTest {
         newTree.setHealthStatus("良好");
         newTree.setLocation("西山林区");
 
-        when(dataGeneratorService.getTreeArchives()).thenReturn(new HashMap<>());
+        treeArchives.clear();
         when(dataGeneratorService.generateTreeId()).thenReturn(2L);
         when(validationService.isValidTreeSpecies(any())).thenReturn(true);
         when(validationService.isValidDiameter(any())).thenReturn(true);
@@ -151,7 +201,6 @@ public class TreeArchiveControllerTest {
         updatedTree.setHealthStatus("良好");
         updatedTree.setLocation("更新的位置");
 
-        when(dataGeneratorService.getTreeArchives()).thenReturn(testTreeMap);
         when(validationService.isValidTreeSpecies(any())).thenReturn(true);
         when(validationService.isValidDiameter(any())).thenReturn(true);
         when(validationService.isValidHeight(any())).thenReturn(true);
@@ -169,8 +218,6 @@ public class TreeArchiveControllerTest {
 
     @Test
     void testDeleteTree() throws Exception {
-        when(dataGeneratorService.getTreeArchives()).thenReturn(testTreeMap);
-
         mockMvc.perform(delete("/api/trees/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
@@ -179,7 +226,7 @@ public class TreeArchiveControllerTest {
 
     @Test
     void testDeleteTreeNotFound() throws Exception {
-        when(dataGeneratorService.getTreeArchives()).thenReturn(new HashMap<>());
+        treeArchives.clear();
 
         mockMvc.perform(delete("/api/trees/999"))
                 .andExpect(status().isNotFound())
@@ -189,8 +236,6 @@ public class TreeArchiveControllerTest {
 
     @Test
     void testGetStatistics() throws Exception {
-        when(dataGeneratorService.getTreeArchives()).thenReturn(testTreeMap);
-
         mockMvc.perform(get("/api/trees/statistics"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.totalCount").value(1))
@@ -199,4 +244,100 @@ public class TreeArchiveControllerTest {
                 .andExpect(jsonPath("$.avgDiameter").exists())
                 .andExpect(jsonPath("$.avgHeight").exists());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStatisticsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/trees/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/trees/statistics").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // 写入后版本号变化，重新返回统计
+        treeArchives.remove(1L);
+        mockMvc.perform(get("/api/trees/statistics").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCount").value(0));
+    }
+
+    @Test
+    void testExportTrees() throws Exception {
+        TreeArchive other = new TreeArchive();
+        other.setId(2L);
+        other.setTreeSpecies("杉木");
+        other.setCreateTime(LocalDateTime.now().minusDays(1));
+        treeArchives.put(2L, other);
+
+        MvcResult ndjson = mockMvc.perform(get("/api/trees/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"trees.ndjson\""))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readTree(lines[0]).get("id").asLong());
+
+        // 过滤条件同列表接口
+        MvcResult json = mockMvc.perform(get("/api/trees/export").param("format", "json").param("treeSpecies", "杉"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].treeSpecies").value("杉木"));
+
+        MvcResult invalid = mockMvc.perform(get("/api/trees/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(invalid))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void testSmileContentNegotiation() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/trees/1").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode tree = new SmileMapper().readTree(body);
+        assertEquals("松树", tree.get("treeSpecies").asText());
+
+        body = mockMvc.perform(get("/api/trees").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(1L, new SmileMapper().readTree(body).get("data").get(0).get("id").asLong());
+
+        // 未指定格式时仍输出JSON
+        mockMvc.perform(get("/api/trees/1").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void testFieldProjection() throws Exception {
+        mockMvc.perform(get("/api/trees").param("fields", "id,treeSpecies"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(1))
+                .andExpect(jsonPath("$.data[0].treeSpecies").value("松树"))
+                .andExpect(jsonPath("$.data[0].location").doesNotExist())
+                .andExpect(jsonPath("$.total").value(1));
+
+        mockMvc.perform(get("/api/trees/1").param("fields", "location"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.location").value("东山林区"))
+                .andExpect(jsonPath("$.id").doesNotExist());
+
+        // 不带fields时输出全部属性，不受裁剪结果的缓存影响
+        mockMvc.perform(get("/api/trees/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.location").value("东山林区"));
+    }
+}
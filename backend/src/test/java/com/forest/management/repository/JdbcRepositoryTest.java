@@ -0,0 +1,179 @@
+package com.forest.management.repository;
+
+import com.forest.management.config.JdbcStorageConfig;
+import com.forest.management.model.CuttingPermit;
+import com.forest.management.model.ResourceMonitor;
+import com.forest.management.storage.Criteria;
+import com.forest.management.storage.DuplicateKeyException;
+import com.forest.management.storage.PageCursor;
+import com.forest.management.storage.PageResult;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 嵌入式关系库存储库测试（H2内存库）
+ */
+public class JdbcRepositoryTest {
+
+    private HikariDataSource dataSource;
+    private JdbcCuttingPermitRepository permits;
+    private JdbcResourceMonitorRepository monitors;
+
+    @BeforeEach
+    void setUp() {
+        JdbcStorageConfig config = new JdbcStorageConfig();
+        dataSource = config.dataSource("jdbc:h2:mem:forest-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "", 2);
+        JdbcTemplate jdbc = config.jdbcTemplate(dataSource);
+        TransactionTemplate transactions = config.transactionTemplate(config.transactionManager(dataSource));
+        // 批大小取小值，覆盖分批提交
+        permits = new JdbcCuttingPermitRepository(jdbc, transactions, 7);
+        monitors = new JdbcResourceMonitorRepository(jdbc, transactions, 7);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void testPagingMatchesStoreOrder() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<CuttingPermit> batch = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            // 两条记录共用一个创建时间，最后两条没有创建时间
+            batch.add(permit(id, id % 3 == 0 ? "已批准" : "待审批", id > 28 ? null : base.plusMinutes(id / 2)));
+        }
+        permits.saveAll(batch);
+        assertEquals(30, permits.count());
+
+        PageResult<CuttingPermit> first = permits.findPage(new Criteria(), null, 0, 4);
+        assertEquals(30, first.getTotal());
+        assertEquals(List.of(28L, 27L, 26L, 25L), ids(first.getRows()));
+
+        // 沿游标翻到最后一页，顺序与有序索引一致
+        List<Long> all = new ArrayList<>(ids(first.getRows()));
+        String cursor = first.getNextCursor();
+        while (cursor != null) {
+            PageResult<CuttingPermit> next = permits.findPage(new Criteria(), PageCursor.decode(cursor), 0, 4);
+            all.addAll(ids(next.getRows()));
+            cursor = next.getNextCursor();
+        }
+        assertEquals(30, all.size());
+        assertEquals(List.of(2L, 1L, 30L, 29L), all.subList(26, 30));
+
+        PageResult<CuttingPermit> approved = permits.findPage(new Criteria().eq("status", "已批准"), null, 2, 3);
+        assertEquals(10, approved.getTotal());
+        assertEquals(List.of(21L, 18L, 15L), ids(approved.getRows()));
+        assertEquals(List.of(10L), ids(permits.findAll(new Criteria().contains("permitNo", "000010"))));
+        assertThrows(IllegalArgumentException.class, () -> permits.findAll(new Criteria().eq("reason", "卫生伐")));
+    }
+
+    @Test
+    void testWritesAndStatistics() {
+        permits.saveAll(List.of(permit(1L, "待审批", null), permit(2L, "待审批", null), permit(3L, "已批准", null)));
+        long version = permits.getVersion();
+
+        CuttingPermit duplicate = permit(2L, "待审批", null);
+        duplicate.setPermitNo("采伐许可000001");
+        DuplicateKeyException e = assertThrows(DuplicateKeyException.class, () -> permits.save(duplicate));
+        assertEquals("permitNo", e.getField());
+        assertEquals("采伐许可000001", e.getValue());
+        assertEquals("采伐许可000002", permits.findById(2L).orElseThrow().getPermitNo());
+
+        permits.update(1L, permit -> permit.approve("李四", "同意"));
+        assertEquals("已批准", permits.findById(1L).orElseThrow().getStatus());
+        assertTrue(permits.update(99L, permit -> permit.setStatus("已拒绝")).isEmpty());
+        assertEquals(Map.of("已批准", 2L, "待审批", 1L), permits.getStatusCounts());
+        assertEquals(2, permits.countExpiringBefore(LocalDate.now().plusYears(10)));
+
+        assertEquals(2, permits.deleteAllById(List.of(2L, 3L, 99L)));
+        assertFalse(permits.existsById(2L));
+        assertEquals(1, permits.maxId());
+        assertTrue(permits.getVersion() > version);
+    }
+
+    @Test
+    void testVersionAdvancesAfterCommit() {
+        permits.saveAll(List.of(permit(1L, "待审批", null)));
+        long version = permits.getVersion();
+
+        // 事务提交前读取方仍看到旧版本号，不会以新版本号缓存旧数据
+        permits.transactions.executeWithoutResult(status -> {
+            permits.save(permit(2L, "待审批", null));
+            assertEquals(version, permits.getVersion());
+        });
+        assertEquals(version + 1, permits.getVersion());
+
+        permits.transactions.executeWithoutResult(status -> {
+            permits.save(permit(3L, "待审批", null));
+            status.setRollbackOnly();
+        });
+        assertEquals(version + 1, permits.getVersion());
+        assertFalse(permits.existsById(3L));
+
+        permits.update(1L, permit -> permit.approve("李四", "同意"));
+        assertEquals(version + 2, permits.getVersion());
+    }
+
+    @Test
+    void testMonitorQueries() {
+        List<ResourceMonitor> batch = new ArrayList<>();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (long id = 1; id <= 20; id++) {
+            batch.add(monitor(id, id % 2 == 0 ? "生长量" : "蓄积量", start.plusDays(20 - id), 100.0 + id, 100.0));
+        }
+        monitors.saveAll(batch);
+
+        List<ResourceMonitor> growth = monitors.findAll("生长量", 1L, start.plusDays(4), start.plusDays(10));
+        assertEquals(List.of(16L, 14L, 12L, 10L), growth.stream().map(ResourceMonitor::getId).toList());
+        assertEquals(List.of(20L, 19L, 18L, 17L, 16L, 15L, 14L, 13L, 12L, 11L),
+            monitors.findChanges(null, 10).stream().map(ResourceMonitor::getId).toList());
+        assertEquals(10, monitors.aggregate("蓄积量", null, null, null).getCount());
+        assertEquals(120.0, monitors.aggregate(null, 1L, start, start).getSum());
+        assertEquals(Set.of("生长量", "蓄积量"), monitors.findTypes());
+        assertEquals(start.plusDays(19), monitors.findLatestDate());
+        assertEquals(20, monitors.maxId());
+    }
+
+    private static List<Long> ids(List<CuttingPermit> rows) {
+        return rows.stream().map(CuttingPermit::getId).toList();
+    }
+
+    private static CuttingPermit permit(Long id, String status, LocalDateTime createTime) {
+        CuttingPermit permit = new CuttingPermit();
+        permit.setId(id);
+        permit.setPermitNo(String.format("采伐许可%06d", id));
+        permit.setApplicantName("张三");
+        permit.setStatus(status);
+        permit.setValidUntil(LocalDate.now().plusYears(1));
+        permit.setCreateTime(createTime);
+        return permit;
+    }
+
+    private static ResourceMonitor monitor(Long id, String type, LocalDate date, double current, double previous) {
+        ResourceMonitor monitor = new ResourceMonitor();
+        monitor.setId(id);
+        monitor.setForestLandId(1L);
+        monitor.setForestLandName("东山林场");
+        monitor.setMonitorType(type);
+        monitor.setCurrentValue(current);
+        monitor.setPreviousValue(previous);
+        monitor.setMonitorDate(date);
+        monitor.setUnit("立方米");
+        return monitor;
+    }
+}
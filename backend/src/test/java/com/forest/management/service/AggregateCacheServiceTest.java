@@ -0,0 +1,88 @@
+package com.forest.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forest.management.util.ETagUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 统计结果缓存测试
+ */
+public class AggregateCacheServiceTest {
+
+    @Test
+    public void testVersionChangeReloads() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("meterRegistry", registry);
+        AggregateCacheService cache = new AggregateCacheService(new ObjectMapper(), 100, 6, 2048, beans.getBeanProvider(MeterRegistry.class));
+
+        AtomicInteger loads = new AtomicInteger();
+        List<String> params = Arrays.asList("2024-01-01", null, "month");
+        assertEquals(1, (int) cache.get("permits/statistics", params, new long[] {1}, loads::incrementAndGet));
+        assertEquals(1, (int) cache.get("permits/statistics", params, new long[] {1}, loads::incrementAndGet));
+        // 参数或版本号不同时重新计算
+        assertEquals(2, (int) cache.get("permits/statistics", List.of("2024-01-01"), new long[] {1}, loads::incrementAndGet));
+        assertEquals(3, (int) cache.get("permits/statistics", params, new long[] {2}, loads::incrementAndGet));
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "aggregates").tag("result", "hit").functionCounter().count());
+        assertEquals(3.0, registry.get("cache.gets").tag("cache", "aggregates").tag("result", "miss").functionCounter().count());
+        assertEquals(0.25, registry.get("cache.hit.ratio").tag("cache", "aggregates").gauge().value());
+        assertEquals(3.0, registry.get("cache.load.duration").tag("cache", "aggregates").functionTimer().count());
+    }
+
+    @Test
+    public void testRespondWithPrecompressedJson() throws Exception {
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        AggregateCacheService cache = new AggregateCacheService(new ObjectMapper(), 100, 6, 64, beans.getBeanProvider(MeterRegistry.class));
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("names", "松树".repeat(100));
+        MockHttpServletRequest gzipRequest = new MockHttpServletRequest();
+        gzipRequest.addHeader("Accept", "application/json, text/plain, */*");
+        gzipRequest.addHeader("Accept-Encoding", "gzip, deflate, br");
+
+        ResponseEntity<?> first = cache.respond(new ServletWebRequest(gzipRequest), "trees/statistics", List.of(), new long[] {1}, () -> stats);
+        ResponseEntity<?> second = cache.respond(new ServletWebRequest(gzipRequest), "trees/statistics", List.of(), new long[] {1}, () -> stats);
+        assertEquals("gzip", first.getHeaders().getFirst("Content-Encoding"));
+        assertEquals(List.of("Accept-Encoding", "Accept"), first.getHeaders().getVary());
+        // 同一数据版本复用压缩结果
+        assertSame(first.getBody(), second.getBody());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream((byte[]) first.getBody()))) {
+            assertEquals(stats, new ObjectMapper().readValue(in, Map.class));
+        }
+
+        // 不接受gzip或要求二进制格式时照常输出结果对象
+        MockHttpServletRequest plainRequest = new MockHttpServletRequest();
+        plainRequest.addHeader("Accept-Encoding", "gzip;q=0");
+        ResponseEntity<?> plain = cache.respond(new ServletWebRequest(plainRequest), "trees/statistics", List.of(), new long[] {1}, () -> stats);
+        assertSame(stats, plain.getBody());
+        assertEquals(List.of("Accept-Encoding", "Accept"), plain.getHeaders().getVary());
+        // 压缩字节与未压缩输出不共用强ETag
+        assertEquals(ETagUtil.of(1), plain.getHeaders().getETag());
+        assertEquals(ETagUtil.weak(1), first.getHeaders().getETag());
+        MockHttpServletRequest smileRequest = new MockHttpServletRequest();
+        smileRequest.addHeader("Accept", "application/x-jackson-smile");
+        smileRequest.addHeader("Accept-Encoding", "gzip");
+        assertSame(stats, cache.respond(new ServletWebRequest(smileRequest), "trees/statistics", List.of(), new long[] {1}, () -> stats).getBody());
+
+        // 小于阈值的结果不压缩
+        ResponseEntity<?> small = cache.respond(new ServletWebRequest(gzipRequest), "forestlands/stats", List.of(), new long[] {1}, () -> Map.of("total", 1));
+        assertNull(small.getHeaders().getFirst("Content-Encoding"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.forest.management.service;
+
+import com.forest.management.model.CuttingPermit;
+import com.forest.management.model.ForestLand;
+import com.forest.management.model.ForestRights;
+import com.forest.management.model.TreeArchive;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 系统概览统计服务测试
+ */
+@SpringBootTest
+public class OverviewStatisticsServiceTest {
+
+    @Autowired
+    private OverviewStatisticsService overviewStatisticsService;
+
+    @Autowired
+    private DataGeneratorService dataGeneratorService;
+
+    @Test
+    public void testSnapshotMatchesFullScan() {
+        Map<String, Object> stats = overviewStatisticsService.getStatistics();
+
+        assertEquals(dataGeneratorService.getTreeArchives().size(), stats.get("totalTrees"));
+        assertEquals(dataGeneratorService.getTreeArchives().values().stream()
+            .collect(Collectors.groupingBy(TreeArchive::getHealthStatus, Collectors.counting())),
+            stats.get("treeHealthStats"));
+        assertEquals(dataGeneratorService.getForestLands().values().stream()
+            .collect(Collectors.groupingBy(ForestLand::getClassification, Collectors.counting())),
+            stats.get("forestClassificationStats"));
+        assertEquals(dataGeneratorService.getCuttingPermits().values().stream()
+            .collect(Collectors.groupingBy(CuttingPermit::getStatus, Collectors.counting())),
+            stats.get("permitsStatusStats"));
+        double totalArea = dataGeneratorService.getForestLands().values().stream()
+            .mapToDouble(ForestLand::getArea).sum();
+        assertEquals(Math.round(totalArea * 100.0) / 100.0, (Double) stats.get("totalArea"), 0.011);
+        assertEquals(dataGeneratorService.getForestRights().values().stream()
+            .filter(ForestRights::isExpiringSoon).count(), stats.get("expiringRights"));
+        assertEquals(dataGeneratorService.getCuttingPermits().values().stream()
+            .filter(CuttingPermit::isExpiringSoon).count(), stats.get("expiringPermits"));
+
+        // 数据未变化时返回同一快照
+        assertSame(stats, overviewStatisticsService.getStatistics());
+    }
+
+    @Test
+    public void testSnapshotFollowsWrites() {
+        Map<String, Object> before = overviewStatisticsService.getStatistics();
+        long expiring = (Long) before.get("expiringRights");
+
+        ForestRights rights = new ForestRights();
+        rights.setId(dataGeneratorService.generateRightsId());
+        rights.setCertificateNo("林权证TEST" + rights.getId());
+        rights.setStatus("即将到期");
+        rights.setExpiryDate(LocalDate.now().plusDays(3));
+        dataGeneratorService.getForestRights().put(rights.getId(), rights);
+        try {
+            Map<String, Object> after = overviewStatisticsService.getStatistics();
+            assertNotSame(before, after);
+            assertEquals((Integer) before.get("totalRights") + 1, after.get("totalRights"));
+            assertEquals(expiring + 1, after.get("expiringRights"));
+        } finally {
+            dataGeneratorService.getForestRights().remove(rights.getId());
+        }
+        assertEquals(expiring, overviewStatisticsService.getStatistics().get("expiringRights"));
+    }
+}
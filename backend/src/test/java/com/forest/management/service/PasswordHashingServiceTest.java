@@ -0,0 +1,85 @@
+package com.forest.management.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 密码哈希服务测试
+ */
+public class PasswordHashingServiceTest {
+
+    private static PasswordHashingService service(int strength, int threads, int queue, long timeoutMillis,
+                                                  MeterRegistry registry) {
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        if (registry != null) {
+            beans.registerSingleton("meterRegistry", registry);
+        }
+        return new PasswordHashingService(strength, threads, queue, timeoutMillis, beans.getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    public void testEncodeAndMatches() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingService hashing = service(4, 2, 8, 5000, registry);
+        try {
+            String hash = hashing.encode("admin123");
+            assertTrue(hash.startsWith("$2a$04$"));
+            assertTrue(hashing.matches("admin123", hash));
+            assertFalse(hashing.matches("wrong", hash));
+
+            assertEquals(1, registry.get("password.hash.duration").tag("operation", "encode").timer().count());
+            assertEquals(2, registry.get("password.hash.duration").tag("operation", "matches").timer().count());
+            assertEquals(4.0, registry.get("password.hash.cost").gauge().value());
+            assertNotNull(registry.find("executor.queued").tag("name", "password-hashing").gauge());
+        } finally {
+            hashing.shutdown();
+        }
+    }
+
+    @Test
+    public void testSaturatedPoolRejects() throws Exception {
+        // 1个线程、队列长度1：一个在算，一个在排队，第三个立即被拒绝
+        PasswordHashingService hashing = service(14, 1, 1, 60000, null);
+        try {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hashing.encode("running"));
+            TimeUnit.MILLISECONDS.sleep(200);
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hashing.encode("queued"));
+            TimeUnit.MILLISECONDS.sleep(200);
+
+            PasswordHashingBusyException e = assertThrows(PasswordHashingBusyException.class, () -> hashing.encode("rejected"));
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS, e.getStatus());
+            running.cancel(true);
+            queued.cancel(true);
+        } finally {
+            hashing.shutdown();
+        }
+    }
+
+    @Test
+    public void testQueueTimeout() throws Exception {
+        PasswordHashingService hashing = service(14, 1, 4, 100, null);
+        try {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    hashing.encode("running");
+                } catch (PasswordHashingBusyException ignored) {
+                    // 本身也可能超时
+                }
+            });
+            TimeUnit.MILLISECONDS.sleep(200);
+
+            PasswordHashingBusyException e = assertThrows(PasswordHashingBusyException.class, () -> hashing.encode("waiting"));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+        } finally {
+            hashing.shutdown();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.forest.management.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 监测数据块压缩测试
+ */
+public class CompressedChunkTest {
+
+    @Test
+    void testRoundTripPreservesEveryColumn() {
+        Random random = new Random(42);
+        MonitorChunk chunk = new MonitorChunk(16);
+        long day = LocalDate.of(1990, 1, 15).toEpochDay();
+        for (int i = 0; i < 500; i++) {
+            double previous = i % 7 == 0 ? Double.NaN : random.nextDouble() * 1000;
+            double value = i % 3 == 0 ? 12.5 : -random.nextDouble() * 1e9;
+            long createTime = i % 5 == 0 ? Long.MIN_VALUE + i : 1_700_000_000_000L + i * 37L;
+            // 单位、名称编码成段变化，含缺失值
+            chunk.add(1000L + i * 24L, day, value, previous, createTime, i % 90 < 3 ? -1 : i / 100, i / 40);
+            day += 28 + random.nextInt(4) + (i % 50 == 0 ? 4000 : 0);
+        }
+
+        MonitorChunk decoded = CompressedChunk.encode(chunk).decode();
+        assertEquals(chunk.size, decoded.size);
+        for (int i = 0; i < chunk.size; i++) {
+            assertEquals(chunk.ids[i], decoded.ids[i]);
+            assertEquals(chunk.days[i], decoded.days[i]);
+            assertEquals(chunk.createTimes[i], decoded.createTimes[i]);
+            assertEquals(Double.doubleToRawLongBits(chunk.values[i]), Double.doubleToRawLongBits(decoded.values[i]));
+            assertEquals(Double.doubleToRawLongBits(chunk.previous[i]), Double.doubleToRawLongBits(decoded.previous[i]));
+            assertEquals(chunk.units[i], decoded.units[i]);
+            assertEquals(chunk.names[i], decoded.names[i]);
+        }
+    }
+
+    @Test
+    void testSlowlyChangingSeriesCompresses() {
+        MonitorChunk chunk = new MonitorChunk(MonitorSeries.CHUNK_SIZE);
+        LocalDate date = LocalDate.of(2000, 1, 15);
+        for (int i = 0; i < MonitorSeries.CHUNK_SIZE; i++) {
+            double value = 800.0 + (i / 12) * 12.5;
+            chunk.add(i * 100L + 7, date.plusMonths(i).toEpochDay(), value, value - 12.5, 1_700_000_000_000L, 3, 0);
+        }
+        CompressedChunk compressed = CompressedChunk.encode(chunk);
+        int raw = chunk.size * (4 * Long.BYTES + Double.BYTES);
+        assertTrue(compressed.sizeInBytes() * 5 < raw, "compressed " + compressed.sizeInBytes() + " of " + raw);
+
+        SeriesAggregate all = new SeriesAggregate();
+        compressed.aggregate(Long.MIN_VALUE, Long.MAX_VALUE, all);
+        SeriesAggregate expected = new SeriesAggregate();
+        chunk.aggregate(Long.MIN_VALUE, Long.MAX_VALUE, expected);
+        assertEquals(expected.getCount(), all.getCount());
+        assertEquals(expected.getSum(), all.getSum(), 1e-9);
+
+        SeriesAggregate year = new SeriesAggregate();
+        compressed.aggregate(LocalDate.of(2003, 1, 1).toEpochDay(), LocalDate.of(2004, 1, 1).toEpochDay(), year);
+        assertEquals(12, year.getCount());
+        assertEquals(12 * 837.5, year.getSum(), 1e-9);
+    }
+}
@@ -0,0 +1,160 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.CuttingPermit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 采伐许可存储唯一键索引测试
+ */
+public class CuttingPermitStoreTest {
+
+    private CuttingPermitStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new CuttingPermitStore();
+        store.put(1L, permit(1L, "采伐许可000001", "待审批"));
+        store.put(2L, permit(2L, "采伐许可000002", "已批准"));
+    }
+
+    @Test
+    void testDuplicateInsertIsRejected() {
+        DuplicateKeyException e = assertThrows(DuplicateKeyException.class,
+            () -> store.put(3L, permit(3L, "采伐许可000001", "待审批")));
+        assertEquals("permitNo", e.getField());
+
+        // 冲突的写入不留下任何痕迹
+        assertEquals(2, store.size());
+        assertFalse(store.containsKey(3L));
+        assertEquals(List.of(1L), store.findIds(new Criteria().eq("status", "待审批")));
+        assertEquals(List.of(1L), store.findIds(new Criteria().eq("permitNo", "采伐许可000001")));
+    }
+
+    @Test
+    void testDuplicateUpdateKeepsOldRow() {
+        CuttingPermit original = store.get(2L);
+        assertThrows(DuplicateKeyException.class,
+            () -> store.put(2L, permit(2L, "采伐许可000001", "待审批")));
+
+        assertSame(original, store.get(2L));
+        assertEquals(List.of(2L), store.findIds(new Criteria().eq("permitNo", "采伐许可000002")));
+        assertEquals(List.of(2L), store.findIds(new Criteria().eq("status", "已批准")));
+        assertEquals(List.of(2L), store.findIds(new Criteria().contains("permitNo", "0002")));
+    }
+
+    @Test
+    void testKeyIsReleasedOnChangeAndDelete() {
+        // 同一记录保留原编号更新不算冲突
+        store.put(1L, permit(1L, "采伐许可000001", "已拒绝"));
+        store.put(1L, permit(1L, "采伐许可000011", "已拒绝"));
+        store.put(3L, permit(3L, "采伐许可000001", "待审批"));
+
+        store.remove(2L);
+        store.put(4L, permit(4L, "采伐许可000002", "待审批"));
+        assertEquals(List.of(4L), store.findIds(new Criteria().eq("permitNo", "采伐许可000002")));
+        assertTrue(store.findIds(new Criteria().eq("permitNo", "采伐许可")).isEmpty());
+    }
+
+    @Test
+    void testFailedUpdateKeepsRowIndexed() {
+        CuttingPermit original = store.get(1L);
+        assertThrows(IllegalStateException.class, () -> store.update(1L, p -> {
+            p.setStatus("已批准");
+            throw new IllegalStateException("放弃修改");
+        }));
+        assertThrows(DuplicateKeyException.class,
+            () -> store.update(1L, p -> p.setPermitNo("采伐许可000002")));
+
+        assertSame(original, store.get(1L));
+        assertEquals("待审批", original.getStatus());
+        assertEquals(List.of(1L), store.findIds(new Criteria().eq("status", "待审批")));
+        assertEquals(List.of(1L), store.findIds(new Criteria().eq("permitNo", "采伐许可000001")));
+        assertEquals(List.of(2L), store.findIds(new Criteria().eq("permitNo", "采伐许可000002")));
+
+        // 修改唯一键字段同样释放旧键值
+        CuttingPermit updated = store.update(1L, p -> p.setPermitNo("采伐许可000011"));
+        assertEquals("采伐许可000011", updated.getPermitNo());
+        assertEquals("采伐许可000001", original.getPermitNo());
+        assertTrue(store.findIds(new Criteria().eq("permitNo", "采伐许可000001")).isEmpty());
+        assertEquals(List.of(1L), store.findIds(new Criteria().eq("permitNo", "采伐许可000011")));
+    }
+
+    @Test
+    void testOldKeyStaysClaimedUntilWriteSucceeds() {
+        List<List<Long>> ownersDuringWrite = new ArrayList<>();
+        store.setJournal(new StoreJournal<>() {
+            @Override
+            public long put(Long id, CuttingPermit row) {
+                // 写入日志时新旧键值都属于该记录，其它记录无法抢占旧键值
+                ownersDuringWrite.add(store.findIds(new Criteria().eq("permitNo", "采伐许可000001")));
+                ownersDuringWrite.add(store.findIds(new Criteria().eq("permitNo", "采伐许可000009")));
+                assertThrows(DuplicateKeyException.class, () -> store.put(3L, permit(3L, "采伐许可000001", "待审批")));
+                throw new IllegalStateException("日志写入失败");
+            }
+
+            @Override
+            public long remove(Long id) {
+                return 0;
+            }
+
+            @Override
+            public long clear() {
+                return 0;
+            }
+
+            @Override
+            public void sync(long lsn) {
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> store.put(1L, permit(1L, "采伐许可000009", "已拒绝")));
+        assertEquals(List.of(List.of(1L), List.of(1L)), ownersDuringWrite);
+
+        // 回滚后旧键值和状态索引恢复，新键值释放
+        assertEquals("采伐许可000001", store.get(1L).getPermitNo());
+        assertEquals(List.of(1L), store.findIds(new Criteria().eq("permitNo", "采伐许可000001")));
+        assertTrue(store.findIds(new Criteria().eq("permitNo", "采伐许可000009")).isEmpty());
+        assertEquals(List.of(1L), store.findIds(new Criteria().eq("status", "待审批")));
+        assertFalse(store.containsKey(3L));
+    }
+
+    @Test
+    void testPuttingBackTheStoredInstanceIsRejected() {
+        CuttingPermit stored = store.get(1L);
+        stored.setStatus("已批准");
+        assertThrows(IllegalArgumentException.class, () -> store.put(1L, stored));
+        assertEquals(List.of(1L), store.findIds(new Criteria().eq("status", "待审批")));
+    }
+
+    @Test
+    void testWriteAdvancesOnlyItsRowVersion() {
+        RowVersions versions = store.getRowVersions();
+        long table = versions.get();
+        long first = versions.get(1L);
+        long second = versions.get(2L);
+
+        store.update(1L, permit -> permit.setApplicantName("李四"));
+        assertEquals(table + 1, versions.get());
+        assertEquals(first + 1, versions.get(1L));
+        assertEquals(second, versions.get(2L));
+
+        store.remove(2L);
+        assertEquals(first + 1, versions.get(1L));
+        assertEquals(second + 1, versions.get(2L));
+    }
+
+    private static CuttingPermit permit(Long id, String permitNo, String status) {
+        CuttingPermit permit = new CuttingPermit();
+        permit.setId(id);
+        permit.setPermitNo(permitNo);
+        permit.setApplicantName("张三");
+        permit.setStatus(status);
+        return permit;
+    }
+}
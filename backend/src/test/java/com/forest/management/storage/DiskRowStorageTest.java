@@ -0,0 +1,120 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.CuttingPermit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 磁盘行存储测试
+ */
+public class DiskRowStorageTest {
+
+    @TempDir
+    Path dir;
+
+    private DiskRowStorage<CuttingPermit> rows;
+    private CuttingPermitStore store;
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testRowsBeyondCacheAreReadFromFile() throws Exception {
+        open(64, DiskRowStorage.COMPACT_MIN_BYTES);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (long id = 1; id <= 500; id++) {
+            store.put(id, permit(id, id % 5 == 0 ? "已批准" : "待审批", base.plusMinutes(id)));
+        }
+        // 超过读取缓冲区的长行
+        CuttingPermit wide = permit(501L, "待审批", base.plusMinutes(501));
+        wide.setReason("抚育间伐".repeat(100));
+        store.put(501L, wide);
+
+        assertEquals(501, store.size());
+        CuttingPermit loaded = store.get(7L);
+        assertEquals("采伐许可000007", loaded.getPermitNo());
+        assertEquals("待审批", loaded.getStatus());
+        assertEquals(base.plusMinutes(7), loaded.getCreateTime());
+        assertEquals("抚育间伐".repeat(100), store.get(501L).getReason());
+        assertNull(store.get(502L));
+
+        store.update(7L, permit -> permit.approve("李四", "同意"));
+        store.remove(10L);
+        assertEquals("已批准", store.get(7L).getStatus());
+        assertFalse(store.containsKey(10L));
+        assertEquals(Map.of("已批准", 100L, "待审批", 400L), store.getStatusCounts());
+        assertEquals(List.of(501L, 500L, 499L), store.page(new Criteria(), 0, 3)
+            .getRows().stream().map(CuttingPermit::getId).toList());
+        assertEquals(500, store.values().size());
+    }
+
+    @Test
+    void testRejectedWriteKeepsStoredRow() throws Exception {
+        open(0, DiskRowStorage.COMPACT_MIN_BYTES);
+        store.put(1L, permit(1L, "待审批", null));
+        store.put(2L, permit(2L, "待审批", null));
+
+        CuttingPermit duplicate = permit(2L, "已批准", null);
+        duplicate.setPermitNo("采伐许可000001");
+        assertThrows(DuplicateKeyException.class, () -> store.put(2L, duplicate));
+
+        assertEquals("采伐许可000002", store.get(2L).getPermitNo());
+        assertEquals("待审批", store.get(2L).getStatus());
+        assertEquals(List.of(2L), store.findIds(new Criteria().eq("permitNo", "采伐许可000002")));
+    }
+
+    @Test
+    void testCompactionDropsOldVersions() throws Exception {
+        open(16, 0);
+        for (int round = 0; round < 4; round++) {
+            for (long id = 1; id <= 200; id++) {
+                store.put(id, permit(id, round % 2 == 0 ? "待审批" : "已拒绝", null));
+            }
+        }
+        store.remove(100L);
+
+        assertTrue(rows.getFileBytes() <= rows.getLiveBytes() * 2);
+        assertEquals(199, store.size());
+        assertEquals("已拒绝", store.get(1L).getStatus());
+        assertEquals("采伐许可000200", store.get(200L).getPermitNo());
+        assertNull(store.get(100L));
+
+        store.clear();
+        assertEquals(0, rows.getFileBytes());
+        assertTrue(store.values().isEmpty());
+    }
+
+    @Test
+    void testFileIsRemovedOnClose() throws Exception {
+        open(16, DiskRowStorage.COMPACT_MIN_BYTES);
+        store.put(1L, permit(1L, "待审批", null));
+        store.close();
+        assertFalse(Files.exists(dir.resolve("permits.rows")));
+    }
+
+    private void open(int cacheRows, long compactMinBytes) throws Exception {
+        rows = new DiskRowStorage<>(dir.resolve("permits.rows"), EntityCodecs.CUTTING_PERMIT, cacheRows, compactMinBytes);
+        store = new CuttingPermitStore(rows);
+    }
+
+    private static CuttingPermit permit(Long id, String status, LocalDateTime createTime) {
+        CuttingPermit permit = new CuttingPermit();
+        permit.setId(id);
+        permit.setPermitNo(String.format("采伐许可%06d", id));
+        permit.setApplicantName("张三");
+        permit.setStatus(status);
+        permit.setCreateTime(createTime);
+        return permit;
+    }
+}
@@ -0,0 +1,190 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.TreeArchive;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 林木档案堆外行存储测试
+ */
+public class MappedTreeArchiveStorageTest {
+
+    @TempDir
+    Path dir;
+
+    private TreeArchiveStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new TreeArchiveStore(new MappedTreeArchiveStorage(dir.resolve("trees.rows")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testRowsRoundTripThroughMappedRecords() {
+        TreeArchive tree = tree(1L, "松树", "健康", LocalDateTime.of(2024, 5, 1, 8, 30, 0, 123456789));
+        store.put(1L, tree);
+        TreeArchive partial = tree(2L, null, "良好", null);
+        partial.setDiameter(null);
+        partial.setLocation(null);
+        store.put(2L, partial);
+
+        TreeArchive loaded = store.get(1L);
+        assertNotSame(tree, loaded);
+        assertEquals("松树", loaded.getTreeSpecies());
+        assertEquals("健康", loaded.getHealthStatus());
+        assertEquals("东山林区", loaded.getLocation());
+        assertEquals(20.0, loaded.getDiameter());
+        assertEquals(10.0, loaded.getHeight());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 8, 30, 0, 123456789), loaded.getCreateTime());
+
+        TreeArchive sparse = store.get(2L);
+        assertNull(sparse.getTreeSpecies());
+        assertNull(sparse.getDiameter());
+        assertNull(sparse.getLocation());
+        assertNull(sparse.getCreateTime());
+        assertNull(store.get(3L));
+        assertNull(store.get(-1L));
+    }
+
+    @Test
+    void testLocationsLiveInOverflowRegions() {
+        // 每个位置约3MB（UTF-8每个汉字3字节），第6个放不下第一个映射区的剩余空间
+        String[] locations = new String[8];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = String.valueOf((char) ('甲' + i)).repeat(MappedTreeArchiveStorage.OVERFLOW_REGION_BYTES / 15);
+            store.put((long) i + 1, tree((long) i + 1, "松树", "健康", null));
+            store.update((long) i + 1, tree -> tree.setLocation(locations[(int) (tree.getId() - 1)]));
+        }
+        for (int i = 0; i < locations.length; i++) {
+            assertEquals(locations[i], store.get((long) i + 1).getLocation());
+        }
+
+        // 修改其它字段沿用已有的位置字节，修改位置写入新字节
+        store.update(6L, tree -> tree.setHealthStatus("病虫害"));
+        store.update(7L, tree -> tree.setLocation("西山林区"));
+        store.update(8L, tree -> tree.setLocation(null));
+        assertEquals(locations[5], store.get(6L).getLocation());
+        assertEquals("西山林区", store.get(7L).getLocation());
+        assertNull(store.get(8L).getLocation());
+        assertEquals(List.of(7L), store.findIds(new Criteria().contains("location", "西山")));
+    }
+
+    @Test
+    void testOverlongLocationLeavesRowUnchanged() throws Exception {
+        String overlong = "甲".repeat(MappedTreeArchiveStorage.OVERFLOW_REGION_BYTES / 3 + 1);
+        store.put(1L, tree(1L, "松树", "健康", null));
+
+        // 存储在修改索引、写入日志之前检查
+        assertThrows(IllegalArgumentException.class, () -> store.update(1L, tree -> {
+            tree.setTreeSpecies("杉树");
+            tree.setLocation(overlong);
+        }));
+        assertEquals("松树", store.get(1L).getTreeSpecies());
+        assertEquals(List.of(1L), store.findIds(new Criteria().eq("treeSpecies", "松树")));
+        assertEquals(Map.of("松树", 1L), store.getSpeciesCounts());
+
+        // 行存储本身也先写位置再改记录，写入失败时记录保持原样
+        try (MappedTreeArchiveStorage rows = new MappedTreeArchiveStorage(dir.resolve("raw.rows"))) {
+            rows.compute(1L, (id, old) -> tree(1L, "松树", "健康", null));
+            assertThrows(IllegalArgumentException.class, () -> rows.compute(1L, (id, old) -> {
+                TreeArchive tree = tree(1L, "杉树", "病虫害", null);
+                tree.setLocation(overlong);
+                return tree;
+            }));
+            TreeArchive kept = rows.get(1L);
+            assertEquals("松树", kept.getTreeSpecies());
+            assertEquals("健康", kept.getHealthStatus());
+            assertEquals("东山林区", kept.getLocation());
+        }
+    }
+
+    @Test
+    void testClearResetsSlotsAndOverflow() throws Exception {
+        try (MappedTreeArchiveStorage rows = new MappedTreeArchiveStorage(dir.resolve("raw.rows"))) {
+            for (long id = 1; id <= 10; id++) {
+                rows.compute(id, (key, old) -> tree(key, "松树", "健康", null));
+            }
+            assertTrue(rows.overflowBytes() > 0);
+
+            rows.clear();
+            assertEquals(0, rows.size());
+            assertEquals(0, rows.overflowBytes());
+            assertTrue(rows.keySet().isEmpty());
+
+            // 清空后溢出区从头复用
+            TreeArchive tree = tree(3L, "杉树", "良好", null);
+            tree.setLocation("西山林区");
+            rows.compute(3L, (key, old) -> tree);
+            assertEquals(List.of(3L), rows.keySet().stream().toList());
+            assertEquals("西山林区", rows.get(3L).getLocation());
+            assertEquals("西山林区".getBytes(StandardCharsets.UTF_8).length, rows.overflowBytes());
+        }
+    }
+
+    @Test
+    void testIndexesAndStatisticsFollowWrites() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (long id = 1; id <= 30; id++) {
+            store.put(id, tree(id, id % 3 == 0 ? "银杏" : "松树", "健康", base.plusMinutes(id)));
+        }
+        store.update(3L, tree -> tree.setHealthStatus("病虫害"));
+        store.remove(6L);
+
+        assertEquals(29, store.size());
+        assertEquals("病虫害", store.get(3L).getHealthStatus());
+        assertEquals(List.of(3L), store.findIds(new Criteria().eq("healthStatus", "病虫害")));
+        assertEquals(Map.of("松树", 20L, "银杏", 9L), store.getSpeciesCounts());
+        assertEquals(List.of(30L, 27L, 24L), store.page(new Criteria().eq("treeSpecies", "银杏"), 0, 3)
+            .getRows().stream().map(TreeArchive::getId).toList());
+        assertEquals(List.of(25L, 24L), store.page(new Criteria(), 5, 2)
+            .getRows().stream().map(TreeArchive::getId).toList());
+        assertEquals(29, store.values().size());
+        assertEquals(29, store.keySet().stream().count());
+        assertFalse(store.containsKey(6L));
+
+        store.clear();
+        assertTrue(store.isEmpty());
+        assertTrue(store.values().isEmpty());
+    }
+
+    @Test
+    void testIdsBeyondFirstRegion() {
+        long far = MappedTreeArchiveStorage.RECORDS_PER_REGION * 2L + 5;
+        store.put(far, tree(far, "杉树", "一般", null));
+        store.put(1L, tree(1L, "松树", "健康", null));
+
+        assertEquals("杉树", store.get(far).getTreeSpecies());
+        assertEquals(List.of(1L, far), store.keySet().stream().toList());
+        assertThrows(IllegalArgumentException.class, () -> store.put(-2L, tree(-2L, "松树", "健康", null)));
+    }
+
+    @Test
+    void testFileIsRemovedOnClose() {
+        store.put(1L, tree(1L, "松树", "健康", null));
+        store.close();
+        assertFalse(Files.exists(dir.resolve("trees.rows")));
+    }
+
+    private static TreeArchive tree(Long id, String species, String health, LocalDateTime createTime) {
+        TreeArchive tree = new TreeArchive(species, 20.0, 10.0, health, "东山林区");
+        tree.setId(id);
+        tree.setCreateTime(createTime);
+        return tree;
+    }
+}
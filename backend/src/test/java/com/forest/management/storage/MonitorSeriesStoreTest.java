@@ -0,0 +1,140 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.ResourceMonitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 资源监测列式存储测试
+ */
+public class MonitorSeriesStoreTest {
+
+    private MonitorSeriesStore store;
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        store = new MonitorSeriesStore();
+        nextId = 1;
+        // 乱序写入，序列内部按日期排序
+        for (int month : new int[] {3, 1, 2, 12, 6}) {
+            store.add(monitor(1L, "生长量", 10.0 + month, month == 1 ? null : 10.0, LocalDate.of(2024, month, 15)));
+            store.add(monitor(2L, "生长量", 20.0 + month, null, LocalDate.of(2024, month, 15)));
+            store.add(monitor(1L, "蓄积量", 1000.0 + month, 500.0, LocalDate.of(2024, month, 15)));
+        }
+    }
+
+    @Test
+    void testQueryByPartitionAndDateRange() {
+        List<ResourceMonitor> growth = store.query("生长量", 1L, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 6, 15));
+        assertEquals(List.of(LocalDate.of(2024, 2, 15), LocalDate.of(2024, 3, 15), LocalDate.of(2024, 6, 15)),
+            growth.stream().map(ResourceMonitor::getMonitorDate).toList());
+
+        ResourceMonitor first = growth.get(0);
+        assertEquals(1L, first.getForestLandId());
+        assertEquals("林地1", first.getForestLandName());
+        assertEquals("cm/年", first.getUnit());
+        assertEquals(12.0, first.getCurrentValue());
+        assertEquals(10.0, first.getPreviousValue());
+        assertEquals(20.0, first.getChangeRate(), 1e-9);
+        assertEquals(LocalDateTime.of(2024, 1, 1, 8, 30, 15), first.getCreateTime());
+
+        assertEquals(10, store.query("生长量", null, null, null).size());
+        assertTrue(store.query("生长量", 3L, null, null).isEmpty());
+        assertTrue(store.query("降水量", null, null, null).isEmpty());
+        assertEquals(15, store.size());
+    }
+
+    @Test
+    void testAggregateAndLatestDate() {
+        SeriesAggregate march = store.aggregate("生长量", null, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31));
+        assertEquals(2, march.getCount());
+        assertEquals(13.0 + 23.0, march.getSum(), 1e-9);
+        assertEquals(18.0, march.getAverage(), 1e-9);
+
+        assertEquals(15, store.aggregate(null, null, null, null).getCount());
+        assertNull(store.aggregate("蓄积量", 2L, null, null).getAverage());
+        assertEquals(LocalDate.of(2024, 12, 15), store.latestDate());
+    }
+
+    @Test
+    void testFindChanges() {
+        // 生长量林地1：(10+m-10)/10，仅12月超过100%；蓄积量约100%，全部不超过110%
+        List<ResourceMonitor> changes = store.findChanges(null, 110);
+        assertEquals(1, changes.size());
+        assertEquals(LocalDate.of(2024, 12, 15), changes.get(0).getMonitorDate());
+
+        // 上期值缺失的记录没有变化率，不会出现
+        assertTrue(store.findChanges(null, 0).stream().allMatch(m -> m.getPreviousValue() != null));
+        assertEquals(6, store.findChanges(LocalDate.of(2024, 3, 1), 0).size());
+    }
+
+    @Test
+    void testLongHistoryAcrossSealedChunks() {
+        store.clear();
+        LocalDate first = LocalDate.of(1980, 1, 15);
+        int months = MonitorSeries.CHUNK_SIZE * 3 + 7;
+        for (int i = 0; i < months; i++) {
+            store.add(monitor(1L, "蓄积量", 500.0 + i, i > 0 ? 499.0 + i : null, first.plusMonths(i)));
+        }
+        // 补录早期缺失的样本，写入已封存的块
+        store.add(monitor(1L, "蓄积量", 1.0, null, LocalDate.of(1985, 6, 1)));
+
+        assertEquals(months + 1, store.size());
+        List<ResourceMonitor> all = store.query("蓄积量", 1L, null, null);
+        assertEquals(months + 1, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertFalse(all.get(i).getMonitorDate().isBefore(all.get(i - 1).getMonitorDate()));
+        }
+        assertEquals(1.0, store.query("蓄积量", 1L, LocalDate.of(1985, 6, 1), LocalDate.of(1985, 6, 1))
+            .get(0).getCurrentValue());
+
+        SeriesAggregate year = store.aggregate("蓄积量", 1L, LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31));
+        assertEquals(12, year.getCount());
+        assertEquals(12 * 500.0 + (120 + 131) * 12 / 2.0, year.getSum(), 1e-9);
+        assertEquals(first.plusMonths(months - 1), store.latestDate());
+    }
+
+    @Test
+    void testPerSampleNameAndUnitArePreserved() {
+        LocalDate first = LocalDate.of(1990, 1, 15);
+        int months = MonitorSeries.CHUNK_SIZE + 30;
+        for (int i = 0; i < months; i++) {
+            ResourceMonitor monitor = monitor(3L, "蓄积量", 100.0 + i, null, first.plusMonths(i));
+            // 林地中途改名、单位中途变更，变化点分别落在封存块和头块中
+            monitor.setForestLandName(i < 50 ? "林地3" : "林地3（改）");
+            monitor.setUnit(i < MonitorSeries.CHUNK_SIZE + 10 ? "立方米" : "万立方米");
+            store.add(monitor);
+        }
+        // 补录的历史样本写入封存块，使用自己的名称
+        ResourceMonitor backfill = monitor(3L, "蓄积量", 1.0, null, first.plusMonths(20).plusDays(1));
+        backfill.setForestLandName("补录林地");
+        store.add(backfill);
+
+        List<ResourceMonitor> all = store.query("蓄积量", 3L, null, null);
+        assertEquals(months + 1, all.size());
+        assertEquals("林地3", all.get(0).getForestLandName());
+        assertEquals("补录林地", all.get(21).getForestLandName());
+        assertEquals("林地3", all.get(50).getForestLandName());
+        assertEquals("林地3（改）", all.get(51).getForestLandName());
+        assertEquals("立方米", all.get(MonitorSeries.CHUNK_SIZE + 10).getUnit());
+        assertEquals("万立方米", all.get(MonitorSeries.CHUNK_SIZE + 11).getUnit());
+        assertEquals("万立方米", all.get(months).getUnit());
+    }
+
+    private ResourceMonitor monitor(Long landId, String type, Double value, Double previous, LocalDate date) {
+        ResourceMonitor monitor = new ResourceMonitor(landId, type, value, date);
+        monitor.setId(nextId++);
+        monitor.setForestLandName("林地" + landId);
+        monitor.setUnit("生长量".equals(type) ? "cm/年" : "立方米");
+        monitor.setPreviousValue(previous);
+        monitor.setCreateTime(LocalDateTime.of(2024, 1, 1, 8, 30, 15));
+        return monitor;
+    }
+}
@@ -0,0 +1,126 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.ResourceMonitor;
+import com.forest.management.model.TreeArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 存储快照测试
+ */
+public class StoreSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRoundTrip() throws Exception {
+        TreeArchiveStore trees = new TreeArchiveStore();
+        for (long id = 1; id <= 200; id++) {
+            trees.put(id, tree(id, id % 2 == 0 ? "松树" : "杉树"));
+        }
+        MonitorSeriesStore monitors = new MonitorSeriesStore();
+        for (long id = 1; id <= 300; id++) {
+            monitors.add(monitor(id, LocalDate.of(2000, 1, 1).plusMonths(id)));
+        }
+
+        try (StoreSnapshot.Writer writer = StoreSnapshot.create(dir, 42)) {
+            writer.writeSection(EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE, trees.values()::forEach);
+            writer.writeSection(EntityType.RESOURCE_MONITOR, EntityCodecs.RESOURCE_MONITOR, monitors::forEach);
+            writer.writeSequence(EntityType.TREE_ARCHIVE, 205);
+            writer.commit();
+        }
+
+        Path file = StoreSnapshot.latest(dir).orElseThrow();
+        TreeArchiveStore restoredTrees = new TreeArchiveStore();
+        MonitorSeriesStore restoredMonitors = new MonitorSeriesStore();
+        try (StoreSnapshot snapshot = StoreSnapshot.open(file)) {
+            assertEquals(42, snapshot.getLsn());
+            assertEquals(205, snapshot.getSequence(EntityType.TREE_ARCHIVE));
+            assertEquals(0, snapshot.getSequence(EntityType.FOREST_LAND));
+            assertEquals(200, snapshot.count(EntityType.TREE_ARCHIVE));
+            snapshot.load(EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE, tree -> restoredTrees.put(tree.getId(), tree));
+            snapshot.load(EntityType.RESOURCE_MONITOR, EntityCodecs.RESOURCE_MONITOR, restoredMonitors::add);
+            snapshot.load(EntityType.FOREST_LAND, EntityCodecs.FOREST_LAND, land -> fail("没有林地数据段"));
+        }
+        assertEquals(200, restoredTrees.size());
+        assertEquals(List.of(2L, 4L), restoredTrees.findIds(new Criteria().eq("treeSpecies", "松树")).stream()
+            .sorted().limit(2).toList());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 8, 30), restoredTrees.get(7L).getCreateTime());
+        assertEquals(300, restoredMonitors.size());
+        assertEquals(300, restoredMonitors.maxId());
+        assertTrue(restoredMonitors.contains(monitor(150L, LocalDate.of(2000, 1, 1).plusMonths(150))));
+        assertFalse(restoredMonitors.contains(monitor(301L, LocalDate.of(2000, 1, 1).plusMonths(150))));
+    }
+
+    @Test
+    void testNewSnapshotReplacesOlderOne() throws Exception {
+        for (long lsn : new long[] {5, 9}) {
+            try (StoreSnapshot.Writer writer = StoreSnapshot.create(dir, lsn)) {
+                writer.writeSequence(EntityType.TREE_ARCHIVE, lsn);
+                writer.commit();
+            }
+        }
+        // 未提交的快照不留下文件
+        try (StoreSnapshot.Writer writer = StoreSnapshot.create(dir, 12)) {
+            writer.writeSequence(EntityType.TREE_ARCHIVE, 12);
+        }
+
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+        try (StoreSnapshot snapshot = StoreSnapshot.open(StoreSnapshot.latest(dir).orElseThrow())) {
+            assertEquals(9, snapshot.getLsn());
+        }
+    }
+
+    @Test
+    void testCorruptedSectionIsRejected() throws Exception {
+        Path file;
+        try (StoreSnapshot.Writer writer = StoreSnapshot.create(dir, 1)) {
+            writer.writeSection(EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE,
+                sink -> sink.accept(tree(1L, "松树")));
+            file = writer.commit();
+        }
+        // 修改数据段中的一个字节（跳过文件头和行长度）
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, 20);
+            one.flip();
+            one.put(0, (byte) (one.get(0) ^ 0x5A));
+            channel.write(one, 20);
+        }
+
+        try (StoreSnapshot snapshot = StoreSnapshot.open(file)) {
+            assertThrows(IOException.class, () ->
+                snapshot.load(EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE, tree -> { }));
+        }
+    }
+
+    private static TreeArchive tree(Long id, String species) {
+        TreeArchive tree = new TreeArchive(species, 20.0, 10.0, "健康", "东山林区");
+        tree.setId(id);
+        tree.setCreateTime(LocalDateTime.of(2024, 5, 1, 8, 30));
+        return tree;
+    }
+
+    private static ResourceMonitor monitor(Long id, LocalDate date) {
+        ResourceMonitor monitor = new ResourceMonitor(1L, "生长量", 10.0 + id, date);
+        monitor.setId(id);
+        monitor.setForestLandName("林地1");
+        monitor.setCreateTime(LocalDateTime.of(2024, 1, 1, 8, 30));
+        return monitor;
+    }
+}
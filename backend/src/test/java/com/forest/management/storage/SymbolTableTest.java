@@ -0,0 +1,80 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.CuttingPermit;
+import com.forest.management.model.TreeArchive;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 全局符号表测试
+ */
+public class SymbolTableTest {
+
+    @Test
+    void testFieldsShareInternedInstances() {
+        TreeArchive first = new TreeArchive(new String("松树"), 20.0, 10.0, new String("健康"), "东山林区");
+        first.internSymbols();
+        TreeArchive second = new TreeArchive();
+        second.setTreeSpecies(new String("松树"));
+
+        assertSame(first.getTreeSpecies(), second.getTreeSpecies());
+        assertEquals(first.getTreeSpeciesCode(), second.getTreeSpeciesCode());
+        assertEquals(SymbolTable.lookup("松树"), first.getTreeSpeciesCode());
+        assertEquals("松树", SymbolTable.decode(first.getTreeSpeciesCode()));
+
+        second.setTreeSpecies(null);
+        assertEquals(-1, second.getTreeSpeciesCode());
+        assertNull(second.getTreeSpecies());
+
+        second.setHealthStatusCode(first.getHealthStatusCode());
+        assertSame(first.getHealthStatus(), second.getHealthStatus());
+    }
+
+    @Test
+    void testLookupDoesNotAllocate() {
+        int size = SymbolTable.size();
+        assertEquals(-1, SymbolTable.lookup("查询时才出现的取值"));
+        assertEquals(-1, SymbolTable.lookup(null));
+        assertEquals(size, SymbolTable.size());
+    }
+
+    @Test
+    void testSettersDoNotAllocate() {
+        int size = SymbolTable.size();
+        TreeArchive tree = new TreeArchive();
+        tree.setTreeSpecies("请求体中未经校验的树种");
+        assertEquals(-1, tree.getTreeSpeciesCode());
+        assertEquals("请求体中未经校验的树种", tree.getTreeSpecies());
+        assertEquals(size, SymbolTable.size());
+
+        // 只有写入存储时才登记
+        TreeArchiveStore store = new TreeArchiveStore();
+        tree.setId(1L);
+        store.put(1L, tree);
+        assertTrue(tree.getTreeSpeciesCode() >= 0);
+        assertEquals(Map.of("请求体中未经校验的树种", 1L), store.getSpeciesCounts());
+        assertEquals(Set.of(1L), store.select(new Criteria().eq("treeSpecies", "请求体中未经校验的树种")).stream()
+            .map(TreeArchive::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void testCountByCode() {
+        CuttingPermit pending = new CuttingPermit();
+        CuttingPermit approved = new CuttingPermit();
+        approved.approve("李四", "同意");
+        CuttingPermit unknown = new CuttingPermit();
+        unknown.setStatus(null);
+        CuttingPermit unregistered = new CuttingPermit();
+        unregistered.setStatus("未登记的状态");
+
+        Map<String, Long> counts = SymbolTable.countBy(List.of(pending, approved, pending, unknown, unregistered),
+            CuttingPermit::getStatusCode, CuttingPermit::getStatus);
+        assertEquals(Map.of("待审批", 2L, "已批准", 1L, "未登记的状态", 1L), counts);
+    }
+}
@@ -0,0 +1,163 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.TreeArchive;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 林木档案存储索引测试
+ */
+public class TreeArchiveStoreTest {
+
+    private TreeArchiveStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new TreeArchiveStore();
+        store.put(1L, tree(1L, "松树", "健康", "东山林区第1片区"));
+        store.put(2L, tree(2L, "马尾松", "良好", "西山林区第2片区"));
+        store.put(3L, tree(3L, "杉树", "健康", "东山林区第3片区"));
+    }
+
+    @Test
+    void testEqualityAndContainsFilters() {
+        assertEquals(List.of(1L, 3L), sorted(store.findIds(new Criteria().eq("healthStatus", "健康"))));
+        assertEquals(List.of(1L, 2L), sorted(store.findIds(new Criteria().contains("treeSpecies", "松"))));
+        assertEquals(List.of(1L), store.findIds(new Criteria()
+            .contains("treeSpecies", "松")
+            .eq("healthStatus", "健康")));
+        assertEquals(List.of(3L), store.findIds(new Criteria()
+            .eq("healthStatus", "健康")
+            .contains("location", "第3")));
+    }
+
+    @Test
+    void testIndexFollowsUpdateAndDelete() {
+        store.put(1L, tree(1L, "柏树", "病虫害", "东山林区第1片区"));
+        assertEquals(List.of(3L), store.findIds(new Criteria().eq("healthStatus", "健康")));
+        assertEquals(List.of(1L), store.findIds(new Criteria().eq("healthStatus", "病虫害")));
+
+        store.remove(3L);
+        store.remove(2L);
+        assertTrue(store.findIds(new Criteria().eq("healthStatus", "健康")).isEmpty());
+        assertTrue(store.findIds(new Criteria().contains("treeSpecies", "松")).isEmpty());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testNGramSubstringSearch() {
+        store.put(4L, tree(4L, "银杏", "一般", "第12区23片"));
+
+        assertEquals(List.of(1L, 3L), sorted(store.findIds(new Criteria().contains("location", "东"))));
+        assertEquals(List.of(3L), store.findIds(new Criteria().contains("location", "区第3")));
+        // 二元片段"12"、"23"都存在，但"123"不是子串
+        assertTrue(store.findIds(new Criteria().contains("location", "123")).isEmpty());
+        assertEquals(List.of(4L), store.findIds(new Criteria().contains("location", "12区2")));
+    }
+
+    @Test
+    void testPageFollowsCreateTimeOrder() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        store.clear();
+        for (long id = 1; id <= 100; id++) {
+            TreeArchive tree = tree(id, id % 10 == 0 ? "银杏" : "松树", "健康", "东山林区");
+            tree.setCreateTime(base.plusMinutes(id));
+            store.put(id, tree);
+        }
+
+        PageResult<TreeArchive> first = store.page(new Criteria(), 0, 5);
+        assertEquals(100, first.getTotal());
+        assertEquals(List.of(100L, 99L, 98L, 97L, 96L), ids(first));
+
+        PageResult<TreeArchive> third = store.page(new Criteria().eq("healthStatus", "健康"), 10, 5);
+        assertEquals(List.of(90L, 89L, 88L, 87L, 86L), ids(third));
+
+        // 候选集合较小时走单独排序的路径
+        PageResult<TreeArchive> sparse = store.page(new Criteria().eq("treeSpecies", "银杏"), 2, 3);
+        assertEquals(10, sparse.getTotal());
+        assertEquals(List.of(80L, 70L, 60L), ids(sparse));
+
+        assertTrue(store.page(new Criteria(), 100, 5).getRows().isEmpty());
+    }
+
+    @Test
+    void testCursorWalkVisitsEveryRowOnce() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        store.clear();
+        for (long id = 1; id <= 50; id++) {
+            TreeArchive tree = tree(id, id % 10 == 0 ? "银杏" : "松树", "健康", "东山林区");
+            // 每两条记录共用一个创建时间，由ID区分先后
+            tree.setCreateTime(base.plusMinutes(id / 2));
+            store.put(id, tree);
+        }
+
+        List<Long> visited = new ArrayList<>();
+        OrderedIndex.Key after = null;
+        do {
+            PageResult<TreeArchive> page = store.page(new Criteria(), after, 0, 7);
+            visited.addAll(ids(page));
+            after = page.getNextCursor() != null ? PageCursor.decode(page.getNextCursor()) : null;
+        } while (after != null);
+        assertEquals(50, visited.size());
+        assertEquals(50L, visited.get(0));
+        assertEquals(1L, visited.get(49));
+
+        PageResult<TreeArchive> first = store.page(new Criteria().eq("treeSpecies", "银杏"), null, 0, 3);
+        assertEquals(List.of(50L, 40L, 30L), ids(first));
+        PageResult<TreeArchive> second = store.page(new Criteria().eq("treeSpecies", "银杏"),
+            PageCursor.decode(first.getNextCursor()), 0, 3);
+        assertEquals(List.of(20L, 10L), ids(second));
+        assertNull(second.getNextCursor());
+
+        assertNull(PageCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    void testStatisticsFollowWrites() {
+        assertEquals(Map.of("松树", 1L, "马尾松", 1L, "杉树", 1L), store.getSpeciesCounts());
+        assertEquals(Map.of("健康", 2L, "良好", 1L), store.getHealthCounts());
+        assertEquals(20.0, store.getAverageDiameter(), 1e-9);
+
+        TreeArchive bigger = tree(2L, "马尾松", "健康", "西山林区第2片区");
+        bigger.setDiameter(50.0);
+        bigger.setHeight(16.0);
+        store.put(2L, bigger);
+        store.update(3L, tree -> tree.setHealthStatus("病虫害"));
+        store.remove(1L);
+
+        assertEquals(Map.of("马尾松", 1L, "杉树", 1L), store.getSpeciesCounts());
+        assertEquals(Map.of("健康", 1L, "病虫害", 1L), store.getHealthCounts());
+        assertEquals(35.0, store.getAverageDiameter(), 1e-9);
+        assertEquals(13.0, store.getAverageHeight(), 1e-9);
+
+        store.clear();
+        assertTrue(store.getSpeciesCounts().isEmpty());
+        assertNull(store.getAverageHeight());
+    }
+
+    @Test
+    void testBlankConditionsAreIgnored() {
+        assertEquals(3, store.select(new Criteria().eq("healthStatus", " ").contains("location", null)).size());
+    }
+
+    private static List<Long> ids(PageResult<TreeArchive> page) {
+        return page.getRows().stream().map(TreeArchive::getId).toList();
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted().toList();
+    }
+
+    private static TreeArchive tree(Long id, String species, String health, String location) {
+        TreeArchive tree = new TreeArchive(species, 20.0, 10.0, health, location);
+        tree.setId(id);
+        return tree;
+    }
+}
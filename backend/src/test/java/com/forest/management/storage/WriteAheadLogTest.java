@@ -0,0 +1,339 @@
+package com.forest.management.storage;
+
+import com.forest.management.model.CuttingPermit;
+import com.forest.management.model.ResourceMonitor;
+import com.forest.management.model.TreeArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预写日志测试
+ */
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testStoreWritesAreReplayed() throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 1)) {
+            log.replay(record -> fail("日志应为空"));
+            log.start();
+            TreeArchiveStore store = new TreeArchiveStore();
+            store.setJournal(new WalJournal<>(log, EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE));
+
+            store.put(1L, tree(1L, "松树", "健康"));
+            store.put(2L, tree(2L, "杉树", "良好"));
+            store.put(3L, tree(3L, "柏树", "一般"));
+            store.update(2L, tree -> tree.setHealthStatus("病虫害"));
+            store.remove(3L);
+        }
+
+        TreeArchiveStore restored = new TreeArchiveStore();
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 1)) {
+            assertEquals(5, log.replay(record -> apply(restored, record)));
+        }
+        assertEquals(2, restored.size());
+        assertEquals("病虫害", restored.get(2L).getHealthStatus());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 8, 30, 0, 123456789), restored.get(1L).getCreateTime());
+        assertEquals(List.of(2L), restored.findIds(new Criteria().eq("healthStatus", "病虫害")));
+    }
+
+    @Test
+    void testTornTailIsTruncated() throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 0)) {
+            log.replay(record -> { });
+            log.start();
+            for (long id = 1; id <= 3; id++) {
+                log.awaitDurable(log.append(EntityType.CUTTING_PERMIT, WriteAheadLog.OP_PUT, id,
+                    EntityCodecs.CUTTING_PERMIT.encode(permit(id))));
+            }
+        }
+        // 模拟写到一半时进程退出
+        Path file = segments().get(0);
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 5);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 0)) {
+            assertEquals(2, log.replay(record -> ids.add(record.getId())));
+            log.start();
+            // 截断后继续追加，序号接着最后一条有效记录
+            long lsn = log.append(EntityType.CUTTING_PERMIT, WriteAheadLog.OP_REMOVE, 1L, null);
+            assertEquals(3, lsn);
+            log.awaitDurable(lsn);
+        }
+        assertEquals(List.of(1L, 2L), ids);
+
+        CuttingPermitStore restored = new CuttingPermitStore();
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 0)) {
+            assertEquals(3, log.replay(record -> apply(restored, record)));
+        }
+        assertEquals(List.of(2L), new ArrayList<>(restored.keySet()));
+        assertEquals(LocalDate.of(2025, 3, 1), restored.get(2L).getValidUntil());
+    }
+
+    @Test
+    void testConcurrentWritersShareBatches() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 2)) {
+            log.replay(record -> { });
+            log.start();
+            TreeArchiveStore store = new TreeArchiveStore();
+            store.setJournal(new WalJournal<>(log, EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE));
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            for (int t = 0; t < threads; t++) {
+                long base = t * 1000L;
+                executor.submit(() -> {
+                    for (long i = 1; i <= perThread; i++) {
+                        store.put(base + i, tree(base + i, "松树", "健康"));
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            assertEquals(threads * perThread, log.getDurableLsn());
+        }
+
+        TreeArchiveStore restored = new TreeArchiveStore();
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 2)) {
+            log.replay(record -> apply(restored, record));
+        }
+        assertEquals(threads * perThread, restored.size());
+    }
+
+    @Test
+    void testRotateStartsNewSegmentAndDropsOldOnes() throws Exception {
+        long rotatedAt;
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 0)) {
+            log.replay(record -> { });
+            log.start();
+            // 空日志不切换
+            assertEquals(0, log.rotate());
+            for (long id = 1; id <= 3; id++) {
+                log.append(EntityType.CUTTING_PERMIT, WriteAheadLog.OP_PUT, id,
+                    EntityCodecs.CUTTING_PERMIT.encode(permit(id)));
+            }
+            rotatedAt = log.rotate();
+            assertEquals(3, rotatedAt);
+            assertEquals(3, log.getDurableLsn());
+            log.awaitDurable(log.append(EntityType.CUTTING_PERMIT, WriteAheadLog.OP_REMOVE, 2L, null));
+            assertEquals(2, segments().size());
+
+            log.deleteSegmentsUpTo(rotatedAt);
+            assertEquals(1, segments().size());
+        }
+
+        // 只重放切换点之后的记录，序号接着继续
+        List<Long> lsns = new ArrayList<>();
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 0)) {
+            assertEquals(1, log.replay(rotatedAt, record -> lsns.add(record.getLsn())));
+            log.start();
+            assertEquals(5, log.append(EntityType.CUTTING_PERMIT, WriteAheadLog.OP_REMOVE, 1L, null));
+        }
+        assertEquals(List.of(4L), lsns);
+    }
+
+    @Test
+    void testFuzzySnapshotWithMovedUniqueKeyIsRecovered() throws Exception {
+        long snapshotLsn;
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 0)) {
+            log.replay(record -> { });
+            log.start();
+            CuttingPermitStore store = new CuttingPermitStore();
+            store.setJournal(new WalJournal<>(log, EntityType.CUTTING_PERMIT, EntityCodecs.CUTTING_PERMIT));
+            store.put(1L, permit(1L));
+
+            // 快照写出许可1之后，许可1改号、许可2占用许可1的旧编号，再写出许可2
+            snapshotLsn = log.rotate();
+            try (StoreSnapshot.Writer writer = StoreSnapshot.create(dir, snapshotLsn)) {
+                writer.writeSection(EntityType.CUTTING_PERMIT, EntityCodecs.CUTTING_PERMIT, sink -> {
+                    sink.accept(store.get(1L));
+                    CuttingPermit renamed = permit(1L);
+                    renamed.setPermitNo("采伐许可1-改");
+                    store.put(1L, renamed);
+                    CuttingPermit second = permit(2L);
+                    second.setPermitNo("采伐许可1");
+                    store.put(2L, second);
+                    sink.accept(store.get(2L));
+                });
+                writer.commit();
+            }
+        }
+
+        Path file = StoreSnapshot.latest(dir).orElseThrow();
+        try (StoreSnapshot snapshot = StoreSnapshot.open(file)) {
+            CuttingPermitStore strict = new CuttingPermitStore();
+            assertThrows(DuplicateKeyException.class, () ->
+                snapshot.load(EntityType.CUTTING_PERMIT, EntityCodecs.CUTTING_PERMIT, p -> strict.put(p.getId(), p)));
+        }
+
+        CuttingPermitStore restored = new CuttingPermitStore();
+        restored.suspendUniqueKeys();
+        try (StoreSnapshot snapshot = StoreSnapshot.open(file);
+             WriteAheadLog log = new WriteAheadLog(dir, true, 0)) {
+            snapshot.load(EntityType.CUTTING_PERMIT, EntityCodecs.CUTTING_PERMIT, p -> restored.put(p.getId(), p));
+            assertEquals(2, log.replay(snapshotLsn, record -> apply(restored, record)));
+        }
+        restored.rebuildUniqueKeys();
+
+        assertEquals(List.of(2L), restored.findIds(new Criteria().eq("permitNo", "采伐许可1")));
+        assertEquals(List.of(1L), restored.findIds(new Criteria().eq("permitNo", "采伐许可1-改")));
+        assertThrows(DuplicateKeyException.class, () -> restored.put(3L, permit(1L)));
+    }
+
+    @Test
+    void testSnapshotsDuringConcurrentWritesKeepAcknowledgedWrites() throws Exception {
+        int threads = 8;
+        int idsPerThread = 10;
+        int rounds = 100;
+        // 每个线程只修改自己的记录，最后一次确认的值就是恢复后应有的值
+        ConcurrentHashMap<Long, Double> acknowledged = new ConcurrentHashMap<>();
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 0)) {
+            log.replay(record -> { });
+            log.start();
+            TreeArchiveStore store = new TreeArchiveStore();
+            // 登记日志后停顿一下再修改内存，放大记录已有LSN而修改尚不可见的时间窗口
+            store.setJournal(new WalJournal<>(log, EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE) {
+                @Override
+                public long put(Long id, TreeArchive row) {
+                    long lsn = super.put(id, row);
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+                    return lsn;
+                }
+            });
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long base = t * 1000L;
+                writers.add(executor.submit(() -> {
+                    for (int round = 1; round <= rounds; round++) {
+                        for (long id = base + 1; id <= base + idsPerThread; id++) {
+                            double diameter = round;
+                            if (round == 1) {
+                                TreeArchive tree = tree(id, "松树", "健康");
+                                tree.setDiameter(diameter);
+                                store.put(id, tree);
+                            } else {
+                                store.update(id, tree -> tree.setDiameter(diameter));
+                            }
+                            acknowledged.put(id, diameter);
+                        }
+                    }
+                }));
+            }
+            // 写入进行中反复生成快照并删除快照之前的日志段
+            while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+                long lsn = log.rotate();
+                try (StoreSnapshot.Writer writer = StoreSnapshot.create(dir, lsn)) {
+                    writer.writeSection(EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE, store.values()::forEach);
+                    writer.commit();
+                }
+                log.deleteSegmentsUpTo(lsn);
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            executor.shutdown();
+        }
+
+        TreeArchiveStore restored = new TreeArchiveStore();
+        try (StoreSnapshot snapshot = StoreSnapshot.open(StoreSnapshot.latest(dir).orElseThrow());
+             WriteAheadLog log = new WriteAheadLog(dir, true, 0)) {
+            snapshot.load(EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE, tree -> restored.put(tree.getId(), tree));
+            log.replay(snapshot.getLsn(), record -> apply(restored, record));
+        }
+        assertEquals(threads * idsPerThread, restored.size());
+        acknowledged.forEach((id, diameter) -> assertEquals(diameter, restored.get(id).getDiameter(), "记录 " + id));
+    }
+
+    @Test
+    void testAppendAfterFlushFailureIsRefused() throws Exception {
+        try (WriteAheadLog log = new WriteAheadLog(dir, true, 0)) {
+            log.replay(record -> { });
+            log.start();
+            TreeArchiveStore trees = new TreeArchiveStore();
+            trees.setJournal(new WalJournal<>(log, EntityType.TREE_ARCHIVE, EntityCodecs.TREE_ARCHIVE));
+            MonitorSeriesStore monitors = new MonitorSeriesStore();
+            monitors.setJournal(new WalJournal<>(log, EntityType.RESOURCE_MONITOR, EntityCodecs.RESOURCE_MONITOR));
+            trees.put(1L, tree(1L, "松树", "健康"));
+
+            // 下一段的文件名被目录占用，切换段时刷盘线程写入失败并退出
+            Files.createDirectory(dir.resolve(String.format("forest-%020d.wal", 2)));
+            assertThrows(UncheckedIOException.class, log::rotate);
+
+            assertThrows(UncheckedIOException.class, () -> trees.put(2L, tree(2L, "杉树", "良好")));
+            assertThrows(UncheckedIOException.class, () -> trees.update(1L, tree -> tree.setHealthStatus("病虫害")));
+            assertThrows(UncheckedIOException.class, () -> trees.remove(1L));
+            assertThrows(UncheckedIOException.class, () -> monitors.add(monitor(1L)));
+
+            // 被拒绝的写入不留在内存中
+            assertEquals(1, trees.size());
+            assertEquals("健康", trees.get(1L).getHealthStatus());
+            assertEquals(List.of(1L), trees.findIds(new Criteria().eq("healthStatus", "健康")));
+            assertTrue(trees.findIds(new Criteria().eq("treeSpecies", "杉树")).isEmpty());
+            assertEquals(0, monitors.size());
+            assertEquals(0, monitors.maxId());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static <T> void apply(EntityStore<T> store, WriteAheadLog.Record record) {
+        @SuppressWarnings("unchecked")
+        EntityCodec<T> codec = (EntityCodec<T>) (record.getType() == EntityType.TREE_ARCHIVE
+            ? EntityCodecs.TREE_ARCHIVE : EntityCodecs.CUTTING_PERMIT);
+        switch (record.getOp()) {
+            case WriteAheadLog.OP_PUT -> store.put(record.getId(), codec.decode(record.getPayload()));
+            case WriteAheadLog.OP_REMOVE -> store.remove(record.getId());
+            default -> store.clear();
+        }
+    }
+
+    private static TreeArchive tree(Long id, String species, String health) {
+        TreeArchive tree = new TreeArchive(species, 20.0, 10.0, health, "东山林区");
+        tree.setId(id);
+        tree.setCreateTime(LocalDateTime.of(2024, 5, 1, 8, 30, 0, 123456789));
+        return tree;
+    }
+
+    private static ResourceMonitor monitor(Long id) {
+        ResourceMonitor monitor = new ResourceMonitor(1L, "蓄积量", 1000.0, LocalDate.of(2024, 5, 1));
+        monitor.setId(id);
+        monitor.setCreateTime(LocalDateTime.of(2024, 5, 1, 8, 30));
+        return monitor;
+    }
+
+    private static CuttingPermit permit(Long id) {
+        CuttingPermit permit = new CuttingPermit("采伐许可" + id, "张三", 1L, 2.5, 30.0, "抚育间伐");
+        permit.setId(id);
+        permit.setValidUntil(LocalDate.of(2025, 3, 1));
+        return permit;
+    }
+}
@@ -0,0 +1,38 @@
+package com.forest.management.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JWT工具类测试
+ */
+public class JwtUtilTest {
+
+    @Test
+    public void testClaimsVerifiedOncePerToken() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("meterRegistry", registry);
+        JwtUtil jwtUtil = new JwtUtil(100, beans.getBeanProvider(MeterRegistry.class));
+
+        String token = jwtUtil.generateToken("admin", "ADMIN");
+        assertTrue(jwtUtil.isValidTokenFormat(token));
+        assertFalse(jwtUtil.isTokenExpired(token));
+        assertEquals("admin", jwtUtil.extractUsername(token));
+        assertEquals("ADMIN", jwtUtil.extractRole(token));
+
+        // 首次解析验签，之后都从缓存读取
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "jwt-claims").tag("result", "miss").functionCounter().count());
+        assertEquals(3.0, registry.get("cache.gets").tag("cache", "jwt-claims").tag("result", "hit").functionCounter().count());
+
+        // 篡改过的Token验签失败，且不进入缓存
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertFalse(jwtUtil.isValidTokenFormat(tampered));
+        assertFalse(jwtUtil.validateToken(tampered, "admin"));
+        assertEquals(1.0, registry.get("cache.size").tag("cache", "jwt-claims").gauge().value());
+    }
+}
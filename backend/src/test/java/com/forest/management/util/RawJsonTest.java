@@ -0,0 +1,55 @@
+package com.forest.management.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 已序列化JSON值测试
+ */
+public class RawJsonTest {
+
+    private static final byte[] OBJECT = "{\"name\":\"松树\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testRawValueIsCopiedVerbatim() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String json = mapper.writeValueAsString(Map.of("data", List.of(new RawJson(OBJECT))));
+        assertEquals("{\"data\":[{\"name\":\"松树\"}]}", json);
+    }
+
+    @Test
+    public void testQuotedOutputIsEscaped() throws Exception {
+        RawJson raw = new RawJson(OBJECT);
+        String expected = "{\"{\\\"name\\\":\\\"松树\\\"}\":\"{\\\"name\\\":\\\"松树\\\"}\"}";
+
+        // 字节输出与字符输出分别走UTF-8和char[]的引号方法
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator gen = new JsonFactory().createGenerator(bytes)) {
+            writeQuoted(gen, raw);
+        }
+        assertEquals(expected, bytes.toString(StandardCharsets.UTF_8));
+
+        StringWriter chars = new StringWriter();
+        try (JsonGenerator gen = new JsonFactory().createGenerator(chars)) {
+            writeQuoted(gen, raw);
+        }
+        assertEquals(expected, chars.toString());
+    }
+
+    private static void writeQuoted(JsonGenerator gen, RawJson raw) throws Exception {
+        gen.writeStartObject();
+        gen.writeFieldName(raw);
+        gen.writeString(raw);
+        gen.writeEndObject();
+    }
+}